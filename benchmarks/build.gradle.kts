@@ -0,0 +1,26 @@
+plugins {
+    id("tai-e.conventions")
+    id("me.champeau.jmh") version "0.7.2"
+}
+
+version = projectVersion
+
+dependencies {
+    jmh(project(":"))
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    // run only the benchmarks matching -Pjmh.includes=<regex>, e.g., BitSet
+    providers.gradleProperty("jmh.includes").orNull?.let {
+        includes.set(listOf(it))
+    }
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    // export results as JSON, which can be compared across releases
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+    // the benchmarks that build a world read test programs of the root project
+    jvmArgsAppend.set(listOf("-Dtaie.root=${rootDir}", "-Xmx4G"))
+}
@@ -0,0 +1,123 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import pascal.taie.util.collection.IBitSet;
+import pascal.taie.util.collection.RegularBitSet;
+import pascal.taie.util.collection.SparseBitSet;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks union and difference of {@link RegularBitSet}
+ * and {@link SparseBitSet}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BitSetBenchmark {
+
+    @Param({"regular", "sparse"})
+    private String kind;
+
+    /**
+     * Number of possible bits, i.e., the number of objects in the heap.
+     */
+    @Param({"10000", "1000000"})
+    private int universe;
+
+    /**
+     * Number of set bits in each bit set.
+     */
+    @Param({"16", "1024"})
+    private int cardinality;
+
+    private IBitSet set1;
+
+    private IBitSet set2;
+
+    private IBitSet target;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(0);
+        set1 = newBitSet();
+        set2 = newBitSet();
+        for (int i = 0; i < cardinality; ++i) {
+            set1.set(random.nextInt(universe));
+            set2.set(random.nextInt(universe));
+        }
+        target = newBitSet();
+    }
+
+    private IBitSet newBitSet() {
+        return switch (kind) {
+            case "regular" -> new RegularBitSet();
+            case "sparse" -> new SparseBitSet();
+            default -> throw new IllegalArgumentException(kind);
+        };
+    }
+
+    /**
+     * Baseline of the benchmarks that modify a copy of {@code set1}.
+     */
+    @Benchmark
+    public IBitSet copy() {
+        target.setTo(set1);
+        return target;
+    }
+
+    @Benchmark
+    public boolean or() {
+        target.setTo(set1);
+        return target.or(set2);
+    }
+
+    @Benchmark
+    public IBitSet orDiff() {
+        target.setTo(set1);
+        return target.orDiff(set2);
+    }
+
+    @Benchmark
+    public boolean andNot() {
+        target.setTo(set1);
+        return target.andNot(set2);
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return set1.contains(set2);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import pascal.taie.World;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks {@link ClassHierarchy#dispatch(JClass, MethodRef)}
+ * of the methods of {@code java.lang.Object} on all classes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DispatchBenchmark {
+
+    private ClassHierarchy hierarchy;
+
+    private JClass[] receivers;
+
+    private MethodRef[] methodRefs;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Worlds.build("RedBlackBST");
+        hierarchy = World.get().getClassHierarchy();
+        receivers = hierarchy.allClasses()
+                .filter(c -> !c.isInterface() && !c.isAbstract())
+                .toArray(JClass[]::new);
+        methodRefs = Stream.of(
+                        "<java.lang.Object: java.lang.String toString()>",
+                        "<java.lang.Object: int hashCode()>",
+                        "<java.lang.Object: boolean equals(java.lang.Object)>")
+                .map(hierarchy::getMethod)
+                .map(JMethod::getRef)
+                .toArray(MethodRef[]::new);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        World.reset();
+    }
+
+    @Benchmark
+    public void dispatch(Blackhole bh) {
+        for (JClass receiver : receivers) {
+            for (MethodRef methodRef : methodRefs) {
+                bh.consume(hierarchy.dispatch(receiver, methodRef));
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.benchmark;
+
+import pascal.taie.util.Indexer;
+
+import java.util.Random;
+
+/**
+ * Indexable elements used by collection benchmarks. Each element is
+ * a distinct object whose index is its position in {@link #ELEMENTS}.
+ */
+final class Elements {
+
+    private static final int MAX_ELEMENTS = 1 << 20;
+
+    static final Element[] ELEMENTS = new Element[MAX_ELEMENTS];
+
+    static {
+        for (int i = 0; i < MAX_ELEMENTS; ++i) {
+            ELEMENTS[i] = new Element(i);
+        }
+    }
+
+    static final Indexer<Element> INDEXER = new Indexer<>() {
+        @Override
+        public int getIndex(Element e) {
+            return e.index;
+        }
+
+        @Override
+        public Element getObject(int index) {
+            return ELEMENTS[index];
+        }
+    };
+
+    private Elements() {
+    }
+
+    /**
+     * @return {@code n} distinct elements randomly chosen from
+     * the first {@code universe} elements.
+     */
+    static Element[] sample(Random random, int n, int universe) {
+        boolean[] chosen = new boolean[universe];
+        Element[] result = new Element[n];
+        for (int i = 0; i < n; ) {
+            int index = random.nextInt(universe);
+            if (!chosen[index]) {
+                chosen[index] = true;
+                result[i++] = ELEMENTS[index];
+            }
+        }
+        return result;
+    }
+
+    static final class Element {
+
+        private final int index;
+
+        private Element(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String toString() {
+            return "E" + index;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import pascal.taie.benchmark.Elements.Element;
+import pascal.taie.util.collection.HybridBitSet;
+import pascal.taie.util.collection.SetEx;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link HybridBitSet}, which is the default representation
+ * of points-to sets, around its switch from small set to bit set.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HybridBitSetBenchmark {
+
+    @Param({"4", "64", "4096"})
+    private int size;
+
+    @Param({"true", "false"})
+    private boolean isSparse;
+
+    private Element[] elements;
+
+    private SetEx<Element> set1;
+
+    private SetEx<Element> set2;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(0);
+        elements = Elements.sample(random, size, Elements.ELEMENTS.length);
+        set1 = newSet();
+        set2 = newSet();
+        for (Element e : elements) {
+            set1.add(e);
+        }
+        for (Element e : Elements.sample(random, size, Elements.ELEMENTS.length)) {
+            set2.add(e);
+        }
+    }
+
+    private SetEx<Element> newSet() {
+        return new HybridBitSet<>(Elements.INDEXER, isSparse);
+    }
+
+    @Benchmark
+    public SetEx<Element> add() {
+        SetEx<Element> set = newSet();
+        for (Element e : elements) {
+            set.add(e);
+        }
+        return set;
+    }
+
+    @Benchmark
+    public void contains(Blackhole bh) {
+        for (Element e : elements) {
+            bh.consume(set1.contains(e));
+        }
+    }
+
+    @Benchmark
+    public SetEx<Element> addAllDiff() {
+        SetEx<Element> set = set1.copy();
+        return set.addAllDiff(set2);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import pascal.taie.benchmark.Elements.Element;
+import pascal.taie.util.collection.HybridHashMap;
+import pascal.taie.util.collection.IndexMap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link HybridHashMap} (i.e., {@link pascal.taie.util.collection.AbstractHybridMap})
+ * and {@link IndexMap} against {@link HashMap}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MapBenchmark {
+
+    @Param({"hybrid", "index", "hash"})
+    private String kind;
+
+    @Param({"4", "64", "4096"})
+    private int size;
+
+    private Element[] keys;
+
+    private Map<Element, Integer> map;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // keys are dense in the universe, as IndexMap is designed for
+        keys = Elements.sample(new Random(0), size, size * 2);
+        map = put();
+    }
+
+    private Map<Element, Integer> newMap() {
+        return switch (kind) {
+            case "hybrid" -> new HybridHashMap<>();
+            case "index" -> new IndexMap<>(Elements.INDEXER, size * 2);
+            case "hash" -> new HashMap<>();
+            default -> throw new IllegalArgumentException(kind);
+        };
+    }
+
+    @Benchmark
+    public Map<Element, Integer> put() {
+        Map<Element, Integer> m = newMap();
+        for (int i = 0; i < keys.length; ++i) {
+            m.put(keys[i], i);
+        }
+        return m;
+    }
+
+    @Benchmark
+    public void get(Blackhole bh) {
+        for (Element key : keys) {
+            bh.consume(map.get(key));
+        }
+    }
+
+    @Benchmark
+    public void iterate(Blackhole bh) {
+        map.forEach((k, v) -> bh.consume(v));
+    }
+}
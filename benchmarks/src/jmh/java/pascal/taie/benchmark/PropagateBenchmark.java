@@ -0,0 +1,187 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import pascal.taie.World;
+import pascal.taie.analysis.graph.flowgraph.FlowKind;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
+import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
+import pascal.taie.analysis.pta.core.cs.selector.ContextSelectorFactory;
+import pascal.taie.analysis.pta.core.heap.Descriptor;
+import pascal.taie.analysis.pta.core.heap.MockObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.core.solver.DefaultSolver;
+import pascal.taie.analysis.pta.core.solver.PointerFlowEdge;
+import pascal.taie.analysis.pta.core.solver.Solver;
+import pascal.taie.analysis.pta.plugin.Plugin;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the propagation of {@link DefaultSolver} on synthetic
+ * pointer flow graphs, which consist of variables connected by copy
+ * edges, with objects flowing from some seed variables.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PropagateBenchmark {
+
+    private static final Descriptor SYNTHETIC_DESC = () -> "SyntheticObj";
+
+    /**
+     * Shape of the pointer flow graph:
+     * <ul>
+     *     <li>chain: v0 -> v1 -> ... -> vn, all objects flow from v0</li>
+     *     <li>random: each variable has {@code degree} random successors
+     *     (which form cycles), and objects flow from random variables</li>
+     * </ul>
+     */
+    @Param({"chain", "random"})
+    private String shape;
+
+    @Param({"10000"})
+    private int nodes;
+
+    @Param({"4"})
+    private int degree;
+
+    @Param({"1000"})
+    private int objects;
+
+    @Param({"hybrid", "shared"})
+    private String ptsRepresentation;
+
+    private AnalysisOptions options;
+
+    private Var[] vars;
+
+    private Obj[] objs;
+
+    private int[] edgeSources;
+
+    private int[] edgeTargets;
+
+    private int[] seeds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Worlds.build("RedBlackBST");
+        options = new AnalysisOptions(Map.of(
+                "pts-representation", ptsRepresentation,
+                "propagate-types", List.of("reference"),
+                "only-app", false,
+                "time-limit", -1,
+                "merge-pfg-cycles", false,
+                "solver-threads", 1,
+                "parallel-threshold", 64,
+                "worklist-policy", "fifo",
+                "batch-calls", false));
+        JMethod container = World.get().getMainMethod();
+        Type type = World.get().getTypeSystem().getType(ClassNames.OBJECT);
+        vars = new Var[nodes];
+        for (int i = 0; i < nodes; ++i) {
+            vars[i] = new Var(container, "v" + i, type, i);
+        }
+        objs = new Obj[objects];
+        for (int i = 0; i < objects; ++i) {
+            objs[i] = new MockObj(SYNTHETIC_DESC, i, type, container, false);
+        }
+        Random random = new Random(0);
+        switch (shape) {
+            case "chain" -> {
+                edgeSources = new int[nodes - 1];
+                edgeTargets = new int[nodes - 1];
+                for (int i = 0; i < nodes - 1; ++i) {
+                    edgeSources[i] = i;
+                    edgeTargets[i] = i + 1;
+                }
+                seeds = new int[objects];
+            }
+            case "random" -> {
+                edgeSources = new int[nodes * degree];
+                edgeTargets = new int[nodes * degree];
+                for (int i = 0; i < edgeSources.length; ++i) {
+                    edgeSources[i] = i / degree;
+                    edgeTargets[i] = random.nextInt(nodes);
+                }
+                seeds = random.ints(objects, 0, nodes).toArray();
+            }
+            default -> throw new IllegalArgumentException(shape);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        World.reset();
+    }
+
+    @Benchmark
+    public Solver propagate() {
+        ContextSelector selector = ContextSelectorFactory.makeCISelector();
+        CSManager csManager = new MapBasedCSManager();
+        // the synthetic graph does not allocate objects by heap model
+        Solver solver = new DefaultSolver(options, null, selector, csManager);
+        solver.setPlugin(new Plugin() {
+            @Override
+            public void onStart() {
+                Context ctx = selector.getEmptyContext();
+                CSVar[] csVars = new CSVar[vars.length];
+                for (int i = 0; i < vars.length; ++i) {
+                    csVars[i] = csManager.getCSVar(ctx, vars[i]);
+                }
+                for (int i = 0; i < edgeSources.length; ++i) {
+                    solver.addPFGEdge(new PointerFlowEdge(FlowKind.LOCAL_ASSIGN,
+                            csVars[edgeSources[i]], csVars[edgeTargets[i]]));
+                }
+                for (int i = 0; i < objs.length; ++i) {
+                    solver.addPointsTo(csVars[seeds[i]], ctx, objs[i]);
+                }
+            }
+        });
+        solver.solve();
+        return solver;
+    }
+}
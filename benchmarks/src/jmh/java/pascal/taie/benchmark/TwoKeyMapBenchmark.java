@@ -0,0 +1,102 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import pascal.taie.benchmark.Elements.Element;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.TwoKeyMap;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks lookups of {@link TwoKeyMap}, which is used by, e.g.,
+ * {@link pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager}
+ * and the dispatch cache of class hierarchy.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TwoKeyMapBenchmark {
+
+    /**
+     * Number of the first keys.
+     */
+    @Param({"16", "4096"})
+    private int keys1;
+
+    /**
+     * Number of the second keys for each first key.
+     */
+    @Param({"1", "8", "64"})
+    private int keys2;
+
+    private Element[] firstKeys;
+
+    private Element[] secondKeys;
+
+    private TwoKeyMap<Element, Element, Integer> map;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(0);
+        firstKeys = Elements.sample(random, keys1, Elements.ELEMENTS.length);
+        secondKeys = Elements.sample(random, keys2, Elements.ELEMENTS.length);
+        map = Maps.newTwoKeyMap();
+        for (Element k1 : firstKeys) {
+            for (int i = 0; i < secondKeys.length; ++i) {
+                map.put(k1, secondKeys[i], i);
+            }
+        }
+    }
+
+    @Benchmark
+    public void get(Blackhole bh) {
+        for (Element k1 : firstKeys) {
+            for (Element k2 : secondKeys) {
+                bh.consume(map.get(k1, k2));
+            }
+        }
+    }
+
+    @Benchmark
+    public void getMissing(Blackhole bh) {
+        // the roles of keys are swapped, thus (almost) all lookups fail
+        for (Element k2 : secondKeys) {
+            for (Element k1 : firstKeys) {
+                bh.consume(map.get(k2, k1));
+            }
+        }
+    }
+}
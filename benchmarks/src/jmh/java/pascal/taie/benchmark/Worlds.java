@@ -0,0 +1,52 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.benchmark;
+
+import pascal.taie.Main;
+
+import java.nio.file.Path;
+
+/**
+ * Builds worlds for benchmarks that need class hierarchy or IR.
+ */
+final class Worlds {
+
+    /**
+     * Directory of Tai-e project, which is set by the build script.
+     */
+    private static final String ROOT = System.getProperty("taie.root", "..");
+
+    private Worlds() {
+    }
+
+    /**
+     * Builds the world of a test program in {@code src/test/resources/pta/basic}
+     * together with the classes of current JVM.
+     */
+    static void build(String mainClass) {
+        String classPath = Path.of(ROOT, "src", "test", "resources", "pta", "basic")
+                .toString();
+        Main.buildWorld("-pp", "-cp", classPath, "-m", mainClass);
+    }
+}
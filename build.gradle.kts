@@ -101,6 +101,16 @@ task("testTaieTestSuite", type = Test::class) {
     }
 }
 
+task("benchmarkSuite", type = JavaExec::class) {
+    group = "verification"
+    description = "Runs the performance regression suite" +
+        " (arguments are given by -PsuiteArgs, see pascal.taie.analysis.pta.BenchmarkSuite)"
+    val test by sourceSets.existing
+    classpath = files(test.map { it.runtimeClasspath })
+    mainClass.set("pascal.taie.analysis.pta.BenchmarkSuite")
+    args = providers.gradleProperty("suiteArgs").orNull?.split(" ") ?: listOf()
+}
+
 // Automatically agree the Gradle ToS when running gradle with '--scan' option
 extensions.findByName("buildScan")?.withGroovyBuilder {
     setProperty("termsOfServiceUrl", "https://gradle.com/terms-of-service")
@@ -29,6 +29,7 @@ import pascal.taie.config.ConfigException;
 import pascal.taie.ir.proginfo.MemberRef;
 import pascal.taie.ir.proginfo.MethodRef;
 import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.ClassNames;
 import pascal.taie.language.classes.JClass;
@@ -36,13 +37,18 @@ import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.classes.Subsignature;
 import pascal.taie.util.AnalysisException;
 import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
 import pascal.taie.util.collection.TwoKeyMap;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 import java.util.Queue;
 import java.util.Set;
-import java.util.function.Predicate;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 /**
@@ -59,6 +65,11 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
      */
     private Set<Subsignature> objectMethods;
 
+    /**
+     * Interval encoding of subclasses in the class hierarchy.
+     */
+    private ClassIntervals intervals;
+
     /**
      * Cache resolve results for interface/virtual invocations.
      */
@@ -76,7 +87,13 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
      */
     private final int calleeLimit;
 
-    CHABuilder(String algorithm) {
+    /**
+     * Number of threads for processing reachable methods.
+     */
+    private final int threads;
+
+    CHABuilder(String algorithm, int threads) {
+        this.threads = threads;
         switch (algorithm) {
             case "cha" -> { // default setting, ignore Object's methods
                 ignoreObjectMethods = true;
@@ -99,10 +116,13 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
 
     @Override
     public CallGraph<Invoke, JMethod> build() {
-        return buildCallGraph(World.get().getMainMethod());
+        return build(List.of(World.get().getMainMethod()));
     }
 
-    private CallGraph<Invoke, JMethod> buildCallGraph(JMethod entry) {
+    /**
+     * Builds call graph from given entry methods.
+     */
+    CallGraph<Invoke, JMethod> build(Collection<JMethod> entries) {
         logger.info("Building call graph by CHA");
         if (ignoreObjectMethods) {
             logger.info("Ignore methods of java.lang.Object");
@@ -117,11 +137,14 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
                 .stream()
                 .map(JMethod::getSubsignature)
                 .collect(Collectors.toUnmodifiableSet());
+        intervals = new ClassIntervals(hierarchy);
+        if (threads > 1) {
+            return buildCallGraphInParallel(entries);
+        }
         resolveTable = Maps.newTwoKeyMap();
         DefaultCallGraph callGraph = new DefaultCallGraph();
-        callGraph.addEntryMethod(entry);
-        Queue<JMethod> workList = new ArrayDeque<>();
-        workList.add(entry);
+        entries.forEach(callGraph::addEntryMethod);
+        Queue<JMethod> workList = new ArrayDeque<>(entries);
         while (!workList.isEmpty()) {
             JMethod method = workList.poll();
             if (callGraph.addReachableMethod(method)) {
@@ -140,6 +163,73 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
         return callGraph;
     }
 
+    /**
+     * Builds call graph level by level from the entries. In each level,
+     * the IR of the newly reachable methods is built and their call sites
+     * are resolved by multiple threads, and then the results are added to
+     * the call graph in the order of the methods, so that the resulting
+     * call graph is the same as the one built sequentially.
+     */
+    private CallGraph<Invoke, JMethod> buildCallGraphInParallel(
+            Collection<JMethod> entries) {
+        logger.info("Building call graph with {} threads", threads);
+        resolveTable = Maps.newTwoKeyMap(
+                Maps.newConcurrentMap(), Maps::newConcurrentMap);
+        DefaultCallGraph callGraph = new DefaultCallGraph();
+        entries.forEach(callGraph::addEntryMethod);
+        Set<JMethod> discovered = Sets.newSet();
+        List<JMethod> level = new ArrayList<>();
+        for (JMethod entry : entries) {
+            if (discovered.add(entry)) {
+                level.add(entry);
+            }
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            while (!level.isEmpty()) {
+                List<JMethod> methods = level;
+                List<List<Edge<Invoke, JMethod>>> edges = pool.submit(() ->
+                        methods.parallelStream()
+                                .map(this::resolveCallEdgesIn)
+                                .toList()
+                ).join();
+                List<JMethod> nextLevel = new ArrayList<>();
+                for (int i = 0; i < methods.size(); ++i) {
+                    callGraph.addReachableMethod(methods.get(i));
+                    for (Edge<Invoke, JMethod> edge : edges.get(i)) {
+                        callGraph.addEdge(edge);
+                        if (discovered.add(edge.getCallee())) {
+                            nextLevel.add(edge.getCallee());
+                        }
+                    }
+                }
+                level = nextLevel;
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return callGraph;
+    }
+
+    /**
+     * @return the call edges from the call sites in given method.
+     */
+    private List<Edge<Invoke, JMethod>> resolveCallEdgesIn(JMethod method) {
+        if (method.isAbstract()) {
+            return List.of();
+        }
+        List<Edge<Invoke, JMethod>> edges = new ArrayList<>();
+        for (Stmt stmt : method.getIR()) {
+            if (stmt instanceof Invoke invoke) {
+                for (JMethod callee : resolveCalleesOf(invoke)) {
+                    edges.add(new Edge<>(
+                            CallGraphs.getCallKind(invoke), invoke, callee));
+                }
+            }
+        }
+        return edges;
+    }
+
     /**
      * Resolves callees of a call site via class hierarchy analysis.
      */
@@ -154,12 +244,16 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
                 JClass cls = methodRef.getDeclaringClass();
                 Set<JMethod> callees = resolveTable.get(cls, methodRef);
                 if (callees == null) {
-                    callees = hierarchy.getAllSubclassesOf(cls)
-                            .stream()
-                            .filter(Predicate.not(JClass::isAbstract))
-                            .map(c -> hierarchy.dispatch(c, methodRef))
-                            .filter(Objects::nonNull) // filter out null callees
-                            .collect(Collectors.toUnmodifiableSet());
+                    Set<JMethod> targets = Sets.newHybridSet();
+                    intervals.forEachSubclassOf(cls, c -> {
+                        if (!c.isAbstract()) {
+                            JMethod target = hierarchy.dispatch(c, methodRef);
+                            if (target != null) { // filter out null callees
+                                targets.add(target);
+                            }
+                        }
+                    });
+                    callees = Collections.unmodifiableSet(targets);
                     resolveTable.put(cls, methodRef, callees);
                 }
                 yield callees.size() <= calleeLimit ? callees : Set.of();
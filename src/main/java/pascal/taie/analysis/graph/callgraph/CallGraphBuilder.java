@@ -48,9 +48,14 @@ public class CallGraphBuilder extends ProgramAnalysis<CallGraph<Invoke, JMethod>
 
     private final String algorithm;
 
+    private final int threads;
+
     public CallGraphBuilder(AnalysisConfig config) {
         super(config);
         algorithm = config.getOptions().getString("algorithm");
+        int nThreads = config.getOptions().getInt("threads");
+        threads = nThreads > 0 ? nThreads
+                : Runtime.getRuntime().availableProcessors();
     }
 
     @Override
@@ -59,7 +64,11 @@ public class CallGraphBuilder extends ProgramAnalysis<CallGraph<Invoke, JMethod>
         if (algorithm.equals("pta")) {
             builder = new PTABasedBuilder();
         } else if (algorithm.startsWith("cha")) {
-            builder = new CHABuilder(algorithm);
+            builder = new CHABuilder(algorithm, threads);
+        } else if (algorithm.equals("rta")) {
+            builder = new RTABuilder();
+        } else if (algorithm.equals("xta")) {
+            builder = new XTABuilder();
         } else {
             throw new ConfigException(
                     "Unknown call graph building algorithm: " + algorithm);
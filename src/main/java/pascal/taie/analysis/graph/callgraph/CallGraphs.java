@@ -48,6 +48,7 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.PrintStream;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.Map;
 
@@ -93,6 +94,20 @@ public final class CallGraphs {
         }
     }
 
+    /**
+     * Builds call graph from given entry methods via class hierarchy analysis.
+     * This is useful for the analyses that need a cheap over-approximation
+     * of the call graph before the main analysis starts.
+     *
+     * @param entries   the entry methods of the call graph
+     * @param algorithm the variant of CHA, i.e., cha, cha-full or cha-LIMIT
+     * @param threads   number of threads for processing reachable methods
+     */
+    public static CallGraph<Invoke, JMethod> buildCHA(
+            Collection<JMethod> entries, String algorithm, int threads) {
+        return new CHABuilder(algorithm, threads).build(entries);
+    }
+
     /**
      * Dumps call graph to dot file.
      */
@@ -0,0 +1,246 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Encodes the subclasses of each class in a class hierarchy as intervals.
+ * <p>
+ * The (non-interface) classes are numbered by pre-order traversal on the
+ * tree formed by superclass relations, thus the subclasses of a class
+ * are numbered consecutively from the number of the class to the maximum
+ * number in its subtree. The subclasses of an interface are the union of
+ * the subtrees of its (direct and indirect) implementors, and they are
+ * encoded as a list of disjoint intervals. Then checking subclass relation
+ * and enumerating subclasses become interval operations.
+ * <p>
+ * The intervals are computed on a snapshot of the class hierarchy, and
+ * they are immutable, so they can be queried by multiple threads.
+ * Note that interfaces are not numbered, so they are never enumerated
+ * as subclasses.
+ */
+class ClassIntervals {
+
+    private final ClassHierarchy hierarchy;
+
+    /**
+     * Pre-order number of each class (indexed by {@link JClass#getIndex()}),
+     * or -1 for interfaces.
+     */
+    private final int[] numbers;
+
+    /**
+     * Classes ordered by their pre-order numbers.
+     */
+    private final JClass[] order;
+
+    /**
+     * Intervals of subclasses of each class (indexed by
+     * {@link JClass#getIndex()}), stored as sorted pairs of
+     * inclusive bounds [lo0, hi0, lo1, hi1, ...].
+     */
+    private final int[][] intervals;
+
+    ClassIntervals(ClassHierarchy hierarchy) {
+        this.hierarchy = hierarchy;
+        List<JClass> classes = hierarchy.allClasses().toList();
+        int size = classes.stream()
+                .mapToInt(JClass::getIndex)
+                .max()
+                .orElse(-1) + 1;
+        numbers = new int[size];
+        Arrays.fill(numbers, -1);
+        intervals = new int[size][];
+        List<JClass> ordered = new ArrayList<>();
+        for (JClass c : classes) {
+            if (!c.isInterface() && numbers[c.getIndex()] == -1) {
+                // start from the topmost unnumbered superclass, so that
+                // the whole subtree is numbered consecutively
+                JClass root = c;
+                while (root.getSuperClass() != null
+                        && numbers[root.getSuperClass().getIndex()] == -1) {
+                    root = root.getSuperClass();
+                }
+                numberTree(root, ordered);
+            }
+        }
+        order = ordered.toArray(new JClass[0]);
+        for (JClass c : classes) {
+            if (c.isInterface()) {
+                computeInterfaceIntervals(c);
+            }
+        }
+    }
+
+    /**
+     * Numbers the classes in the subtree rooted by {@code root} in pre-order,
+     * and sets the interval of each class in the subtree.
+     */
+    private void numberTree(JClass root, List<JClass> ordered) {
+        // each element of the stack is a class, and it is pushed twice:
+        // once for entering (numbering) and once for leaving (closing interval)
+        Deque<JClass> stack = new ArrayDeque<>();
+        Deque<Boolean> entering = new ArrayDeque<>();
+        stack.push(root);
+        entering.push(true);
+        while (!stack.isEmpty()) {
+            JClass c = stack.pop();
+            int index = c.getIndex();
+            if (entering.pop()) {
+                if (numbers[index] != -1) {
+                    continue;
+                }
+                numbers[index] = ordered.size();
+                ordered.add(c);
+                stack.push(c);
+                entering.push(false);
+                for (JClass sub : hierarchy.getDirectSubclassesOf(c)) {
+                    if (!sub.isInterface() && numbers[sub.getIndex()] == -1) {
+                        stack.push(sub);
+                        entering.push(true);
+                    }
+                }
+            } else {
+                intervals[index] = new int[]{ numbers[index], ordered.size() - 1 };
+            }
+        }
+    }
+
+    private int[] computeInterfaceIntervals(JClass iface) {
+        int index = iface.getIndex();
+        if (intervals[index] != null) {
+            return intervals[index];
+        }
+        // guard against (invalid) cyclic interface hierarchy
+        intervals[index] = new int[0];
+        List<int[]> pairs = new ArrayList<>();
+        for (JClass impl : hierarchy.getDirectImplementorsOf(iface)) {
+            int[] implIntervals = getIntervals(impl);
+            for (int i = 0; i < implIntervals.length; i += 2) {
+                pairs.add(new int[]{ implIntervals[i], implIntervals[i + 1] });
+            }
+        }
+        for (JClass subiface : hierarchy.getDirectSubinterfacesOf(iface)) {
+            int[] subIntervals = computeInterfaceIntervals(subiface);
+            for (int i = 0; i < subIntervals.length; i += 2) {
+                pairs.add(new int[]{ subIntervals[i], subIntervals[i + 1] });
+            }
+        }
+        // sort and merge overlapping or adjacent intervals
+        pairs.sort((p1, p2) -> Integer.compare(p1[0], p2[0]));
+        int[] merged = new int[pairs.size() * 2];
+        int n = 0;
+        for (int[] p : pairs) {
+            if (n > 0 && p[0] <= merged[n - 1] + 1) {
+                merged[n - 1] = Math.max(merged[n - 1], p[1]);
+            } else {
+                merged[n++] = p[0];
+                merged[n++] = p[1];
+            }
+        }
+        int[] result = Arrays.copyOf(merged, n);
+        intervals[index] = result;
+        return result;
+    }
+
+    private int[] getIntervals(JClass jclass) {
+        int index = jclass.getIndex();
+        if (index >= intervals.length) {
+            return new int[0];
+        }
+        return jclass.isInterface()
+                ? computeInterfaceIntervals(jclass)
+                : intervals[index];
+    }
+
+    /**
+     * @return {@code true} if given class is covered by these intervals,
+     * i.e., it was in the class hierarchy when the intervals were computed.
+     */
+    boolean contains(JClass jclass) {
+        int index = jclass.getIndex();
+        return index < intervals.length && intervals[index] != null;
+    }
+
+    /**
+     * Checks whether {@code subclass} is a subclass of {@code superclass}.
+     * Falls back to {@link ClassHierarchy#isSubclass(JClass, JClass)}
+     * if any of the two classes is not covered by these intervals
+     * or {@code subclass} is an interface.
+     */
+    boolean isSubclass(JClass superclass, JClass subclass) {
+        if (!contains(superclass) || !contains(subclass)
+                || subclass.isInterface()) {
+            return hierarchy.isSubclass(superclass, subclass);
+        }
+        int number = numbers[subclass.getIndex()];
+        int[] ivs = intervals[superclass.getIndex()];
+        // binary search for the last interval whose lower bound <= number
+        int lo = 0, hi = ivs.length / 2 - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (ivs[mid * 2] <= number) {
+                if (number <= ivs[mid * 2 + 1]) {
+                    return true;
+                }
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Performs given action for each non-interface subclass of given class
+     * (including itself if it is not an interface).
+     * If the class is not covered by these intervals, falls back to
+     * {@link ClassHierarchy#getAllSubclassesOf(JClass)}.
+     */
+    void forEachSubclassOf(JClass jclass, Consumer<JClass> action) {
+        if (!contains(jclass)) {
+            hierarchy.getAllSubclassesOf(jclass).forEach(c -> {
+                if (!c.isInterface()) {
+                    action.accept(c);
+                }
+            });
+            return;
+        }
+        int[] ivs = intervals[jclass.getIndex()];
+        for (int i = 0; i < ivs.length; i += 2) {
+            for (int n = ivs[i]; n <= ivs[i + 1]; ++n) {
+                action.accept(order[n]);
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+
+/**
+ * Builds call graph via rapid type analysis (RTA), which resolves
+ * virtual calls only on the classes instantiated in reachable methods.
+ * All methods, fields and arrays share one set of instantiated classes.
+ */
+class RTABuilder extends TypeBasedBuilder {
+
+    private Node node;
+
+    RTABuilder() {
+        super("RTA");
+    }
+
+    @Override
+    protected Node getMethodNode(JMethod method) {
+        return getNode();
+    }
+
+    @Override
+    protected Node getFieldNode(JField field) {
+        return getNode();
+    }
+
+    @Override
+    protected Node getArrayNode() {
+        return getNode();
+    }
+
+    private Node getNode() {
+        if (node == null) {
+            node = newNode();
+        }
+        return node;
+    }
+}
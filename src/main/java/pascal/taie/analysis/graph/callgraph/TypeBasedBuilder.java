@@ -0,0 +1,393 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.ir.exp.ClassLiteral;
+import pascal.taie.ir.exp.Literal;
+import pascal.taie.ir.exp.NewInstance;
+import pascal.taie.ir.exp.StringLiteral;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.ReferenceType;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.HybridBitSet;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Common functionality of call graph builders which resolve virtual calls
+ * only on the classes that may be instantiated, e.g., RTA and XTA.
+ * <p>
+ * The instantiated classes are collected in type sets of nodes, and
+ * propagated among the nodes along flow edges, which are induced by
+ * field accesses, array accesses, parameter passing and method returns.
+ * A flow edge only passes the classes that are subclasses of its bounds,
+ * i.e., the declared types of the corresponding fields, parameters
+ * or return values. A virtual call in a method is resolved on the classes
+ * in the type set of the method. Subclasses decide the node of each
+ * method, field and array elements, which determines the precision.
+ * <p>
+ * Arrays are represented by {@code java.lang.Object} in type sets, as
+ * virtual calls on arrays are dispatched to the methods of Object.
+ */
+abstract class TypeBasedBuilder implements CGBuilder<Invoke, JMethod> {
+
+    private static final Logger logger = LogManager.getLogger(TypeBasedBuilder.class);
+
+    private final String name;
+
+    protected ClassHierarchy hierarchy;
+
+    private ClassIntervals intervals;
+
+    private JClass objectClass;
+
+    private JClass stringClass;
+
+    private JClass classClass;
+
+    private DefaultCallGraph callGraph;
+
+    /**
+     * Cache of supertypes (including itself) of each instantiated class.
+     */
+    private Map<JClass, List<JClass>> supertypes;
+
+    private Queue<JMethod> methodWorkList;
+
+    private Queue<Entry> workList;
+
+    TypeBasedBuilder(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public CallGraph<Invoke, JMethod> build() {
+        logger.info("Building call graph by {}", name);
+        hierarchy = World.get().getClassHierarchy();
+        intervals = new ClassIntervals(hierarchy);
+        objectClass = Objects.requireNonNull(
+                hierarchy.getJREClass(ClassNames.OBJECT));
+        stringClass = hierarchy.getJREClass(ClassNames.STRING);
+        classClass = hierarchy.getJREClass(ClassNames.CLASS);
+        callGraph = new DefaultCallGraph();
+        supertypes = Maps.newMap();
+        methodWorkList = new ArrayDeque<>();
+        workList = new ArrayDeque<>();
+        JMethod main = World.get().getMainMethod();
+        callGraph.addEntryMethod(main);
+        methodWorkList.add(main);
+        if (stringClass != null) {
+            // JVM creates String objects for the arguments of main method
+            workList.add(new Entry(getMethodNode(main), List.of(stringClass)));
+        }
+        while (!methodWorkList.isEmpty() || !workList.isEmpty()) {
+            if (!methodWorkList.isEmpty()) {
+                addReachableMethod(methodWorkList.poll());
+            } else {
+                Entry entry = workList.poll();
+                processEntry(entry.node(), entry.types());
+            }
+        }
+        return callGraph;
+    }
+
+    /**
+     * @return the node of given method.
+     */
+    protected abstract Node getMethodNode(JMethod method);
+
+    /**
+     * @return the node of given field.
+     */
+    protected abstract Node getFieldNode(JField field);
+
+    /**
+     * @return the node of elements of all arrays.
+     */
+    protected abstract Node getArrayNode();
+
+    /**
+     * @return a new node.
+     */
+    protected Node newNode() {
+        return new Node(new HybridBitSet<>(hierarchy, true));
+    }
+
+    private void addReachableMethod(JMethod method) {
+        if (!callGraph.addReachableMethod(method) || method.isAbstract()) {
+            return;
+        }
+        Node node = getMethodNode(method);
+        List<JClass> newTypes = new ArrayList<>();
+        for (Stmt stmt : method.getIR()) {
+            if (stmt instanceof New newStmt) {
+                if (newStmt.getRValue() instanceof NewInstance newInstance) {
+                    JClass jclass = newInstance.getType().getJClass();
+                    if (jclass != null) {
+                        newTypes.add(jclass);
+                    }
+                } else { // new arrays
+                    newTypes.add(objectClass);
+                }
+            } else if (stmt instanceof AssignLiteral assign) {
+                Literal literal = assign.getRValue();
+                if (literal instanceof StringLiteral && stringClass != null) {
+                    newTypes.add(stringClass);
+                } else if (literal instanceof ClassLiteral && classClass != null) {
+                    newTypes.add(classClass);
+                }
+            } else if (stmt instanceof LoadField load) {
+                JField field = load.getFieldRef().resolveNullable();
+                if (field != null && field.getType() instanceof ReferenceType) {
+                    addFlowEdge(getFieldNode(field), node, List.of(objectClass));
+                }
+            } else if (stmt instanceof StoreField store) {
+                JField field = store.getFieldRef().resolveNullable();
+                if (field != null && field.getType() instanceof ReferenceType) {
+                    addFlowEdge(node, getFieldNode(field), getBounds(field.getType()));
+                }
+            } else if (stmt instanceof LoadArray load) {
+                if (load.getLValue().getType() instanceof ReferenceType) {
+                    addFlowEdge(getArrayNode(), node, List.of(objectClass));
+                }
+            } else if (stmt instanceof StoreArray store) {
+                if (store.getRValue().getType() instanceof ReferenceType) {
+                    addFlowEdge(node, getArrayNode(), List.of(objectClass));
+                }
+            } else if (stmt instanceof Invoke invoke) {
+                processCallSite(node, invoke);
+            }
+        }
+        if (!newTypes.isEmpty()) {
+            workList.add(new Entry(node, newTypes));
+        }
+    }
+
+    private void processCallSite(Node node, Invoke invoke) {
+        CallKind kind = CallGraphs.getCallKind(invoke);
+        switch (kind) {
+            case INTERFACE, VIRTUAL -> {
+                MethodRef methodRef = invoke.getMethodRef();
+                JClass cls = methodRef.getDeclaringClass();
+                node.callSites.put(cls, invoke);
+                List<JMethod> callees = new ArrayList<>();
+                for (JClass type : node.types) {
+                    if (intervals.isSubclass(cls, type)) {
+                        JMethod callee = hierarchy.dispatch(type, methodRef);
+                        if (callee != null) {
+                            callees.add(callee);
+                        }
+                    }
+                }
+                callees.forEach(callee -> addCallEdge(invoke, callee));
+            }
+            case SPECIAL, STATIC ->
+                    addCallEdge(invoke, invoke.getMethodRef().resolve());
+            case DYNAMIC ->
+                    logger.debug("{} cannot resolve invokedynamic {}", name, invoke);
+            default -> throw new AnalysisException(
+                    "Failed to resolve call site: " + invoke);
+        }
+    }
+
+    private void addCallEdge(Invoke invoke, JMethod callee) {
+        if (callGraph.addEdge(new Edge<>(
+                CallGraphs.getCallKind(invoke), invoke, callee))) {
+            if (!callGraph.contains(callee)) {
+                methodWorkList.add(callee);
+            }
+            if (!callee.isAbstract()) {
+                Node caller = getMethodNode(invoke.getContainer());
+                Node calleeNode = getMethodNode(callee);
+                // pass receiver objects and arguments
+                List<JClass> paramBounds = new ArrayList<>();
+                if (!callee.isStatic()) {
+                    paramBounds.add(callee.getDeclaringClass());
+                }
+                callee.getParamTypes().forEach(t -> paramBounds.addAll(getBounds(t)));
+                addFlowEdge(caller, calleeNode, paramBounds);
+                // pass return values
+                addFlowEdge(calleeNode, caller, getBounds(callee.getReturnType()));
+            }
+        }
+    }
+
+    /**
+     * @return the bounds of the classes that can be held by given type.
+     */
+    private List<JClass> getBounds(Type type) {
+        if (type instanceof ClassType classType
+                && classType.getJClass() != null) {
+            return List.of(classType.getJClass());
+        } else if (type instanceof ReferenceType) { // array types or missing classes
+            return List.of(objectClass);
+        } else {
+            return List.of();
+        }
+    }
+
+    private void addFlowEdge(Node source, Node target, Collection<JClass> bounds) {
+        if (source == target || bounds.isEmpty()) {
+            return;
+        }
+        FlowEdge edge = source.outEdges.computeIfAbsent(target, FlowEdge::new);
+        if (edge.bounds.addAll(bounds)) {
+            List<JClass> types = edge.filter(source.types);
+            if (!types.isEmpty()) {
+                workList.add(new Entry(target, types));
+            }
+        }
+    }
+
+    private void processEntry(Node node, Collection<JClass> types) {
+        List<JClass> diff = new ArrayList<>();
+        for (JClass type : types) {
+            if (node.types.add(type)) {
+                diff.add(type);
+            }
+        }
+        if (diff.isEmpty()) {
+            return;
+        }
+        node.outEdges.values().forEach(edge -> {
+            List<JClass> passed = edge.filter(diff);
+            if (!passed.isEmpty()) {
+                workList.add(new Entry(edge.target, passed));
+            }
+        });
+        // resolve the call sites on the new classes
+        List<Pair<Invoke, JMethod>> newCalls = new ArrayList<>();
+        for (JClass type : diff) {
+            for (JClass supertype : getSupertypes(type)) {
+                for (Invoke invoke : node.callSites.get(supertype)) {
+                    JMethod callee = hierarchy.dispatch(type, invoke.getMethodRef());
+                    if (callee != null) {
+                        newCalls.add(new Pair<>(invoke, callee));
+                    }
+                }
+            }
+        }
+        newCalls.forEach(p -> addCallEdge(p.first(), p.second()));
+    }
+
+    private List<JClass> getSupertypes(JClass jclass) {
+        return supertypes.computeIfAbsent(jclass, c -> {
+            Set<JClass> result = Sets.newHybridOrderedSet();
+            Queue<JClass> queue = new ArrayDeque<>();
+            queue.add(c);
+            while (!queue.isEmpty()) {
+                JClass t = queue.poll();
+                if (result.add(t)) {
+                    if (t.getSuperClass() != null) {
+                        queue.add(t.getSuperClass());
+                    }
+                    queue.addAll(t.getInterfaces());
+                }
+            }
+            return List.copyOf(result);
+        });
+    }
+
+    /**
+     * Node holding a set of instantiated classes.
+     */
+    protected static class Node {
+
+        private final Set<JClass> types;
+
+        private final Map<Node, FlowEdge> outEdges = Maps.newLinkedHashMap();
+
+        /**
+         * Virtual call sites in the methods of this node,
+         * indexed by the declaring classes of their method references.
+         */
+        private final MultiMap<JClass, Invoke> callSites = Maps.newMultiMap();
+
+        private Node(Set<JClass> types) {
+            this.types = types;
+        }
+    }
+
+    private class FlowEdge {
+
+        private final Node target;
+
+        private final Set<JClass> bounds = Sets.newHybridSet();
+
+        private FlowEdge(Node target) {
+            this.target = target;
+        }
+
+        /**
+         * @return the classes in {@code types} that can pass this edge.
+         */
+        private List<JClass> filter(Collection<JClass> types) {
+            if (bounds.contains(objectClass)) {
+                return List.copyOf(types);
+            }
+            List<JClass> result = new ArrayList<>();
+            for (JClass type : types) {
+                for (JClass bound : bounds) {
+                    if (intervals.isSubclass(bound, type)) {
+                        result.add(type);
+                        break;
+                    }
+                }
+            }
+            return result;
+        }
+    }
+
+    private record Entry(Node node, Collection<JClass> types) {
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+
+import java.util.Map;
+
+/**
+ * Builds call graph via XTA, which keeps a separate set of instantiated
+ * classes for each method and each field, and resolves virtual calls in
+ * a method on the classes that may flow to the method.
+ * The elements of all arrays share one set.
+ */
+class XTABuilder extends TypeBasedBuilder {
+
+    private final Map<JMethod, Node> methodNodes = Maps.newMap();
+
+    private final Map<JField, Node> fieldNodes = Maps.newMap();
+
+    private Node arrayNode;
+
+    XTABuilder() {
+        super("XTA");
+    }
+
+    @Override
+    protected Node getMethodNode(JMethod method) {
+        return methodNodes.computeIfAbsent(method, __ -> newNode());
+    }
+
+    @Override
+    protected Node getFieldNode(JField field) {
+        return fieldNodes.computeIfAbsent(field, __ -> newNode());
+    }
+
+    @Override
+    protected Node getArrayNode() {
+        if (arrayNode == null) {
+            arrayNode = newNode();
+        }
+        return arrayNode;
+    }
+}
@@ -23,13 +23,19 @@
 package pascal.taie.analysis.pta;
 
 import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
 import pascal.taie.analysis.ProgramAnalysis;
+import pascal.taie.analysis.pta.core.cs.element.ArrayBasedCSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSObjIndexAllocator;
 import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
 import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
 import pascal.taie.analysis.pta.core.cs.selector.ContextSelectorFactory;
 import pascal.taie.analysis.pta.core.heap.AllocationSiteBasedModel;
 import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.analysis.pta.core.solver.DefaultSolver;
 import pascal.taie.analysis.pta.core.solver.Solver;
 import pascal.taie.analysis.pta.plugin.AnalysisTimer;
@@ -47,6 +53,7 @@ import pascal.taie.analysis.pta.plugin.invokedynamic.LambdaAnalysis;
 import pascal.taie.analysis.pta.plugin.natives.NativeModeller;
 import pascal.taie.analysis.pta.plugin.reflection.ReflectionAnalysis;
 import pascal.taie.analysis.pta.plugin.taint.TaintAnalysis;
+import pascal.taie.analysis.pta.snapshot.PointerAnalysisSnapshot;
 import pascal.taie.analysis.pta.toolkit.CollectionMethods;
 import pascal.taie.analysis.pta.toolkit.mahjong.Mahjong;
 import pascal.taie.analysis.pta.toolkit.scaler.Scaler;
@@ -57,12 +64,17 @@ import pascal.taie.config.ConfigException;
 import pascal.taie.util.AnalysisException;
 import pascal.taie.util.Timer;
 
+import java.io.File;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 public class PointerAnalysis extends ProgramAnalysis<PointerAnalysisResult> {
 
+    private static final Logger logger = LogManager.getLogger(PointerAnalysis.class);
+
     public static final String ID = "pta";
 
     public PointerAnalysis(AnalysisConfig config) {
@@ -72,8 +84,68 @@ public class PointerAnalysis extends ProgramAnalysis<PointerAnalysisResult> {
     @Override
     public PointerAnalysisResult analyze() {
         AnalysisOptions options = getOptions();
+        String snapshot = options.getString("snapshot");
+        if (snapshot == null) {
+            return solve(options);
+        }
+        List<String> pluginOptions = getOptionsRequiringPlugins(options);
+        if (!pluginOptions.isEmpty()) {
+            // plugins are not executed on the results loaded from snapshot
+            logger.warn("Snapshot {} is not used, as options {} require" +
+                    " running plugins with the solver", snapshot, pluginOptions);
+            return solve(options);
+        }
+        File snapshotFile = new File(snapshot);
+        String fingerprint = PointerAnalysisSnapshot.getFingerprint(
+                World.get().getOptions(), options);
+        PointerAnalysisResult result = PointerAnalysisSnapshot.load(
+                snapshotFile, fingerprint, isImpactInvalidation(options));
+        if (result == null) {
+            result = solve(options);
+            PointerAnalysisSnapshot.save(result, snapshotFile, fingerprint);
+        }
+        return result;
+    }
+
+    private static boolean isImpactInvalidation(AnalysisOptions options) {
+        String invalidation = options.getString("snapshot-invalidation");
+        return switch (invalidation) {
+            case "any-change" -> false;
+            case "impact" -> true;
+            default -> throw new ConfigException(
+                    "Unknown snapshot invalidation: " + invalidation);
+        };
+    }
+
+    /**
+     * @return the specified options whose outputs are produced by plugins,
+     * i.e., taint analysis, result processing and user-given plugins.
+     * The effects of other plugins (e.g., reflection analysis) on
+     * the results are kept in snapshots, and their options are covered
+     * by the fingerprint of snapshots.
+     */
+    private static List<String> getOptionsRequiringPlugins(AnalysisOptions options) {
+        List<String> result = new ArrayList<>();
+        for (String key : List.of("taint-config", "expected-file")) {
+            if (options.getString(key) != null) {
+                result.add(key);
+            }
+        }
+        for (String key : List.of("dump", "dump-ci", "dump-yaml")) {
+            if (options.getBoolean(key)) {
+                result.add(key);
+            }
+        }
+        if (!((List<?>) options.get("plugins")).isEmpty()) {
+            result.add("plugins");
+        }
+        return result;
+    }
+
+    private PointerAnalysisResult solve(AnalysisOptions options) {
         HeapModel heapModel = new AllocationSiteBasedModel(options);
         ContextSelector selector = null;
+        Collection<Obj> preObjects = List.of();
         String advanced = options.getString("advanced");
         String cs = options.getString("cs");
         if (advanced != null) {
@@ -83,7 +155,8 @@ public class PointerAnalysis extends ProgramAnalysis<PointerAnalysisResult> {
             } else {
                 // run context-insensitive analysis as pre-analysis
                 PointerAnalysisResult preResult = runAnalysis(heapModel,
-                        ContextSelectorFactory.makeCISelector());
+                        ContextSelectorFactory.makeCISelector(), List.of());
+                preObjects = preResult.getObjects();
                 if (advanced.startsWith("scaler")) {
                     selector = Timer.runAndCount(() -> ContextSelectorFactory
                                     .makeGuidedSelector(Scaler.run(preResult, advanced)),
@@ -104,14 +177,19 @@ public class PointerAnalysis extends ProgramAnalysis<PointerAnalysisResult> {
         if (selector == null) {
             selector = ContextSelectorFactory.makePlainSelector(cs);
         }
-        return runAnalysis(heapModel, selector);
+        return runAnalysis(heapModel, selector, preObjects);
     }
 
+    /**
+     * @param preObjects objects found by pre-analysis, which guide
+     *                   the allocation of the indexes of objects
+     */
     private PointerAnalysisResult runAnalysis(HeapModel heapModel,
-                                              ContextSelector selector) {
+                                              ContextSelector selector,
+                                              Collection<Obj> preObjects) {
         AnalysisOptions options = getOptions();
         Solver solver = new DefaultSolver(options,
-                heapModel, selector, new MapBasedCSManager());
+                heapModel, selector, makeCSManager(options, preObjects));
         // The initialization of some Plugins may read the fields in solver,
         // e.g., contextSelector or csManager, thus we initialize Plugins
         // after setting all other fields of solver.
@@ -120,6 +198,20 @@ public class PointerAnalysis extends ProgramAnalysis<PointerAnalysisResult> {
         return solver.getResult();
     }
 
+    private static CSManager makeCSManager(AnalysisOptions options,
+                                           Collection<Obj> preObjects) {
+        String order = options.getString("obj-index-order");
+        CSObjIndexAllocator allocator = order.equals("discovery") ? null
+                : new CSObjIndexAllocator(order, preObjects);
+        String csManager = options.getString("cs-manager");
+        return switch (csManager) {
+            case "map" -> new MapBasedCSManager(allocator);
+            case "array" -> new ArrayBasedCSManager(allocator);
+            default -> throw new ConfigException(
+                    "Unknown CS manager: " + csManager);
+        };
+    }
+
     private static void setPlugin(Solver solver, AnalysisOptions options) {
         CompositePlugin plugin = new CompositePlugin();
         // add builtin plugins
@@ -151,13 +243,16 @@ public class PointerAnalysis extends ProgramAnalysis<PointerAnalysisResult> {
                 InvokeDynamicAnalysis.useMethodHandle()) {
             plugin.addPlugin(new InvokeDynamicAnalysis());
         }
+        // add plugins specified in options
+        // noinspection unchecked
+        addPlugins(plugin, (List<String>) options.get("plugins"));
+        // TaintAnalysis is added after the other plugins, so that its
+        // demand-driven mode can see the entries added by their onStart(),
+        // and ResultProcessor should be the last to collect taint flows.
         if (options.getString("taint-config") != null) {
             plugin.addPlugin(new TaintAnalysis());
         }
         plugin.addPlugin(new ResultProcessor());
-        // add plugins specified in options
-        // noinspection unchecked
-        addPlugins(plugin, (List<String>) options.get("plugins"));
         // connects plugins and solver
         plugin.setSolver(solver);
         solver.setPlugin(plugin);
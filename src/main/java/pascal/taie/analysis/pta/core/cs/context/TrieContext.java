@@ -22,6 +22,8 @@
 
 package pascal.taie.analysis.pta.core.cs.context;
 
+import pascal.taie.util.Indexable;
+import pascal.taie.util.collection.IntPairMap;
 import pascal.taie.util.collection.Maps;
 
 import java.util.Arrays;
@@ -29,8 +31,13 @@ import java.util.Map;
 
 /**
  * An implementation of {@link Context}, which organizes contexts as Trie.
+ * <p>
+ * Each context has an index which is unique among the contexts created
+ * by the same {@link Factory}. The trie does not keep links from parents
+ * to children in its nodes; instead, the factory looks up children from
+ * a table keyed by (index of parent, ID of element).
  */
-public class TrieContext implements Context {
+public class TrieContext implements Context, Indexable {
 
     private final TrieContext parent;
 
@@ -38,18 +45,20 @@ public class TrieContext implements Context {
 
     private final int length;
 
-    private Map<Object, TrieContext> children;
+    private final int index;
 
-    private TrieContext() {
+    private TrieContext(int index) {
         parent = null;
         elem = null;
         length = 0;
+        this.index = index;
     }
 
-    private TrieContext(TrieContext parent, Object elem) {
+    private TrieContext(TrieContext parent, Object elem, int index) {
         this.parent = parent;
         this.elem = elem;
         this.length = parent.getLength() + 1;
+        this.index = index;
     }
 
     @Override
@@ -67,16 +76,17 @@ public class TrieContext implements Context {
         }
     }
 
-    TrieContext getParent() {
-        return parent;
+    /**
+     * @return the index of this context, which is unique among
+     * the contexts created by the same factory.
+     */
+    @Override
+    public int getIndex() {
+        return index;
     }
 
-    TrieContext getChild(Object elem) {
-        if (children == null) {
-            children = Maps.newHybridMap();
-        }
-        return children.computeIfAbsent(elem,
-                e -> new TrieContext(this, e));
+    TrieContext getParent() {
+        return parent;
     }
 
     Object getElem() {
@@ -100,7 +110,33 @@ public class TrieContext implements Context {
          * Root context of all tree contexts produced by this factory.
          * It also acts as the default context.
          */
-        private final TrieContext rootContext = new TrieContext();
+        private final TrieContext rootContext = new TrieContext(0);
+
+        /**
+         * Maps index to context.
+         */
+        private TrieContext[] contexts = { rootContext };
+
+        /**
+         * Number of contexts created by this factory.
+         */
+        private int counter = 1;
+
+        /**
+         * Maps context elements to their IDs.
+         */
+        private final Map<Object, Integer> elemIds = Maps.newMap();
+
+        /**
+         * Maps (index of parent context, ID of element) to index of child context.
+         */
+        private final IntPairMap children = new IntPairMap();
+
+        /**
+         * Maps (index of context, k) to index of the context of its last
+         * k elements, for the contexts that are longer than k.
+         */
+        private final IntPairMap lastKContexts = new IntPairMap();
 
         @Override
         public TrieContext getEmptyContext() {
@@ -109,43 +145,76 @@ public class TrieContext implements Context {
 
         @Override
         public Context make(T elem) {
-            return rootContext.getChild(elem);
+            return getChild(rootContext, elem);
         }
 
         @Override
         public TrieContext make(T... elems) {
             TrieContext result = rootContext;
             for (T elem : elems) {
-                result = result.getChild(elem);
+                result = getChild(result, elem);
             }
             return result;
         }
 
         @Override
         public TrieContext makeLastK(Context context, int k) {
-            if (k == 0) {
-                return rootContext;
-            }
             TrieContext c = (TrieContext) context;
             if (c.getLength() <= k) {
                 return c;
             }
-            Object[] elems = new Object[k];
-            for (int i = k; i > 0; --i) {
-                elems[i - 1] = c.getElem();
-                c = c.getParent();
+            int i = lastKContexts.get(c.getIndex(), k);
+            if (i == IntPairMap.ABSENT) {
+                i = lastK(c, k).getIndex();
+                lastKContexts.put(c.getIndex(), k, i);
             }
-            return make((T[]) elems);
+            return contexts[i];
+        }
+
+        /**
+         * Builds the context of the last k elements of {@code c}
+         * from its ancestors, without allocating temporary arrays.
+         */
+        private TrieContext lastK(TrieContext c, int k) {
+            if (k == 0) {
+                return rootContext;
+            }
+            return getChild(lastK(c.getParent(), k - 1), c.getElem());
         }
 
         @Override
         public TrieContext append(Context parent, T elem, int limit) {
             TrieContext p = (TrieContext) parent;
             if (parent.getLength() < limit) {
-                return p.getChild(elem);
+                return getChild(p, elem);
             } else {
-                return makeLastK(p, limit - 1).getChild(elem);
+                return getChild(makeLastK(p, limit - 1), elem);
+            }
+        }
+
+        /**
+         * @return the number of contexts created by this factory.
+         */
+        public int getContextCount() {
+            return counter;
+        }
+
+        private TrieContext getChild(TrieContext parent, Object elem) {
+            Integer elemId = elemIds.get(elem);
+            if (elemId == null) {
+                elemId = elemIds.size();
+                elemIds.put(elem, elemId);
+            }
+            int i = children.get(parent.getIndex(), elemId);
+            if (i == IntPairMap.ABSENT) {
+                i = counter++;
+                if (i == contexts.length) {
+                    contexts = Arrays.copyOf(contexts, contexts.length * 2);
+                }
+                contexts[i] = new TrieContext(parent, elem, i);
+                children.put(parent.getIndex(), elemId, i);
             }
+            return contexts[i];
         }
     }
 }
@@ -37,13 +37,22 @@ import java.util.stream.Stream;
 
 abstract class AbstractPointer implements Pointer {
 
+    /**
+     * Shared by the pointers without out edges, and never modified.
+     */
+    private static final OutEdgeStore NO_OUT_EDGES = new OutEdges(Set.of(),
+            new ArrayList<>(0));
+
     private PointsToSet pointsToSet;
 
     private final int index;
 
-    private final Set<Pointer> successors = new HybridIndexableSet<>(true);
-
-    private final ArrayList<PointerFlowEdge> outEdges = new ArrayList<>(4);
+    /**
+     * Out edges of this pointer. The store is created on the first edge,
+     * as many pointers (e.g., the ones of most fields) never have out
+     * edges, unless it is given by the manager of this pointer.
+     */
+    private OutEdgeStore outEdges = NO_OUT_EDGES;
 
     private Set<Predicate<CSObj>> filters = Set.of();
 
@@ -51,6 +60,15 @@ abstract class AbstractPointer implements Pointer {
         this.index = index;
     }
 
+    /**
+     * Sets the store of out edges of this pointer, which should be
+     * called before any edge is added to this pointer.
+     */
+    void setOutEdgeStore(OutEdgeStore outEdges) {
+        assert this.outEdges == NO_OUT_EDGES;
+        this.outEdges = outEdges;
+    }
+
     @Override
     public int getIndex() {
         return index;
@@ -74,6 +92,13 @@ abstract class AbstractPointer implements Pointer {
         filters.add(filter);
     }
 
+    @Override
+    public void removeFilter(Predicate<CSObj> filter) {
+        if (!filters.isEmpty()) {
+            filters.remove(filter);
+        }
+    }
+
     @Override
     public Set<Predicate<CSObj>> getFilters() {
         return filters;
@@ -93,33 +118,78 @@ abstract class AbstractPointer implements Pointer {
     @Override
     public PointerFlowEdge addEdge(PointerFlowEdge edge) {
         assert edge.source() == this;
-        if (successors.add(edge.target())) {
-            outEdges.add(edge);
-            return edge;
-        } else if (edge.kind() == FlowKind.OTHER) {
-            for (PointerFlowEdge outEdge : outEdges) {
-                if (outEdge.equals(edge)) {
-                    return outEdge;
-                }
-            }
-            outEdges.add(edge);
-            return edge;
+        if (outEdges == NO_OUT_EDGES) {
+            outEdges = new OutEdges();
         }
-        return null;
+        return outEdges.addEdge(this, edge);
     }
 
     @Override
     public void removeEdgesIf(Predicate<PointerFlowEdge> filter) {
-        outEdges.removeIf(filter);
+        outEdges.removeEdgesIf(this, filter);
     }
 
     @Override
     public Set<PointerFlowEdge> getOutEdges() {
-        return Collections.unmodifiableSet(new ArraySet<>(outEdges, true));
+        return outEdges.getOutEdges(this);
     }
 
     @Override
     public int getOutDegree() {
-        return outEdges.size();
+        return outEdges.getOutDegree(this);
+    }
+
+    /**
+     * Out edges of a single pointer.
+     */
+    private static class OutEdges implements OutEdgeStore {
+
+        private final Set<Pointer> successors;
+
+        private final ArrayList<PointerFlowEdge> outEdges;
+
+        private OutEdges() {
+            this(new HybridIndexableSet<>(true), new ArrayList<>(4));
+        }
+
+        private OutEdges(Set<Pointer> successors,
+                         ArrayList<PointerFlowEdge> outEdges) {
+            this.successors = successors;
+            this.outEdges = outEdges;
+        }
+
+        @Override
+        public PointerFlowEdge addEdge(Pointer source, PointerFlowEdge edge) {
+            if (successors.add(edge.target())) {
+                outEdges.add(edge);
+                return edge;
+            } else if (edge.kind() == FlowKind.OTHER) {
+                for (PointerFlowEdge outEdge : outEdges) {
+                    if (outEdge.equals(edge)) {
+                        return outEdge;
+                    }
+                }
+                outEdges.add(edge);
+                return edge;
+            }
+            return null;
+        }
+
+        @Override
+        public void removeEdgesIf(Pointer source, Predicate<PointerFlowEdge> filter) {
+            if (!outEdges.isEmpty()) {
+                outEdges.removeIf(filter);
+            }
+        }
+
+        @Override
+        public Set<PointerFlowEdge> getOutEdges(Pointer source) {
+            return Collections.unmodifiableSet(new ArraySet<>(outEdges, true));
+        }
+
+        @Override
+        public int getOutDegree(Pointer source) {
+            return outEdges.size();
+        }
     }
 }
@@ -0,0 +1,804 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.element;
+
+import pascal.taie.analysis.graph.flowgraph.FlowKind;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.core.solver.PointerFlowEdge;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.Indexable;
+import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.IntPairMap;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Streams;
+
+import javax.annotation.Nullable;
+import java.util.AbstractCollection;
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Manages data by maintaining the data and their context-sensitive
+ * counterparts by primitive arrays.
+ * <p>
+ * Each element that is used as a key (e.g., variable, context and field)
+ * is given a dense integer ID once, and each context-sensitive element is
+ * identified by the index of its slot in an array. The lookup of an element
+ * from its (ID, ID) key is done by an {@link IntPairMap}, and the
+ * context-sensitive variables (objects) of the same variable (object)
+ * are chained by {@code int[]}. Compared with
+ * {@link MapBasedCSManager}, this avoids the nested maps and their entries
+ * for every pair of context and element, which dominate the memory usage
+ * of the manager in highly context-sensitive analyses.
+ * <p>
+ * The out edges of the pointers in pointer flow graph are also stored
+ * by this manager in arrays indexed by the indexes of pointers (see
+ * {@link OutEdgeTable}), instead of a set of successors and a list of
+ * out edges for each pointer.
+ */
+public class ArrayBasedCSManager implements CSManager {
+
+    private static final int ABSENT = IntPairMap.ABSENT;
+
+    private final Ids<Var> varIds = new Ids<>();
+
+    private final Ids<Context> contextIds = new IndexableIds<>();
+
+    private final Ids<JField> fieldIds = new Ids<>();
+
+    private final Ids<JMethod> methodIds = new Ids<>();
+
+    private final Ids<Invoke> callSiteIds = new Ids<>();
+
+    private final PointerManager ptrManager = new PointerManager();
+
+    private final CSObjManager objManager;
+
+    /**
+     * Maps (call site ID, context ID) to index of {@link #callSites}.
+     */
+    private final IntPairMap callSiteTable = new IntPairMap();
+
+    private final List<CSCallSite> callSites = new ArrayList<>();
+
+    /**
+     * Maps (method ID, context ID) to index of {@link #methods}.
+     */
+    private final IntPairMap methodTable = new IntPairMap();
+
+    private final List<CSMethod> methods = new ArrayList<>();
+
+    public ArrayBasedCSManager() {
+        this(null);
+    }
+
+    /**
+     * @param allocator allocator of the indexes of {@link CSObj}s;
+     *                  if it is {@code null}, the indexes are assigned
+     *                  in discovery order.
+     */
+    public ArrayBasedCSManager(@Nullable CSObjIndexAllocator allocator) {
+        objManager = new CSObjManager(allocator);
+    }
+
+    @Override
+    public CSVar getCSVar(Context context, Var var) {
+        return ptrManager.getCSVar(context, var);
+    }
+
+    @Override
+    public StaticField getStaticField(JField field) {
+        return ptrManager.getStaticField(field);
+    }
+
+    @Override
+    public InstanceField getInstanceField(CSObj base, JField field) {
+        return ptrManager.getInstanceField(base, field);
+    }
+
+    @Override
+    public ArrayIndex getArrayIndex(CSObj array) {
+        return ptrManager.getArrayIndex(array);
+    }
+
+    @Override
+    public Collection<Var> getVars() {
+        return varIds.getElements();
+    }
+
+    @Override
+    public Collection<CSVar> getCSVars() {
+        return ptrManager.getCSVars();
+    }
+
+    @Override
+    public Collection<CSVar> getCSVarsOf(Var var) {
+        return ptrManager.getCSVarsOf(var);
+    }
+
+    @Override
+    public Collection<StaticField> getStaticFields() {
+        return ptrManager.getStaticFields();
+    }
+
+    @Override
+    public Collection<InstanceField> getInstanceFields() {
+        return ptrManager.getInstanceFields();
+    }
+
+    @Override
+    public Collection<ArrayIndex> getArrayIndexes() {
+        return ptrManager.getArrayIndexes();
+    }
+
+    @Override
+    public Stream<Pointer> pointers() {
+        return ptrManager.pointers();
+    }
+
+    @Override
+    public CSObj getCSObj(Context heapContext, Obj obj) {
+        return objManager.getCSObj(heapContext, obj);
+    }
+
+    @Override
+    public Collection<CSObj> getObjects() {
+        return objManager.getObjects();
+    }
+
+    @Override
+    public Collection<CSObj> getCSObjsOf(Obj obj) {
+        return objManager.getCSObjsOf(obj);
+    }
+
+    @Override
+    public Indexer<CSObj> getObjectIndexer() {
+        return objManager;
+    }
+
+    /**
+     * The object indexer of this manager only reads the array of objects.
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    @Override
+    public CSCallSite getCSCallSite(Context context, Invoke callSite) {
+        int key1 = callSiteIds.getId(callSite);
+        int key2 = contextIds.getId(context);
+        int i = callSiteTable.get(key1, key2);
+        if (i == ABSENT) {
+            CSMethod container = getCSMethod(context, callSite.getContainer());
+            i = callSites.size();
+            callSites.add(new CSCallSite(callSite, context, container));
+            callSiteTable.put(key1, key2, i);
+        }
+        return callSites.get(i);
+    }
+
+    @Override
+    public CSMethod getCSMethod(Context context, JMethod method) {
+        int key1 = methodIds.getId(method);
+        int key2 = contextIds.getId(context);
+        int i = methodTable.get(key1, key2);
+        if (i == ABSENT) {
+            i = methods.size();
+            methods.add(new CSMethod(method, context));
+            methodTable.put(key1, key2, i);
+        }
+        return methods.get(i);
+    }
+
+    private class PointerManager {
+
+        /**
+         * Maps index to Pointer.
+         */
+        private Pointer[] pointers = new Pointer[1024];
+
+        /**
+         * Counter for assigning unique indexes to Pointers.
+         */
+        private int counter = 0;
+
+        /**
+         * Maps (variable ID, context ID) to index of CSVar.
+         */
+        private final IntPairMap varTable = new IntPairMap();
+
+        /**
+         * Maps variable ID to index of its latest CSVar.
+         */
+        private int[] lastCSVar = newIntArray(256);
+
+        /**
+         * Maps index of a CSVar to index of previous CSVar
+         * of the same variable.
+         */
+        private int[] prevCSVar = newIntArray(1024);
+
+        /**
+         * Maps field ID to index of StaticField.
+         */
+        private int[] staticFieldTable = newIntArray(64);
+
+        /**
+         * Maps (index of base object, field ID) to index of InstanceField.
+         */
+        private final IntPairMap instanceFieldTable = new IntPairMap();
+
+        /**
+         * Maps index of array object to index of ArrayIndex.
+         */
+        private int[] arrayIndexTable = newIntArray(256);
+
+        private final IntList csVars = new IntList();
+
+        private final IntList staticFields = new IntList();
+
+        private final IntList instanceFields = new IntList();
+
+        private final IntList arrayIndexes = new IntList();
+
+        private final OutEdgeTable outEdges = new OutEdgeTable();
+
+        private CSVar getCSVar(Context context, Var var) {
+            int varId = varIds.getId(var);
+            int ctxId = contextIds.getId(context);
+            int i = varTable.get(varId, ctxId);
+            if (i == ABSENT) {
+                i = add(new CSVar(var, context, counter), csVars);
+                varTable.put(varId, ctxId, i);
+                lastCSVar = ensureCapacity(lastCSVar, varId);
+                prevCSVar = ensureCapacity(prevCSVar, i);
+                prevCSVar[i] = lastCSVar[varId];
+                lastCSVar[varId] = i;
+            }
+            return (CSVar) pointers[i];
+        }
+
+        private StaticField getStaticField(JField field) {
+            int fieldId = fieldIds.getId(field);
+            staticFieldTable = ensureCapacity(staticFieldTable, fieldId);
+            int i = staticFieldTable[fieldId];
+            if (i == ABSENT) {
+                i = add(new StaticField(field, counter), staticFields);
+                staticFieldTable[fieldId] = i;
+            }
+            return (StaticField) pointers[i];
+        }
+
+        private InstanceField getInstanceField(CSObj base, JField field) {
+            int fieldId = fieldIds.getId(field);
+            int i = instanceFieldTable.get(base.getIndex(), fieldId);
+            if (i == ABSENT) {
+                i = add(new InstanceField(base, field, counter), instanceFields);
+                instanceFieldTable.put(base.getIndex(), fieldId, i);
+            }
+            return (InstanceField) pointers[i];
+        }
+
+        private ArrayIndex getArrayIndex(CSObj array) {
+            int arrayId = array.getIndex();
+            arrayIndexTable = ensureCapacity(arrayIndexTable, arrayId);
+            int i = arrayIndexTable[arrayId];
+            if (i == ABSENT) {
+                i = add(new ArrayIndex(array, counter), arrayIndexes);
+                arrayIndexTable[arrayId] = i;
+            }
+            return (ArrayIndex) pointers[i];
+        }
+
+        /**
+         * Stores a new pointer whose index is {@link #counter}.
+         *
+         * @return index of the pointer.
+         */
+        private int add(AbstractPointer pointer, IntList kind) {
+            int index = counter++;
+            if (index >= pointers.length) {
+                pointers = Arrays.copyOf(pointers, pointers.length * 2);
+            }
+            pointer.setOutEdgeStore(outEdges);
+            pointers[index] = pointer;
+            kind.add(index);
+            return index;
+        }
+
+        private Collection<CSVar> getCSVars() {
+            return new PointerView<>(csVars);
+        }
+
+        private Collection<CSVar> getCSVarsOf(Var var) {
+            int varId = varIds.getExistingId(var);
+            if (varId == ABSENT) {
+                return Set.of();
+            }
+            List<CSVar> result = new ArrayList<>();
+            for (int i = lastCSVar[varId]; i != ABSENT; i = prevCSVar[i]) {
+                result.add((CSVar) pointers[i]);
+            }
+            return Collections.unmodifiableList(result);
+        }
+
+        private Collection<StaticField> getStaticFields() {
+            return new PointerView<>(staticFields);
+        }
+
+        private Collection<InstanceField> getInstanceFields() {
+            return new PointerView<>(instanceFields);
+        }
+
+        private Collection<ArrayIndex> getArrayIndexes() {
+            return new PointerView<>(arrayIndexes);
+        }
+
+        private Stream<Pointer> pointers() {
+            return Streams.concat(
+                    getCSVars().stream(),
+                    getInstanceFields().stream(),
+                    getArrayIndexes().stream(),
+                    getStaticFields().stream());
+        }
+
+        /**
+         * Unmodifiable view of the pointers of a kind.
+         */
+        private class PointerView<P extends Pointer> extends AbstractList<P> {
+
+            private final IntList indexes;
+
+            private PointerView(IntList indexes) {
+                this.indexes = indexes;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public P get(int i) {
+                return (P) pointers[indexes.get(i)];
+            }
+
+            @Override
+            public int size() {
+                return indexes.size();
+            }
+        }
+    }
+
+    /**
+     * Stores the out edges of all pointers of the manager. The out edges
+     * of a pointer are chained by their slots in {@link #edges} in the
+     * order of their additions, and the targets of the edges are
+     * recorded by pairs of pointer indexes.
+     */
+    private static class OutEdgeTable implements OutEdgeStore {
+
+        /**
+         * Maps (index of source, index of target) to slot of the first
+         * edge added between the two pointers.
+         */
+        private final IntPairMap succTable = new IntPairMap();
+
+        /**
+         * Maps slot to edge, or {@code null} if the edge has been removed.
+         */
+        private PointerFlowEdge[] edges = new PointerFlowEdge[1024];
+
+        /**
+         * Counter for assigning slots to edges.
+         */
+        private int counter = 0;
+
+        /**
+         * Maps slot of an edge to slot of the next out edge
+         * of the same source.
+         */
+        private int[] nextEdge = newIntArray(1024);
+
+        /**
+         * Maps index of pointer to slot of its first out edge.
+         */
+        private int[] firstEdge = newIntArray(1024);
+
+        /**
+         * Maps index of pointer to slot of its last out edge.
+         */
+        private int[] lastEdge = newIntArray(1024);
+
+        /**
+         * Maps index of pointer to its out degree.
+         */
+        private int[] outDegrees = new int[1024];
+
+        @Override
+        public PointerFlowEdge addEdge(Pointer source, PointerFlowEdge edge) {
+            int s = source.getIndex();
+            int t = edge.target().getIndex();
+            if (succTable.get(s, t) == ABSENT) {
+                succTable.put(s, t, append(s, edge));
+                return edge;
+            } else if (edge.kind() == FlowKind.OTHER) {
+                for (int i = first(s); i != ABSENT; i = nextEdge[i]) {
+                    if (edges[i].equals(edge)) {
+                        return edges[i];
+                    }
+                }
+                append(s, edge);
+                return edge;
+            }
+            return null;
+        }
+
+        /**
+         * Appends an edge to the out edges of pointer {@code s}.
+         *
+         * @return slot of the edge.
+         */
+        private int append(int s, PointerFlowEdge edge) {
+            int slot = counter++;
+            if (slot >= edges.length) {
+                edges = Arrays.copyOf(edges, edges.length * 2);
+            }
+            edges[slot] = edge;
+            nextEdge = ensureCapacity(nextEdge, slot);
+            firstEdge = ensureCapacity(firstEdge, s);
+            lastEdge = ensureCapacity(lastEdge, s);
+            if (s >= outDegrees.length) {
+                outDegrees = Arrays.copyOf(outDegrees,
+                        Math.max(s + 1, outDegrees.length * 2));
+            }
+            if (firstEdge[s] == ABSENT) {
+                firstEdge[s] = slot;
+            } else {
+                nextEdge[lastEdge[s]] = slot;
+            }
+            lastEdge[s] = slot;
+            ++outDegrees[s];
+            return slot;
+        }
+
+        @Override
+        public void removeEdgesIf(Pointer source, Predicate<PointerFlowEdge> filter) {
+            int s = source.getIndex();
+            int prev = ABSENT;
+            for (int i = first(s); i != ABSENT; i = nextEdge[i]) {
+                if (filter.test(edges[i])) {
+                    edges[i] = null;
+                    if (prev == ABSENT) {
+                        firstEdge[s] = nextEdge[i];
+                    } else {
+                        nextEdge[prev] = nextEdge[i];
+                    }
+                    --outDegrees[s];
+                } else {
+                    prev = i;
+                }
+            }
+            if (s < lastEdge.length) {
+                lastEdge[s] = prev;
+            }
+        }
+
+        @Override
+        public Set<PointerFlowEdge> getOutEdges(Pointer source) {
+            int s = source.getIndex();
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<PointerFlowEdge> iterator() {
+                    return new Iterator<>() {
+
+                        private int i = first(s);
+
+                        @Override
+                        public boolean hasNext() {
+                            return i != ABSENT;
+                        }
+
+                        @Override
+                        public PointerFlowEdge next() {
+                            if (i == ABSENT) {
+                                throw new NoSuchElementException();
+                            }
+                            PointerFlowEdge edge = edges[i];
+                            i = nextEdge[i];
+                            return edge;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return getOutDegree(source);
+                }
+            };
+        }
+
+        @Override
+        public int getOutDegree(Pointer source) {
+            int s = source.getIndex();
+            return s < outDegrees.length ? outDegrees[s] : 0;
+        }
+
+        /**
+         * @return slot of the first out edge of pointer {@code s},
+         * or {@link #ABSENT} if it has no out edges.
+         */
+        private int first(int s) {
+            return s < firstEdge.length ? firstEdge[s] : ABSENT;
+        }
+    }
+
+    private class CSObjManager implements Indexer<CSObj> {
+
+        /**
+         * Maps (index of object, context ID) to index of CSObj.
+         */
+        private final IntPairMap objTable = new IntPairMap();
+
+        /**
+         * Maps index to CSObj.
+         */
+        private CSObj[] objs = new CSObj[1024];
+
+        /**
+         * Number of CSObjs.
+         */
+        private int counter = 0;
+
+        @Nullable
+        private final CSObjIndexAllocator allocator;
+
+        /**
+         * Maps index of object to index of its latest CSObj.
+         */
+        private int[] lastCSObj = newIntArray(1024);
+
+        /**
+         * Maps index of a CSObj to index of previous CSObj
+         * of the same object.
+         */
+        private int[] prevCSObj = newIntArray(1024);
+
+        private CSObjManager(@Nullable CSObjIndexAllocator allocator) {
+            this.allocator = allocator;
+        }
+
+        CSObj getCSObj(Context heapContext, Obj obj) {
+            int objId = obj.getIndex();
+            int ctxId = contextIds.getId(heapContext);
+            int i = objTable.get(objId, ctxId);
+            if (i == ABSENT) {
+                i = allocator != null ? allocator.allocate(obj) : counter;
+                ++counter;
+                if (i >= objs.length) {
+                    objs = Arrays.copyOf(objs, Math.max(i + 1, objs.length * 2));
+                }
+                objs[i] = new CSObj(obj, heapContext, i);
+                objTable.put(objId, ctxId, i);
+                lastCSObj = ensureCapacity(lastCSObj, objId);
+                prevCSObj = ensureCapacity(prevCSObj, i);
+                prevCSObj[i] = lastCSObj[objId];
+                lastCSObj[objId] = i;
+            }
+            return objs[i];
+        }
+
+        Collection<CSObj> getObjects() {
+            if (allocator != null) {
+                // the allocated indexes may be non-contiguous
+                return new AbstractCollection<>() {
+                    @Override
+                    public Iterator<CSObj> iterator() {
+                        return Arrays.stream(objs, 0, allocator.getBound())
+                                .filter(Objects::nonNull)
+                                .iterator();
+                    }
+
+                    @Override
+                    public int size() {
+                        return counter;
+                    }
+                };
+            }
+            return new AbstractList<>() {
+                @Override
+                public CSObj get(int i) {
+                    return objs[i];
+                }
+
+                @Override
+                public int size() {
+                    return counter;
+                }
+            };
+        }
+
+        Collection<CSObj> getCSObjsOf(Obj obj) {
+            int objId = obj.getIndex();
+            if (objId >= lastCSObj.length) {
+                return Set.of();
+            }
+            List<CSObj> result = new ArrayList<>();
+            for (int i = lastCSObj[objId]; i != ABSENT; i = prevCSObj[i]) {
+                result.add(objs[i]);
+            }
+            return Collections.unmodifiableList(result);
+        }
+
+        @Override
+        public int getIndex(CSObj o) {
+            return o.getIndex();
+        }
+
+        @Override
+        public CSObj getObject(int index) {
+            return objs[index];
+        }
+    }
+
+    private static int[] newIntArray(int length) {
+        int[] array = new int[length];
+        Arrays.fill(array, ABSENT);
+        return array;
+    }
+
+    /**
+     * @return {@code array} if it can hold {@code index}, otherwise
+     * a larger copy of it whose new slots are {@link #ABSENT}.
+     */
+    private static int[] ensureCapacity(int[] array, int index) {
+        if (index < array.length) {
+            return array;
+        }
+        int oldLength = array.length;
+        int newLength = Math.max(index + 1, oldLength * 2);
+        int[] newArray = Arrays.copyOf(array, newLength);
+        Arrays.fill(newArray, oldLength, newLength, ABSENT);
+        return newArray;
+    }
+
+    /**
+     * Assigns dense IDs to elements in the order of their first queries.
+     */
+    private static class Ids<E> {
+
+        private final Map<E, Integer> ids = Maps.newMap();
+
+        final List<E> elements = new ArrayList<>();
+
+        int getId(E e) {
+            Integer id = ids.get(e);
+            if (id == null) {
+                id = elements.size();
+                ids.put(e, id);
+                elements.add(e);
+            }
+            return id;
+        }
+
+        /**
+         * @return ID of {@code e}, or {@link #ABSENT} if {@code e}
+         * has not been given an ID.
+         */
+        int getExistingId(E e) {
+            Integer id = ids.get(e);
+            return id != null ? id : ABSENT;
+        }
+
+        Collection<E> getElements() {
+            return Collections.unmodifiableList(elements);
+        }
+    }
+
+    /**
+     * {@link Ids} that looks up the IDs of {@link Indexable} elements
+     * (e.g., {@link pascal.taie.analysis.pta.core.cs.context.TrieContext})
+     * from an array indexed by {@link Indexable#getIndex()}, instead of
+     * a map with boxed IDs.
+     * <p>
+     * The indexes may be unique only in certain scope (e.g., the contexts
+     * created by the same factory), thus each array slot is owned by the
+     * first element of the index, and the other elements with the same
+     * index, as well as the non-indexable elements, fall back to the map.
+     */
+    private static class IndexableIds<E> extends Ids<E> {
+
+        /**
+         * Maps index of element to its ID.
+         */
+        private int[] idsByIndex = new int[0];
+
+        @Override
+        int getId(E e) {
+            if (e instanceof Indexable indexable) {
+                int index = indexable.getIndex();
+                idsByIndex = ensureCapacity(idsByIndex, index);
+                int id = idsByIndex[index];
+                if (id == ABSENT) {
+                    id = elements.size();
+                    elements.add(e);
+                    idsByIndex[index] = id;
+                    return id;
+                } else if (elements.get(id) == e) {
+                    return id;
+                }
+            }
+            return super.getId(e);
+        }
+
+        @Override
+        int getExistingId(E e) {
+            if (e instanceof Indexable indexable) {
+                int index = indexable.getIndex();
+                int id = index < idsByIndex.length ? idsByIndex[index] : ABSENT;
+                if (id == ABSENT || elements.get(id) == e) {
+                    return id;
+                }
+            }
+            return super.getExistingId(e);
+        }
+    }
+
+    /**
+     * Growable list of {@code int}s.
+     */
+    private static class IntList {
+
+        private int[] elements = new int[16];
+
+        private int size = 0;
+
+        private void add(int e) {
+            if (size == elements.length) {
+                elements = Arrays.copyOf(elements, size * 2);
+            }
+            elements[size++] = e;
+        }
+
+        private int get(int i) {
+            return elements[i];
+        }
+
+        private int size() {
+            return size;
+        }
+    }
+}
@@ -124,4 +124,17 @@ public interface CSManager {
      * The indexer is useful for creating efficient points-to sets.
      */
     Indexer<CSObj> getObjectIndexer();
+
+    /**
+     * When the solver propagates points-to sets with multiple threads,
+     * the worker threads look up the objects via {@link #getObjectIndexer()}
+     * while the solver thread waits for them, i.e., no elements are
+     * created during the lookups.
+     *
+     * @return {@code true} if the lookups of this manager can be
+     * performed concurrently in such setting.
+     */
+    default boolean isThreadSafe() {
+        return false;
+    }
 }
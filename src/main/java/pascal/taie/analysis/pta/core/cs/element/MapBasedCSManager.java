@@ -37,6 +37,7 @@ import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.Streams;
 import pascal.taie.util.collection.TwoKeyMap;
 
+import javax.annotation.Nullable;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -52,12 +53,25 @@ public class MapBasedCSManager implements CSManager {
 
     private final PointerManager ptrManager = new PointerManager();
 
-    private final CSObjManager objManager = new CSObjManager();
+    private final CSObjManager objManager;
 
     private final TwoKeyMap<Invoke, Context, CSCallSite> callSites = Maps.newTwoKeyMap();
 
     private final TwoKeyMap<JMethod, Context, CSMethod> methods = Maps.newTwoKeyMap();
 
+    public MapBasedCSManager() {
+        this(null);
+    }
+
+    /**
+     * @param allocator allocator of the indexes of {@link CSObj}s;
+     *                  if it is {@code null}, the indexes are assigned
+     *                  in discovery order.
+     */
+    public MapBasedCSManager(@Nullable CSObjIndexAllocator allocator) {
+        objManager = new CSObjManager(allocator);
+    }
+
     @Override
     public CSVar getCSVar(Context context, Var var) {
         return ptrManager.getCSVar(context, var);
@@ -133,6 +147,14 @@ public class MapBasedCSManager implements CSManager {
         return objManager;
     }
 
+    /**
+     * The object indexer of this manager only reads the array of objects.
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
     @Override
     public CSCallSite getCSCallSite(Context context, Invoke callSite) {
         return callSites.computeIfAbsent(callSite, context, (cs, ctx) -> {
@@ -219,6 +241,9 @@ public class MapBasedCSManager implements CSManager {
 
         private final TwoKeyMap<Obj, Context, CSObj> objMap = Maps.newTwoKeyMap();
 
+        @Nullable
+        private final CSObjIndexAllocator allocator;
+
         private final TypeSystem typeSystem = World.get().getTypeSystem();
 
         private final Type throwable = typeSystem.getClassType(ClassNames.THROWABLE);
@@ -257,6 +282,10 @@ public class MapBasedCSManager implements CSManager {
          */
         private CSObj[] objs = new CSObj[65536];
 
+        private CSObjManager(@Nullable CSObjIndexAllocator allocator) {
+            this.allocator = allocator;
+        }
+
         CSObj getCSObj(Context heapContext, Obj obj) {
             return objMap.computeIfAbsent(obj, heapContext, (o, c) -> {
                 int index = getCSObjIndex(o);
@@ -267,6 +296,9 @@ public class MapBasedCSManager implements CSManager {
         }
 
         private int getCSObjIndex(Obj obj) {
+            if (allocator != null) {
+                return allocator.allocate(obj);
+            }
             if (typeSystem.isSubtype(throwable, obj.getType()) &&
                     throwableCounter < THROWABLE_BUDGET) {
                 return throwableCounter++;
@@ -0,0 +1,63 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.core.cs.element;
+
+import pascal.taie.analysis.pta.core.solver.PointerFlowEdge;
+
+import javax.annotation.Nullable;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Stores out edges of pointers in pointer flow graph. A store may keep
+ * the out edges of a single pointer (see {@link AbstractPointer}), or
+ * the ones of all pointers of a {@link CSManager}
+ * (see {@link ArrayBasedCSManager}), thus each method takes the source
+ * pointer of the edges.
+ *
+ * @see Pointer
+ */
+interface OutEdgeStore {
+
+    /**
+     * @see Pointer#addEdge(PointerFlowEdge)
+     */
+    @Nullable
+    PointerFlowEdge addEdge(Pointer source, PointerFlowEdge edge);
+
+    /**
+     * @see Pointer#removeEdgesIf(Predicate)
+     */
+    void removeEdgesIf(Pointer source, Predicate<PointerFlowEdge> filter);
+
+    /**
+     * @see Pointer#getOutEdges()
+     */
+    Set<PointerFlowEdge> getOutEdges(Pointer source);
+
+    /**
+     * @see Pointer#getOutDegree()
+     */
+    int getOutDegree(Pointer source);
+}
@@ -62,6 +62,16 @@ public interface Pointer extends Indexable {
      */
     void addFilter(Predicate<CSObj> filter);
 
+    /**
+     * Removes given filter from this pointer.
+     * <p>
+     * <strong>Note:</strong> This method should not be called outside of
+     * {@link pascal.taie.analysis.pta.plugin.Plugin#onPhaseFinish()},
+     * otherwise it may break the monotonicity of pointer analysis.
+     * </p>
+     */
+    void removeFilter(Predicate<CSObj> filter);
+
     /**
      * @return all filters added to this pointer.
      */
@@ -46,6 +46,12 @@ class ContextInsensitiveSelector extends AbstractContextSelector<Void> {
         return getEmptyContext();
     }
 
+    @Override
+    public Object getReceiverKey(CSObj recv) {
+        // contexts do not depend on receiver objects
+        return getEmptyContext();
+    }
+
     @Override
     protected Context selectNewObjContext(CSMethod method, NewObj obj) {
         return getEmptyContext();
@@ -58,6 +58,24 @@ public interface ContextSelector {
      */
     Context selectContext(CSCallSite callSite, CSObj recv, JMethod callee);
 
+    /**
+     * Returns the key of receiver object for selecting contexts for
+     * instance methods. For the receiver objects with equal keys,
+     * {@link #selectContext(CSCallSite, CSObj, JMethod)} must return
+     * the same context given the same call site and callee, thus solvers
+     * can select contexts once for the receiver objects with equal keys.
+     * <p>
+     * By default, the key is the receiver object itself. The selectors
+     * whose contexts do not depend on (some parts of) receiver objects
+     * can return coarser keys.
+     *
+     * @param recv the (context-sensitive) receiver object.
+     * @return the key of the receiver object.
+     */
+    default Object getReceiverKey(CSObj recv) {
+        return recv;
+    }
+
     /**
      * Selects heap contexts for new-created abstract objects.
      *
@@ -45,4 +45,10 @@ class KCallSelector extends KLimitingSelector<Invoke> {
         Context parent = callSite.getContext();
         return factory.append(parent, callSite.getCallSite(), limit);
     }
+
+    @Override
+    public Object getReceiverKey(CSObj recv) {
+        // contexts do not depend on receiver objects
+        return getEmptyContext();
+    }
 }
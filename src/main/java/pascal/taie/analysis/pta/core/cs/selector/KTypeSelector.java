@@ -27,6 +27,7 @@ import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Pair;
 
 class KTypeSelector extends KLimitingSelector<Type> {
 
@@ -44,4 +45,10 @@ class KTypeSelector extends KLimitingSelector<Type> {
         return factory.append(
                 recv.getContext(), recv.getObject().getContainerType(), limit);
     }
+
+    @Override
+    public Object getReceiverKey(CSObj recv) {
+        return new Pair<>(recv.getContext(),
+                recv.getObject().getContainerType());
+    }
 }
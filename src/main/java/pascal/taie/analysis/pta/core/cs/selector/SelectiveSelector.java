@@ -78,6 +78,11 @@ class SelectiveSelector implements ContextSelector {
                 delegate.getEmptyContext();
     }
 
+    @Override
+    public Object getReceiverKey(CSObj recv) {
+        return delegate.getReceiverKey(recv);
+    }
+
     @Override
     public Context selectHeapContext(CSMethod method, Obj obj) {
         return isCSObj.test(obj) ?
@@ -83,12 +83,14 @@ import pascal.taie.language.type.TypeSystem;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.Sets;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Predicate;
 
 import static pascal.taie.language.classes.Signatures.FINALIZE;
@@ -124,6 +126,11 @@ public class DefaultSolver implements Solver {
 
     private final PropagateTypes propTypes;
 
+    /**
+     * Type filters shared by the PFG edges with the same guard types.
+     */
+    private final Map<Type, TypeFilter> typeFilters = Maps.newConcurrentMap();
+
     /**
      * Whether only analyzes application code.
      */
@@ -134,6 +141,32 @@ public class DefaultSolver implements Solver {
      */
     private final long timeLimit;
 
+    /**
+     * Whether merges the pointers in cycles of copy edges.
+     */
+    private final boolean mergeCycles;
+
+    /**
+     * Number of threads for propagating points-to sets.
+     */
+    private final int threads;
+
+    /**
+     * Minimum number of pointer entries for propagating them
+     * with multiple threads.
+     */
+    private final int parallelThreshold;
+
+    /**
+     * Scheduling policy of pointer entries in work list.
+     */
+    private final String workListPolicy;
+
+    /**
+     * Whether processes the receiver objects of call sites in batches.
+     */
+    private final boolean batchCalls;
+
     private TimeLimiter timeLimiter;
 
     /**
@@ -163,6 +196,18 @@ public class DefaultSolver implements Solver {
 
     private StmtProcessor stmtProcessor;
 
+    /**
+     * Merges pointers in cycles of copy edges,
+     * {@code null} if {@link #mergeCycles} is disabled.
+     */
+    private PointerMerger pointerMerger;
+
+    /**
+     * Thread pool for propagating points-to sets,
+     * {@code null} if {@link #threads} is 1.
+     */
+    private ForkJoinPool propagationPool;
+
     private PointerAnalysisResult result;
 
     @SuppressWarnings("unchecked")
@@ -174,12 +219,30 @@ public class DefaultSolver implements Solver {
         this.csManager = csManager;
         hierarchy = World.get().getClassHierarchy();
         typeSystem = World.get().getTypeSystem();
-        ptsFactory = new PointsToSetFactory(csManager.getObjectIndexer());
+        ptsFactory = new PointsToSetFactory(csManager.getObjectIndexer(),
+                options.getString("pts-representation"));
         propTypes = new PropagateTypes(
                 (List<String>) options.get("propagate-types"),
                 typeSystem);
         onlyApp = options.getBoolean("only-app");
         timeLimit = options.getInt("time-limit");
+        mergeCycles = options.getBoolean("merge-pfg-cycles");
+        int nThreads = options.getInt("solver-threads");
+        if (nThreads <= 0) {
+            nThreads = Runtime.getRuntime().availableProcessors();
+        }
+        if (nThreads > 1 && !(ptsFactory.isThreadSafe()
+                && csManager.isThreadSafe())) {
+            logger.warn("Points-to sets are propagated with one thread," +
+                            " as pts-representation '{}' or {} is not thread-safe",
+                    options.getString("pts-representation"),
+                    csManager.getClass().getSimpleName());
+            nThreads = 1;
+        }
+        threads = nThreads;
+        parallelThreshold = options.getInt("parallel-threshold");
+        workListPolicy = options.getString("worklist-policy");
+        batchCalls = options.getBoolean("batch-calls");
     }
 
     @Override
@@ -254,11 +317,14 @@ public class DefaultSolver implements Solver {
     private void initialize() {
         callGraph = new CSCallGraph(csManager);
         pointerFlowGraph = new PointerFlowGraph(csManager);
-        workList = new WorkList();
+        workList = new WorkList(PointerScheduler.make(
+                workListPolicy, pointerFlowGraph));
         reachableMethods = Sets.newSet();
         initializedClasses = Sets.newSet();
         ignoredMethods = Sets.newSet();
         stmtProcessor = new StmtProcessor();
+        pointerMerger = mergeCycles ? new PointerMerger() : null;
+        propagationPool = threads > 1 ? new ForkJoinPool(threads) : null;
         isTimeout = false;
         if (timeLimit != UNLIMITED) {
             timeLimiter = new TimeLimiter(timeLimit);
@@ -301,6 +367,21 @@ public class DefaultSolver implements Solver {
         }
     }
 
+    /**
+     * Compacts the points-to sets of all pointers, which is done at
+     * the end of each phase, when the sets are stable.
+     *
+     * @see PointsToSet#compact()
+     */
+    private void compactPointsToSets() {
+        csManager.pointers().forEach(p -> {
+            PointsToSet pts = p.getPointsToSet();
+            if (pts != null) {
+                pts.compact();
+            }
+        });
+    }
+
     /**
      * Processes work list entries until the work list is empty.
      */
@@ -308,23 +389,19 @@ public class DefaultSolver implements Solver {
         while (!workList.isEmpty() && !isTimeout) {
             // phase starts
             while (!workList.isEmpty() && !isTimeout) {
-                WorkList.Entry entry = workList.pollEntry();
-                if (entry instanceof WorkList.PointerEntry pEntry) {
-                    Pointer p = pEntry.pointer();
-                    PointsToSet pts = pEntry.pointsToSet();
-                    PointsToSet diff = propagate(p, pts);
-                    if (!diff.isEmpty() && p instanceof CSVar v) {
-                        processInstanceStore(v, diff);
-                        processInstanceLoad(v, diff);
-                        processArrayStore(v, diff);
-                        processArrayLoad(v, diff);
-                        processCall(v, diff);
-                        plugin.onNewPointsToSet(v, diff);
+                if (propagationPool != null && !workList.hasCallEdges() &&
+                        workList.getPointerEntryCount() >= parallelThreshold) {
+                    processInParallel(workList.pollPointerEntries());
+                } else {
+                    WorkList.Entry entry = workList.pollEntry();
+                    if (entry instanceof WorkList.PointerEntry pEntry) {
+                        processPointerEntry(pEntry.pointer(), pEntry.pointsToSet());
+                    } else if (entry instanceof WorkList.CallEdgeEntry eEntry) {
+                        processCallEdge(eEntry.edge());
                     }
-                } else if (entry instanceof WorkList.CallEdgeEntry eEntry) {
-                    processCallEdge(eEntry.edge());
                 }
             }
+            compactPointsToSets();
             plugin.onPhaseFinish();
         }
         if (!workList.isEmpty() && isTimeout) {
@@ -333,11 +410,168 @@ public class DefaultSolver implements Solver {
         } else if (timeLimiter != null) { // finish normally but time limiter is still running
             timeLimiter.stop();
         }
+        if (propagationPool != null) {
+            propagationPool.shutdown();
+        }
+        logger.info("{} propagations are performed (work list policy: {})",
+                workList.getPolledPointerEntryCount(), workList.getPolicy());
+        if (pointerMerger != null) {
+            logger.info("{} pointers are merged into their representatives" +
+                    " in cycles of copy edges", pointerMerger.getMergedCount());
+        }
         plugin.onFinish();
     }
 
     /**
-     * Propagates pointsToSet to pt(pointer) and its PFG successors,
+     * Processes a pointer entry, i.e., propagates pointsToSet to pt(pointer)
+     * and processes the new objects.
+     */
+    private void processPointerEntry(Pointer pointer, PointsToSet pointsToSet) {
+        if (pointerMerger != null) {
+            Pointer rep = pointerMerger.getRep(pointer);
+            PointsToSet diff = propagate(rep, pointsToSet);
+            if (!diff.isEmpty()) {
+                for (Pointer member : pointerMerger.getMembers(rep)) {
+                    processNewPointsTo(member, diff);
+                }
+            }
+            mergeCycles();
+        } else {
+            PointsToSet diff = propagate(pointer, pointsToSet);
+            if (!diff.isEmpty()) {
+                processNewPointsTo(pointer, diff);
+            }
+        }
+    }
+
+    /**
+     * Processes given pointer entries with multiple threads.
+     * The worker threads propagate the points-to sets to the pointers and
+     * apply thread-safe transfers on their out edges, and then the new
+     * objects are processed (e.g., by statements and plugins) on the solver
+     * thread in the order of the entries. Pointers with filters are
+     * handled entirely on the solver thread, as filters may not be thread-safe.
+     */
+    private void processInParallel(List<WorkList.PointerEntry> entries) {
+        // entries for merged pointers are combined as they share
+        // the same points-to set
+        Map<Pointer, PointsToSet> entryMap = Maps.newLinkedHashMap();
+        for (WorkList.PointerEntry entry : entries) {
+            Pointer p = pointerMerger != null
+                    ? pointerMerger.getRep(entry.pointer())
+                    : entry.pointer();
+            PointsToSet pts = entryMap.get(p);
+            if (pts == null) {
+                entryMap.put(p, entry.pointsToSet());
+            } else {
+                pts.addAll(entry.pointsToSet());
+            }
+        }
+        List<Propagation> propagations = new ArrayList<>(entryMap.size());
+        entryMap.forEach((p, pts) -> propagations.add(new Propagation(p, pts)));
+        propagationPool.submit(() -> propagations.parallelStream()
+                .forEach(Propagation::run)).join();
+        for (Propagation prop : propagations) {
+            if (!prop.isDone) {
+                processPointerEntry(prop.pointer, prop.pointsToSet);
+            } else if (!prop.diff.isEmpty()) {
+                if (pointerMerger != null) {
+                    for (Pointer member : prop.members) {
+                        processNewPointsTo(member, prop.diff);
+                    }
+                    mergeCycles();
+                } else {
+                    prop.results.forEach(e -> addPointsTo(e.pointer(), e.pointsToSet()));
+                    prop.deferredEdges.forEach(edge -> {
+                        for (Transfer transfer : edge.getTransfers()) {
+                            if (!transfer.isThreadSafe()) {
+                                addPointsTo(edge.target(), transfer.apply(edge, prop.diff));
+                            }
+                        }
+                    });
+                    if (prop.pointer instanceof CSVar v) {
+                        processNewVarPointsTo(v, prop.diff);
+                    }
+                }
+            }
+            // keep the invariant that call edges are processed
+            // prior to the pointer entries
+            while (workList.hasCallEdges()) {
+                processCallEdge(workList.pollCallEdge());
+            }
+        }
+    }
+
+    /**
+     * Propagation of a pointer entry, which can be run by worker threads.
+     */
+    private class Propagation {
+
+        private final Pointer pointer;
+
+        private final PointsToSet pointsToSet;
+
+        /**
+         * Pointers that share the points-to set of {@link #pointer} when
+         * the propagation is created. They are kept here as processing
+         * prior propagations may merge or split the pointers.
+         */
+        private final List<Pointer> members;
+
+        /**
+         * Whether the propagation has been done by worker thread.
+         */
+        private boolean isDone;
+
+        private PointsToSet diff;
+
+        /**
+         * Results of applying thread-safe transfers on out edges.
+         */
+        private final List<WorkList.PointerEntry> results = new ArrayList<>();
+
+        /**
+         * Out edges with transfers that must be applied on solver thread.
+         */
+        private final List<PointerFlowEdge> deferredEdges = new ArrayList<>();
+
+        private Propagation(Pointer pointer, PointsToSet pointsToSet) {
+            this.pointer = pointer;
+            this.pointsToSet = pointsToSet;
+            this.members = pointerMerger != null
+                    ? pointerMerger.getMembers(pointer)
+                    : List.of(pointer);
+        }
+
+        private void run() {
+            if (!pointer.getFilters().isEmpty()) {
+                return;
+            }
+            diff = propagate(pointer, pointsToSet);
+            isDone = true;
+            if (diff.isEmpty() || pointerMerger != null) {
+                // out edges of merged pointers are handled on solver thread
+                return;
+            }
+            for (PointerFlowEdge edge : pointer.getOutEdges()) {
+                boolean deferred = false;
+                for (Transfer transfer : edge.getTransfers()) {
+                    if (transfer.isThreadSafe()) {
+                        results.add(new WorkList.PointerEntry(
+                                edge.target(), transfer.apply(edge, diff)));
+                    } else {
+                        deferred = true;
+                    }
+                }
+                if (deferred) {
+                    deferredEdges.add(edge);
+                }
+            }
+        }
+    }
+
+    /**
+     * Propagates pointsToSet to pt(pointer),
      * returns the difference set of pointsToSet and pt(pointer).
      */
     private PointsToSet propagate(Pointer pointer, PointsToSet pointsToSet) {
@@ -345,19 +579,117 @@ public class DefaultSolver implements Solver {
         Set<Predicate<CSObj>> filters = pointer.getFilters();
         if (!filters.isEmpty()) {
             // apply filters (of the pointer) on pointsToSet
-            pointsToSet = pointsToSet.objects()
-                    .filter(o -> filters.stream().allMatch(f -> f.test(o)))
-                    .collect(ptsFactory::make, PointsToSet::addObject, PointsToSet::addAll);
+            PointsToSet filtered = makePointsToSet();
+            for (CSObj o : pointsToSet) {
+                if (testFilters(filters, o)) {
+                    filtered.addObject(o);
+                }
+            }
+            pointsToSet = filtered;
         }
-        PointsToSet diff = getPointsToSetOf(pointer).addAllDiff(pointsToSet);
-        if (!diff.isEmpty()) {
+        return getPointsToSetOf(pointer).addAllDiff(pointsToSet);
+    }
+
+    private static boolean testFilters(Set<Predicate<CSObj>> filters, CSObj obj) {
+        for (Predicate<CSObj> filter : filters) {
+            if (!filter.test(obj)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Processes the objects newly pointed to by given pointer, i.e.,
+     * propagates them to the PFG successors of the pointer, and
+     * if the pointer is a variable, processes the relevant statements.
+     *
+     * @param pointer the pointer whose points-to set changes
+     * @param diff    set of new discovered objects pointed by the pointer.
+     */
+    private void processNewPointsTo(Pointer pointer, PointsToSet diff) {
+        if (pointerMerger != null) {
+            Pointer rep = pointerMerger.getRep(pointer);
+            pointerFlowGraph.getOutEdgesOf(pointer).forEach(edge -> {
+                Pointer target = edge.target();
+                if (pointerMerger.getRep(target) != rep) {
+                    edge.getTransfers().forEach(transfer ->
+                            addPointsTo(target, transfer.apply(edge, diff)));
+                    pointerMerger.checkEdge(edge);
+                } else {
+                    // objects propagated by identity transfers inside merged
+                    // pointers must be already in the shared points-to set,
+                    // but other transfers (e.g., the ones added by plugins)
+                    // may still produce new objects
+                    edge.getTransfers().forEach(transfer -> {
+                        if (transfer != Identity.get()) {
+                            addPointsTo(target, transfer.apply(edge, diff));
+                        }
+                    });
+                }
+            });
+        } else {
             pointerFlowGraph.getOutEdgesOf(pointer).forEach(edge -> {
                 Pointer target = edge.target();
                 edge.getTransfers().forEach(transfer ->
                         addPointsTo(target, transfer.apply(edge, diff)));
             });
         }
-        return diff;
+        if (pointer instanceof CSVar v) {
+            processNewVarPointsTo(v, diff);
+        }
+    }
+
+    /**
+     * Processes the statements relevant to given variable
+     * when its points-to set changes.
+     *
+     * @param var  the variable whose points-to set changes
+     * @param diff set of new discovered objects pointed by the variable.
+     */
+    private void processNewVarPointsTo(CSVar var, PointsToSet diff) {
+        processInstanceStore(var, diff);
+        processInstanceLoad(var, diff);
+        processArrayStore(var, diff);
+        processArrayLoad(var, diff);
+        processCall(var, diff);
+        plugin.onNewPointsToSet(var, diff);
+    }
+
+    /**
+     * Detects cycles of copy edges and merges the pointers in each cycle.
+     * Since the pointers in a cycle may point to different objects
+     * before merging, the objects that are new to each pointer are
+     * processed after merging.
+     */
+    private void mergeCycles() {
+        while (pointerMerger.hasCandidates()) {
+            for (List<Pointer> cycle : pointerMerger.detectCycles()) {
+                // compute the union of points-to sets of the pointers in cycle
+                PointsToSet union = makePointsToSet();
+                cycle.forEach(p -> union.addAll(getPointsToSetOf(p)));
+                Map<Pointer, PointsToSet> diffs = Maps.newMap(cycle.size());
+                Map<Pointer, List<Pointer>> members = Maps.newMap(cycle.size());
+                for (Pointer p : cycle) {
+                    diffs.put(p, getPointsToSetOf(p).addAllDiff(union));
+                    members.put(p, pointerMerger.getMembers(p));
+                }
+                // merge pointers and let them share points-to set
+                Pointer rep = pointerMerger.merge(cycle);
+                PointsToSet repSet = getPointsToSetOf(rep);
+                pointerMerger.getMembers(rep)
+                        .forEach(member -> member.setPointsToSet(repSet));
+                // process new objects for the merged pointers
+                for (Pointer p : cycle) {
+                    PointsToSet diff = diffs.get(p);
+                    if (!diff.isEmpty()) {
+                        for (Pointer member : members.get(p)) {
+                            processNewPointsTo(member, diff);
+                        }
+                    }
+                }
+            }
+        }
     }
 
     /**
@@ -465,6 +797,10 @@ public class DefaultSolver implements Solver {
      * @param pts  set of new discovered objects pointed by the variable.
      */
     private void processCall(CSVar recv, PointsToSet pts) {
+        if (batchCalls) {
+            processCallInBatch(recv, pts);
+            return;
+        }
         Context context = recv.getContext();
         Var var = recv.getVar();
         for (Invoke callSite : var.getInvokes()) {
@@ -493,6 +829,65 @@ public class DefaultSolver implements Solver {
         }
     }
 
+    /**
+     * Processes instance calls like {@link #processCall(CSVar, PointsToSet)},
+     * but in batches: the receiver objects are grouped by their types,
+     * so that callees are resolved once for each type; then the objects
+     * of each type are grouped by {@link ContextSelector#getReceiverKey(CSObj)},
+     * so that contexts are selected once for each key. For each call site,
+     * the new call edges are added to work list in bulk, and the receiver
+     * objects are passed to <i>this</i> variable of each callee once.
+     */
+    private void processCallInBatch(CSVar recv, PointsToSet pts) {
+        Context context = recv.getContext();
+        Var var = recv.getVar();
+        Map<Type, List<CSObj>> typeObjs = Maps.newLinkedHashMap();
+        pts.forEach(recvObj -> typeObjs.computeIfAbsent(
+                recvObj.getObject().getType(), __ -> new ArrayList<>())
+                .add(recvObj));
+        for (Invoke callSite : var.getInvokes()) {
+            CSCallSite csCallSite = csManager.getCSCallSite(context, callSite);
+            CallKind kind = CallGraphs.getCallKind(callSite);
+            // receiver objects to be passed to each callee
+            Map<CSMethod, PointsToSet> thisObjs = Maps.newLinkedHashMap();
+            typeObjs.forEach((type, recvObjs) -> {
+                // resolve callee
+                JMethod callee = CallGraphs.resolveCallee(type, callSite);
+                if (callee == null) {
+                    recvObjs.forEach(recvObj ->
+                            plugin.onUnresolvedCall(recvObj, context, callSite));
+                    return;
+                }
+                Map<Object, CSMethod> csCallees = Maps.newHybridMap();
+                for (CSObj recvObj : recvObjs) {
+                    // select context
+                    CSMethod csCallee = csCallees.computeIfAbsent(
+                            contextSelector.getReceiverKey(recvObj), __ ->
+                                    csManager.getCSMethod(contextSelector.selectContext(
+                                            csCallSite, recvObj, callee), callee));
+                    thisObjs.computeIfAbsent(csCallee, __ -> makePointsToSet())
+                            .addObject(recvObj);
+                }
+            });
+            if (thisObjs.isEmpty()) {
+                continue;
+            }
+            // build call edges
+            List<Edge<CSCallSite, CSMethod>> edges = new ArrayList<>(thisObjs.size());
+            thisObjs.keySet().forEach(csCallee ->
+                    edges.add(new Edge<>(kind, csCallSite, csCallee)));
+            workList.addEntries(edges);
+            // pass receiver objects to *this* variables
+            thisObjs.forEach((csCallee, objs) -> {
+                JMethod callee = csCallee.getMethod();
+                if (!isIgnored(callee)) {
+                    addVarPointsTo(csCallee.getContext(),
+                            callee.getIR().getThis(), objs);
+                }
+            });
+        }
+    }
+
     private void processCallEdge(Edge<CSCallSite, CSMethod> edge) {
         if (callGraph.addEdge(edge)) {
             // process new call edge
@@ -504,12 +899,13 @@ public class DefaultSolver implements Solver {
                 Invoke callSite = edge.getCallSite().getCallSite();
                 Context calleeCtx = csCallee.getContext();
                 JMethod callee = csCallee.getMethod();
+                IR calleeIR = callee.getIR();
                 InvokeExp invokeExp = callSite.getInvokeExp();
                 // pass arguments to parameters
                 for (int i = 0; i < invokeExp.getArgCount(); ++i) {
                     Var arg = invokeExp.getArg(i);
                     if (propTypes.isAllowed(arg)) {
-                        Var param = callee.getIR().getParam(i);
+                        Var param = calleeIR.getParam(i);
                         CSVar argVar = csManager.getCSVar(callerCtx, arg);
                         CSVar paramVar = csManager.getCSVar(calleeCtx, param);
                         addPFGEdge(argVar, paramVar, FlowKind.PARAMETER_PASSING);
@@ -519,7 +915,7 @@ public class DefaultSolver implements Solver {
                 Var lhs = callSite.getResult();
                 if (lhs != null && propTypes.isAllowed(lhs)) {
                     CSVar csLHS = csManager.getCSVar(callerCtx, lhs);
-                    for (Var ret : callee.getIR().getReturnVars()) {
+                    for (Var ret : calleeIR.getReturnVars()) {
                         if (propTypes.isAllowed(ret)) {
                             CSVar csRet = csManager.getCSVar(calleeCtx, ret);
                             addPFGEdge(csRet, csLHS, FlowKind.RETURN);
@@ -772,9 +1168,24 @@ public class DefaultSolver implements Solver {
 
     @Override
     public void addPointerFilter(Pointer pointer, Predicate<CSObj> filter) {
+        if (pointerMerger != null && pointerMerger.isMerged(pointer)) {
+            // the filter only applies to given pointer, but the merged
+            // pointers share their points-to set, thus split them and
+            // let each of them own a copy of the shared set
+            PointsToSet shared = getPointsToSetOf(pointer);
+            for (Pointer member : pointerMerger.split(pointer)) {
+                member.setPointsToSet(shared.copy());
+            }
+        }
         pointer.addFilter(filter);
     }
 
+    @Override
+    public void addPFGEdge(PointerFlowEdge edge, Type type) {
+        addPFGEdge(edge, typeFilters.computeIfAbsent(type,
+                t -> new TypeFilter(t, this)));
+    }
+
     @Override
     public void addPFGEdge(PointerFlowEdge edge, Transfer transfer) {
         edge = pointerFlowGraph.addEdge(edge);
@@ -878,6 +1289,11 @@ public class DefaultSolver implements Solver {
         }
     }
 
+    @Override
+    public boolean hasPendingWork() {
+        return !workList.isEmpty();
+    }
+
     @Override
     public PointerAnalysisResult getResult() {
         if (result == null) {
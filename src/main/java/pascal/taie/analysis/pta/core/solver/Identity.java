@@ -36,4 +36,9 @@ public enum Identity implements Transfer {
     public PointsToSet apply(PointerFlowEdge edge, PointsToSet input) {
         return input;
     }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
 }
@@ -0,0 +1,251 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.graph.SCC;
+import pascal.taie.util.graph.SimpleGraph;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Detects cycles of copy edges in pointer flow graph, and merges
+ * the pointers in each cycle into a representative pointer.
+ * <p>
+ * A copy edge is an edge that propagates objects without any type filter
+ * or transfer function (i.e., its transfers include {@link Identity}),
+ * thus all pointers in a cycle of copy edges must have the same
+ * points-to set. Merged pointers share the points-to set of their
+ * representative, so that objects do not need to be propagated around
+ * the cycle again and again.
+ * <p>
+ * Cycle detection is lazy (in the style of Hardekopf and Lin's lazy
+ * cycle detection): a copy edge {@code s -> t} becomes a candidate when
+ * the points-to sets of {@code s} and {@code t} have the same size after
+ * propagation, and each edge is checked at most once. Pointers with
+ * filters are never merged, as their points-to sets may differ from
+ * the ones of their predecessors, and when a filter is added to a merged
+ * pointer, the pointers merged with it are split (see {@link #split}).
+ */
+final class PointerMerger {
+
+    /**
+     * Maps merged pointers to their parents in union-find forest.
+     * Pointers absent from this map are representatives of themselves.
+     */
+    private final Map<Pointer, Pointer> parents = Maps.newMap();
+
+    /**
+     * Maps representatives to pointers merged into them
+     * (including the representatives).
+     */
+    private final Map<Pointer, List<Pointer>> members = Maps.newMap();
+
+    /**
+     * Copy edges that have been considered as candidates.
+     */
+    private final Set<PointerFlowEdge> checkedEdges = Sets.newSet();
+
+    /**
+     * Source pointers of the candidate edges which are waiting for
+     * cycle detection.
+     */
+    private final Deque<Pointer> candidates = new ArrayDeque<>();
+
+    /**
+     * @return the representative of given pointer.
+     */
+    Pointer getRep(Pointer pointer) {
+        Pointer parent = parents.get(pointer);
+        if (parent == null) {
+            return pointer;
+        }
+        Pointer rep = getRep(parent);
+        if (rep != parent) { // path compression
+            parents.put(pointer, rep);
+        }
+        return rep;
+    }
+
+    /**
+     * @return pointers that have been merged into given representative.
+     * If the pointer has not been merged with other pointers,
+     * returns a singleton list of the pointer.
+     */
+    List<Pointer> getMembers(Pointer rep) {
+        List<Pointer> result = members.get(rep);
+        return result != null ? result : List.of(rep);
+    }
+
+    /**
+     * @return {@code true} if given pointer has been merged
+     * with other pointers.
+     */
+    boolean isMerged(Pointer pointer) {
+        return members.containsKey(getRep(pointer));
+    }
+
+    /**
+     * Splits the pointers that have been merged with given pointer,
+     * so that each of them becomes a representative of itself again.
+     * The pointers are split altogether, as the rest of them may no longer
+     * form a cycle without given pointer.
+     *
+     * @return the pointers that have been merged with given pointer
+     * (including itself), or an empty list if it has not been merged.
+     */
+    List<Pointer> split(Pointer pointer) {
+        List<Pointer> merged = members.remove(getRep(pointer));
+        if (merged == null) {
+            return List.of();
+        }
+        merged.forEach(parents::remove);
+        return merged;
+    }
+
+    /**
+     * @return number of pointers that have been merged into others.
+     */
+    int getMergedCount() {
+        return parents.size();
+    }
+
+    /**
+     * Checks whether given edge, which has just propagated objects,
+     * may be in a cycle. If so, the edge is recorded as a candidate
+     * for cycle detection.
+     */
+    void checkEdge(PointerFlowEdge edge) {
+        Pointer source = getRep(edge.source());
+        Pointer target = getRep(edge.target());
+        if (source == target || !isCopy(edge)
+                || hasFilters(source) || hasFilters(target)) {
+            return;
+        }
+        PointsToSet sourceSet = source.getPointsToSet();
+        PointsToSet targetSet = target.getPointsToSet();
+        if (sourceSet != null && targetSet != null
+                && sourceSet.size() == targetSet.size()
+                && checkedEdges.add(edge)) {
+            candidates.add(source);
+        }
+    }
+
+    /**
+     * @return {@code true} if there are candidate edges
+     * waiting for cycle detection.
+     */
+    boolean hasCandidates() {
+        return !candidates.isEmpty();
+    }
+
+    /**
+     * Detects cycles that go through the candidate edges.
+     * Candidates are cleared after detection.
+     *
+     * @return the detected cycles, each of which is a list of
+     * representatives to be merged.
+     */
+    List<List<Pointer>> detectCycles() {
+        // collect the sub-graph of copy edges reachable from candidates
+        SimpleGraph<Pointer> graph = new SimpleGraph<>();
+        Set<Pointer> visited = Sets.newSet();
+        Deque<Pointer> workList = new ArrayDeque<>();
+        for (Pointer candidate : candidates) {
+            Pointer rep = getRep(candidate);
+            if (visited.add(rep)) {
+                workList.add(rep);
+            }
+        }
+        candidates.clear();
+        while (!workList.isEmpty()) {
+            Pointer rep = workList.poll();
+            graph.addNode(rep);
+            for (Pointer member : getMembers(rep)) {
+                for (PointerFlowEdge edge : member.getOutEdges()) {
+                    Pointer target = getRep(edge.target());
+                    if (target != rep && isCopy(edge) && !hasFilters(target)) {
+                        graph.addEdge(rep, target);
+                        if (visited.add(target)) {
+                            workList.add(target);
+                        }
+                    }
+                }
+            }
+        }
+        List<List<Pointer>> cycles = new ArrayList<>();
+        for (List<Pointer> component : new SCC<>(graph).getTrueComponents()) {
+            if (component.size() > 1) {
+                cycles.add(component);
+            }
+        }
+        return cycles;
+    }
+
+    /**
+     * Merges given representatives into one.
+     *
+     * @return the representative of the merged pointers.
+     */
+    Pointer merge(Collection<Pointer> reps) {
+        Pointer rep = null;
+        List<Pointer> merged = new ArrayList<>();
+        for (Pointer p : reps) {
+            if (rep == null) {
+                rep = p;
+            } else {
+                parents.put(p, rep);
+            }
+            List<Pointer> pMembers = members.remove(p);
+            if (pMembers != null) {
+                merged.addAll(pMembers);
+            } else {
+                merged.add(p);
+            }
+        }
+        members.put(rep, merged);
+        return rep;
+    }
+
+    private boolean hasFilters(Pointer rep) {
+        for (Pointer member : getMembers(rep)) {
+            if (!member.getFilters().isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isCopy(PointerFlowEdge edge) {
+        return edge.getTransfers().contains(Identity.get());
+    }
+}
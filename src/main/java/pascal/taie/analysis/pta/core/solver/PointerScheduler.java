@@ -0,0 +1,271 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.config.ConfigException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.graph.SCC;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+
+/**
+ * Decides the order in which the pointer entries in {@link WorkList}
+ * are processed. A scheduler only maintains the pointers, and
+ * each pointer is added to the scheduler at most once until it is polled.
+ */
+interface PointerScheduler {
+
+    /**
+     * Adds a pointer that newly enters the work list.
+     */
+    void add(Pointer pointer);
+
+    /**
+     * Retrieves and removes the next pointer to be processed.
+     */
+    Pointer poll();
+
+    /**
+     * @return the name of the scheduling policy.
+     */
+    String getPolicy();
+
+    /**
+     * Makes a scheduler for given policy.
+     *
+     * @param policy the scheduling policy, which can be:
+     *               <ul>
+     *                   <li>"fifo": first in, first out</li>
+     *                   <li>"topo": topological order over the SCC DAG
+     *                   of pointer flow graph</li>
+     *                   <li>"lrf": least recently fired first</li>
+     *                   <li>"deep": depth-first propagation (bounded),
+     *                   then first in, first out</li>
+     *               </ul>
+     * @param pfg    the pointer flow graph being solved
+     */
+    static PointerScheduler make(String policy, PointerFlowGraph pfg) {
+        return switch (policy) {
+            case "fifo" -> new FIFO();
+            case "topo" -> new Topological(pfg);
+            case "lrf" -> new LeastRecentlyFired();
+            case "deep" -> new DeepFirst();
+            default -> throw new ConfigException(
+                    "Unknown work list policy: " + policy);
+        };
+    }
+
+    /**
+     * Processes pointers in the order they enter the work list.
+     */
+    class FIFO implements PointerScheduler {
+
+        private final Queue<Pointer> queue = new ArrayDeque<>();
+
+        @Override
+        public void add(Pointer pointer) {
+            queue.add(pointer);
+        }
+
+        @Override
+        public Pointer poll() {
+            return queue.poll();
+        }
+
+        @Override
+        public String getPolicy() {
+            return "fifo";
+        }
+    }
+
+    /**
+     * Processes pointers in topological order of the SCC DAG of pointer
+     * flow graph, so that the pointers are likely to receive all objects
+     * from their predecessors before they are processed.
+     * As the pointer flow graph grows during the analysis, the order is
+     * recomputed after the scheduler has polled as many pointers as the
+     * nodes of the graph at last computation. The pointers that are absent
+     * in the last computation are processed after the others.
+     */
+    class Topological implements PointerScheduler {
+
+        /**
+         * Minimum number of polls between two computations of the order.
+         */
+        private static final int MIN_UPDATE_INTERVAL = 1024;
+
+        private final PointerFlowGraph pfg;
+
+        private Map<Pointer, Integer> orders = Map.of();
+
+        /**
+         * Number of polls before next computation of the order.
+         */
+        private int pollsToUpdate = 0;
+
+        private PriorityQueue<Pointer> queue = new PriorityQueue<>(
+                Comparator.comparingInt(this::getOrder));
+
+        private Topological(PointerFlowGraph pfg) {
+            this.pfg = pfg;
+        }
+
+        private int getOrder(Pointer pointer) {
+            return orders.getOrDefault(pointer, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public void add(Pointer pointer) {
+            queue.add(pointer);
+        }
+
+        @Override
+        public Pointer poll() {
+            if (--pollsToUpdate < 0) {
+                updateOrders();
+            }
+            return queue.poll();
+        }
+
+        private void updateOrders() {
+            // Tarjan's algorithm finds SCCs in reverse topological order
+            List<List<Pointer>> components = new SCC<>(pfg).getComponents();
+            Map<Pointer, Integer> newOrders = Maps.newMap(pfg.getNumberOfNodes());
+            int order = components.size();
+            for (List<Pointer> component : components) {
+                --order;
+                for (Pointer pointer : component) {
+                    newOrders.put(pointer, order);
+                }
+            }
+            orders = newOrders;
+            pollsToUpdate = Math.max(newOrders.size(), MIN_UPDATE_INTERVAL);
+            // rebuild the queue with new orders
+            List<Pointer> pointers = new ArrayList<>(queue);
+            queue = new PriorityQueue<>(Math.max(pointers.size(), 1),
+                    Comparator.comparingInt(this::getOrder));
+            queue.addAll(pointers);
+        }
+
+        @Override
+        public String getPolicy() {
+            return "topo";
+        }
+    }
+
+    /**
+     * Processes the pointer that was least recently processed (fired)
+     * first. Pointers that have never been processed are prioritized.
+     */
+    class LeastRecentlyFired implements PointerScheduler {
+
+        private final Map<Pointer, Integer> lastFired = Maps.newMap();
+
+        private int time = 0;
+
+        private final PriorityQueue<Pointer> queue = new PriorityQueue<>(
+                Comparator.comparingInt(p -> lastFired.getOrDefault(p, -1)));
+
+        @Override
+        public void add(Pointer pointer) {
+            queue.add(pointer);
+        }
+
+        @Override
+        public Pointer poll() {
+            Pointer pointer = queue.poll();
+            if (pointer != null) {
+                lastFired.put(pointer, time++);
+            }
+            return pointer;
+        }
+
+        @Override
+        public String getPolicy() {
+            return "lrf";
+        }
+    }
+
+    /**
+     * Processes pointers in two phases. The pointers added after processing
+     * a pointer are processed first in depth-first (last in, first out)
+     * order, so that new objects are propagated deeply along the pointer
+     * flow graph. When the depth exceeds {@link #MAX_DEPTH}, the pointers
+     * are deferred to a first-in-first-out queue, which is processed
+     * when there are no more pointers to propagate in depth.
+     */
+    class DeepFirst implements PointerScheduler {
+
+        private static final int MAX_DEPTH = 16;
+
+        private final Deque<Pointer> stack = new ArrayDeque<>();
+
+        private final Queue<Pointer> queue = new ArrayDeque<>();
+
+        /**
+         * Depths of the pointers in {@link #stack}.
+         */
+        private final Map<Pointer, Integer> depths = Maps.newMap();
+
+        /**
+         * Depth of the last polled pointer.
+         */
+        private int lastDepth = 0;
+
+        @Override
+        public void add(Pointer pointer) {
+            int depth = lastDepth + 1;
+            if (depth <= MAX_DEPTH) {
+                stack.push(pointer);
+                depths.put(pointer, depth);
+            } else {
+                queue.add(pointer);
+            }
+        }
+
+        @Override
+        public Pointer poll() {
+            if (!stack.isEmpty()) {
+                Pointer pointer = stack.pop();
+                lastDepth = depths.remove(pointer);
+                return pointer;
+            } else {
+                lastDepth = 0;
+                return queue.poll();
+            }
+        }
+
+        @Override
+        public String getPolicy() {
+            return "deep";
+        }
+    }
+}
@@ -227,6 +227,19 @@ public interface Solver {
     void initializeClass(JClass cls);
     // ---------- side-effect APIs (end) ----------
 
+    /**
+     * @return {@code true} if there are points-to relations or call edges
+     * added via the side-effect APIs that have not been processed yet.
+     * Plugins can use this to check whether their updates in
+     * {@link Plugin#onPhaseFinish()} trigger another phase of the analysis.
+     * The default implementation is for the solvers that do not keep
+     * track of pending work: it returns {@code false}, i.e., plugins do not
+     * wait for another phase after their updates.
+     */
+    default boolean hasPendingWork() {
+        return false;
+    }
+
     /**
      * @return pointer analysis result.
      */
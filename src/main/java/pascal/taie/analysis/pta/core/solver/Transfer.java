@@ -40,4 +40,16 @@ public interface Transfer {
      * @return set of objects that are propagated to the "target" node.
      */
     PointsToSet apply(PointerFlowEdge edge, PointsToSet input);
+
+    /**
+     * When the solver propagates points-to sets with multiple threads,
+     * only the thread-safe transfer functions are applied on the worker
+     * threads, and the others are applied on the solver thread.
+     *
+     * @return {@code true} if this function can be applied concurrently,
+     * i.e., it does not modify any shared states.
+     */
+    default boolean isThreadSafe() {
+        return false;
+    }
 }
@@ -22,17 +22,29 @@
 
 package pascal.taie.analysis.pta.core.solver;
 
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
 import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.language.type.NullType;
 import pascal.taie.language.type.ReferenceType;
 import pascal.taie.language.type.Type;
 import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.collection.IBitSet;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.SparseBitSet;
 
-import java.util.function.Supplier;
+import java.util.Map;
 
 /**
  * Transfer function that filters out the objects whose types are NOT
  * subtypes of specific type.
+ * <p>
+ * The filter keeps a mask of the objects (by {@link CSObj#getIndex()}) that
+ * pass the check, which grows incrementally as new objects flow into the
+ * filter. Thus, the type of each object is checked at most once by a filter,
+ * and filtering a points-to set is reduced to retaining the objects in
+ * the mask, which is a bit-wise AND for bit-set-based points-to sets.
+ * Solvers could share a filter among the edges with the same guard type
+ * to share the mask.
  */
 public class TypeFilter implements Transfer {
 
@@ -43,23 +55,81 @@ public class TypeFilter implements Transfer {
 
     private final TypeSystem typeSystem;
 
-    private final Supplier<PointsToSet> ptsFactory;
+    /**
+     * Results of the subtype checks of object types,
+     * which is accessed only when holding the lock of this filter.
+     */
+    private final Map<Type, Boolean> assignables = Maps.newMap();
+
+    /**
+     * Masks of the objects that have been checked and of the ones that
+     * pass the check. The masks are never modified after they are published,
+     * but replaced by the updated copies, thus they can be read by
+     * multiple threads without locking.
+     */
+    private volatile Masks masks = new Masks(new SparseBitSet(), new SparseBitSet());
+
+    private record Masks(IBitSet checked, IBitSet passed) {
+    }
 
     public TypeFilter(Type type, Solver solver) {
         this.type = type;
         this.typeSystem = solver.getTypeSystem();
-        this.ptsFactory = solver::makePointsToSet;
     }
 
     @Override
     public PointsToSet apply(PointerFlowEdge edge, PointsToSet input) {
-        PointsToSet result = ptsFactory.get();
-        input.objects()
-                .filter(o -> isAssignable(o.getObject().getType(), type))
-                .forEach(result::addObject);
+        Masks m = masks;
+        PointsToSet result = input.copy();
+        if (result.retainAll(m.checked())) {
+            // input contains objects that have not been checked
+            m = check(input);
+            result = input.copy();
+        }
+        result.retainAll(m.passed());
         return result;
     }
 
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    /**
+     * Checks the objects in {@code input} that have not been checked,
+     * and publishes the updated masks.
+     *
+     * @return the masks that cover all objects in {@code input}.
+     */
+    private synchronized Masks check(PointsToSet input) {
+        Masks m = masks;
+        IBitSet checked = null;
+        IBitSet passed = null;
+        for (CSObj o : input) {
+            int index = o.getIndex();
+            if (!m.checked().get(index)) {
+                if (checked == null) {
+                    checked = m.checked().copy();
+                    passed = m.passed().copy();
+                }
+                checked.set(index);
+                if (isAssignable(o.getObject().getType())) {
+                    passed.set(index);
+                }
+            }
+        }
+        if (checked != null) {
+            m = new Masks(checked, passed);
+            masks = m;
+        }
+        return m;
+    }
+
+    private boolean isAssignable(Type objType) {
+        return assignables.computeIfAbsent(objType,
+                t -> isAssignable(t, type));
+    }
+
     private boolean isAssignable(Type from, Type to) {
         return (from instanceof NullType)
                 ? to instanceof ReferenceType
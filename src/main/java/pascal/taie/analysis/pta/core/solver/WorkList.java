@@ -30,6 +30,9 @@ import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.util.collection.Maps;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Queue;
@@ -42,19 +45,34 @@ final class WorkList {
     /**
      * Pointer entries to be processed.
      */
-    private final Map<Pointer, PointsToSet> pointerEntries = Maps.newLinkedHashMap();
+    private final Map<Pointer, PointsToSet> pointerEntries = Maps.newMap();
+
+    /**
+     * Decides the order of processing pointer entries.
+     */
+    private final PointerScheduler scheduler;
+
+    /**
+     * Number of pointer entries that have been polled.
+     */
+    private long polledPointerEntries = 0;
 
     /**
      * Call edges to be processed.
      */
     private final Queue<Edge<CSCallSite, CSMethod>> callEdges = new ArrayDeque<>();
 
+    WorkList(PointerScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
     void addEntry(Pointer pointer, PointsToSet pointsToSet) {
         PointsToSet set = pointerEntries.get(pointer);
         if (set != null) {
             set.addAll(pointsToSet);
         } else {
             pointerEntries.put(pointer, pointsToSet.copy());
+            scheduler.add(pointer);
         }
     }
 
@@ -62,21 +80,76 @@ final class WorkList {
         callEdges.add(edge);
     }
 
+    void addEntries(Collection<Edge<CSCallSite, CSMethod>> edges) {
+        callEdges.addAll(edges);
+    }
+
     Entry pollEntry() {
         if (!callEdges.isEmpty()) {
             // for correctness, we need to ensure that any call edges in
             // the work list must be processed prior to the pointer entries
             return new CallEdgeEntry(callEdges.poll());
         } else if (!pointerEntries.isEmpty()) {
-            var it = pointerEntries.entrySet().iterator();
-            var e = it.next();
-            it.remove();
-            return new PointerEntry(e.getKey(), e.getValue());
+            return pollPointerEntry();
         } else {
             throw new NoSuchElementException();
         }
     }
 
+    /**
+     * Retrieves and removes all pointer entries in this work list.
+     * This method should be called only when there is no call edges
+     * in the work list.
+     */
+    List<PointerEntry> pollPointerEntries() {
+        assert callEdges.isEmpty();
+        List<PointerEntry> entries = new ArrayList<>(pointerEntries.size());
+        while (!pointerEntries.isEmpty()) {
+            entries.add(pollPointerEntry());
+        }
+        return entries;
+    }
+
+    private PointerEntry pollPointerEntry() {
+        Pointer pointer = scheduler.poll();
+        ++polledPointerEntries;
+        return new PointerEntry(pointer, pointerEntries.remove(pointer));
+    }
+
+    /**
+     * Retrieves and removes the first call edge in this work list.
+     */
+    Edge<CSCallSite, CSMethod> pollCallEdge() {
+        Edge<CSCallSite, CSMethod> edge = callEdges.poll();
+        if (edge == null) {
+            throw new NoSuchElementException();
+        }
+        return edge;
+    }
+
+    int getPointerEntryCount() {
+        return pointerEntries.size();
+    }
+
+    /**
+     * @return the number of pointer entries that have been polled,
+     * i.e., the number of propagations performed by the solver.
+     */
+    long getPolledPointerEntryCount() {
+        return polledPointerEntries;
+    }
+
+    /**
+     * @return the scheduling policy of pointer entries.
+     */
+    String getPolicy() {
+        return scheduler.getPolicy();
+    }
+
+    boolean hasCallEdges() {
+        return !callEdges.isEmpty();
+    }
+
     boolean isEmpty() {
         return pointerEntries.isEmpty() && callEdges.isEmpty();
     }
@@ -0,0 +1,87 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin.taint;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.annotation.Nullable;
+import java.util.Set;
+
+/**
+ * Updater for interactive mode, which asks the user via console whether
+ * to reload taint configuration (which may have been modified) and
+ * run taint analysis again.
+ */
+class ConsoleUpdater implements TaintConfigUpdater {
+
+    private static final Logger logger = LogManager.getLogger(ConsoleUpdater.class);
+
+    private final String configPath;
+
+    ConsoleUpdater(String configPath) {
+        this.configPath = configPath;
+    }
+
+    @Override
+    public boolean update(TaintAnalysis taintAnalysis, Set<TaintFlow> taintFlows) {
+        System.out.println("Taint Analysis is in interactive mode,"
+                + " you can modify the taint configuration and run the analysis again.\n"
+                + "Enter 'r' to run, 'e' to exit: ");
+        String input = readLineFromConsole();
+        if (input == null) {
+            return false;
+        }
+        input = input.strip();
+        System.out.println("You have entered: '" + input + "'");
+        if ("r".equals(input)) {
+            taintAnalysis.reload(configPath);
+        }
+        return !"e".equals(input);
+    }
+
+    /**
+     * A utility method for reading one line from the console using {@code System.in}.
+     * This method does not use buffering to ensure it does not read more than necessary.
+     * <br>
+     *
+     * @return one line line read from the console,
+     * or {@code null} if no line is available
+     */
+    @Nullable
+    private static String readLineFromConsole() {
+        StringBuilder sb = new StringBuilder();
+        try {
+            int c;
+            while ((c = System.in.read()) != -1) {
+                if (c == '\r' || c == '\n') {
+                    return sb.toString();
+                }
+                sb.append((char) c);
+            }
+        } catch (Exception e) {
+            logger.error("Error reading from console", e);
+        }
+        return sb.isEmpty() ? null : sb.toString();
+    }
+}
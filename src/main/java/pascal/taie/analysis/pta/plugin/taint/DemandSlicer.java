@@ -0,0 +1,487 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin.taint;
+
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphs;
+import pascal.taie.analysis.pta.plugin.util.InvokeUtils;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArrayAccess;
+import pascal.taie.ir.exp.FieldAccess;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.InvokeDynamic;
+import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.InvokeInstanceExp;
+import pascal.taie.ir.exp.MethodHandle;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.FieldStmt;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Subsignature;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.ReferenceType;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Computes the methods that are relevant to the sinks of taint analysis,
+ * which is used by the demand-driven mode of taint analysis.
+ * <p>
+ * The slicer builds a cheap flow-insensitive value-flow graph over
+ * the methods of a call graph built by class hierarchy analysis.
+ * Fields are modeled field-based and the elements of all arrays are
+ * modeled by a single node. Starting from the arguments of sink calls,
+ * the slicer traverses the graph backward, and each time it crosses a
+ * flow that relies on a call site, a field access or an array access,
+ * it also demands the base variable, as pointer analysis needs the
+ * points-to set of the base to produce the flow.
+ * <p>
+ * A method is relevant if it declares a demanded variable, or if it is
+ * on the call chain that keeps a relevant method reachable from the entry
+ * methods. The flows introduced by exceptions, reflection, and the
+ * parameters of lambda bodies are not modeled by the slicer.
+ * <p>
+ * The entry methods should include the entries added by all plugins
+ * of pointer analysis, as the methods reachable only from the missing
+ * entries would be considered irrelevant.
+ */
+class DemandSlicer {
+
+    /**
+     * Represents the elements of all arrays.
+     */
+    private static final Object ARRAY_ELEMS = new Object() {
+        @Override
+        public String toString() {
+            return "<array-elements>";
+        }
+    };
+
+    /**
+     * Represents a flow from source node to target node.
+     *
+     * @param source  the source node, or {@code null} if the target
+     *                does not receive values from other nodes
+     * @param demands the variables whose points-to sets are needed
+     *                by pointer analysis to produce this flow
+     */
+    private record Flow(@Nullable Object source, List<Var> demands) {
+    }
+
+    private static final Subsignature RUN = Subsignature.get("void run()");
+
+    private final TaintConfig config;
+
+    /**
+     * Thread and Runnable, whose {@code run()} methods are invoked
+     * by the threads started by pointer analysis.
+     */
+    private final List<JClass> threadClasses;
+
+    private final Set<JMethod> entries;
+
+    private final CallGraph<Invoke, JMethod> callGraph;
+
+    /**
+     * Map from each node to the flows into it. Nodes are variables,
+     * fields, and {@link #ARRAY_ELEMS}.
+     */
+    private final MultiMap<Object, Flow> inFlows = Maps.newMultiMap();
+
+    private final MultiMap<JMethod, TaintTransfer> transfers;
+
+    private final MultiMap<JMethod, CallSource> callSources;
+
+    DemandSlicer(TaintConfig config, ClassHierarchy hierarchy,
+                 Collection<JMethod> entries) {
+        this.config = config;
+        this.threadClasses = Stream.of(ClassNames.THREAD, "java.lang.Runnable")
+                .map(hierarchy::getJREClass)
+                .filter(Objects::nonNull)
+                .toList();
+        this.entries = Sets.newSet(entries);
+        this.callGraph = buildCallGraph(hierarchy, entries);
+        transfers = Maps.newMultiMap();
+        config.transfers().forEach(t -> transfers.put(t.method(), t));
+        callSources = Maps.newMultiMap();
+        config.sources().forEach(s -> {
+            if (s instanceof CallSource cs) {
+                callSources.put(cs.method(), cs);
+            }
+        });
+    }
+
+    /**
+     * Builds call graph via CHA. Pointer analysis also processes the static
+     * initializers of the classes initialized by reachable methods,
+     * the methods referenced by invokedynamic (e.g., lambda bodies),
+     * and the {@code run()} methods of the started threads (which
+     * {@link pascal.taie.analysis.pta.plugin.ThreadHandler} and the native
+     * model of {@code Thread.start()} connect to the callers), which are
+     * invisible to or may be missed by CHA, so these methods are added
+     * to the entries until fixed point.
+     */
+    private CallGraph<Invoke, JMethod> buildCallGraph(
+            ClassHierarchy hierarchy, Collection<JMethod> entries) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        Set<JMethod> roots = Sets.newSet(entries);
+        while (true) {
+            CallGraph<Invoke, JMethod> cg = CallGraphs.buildCHA(
+                    roots, "cha-full", threads);
+            List<JMethod> implicitCallees = cg.reachableMethods()
+                    .flatMap(m -> getImplicitCallees(hierarchy, m))
+                    .distinct()
+                    .filter(callee -> !cg.contains(callee))
+                    .toList();
+            if (implicitCallees.isEmpty()) {
+                return cg;
+            }
+            roots.addAll(implicitCallees);
+        }
+    }
+
+    /**
+     * @return the methods that may be reached when pointer analysis
+     * processes the given method, but are not resolved by CHA, i.e.,
+     * the static initializers of the classes (and their superclasses)
+     * initialized by the method, the methods referenced by the
+     * bootstrap arguments of invokedynamic, and the {@code run()} methods
+     * of the threads and runnables created by the method.
+     */
+    private Stream<JMethod> getImplicitCallees(
+            ClassHierarchy hierarchy, JMethod method) {
+        Set<JClass> classes = Sets.newHybridSet();
+        Set<JMethod> callees = Sets.newHybridSet();
+        classes.add(method.getDeclaringClass());
+        if (!method.isAbstract()) {
+            for (Stmt stmt : method.getIR()) {
+                if (stmt instanceof New newStmt
+                        && newStmt.getRValue().getType() instanceof ClassType type) {
+                    classes.add(type.getJClass());
+                    JMethod run = getRunMethod(hierarchy, type.getJClass());
+                    if (run != null) {
+                        callees.add(run);
+                    }
+                } else if (stmt instanceof FieldStmt<?, ?> fieldStmt
+                        && fieldStmt.isStatic()) {
+                    classes.add(fieldStmt.getFieldRef().getDeclaringClass());
+                } else if (stmt instanceof Invoke invoke) {
+                    if (invoke.isStatic()) {
+                        classes.add(invoke.getMethodRef().getDeclaringClass());
+                    } else if (invoke.getInvokeExp() instanceof InvokeDynamic indy) {
+                        indy.getBootstrapArgs().forEach(arg -> {
+                            if (arg instanceof MethodHandle mh && mh.isMethodRef()) {
+                                JMethod target = mh.getMethodRef().resolveNullable();
+                                if (target != null) {
+                                    callees.add(target);
+                                }
+                            }
+                        });
+                    }
+                }
+            }
+        }
+        Stream<JMethod> clinits = classes.stream()
+                .filter(Objects::nonNull)
+                .flatMap(c -> Stream.iterate(c, Objects::nonNull, JClass::getSuperClass))
+                .map(JClass::getClinit)
+                .filter(Objects::nonNull);
+        return Stream.concat(clinits, callees.stream());
+    }
+
+    /**
+     * @return the {@code run()} method that is executed when an object
+     * of given class is started as a thread (or is passed to a thread
+     * as its task), or {@code null} if the class is neither a thread
+     * nor a runnable.
+     */
+    @Nullable
+    private JMethod getRunMethod(ClassHierarchy hierarchy, @Nullable JClass jclass) {
+        if (jclass == null || threadClasses.stream()
+                .noneMatch(c -> hierarchy.isSubclass(c, jclass))) {
+            return null;
+        }
+        return Stream.iterate(jclass, Objects::nonNull, JClass::getSuperClass)
+                .map(c -> c.getDeclaredMethod(RUN))
+                .filter(m -> m != null && !m.isAbstract())
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * @return the methods that are reachable in the call graph built by CHA
+     * but irrelevant to the sinks. Pointer analysis can safely ignore these
+     * methods without losing any taint flows (modulo the flows that are not
+     * modeled by this slicer).
+     */
+    Set<JMethod> getIrrelevantMethods() {
+        Set<JMethod> relevant = slice();
+        Set<JMethod> irrelevant = Sets.newSet();
+        callGraph.reachableMethods()
+                .filter(m -> !relevant.contains(m) && !entries.contains(m))
+                .forEach(irrelevant::add);
+        return irrelevant;
+    }
+
+    /**
+     * @return the methods in the call graph that are relevant to the sinks.
+     */
+    private Set<JMethod> slice() {
+        callGraph.reachableMethods()
+                .filter(m -> !m.isAbstract())
+                .forEach(this::buildFlows);
+        Set<Object> demanded = Sets.newSet();
+        Set<JMethod> relevant = Sets.newSet();
+        Map<JMethod, Invoke> reachedFrom = findCallChains();
+        Deque<Object> nodes = new ArrayDeque<>();
+        Deque<JMethod> methods = new ArrayDeque<>();
+        sinkNodes().forEach(nodes::add);
+        while (!nodes.isEmpty() || !methods.isEmpty()) {
+            while (!nodes.isEmpty()) {
+                Object node = nodes.poll();
+                if (!demanded.add(node)) {
+                    continue;
+                }
+                if (node instanceof Var var) {
+                    methods.add(var.getMethod());
+                }
+                for (Flow flow : inFlows.get(node)) {
+                    if (flow.source() != null) {
+                        nodes.add(flow.source());
+                    }
+                    nodes.addAll(flow.demands());
+                }
+            }
+            // keep relevant methods reachable from the entries
+            while (!methods.isEmpty()) {
+                JMethod method = methods.poll();
+                if (!relevant.add(method)) {
+                    continue;
+                }
+                Invoke callSite = reachedFrom.get(method);
+                if (callSite != null) {
+                    methods.add(callSite.getContainer());
+                    Var base = getBase(callSite);
+                    if (base != null) {
+                        nodes.add(base);
+                    }
+                }
+            }
+        }
+        return relevant;
+    }
+
+    /**
+     * Finds a shortest call chain from the entries to each reachable method.
+     * Relevant methods only need to be reachable via one of the chains,
+     * as the call sites that pass demanded values to a relevant method
+     * are already relevant due to the demanded arguments or return values.
+     *
+     * @return map from each reachable method to the call site that
+     * reaches it in the chain.
+     */
+    private Map<JMethod, Invoke> findCallChains() {
+        Map<JMethod, Invoke> reachedFrom = Maps.newMap();
+        Set<JMethod> visited = Sets.newSet();
+        Deque<JMethod> workList = new ArrayDeque<>();
+        callGraph.entryMethods().forEach(entry -> {
+            visited.add(entry);
+            workList.add(entry);
+        });
+        while (!workList.isEmpty()) {
+            JMethod method = workList.poll();
+            callGraph.callSitesIn(method).forEach(callSite ->
+                    callGraph.getCalleesOf(callSite).forEach(callee -> {
+                        if (visited.add(callee)) {
+                            reachedFrom.put(callee, callSite);
+                            workList.add(callee);
+                        }
+                    }));
+        }
+        return reachedFrom;
+    }
+
+    /**
+     * @return the nodes that hold the values passed to sinks.
+     */
+    private Stream<Object> sinkNodes() {
+        MultiMap<JMethod, Sink> sinks = Maps.newMultiMap();
+        config.sinks().forEach(s -> sinks.put(s.method(), s));
+        return callGraph.reachableMethods()
+                .filter(m -> !m.isAbstract())
+                .flatMap(m -> m.getIR().invokes(false))
+                .flatMap(callSite -> {
+                    Set<JMethod> callees = Sets.newSet(
+                            callGraph.getCalleesOf(callSite));
+                    // call sites in call-site mode are matched by method references
+                    JMethod resolved = callSite.getMethodRef().resolveNullable();
+                    if (resolved != null) {
+                        callees.add(resolved);
+                    }
+                    return callees.stream()
+                            .flatMap(callee -> sinks.get(callee).stream())
+                            .flatMap(sink -> {
+                                Var base = getBase(callSite);
+                                Stream<Object> demands = base != null
+                                        ? Stream.of(base) : Stream.of();
+                                return Stream.concat(demands,
+                                        nodesOf(callSite, sink.indexRef()).stream());
+                            });
+                });
+    }
+
+    private void buildFlows(JMethod method) {
+        for (Stmt stmt : method.getIR()) {
+            if (stmt instanceof Copy copy) {
+                addFlow(copy.getLValue(), copy.getRValue(), List.of());
+            } else if (stmt instanceof Cast cast) {
+                addFlow(cast.getLValue(), cast.getRValue().getValue(), List.of());
+            } else if (stmt instanceof LoadField load) {
+                JField field = load.getFieldRef().resolveNullable();
+                if (field != null) {
+                    addFlow(load.getLValue(), field, baseOf(load));
+                }
+            } else if (stmt instanceof StoreField store) {
+                JField field = store.getFieldRef().resolveNullable();
+                if (field != null && isConcerned(store.getRValue())) {
+                    inFlows.put(field, new Flow(store.getRValue(), baseOf(store)));
+                }
+            } else if (stmt instanceof LoadArray load) {
+                addFlow(load.getLValue(), ARRAY_ELEMS,
+                        List.of(load.getArrayAccess().getBase()));
+            } else if (stmt instanceof StoreArray store) {
+                if (isConcerned(store.getRValue())) {
+                    ArrayAccess access = store.getArrayAccess();
+                    inFlows.put(ARRAY_ELEMS,
+                            new Flow(store.getRValue(), List.of(access.getBase())));
+                }
+            } else if (stmt instanceof Invoke invoke) {
+                buildFlows(invoke);
+            }
+        }
+    }
+
+    private void buildFlows(Invoke callSite) {
+        Var base = getBase(callSite);
+        List<Var> demands = base != null ? List.of(base) : List.of();
+        InvokeExp invokeExp = callSite.getInvokeExp();
+        Var result = callSite.getResult();
+        // the call edge is needed to pass return values or to create
+        // taint objects of call sources, thus the result demands the base
+        addFlow(result, null, demands);
+        if (invokeExp instanceof InvokeDynamic) {
+            // invokedynamic is handled by plugins of pointer analysis,
+            // and we conservatively assume that its result may come from
+            // any of its arguments (e.g., string concatenation and
+            // variables captured by lambdas)
+            invokeExp.getArgs().forEach(arg -> addFlow(result, arg, List.of()));
+        }
+        for (JMethod callee : callGraph.getCalleesOf(callSite)) {
+            for (CallSource source : callSources.get(callee)) {
+                nodesOf(callSite, source.indexRef()).forEach(node ->
+                        inFlows.put(node, new Flow(null, demands)));
+            }
+            for (TaintTransfer transfer : transfers.get(callee)) {
+                List<Object> from = nodesOf(callSite, transfer.from());
+                nodesOf(callSite, transfer.to()).forEach(to ->
+                        from.forEach(f -> inFlows.put(to, new Flow(f, demands))));
+            }
+            if (callee.isAbstract()) {
+                continue;
+            }
+            IR ir = callee.getIR();
+            if (base != null && !callee.isStatic()) {
+                addFlow(ir.getThis(), base, List.of());
+            }
+            for (int i = 0; i < invokeExp.getArgCount()
+                    && i < ir.getParams().size(); ++i) {
+                addFlow(ir.getParam(i), invokeExp.getArg(i), demands);
+            }
+            if (result != null) {
+                ir.getReturnVars().forEach(ret -> addFlow(result, ret, demands));
+            }
+        }
+    }
+
+    /**
+     * @return the nodes referenced by the given index of a call site,
+     * together with the variable that is needed to access the nodes.
+     */
+    private static List<Object> nodesOf(Invoke callSite, IndexRef indexRef) {
+        Var var = InvokeUtils.getVar(callSite, indexRef.index());
+        if (var == null) {
+            return List.of();
+        }
+        return switch (indexRef.kind()) {
+            case VAR -> List.of(var);
+            case ARRAY -> List.of(var, ARRAY_ELEMS);
+            case FIELD -> List.of(var, indexRef.field());
+        };
+    }
+
+    private void addFlow(@Nullable Var target, @Nullable Object source,
+                         List<Var> demands) {
+        if (target != null && isConcerned(target)) {
+            inFlows.put(target, new Flow(source, demands));
+        }
+    }
+
+    private static List<Var> baseOf(FieldStmt<?, ?> stmt) {
+        FieldAccess access = stmt.getFieldAccess();
+        return access instanceof InstanceFieldAccess ifa
+                ? List.of(ifa.getBase()) : List.of();
+    }
+
+    @Nullable
+    private static Var getBase(Invoke callSite) {
+        return callSite.getInvokeExp() instanceof InvokeInstanceExp ie
+                ? ie.getBase() : null;
+    }
+
+    private static boolean isConcerned(Var var) {
+        return var.getType() instanceof ReferenceType;
+    }
+}
@@ -31,7 +31,11 @@ import pascal.taie.ir.exp.Var;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
 
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Set;
 import java.util.function.Predicate;
 
 import static pascal.taie.analysis.pta.plugin.util.InvokeUtils.BASE;
@@ -48,9 +52,16 @@ class SanitizerHandler extends OnFlyHandler {
      */
     private final Predicate<CSObj> taintFilter;
 
-    SanitizerHandler(HandlerContext context) {
+    /**
+     * @param previous the handler for previous taint configuration,
+     *                 or {@code null} if there is no previous configuration.
+     *                 Its taint filter is reused, so that the filters added
+     *                 by both handlers can be removed as a whole.
+     */
+    SanitizerHandler(HandlerContext context, @Nullable SanitizerHandler previous) {
         super(context);
-        taintFilter = o -> !context.manager().isTaint(o.getObject());
+        taintFilter = previous != null ? previous.taintFilter
+                : o -> !context.manager().isTaint(o.getObject());
         context.config().paramSanitizers()
                 .forEach(s -> this.paramSanitizers.put(s.method(), s));
     }
@@ -73,6 +84,38 @@ class SanitizerHandler extends OnFlyHandler {
         }
     }
 
+    /**
+     * @return the context-sensitive parameters (in the reachable methods)
+     * sanitized by given sanitizers.
+     */
+    Set<CSVar> getSanitizedVars(Collection<ParamSanitizer> sanitizers) {
+        if (sanitizers.isEmpty()) {
+            return Set.of();
+        }
+        MultiMap<JMethod, ParamSanitizer> sanitizerMap = Maps.newMultiMap();
+        sanitizers.forEach(s -> sanitizerMap.put(s.method(), s));
+        Set<CSVar> result = Sets.newSet();
+        solver.getCallGraph().reachableMethods().forEach(csMethod -> {
+            JMethod method = csMethod.getMethod();
+            if (sanitizerMap.containsKey(method)) {
+                IR ir = method.getIR();
+                sanitizerMap.get(method).forEach(sanitizer -> {
+                    Var param = getParam(ir, sanitizer.index());
+                    result.add(csManager.getCSVar(csMethod.getContext(), param));
+                });
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Removes the taint filters added for given sanitizers.
+     */
+    void removeSanitizers(Collection<ParamSanitizer> sanitizers) {
+        getSanitizedVars(sanitizers).forEach(csVar ->
+                csVar.removeFilter(taintFilter));
+    }
+
     private static Var getParam(IR ir, int index) {
         return switch (index) {
             case BASE -> ir.getThis();
@@ -0,0 +1,137 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin.taint;
+
+import pascal.taie.analysis.graph.callgraph.CallKind;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.plugin.util.InvokeUtils;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Monitors the sink arguments on the fly, and reports taint flows
+ * as soon as taint objects reach the sink arguments.
+ * <p>
+ * For the sinks whose {@link IndexRef} is of kind {@code ARRAY} or
+ * {@code FIELD}, the elements/fields are checked when new objects reach
+ * the sink arguments, thus the taint objects that reach them later are
+ * reported when pointer analysis reaches a fixed point.
+ */
+class SinkMonitor extends OnFlyHandler {
+
+    private final MultiMap<JMethod, Sink> sinks = Maps.newMultiMap();
+
+    /**
+     * Map from a sink argument to its sink points.
+     */
+    private final MultiMap<CSVar, SinkPoint> sinkPoints = Maps.newMultiMap();
+
+    private final Consumer<TaintFlow> reporter;
+
+    SinkMonitor(HandlerContext context, Consumer<TaintFlow> reporter) {
+        super(context);
+        this.reporter = reporter;
+        context.config().sinks().forEach(s -> sinks.put(s.method(), s));
+    }
+
+    @Override
+    public void onNewCallEdge(Edge<CSCallSite, CSMethod> edge) {
+        if (edge.getKind() == CallKind.OTHER) {
+            // consistent with SinkHandler, which skips other call edges
+            return;
+        }
+        Set<Sink> calleeSinks = sinks.get(edge.getCallee().getMethod());
+        if (!calleeSinks.isEmpty()) {
+            CSCallSite csCallSite = edge.getCallSite();
+            calleeSinks.forEach(sink -> addSinkPoint(
+                    csCallSite.getContext(), csCallSite.getCallSite(), sink));
+        }
+    }
+
+    @Override
+    public void onNewCSMethod(CSMethod csMethod) {
+        if (callSiteMode) {
+            csMethod.getMethod().getIR().invokes(false).forEach(callSite -> {
+                JMethod callee = callSite.getMethodRef().resolveNullable();
+                if (callee != null) {
+                    for (Sink sink : sinks.get(callee)) {
+                        addSinkPoint(csMethod.getContext(), callSite, sink);
+                    }
+                }
+            });
+        }
+    }
+
+    private void addSinkPoint(Context context, Invoke sinkCall, Sink sink) {
+        IndexRef indexRef = sink.indexRef();
+        Var arg = InvokeUtils.getVar(sinkCall, indexRef.index());
+        CSVar csArg = csManager.getCSVar(context, arg);
+        SinkPoint sinkPoint = new SinkPoint(sinkCall, indexRef, sink);
+        if (sinkPoints.put(csArg, sinkPoint)) {
+            checkTaints(sinkPoint, csArg.objects());
+        }
+    }
+
+    @Override
+    public void onNewPointsToSet(CSVar csVar, PointsToSet pts) {
+        sinkPoints.get(csVar).forEach(sinkPoint ->
+                checkTaints(sinkPoint, pts.objects()));
+    }
+
+    /**
+     * Reports the taint flows from the taint objects (which are obtained
+     * from given objects of sink argument) to given sink point.
+     */
+    private void checkTaints(SinkPoint sinkPoint, Stream<CSObj> objs) {
+        IndexRef indexRef = sinkPoint.indexRef();
+        Stream<CSObj> taints = switch (indexRef.kind()) {
+            case VAR -> objs;
+            case ARRAY -> objs.map(csManager::getArrayIndex)
+                    .flatMap(ArrayIndex::objects);
+            case FIELD -> objs.map(o -> csManager.getInstanceField(o, indexRef.field()))
+                    .flatMap(InstanceField::objects);
+        };
+        taints.map(CSObj::getObject)
+                .filter(manager::isTaint)
+                .map(manager::getSourcePoint)
+                .distinct()
+                .map(sourcePoint -> new TaintFlow(sourcePoint, sinkPoint))
+                .toList() // avoid reporting while traversing points-to sets
+                .forEach(reporter);
+    }
+}
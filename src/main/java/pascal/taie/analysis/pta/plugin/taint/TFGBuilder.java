@@ -37,18 +37,18 @@ import pascal.taie.analysis.pta.plugin.util.InvokeUtils;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.IBitSet;
 import pascal.taie.util.collection.Maps;
-import pascal.taie.util.collection.Sets;
-import pascal.taie.util.graph.Reachability;
+import pascal.taie.util.collection.RegularBitSet;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Deque;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.stream.Stream;
 
 /**
@@ -77,9 +77,15 @@ class TFGBuilder {
     private final boolean onlyReachSink = true;
 
     /**
-     * Map from a node to set of taint objects pointed to by the node.
+     * Map from a taint object to its index in the bit sets of taint sets.
      */
-    private Map<Node, Set<Obj>> node2TaintSet;
+    private Map<Obj, Integer> taintIndexes;
+
+    /**
+     * Taint sets (encoded as bit sets) of the nodes, indexed by node index.
+     * The taint sets are computed on demand, possibly by multiple threads.
+     */
+    private AtomicReferenceArray<IBitSet> taintSets;
 
     TFGBuilder(PointerAnalysisResult pta,
                Set<TaintFlow> taintFlows,
@@ -91,32 +97,46 @@ class TFGBuilder {
     }
 
     /**
-     * Builds a complete taint flow graph.
+     * Builds a complete taint flow graph (i.e., all edges reachable from
+     * source nodes) level by level. In each level, the out edges of the
+     * newly reached nodes are computed by multiple threads, and then
+     * the results are merged in the order of the nodes, so that the
+     * resulting graph does not depend on thread scheduling.
      */
-    private TaintFlowGraph buildComplete() {
-        // builds taint flow graph
-        node2TaintSet = Maps.newMap();
-        TaintFlowGraph tfg = new TaintFlowGraph(
-                collectSourceNodes(), collectSinkNode());
-        Set<Node> visitedNodes = Sets.newSet();
-        Deque<Node> workList = new ArrayDeque<>(
-                tfg.getSourceNodes());
-        while (!workList.isEmpty()) {
-            Node node = workList.poll();
-            if (visitedNodes.add(node)) {
-                getOutEdges(node).forEach(edge -> {
+    private CompactGraph buildComplete(Set<Node> sourceNodes) {
+        taintIndexes = Maps.newMap();
+        taintManager.getTaintObjs().forEach(taint ->
+                taintIndexes.put(taint, taintIndexes.size()));
+        taintSets = new AtomicReferenceArray<>(ofg.getNodes().size());
+        CompactGraph.Builder builder = new CompactGraph.Builder(
+                ofg.getNodes().size());
+        List<Node> level = new ArrayList<>();
+        sourceNodes.forEach(node -> {
+            if (builder.addNode(node)) {
+                level.add(node);
+            }
+        });
+        while (!level.isEmpty()) {
+            List<List<FlowEdge>> edges = level.parallelStream()
+                    .map(this::getOutEdges)
+                    .toList();
+            List<Node> nextLevel = new ArrayList<>();
+            for (int i = 0; i < level.size(); ++i) {
+                Node node = level.get(i);
+                for (FlowEdge edge : edges.get(i)) {
                     Node target = edge.target();
-                    if (!onlyApp || isApp(target)) {
-                        tfg.addEdge(edge);
-                        if (!visitedNodes.contains(target)) {
-                            workList.add(target);
-                        }
+                    if (builder.addNode(target)) {
+                        nextLevel.add(target);
                     }
-                });
+                }
+                builder.setOutEdges(node, edges.get(i));
             }
+            level.clear();
+            level.addAll(nextLevel);
         }
-        node2TaintSet = null;
-        return tfg;
+        taintIndexes = null;
+        taintSets = null;
+        return builder.build();
     }
 
     private Map<Node, SourcePoint> collectSourceNodes() {
@@ -180,11 +200,17 @@ class TFGBuilder {
         };
     }
 
+    /**
+     * @return out edges of given node in the taint flow graph.
+     */
     private List<FlowEdge> getOutEdges(Node source) {
-        Set<Obj> sourceTaintSet = getTaintSet(source);
+        IBitSet sourceTaintSet = getTaintSet(source);
         List<FlowEdge> edges = new ArrayList<>();
         // collect OFG edges
         ofg.getOutEdgesOf(source).forEach(edge -> {
+            if (onlyApp && !isApp(edge.target())) {
+                return;
+            }
             switch (edge.kind()) {
                 case LOCAL_ASSIGN, INSTANCE_STORE, ARRAY_STORE,
                         THIS_PASSING, PARAMETER_PASSING, OTHER -> {
@@ -193,8 +219,8 @@ class TFGBuilder {
                 case CAST, INSTANCE_LOAD, ARRAY_LOAD, RETURN -> {
                     // check whether target node also contains the same
                     // taint objects as source node to filter spurious edges
-                    Set<Obj> targetTaintSet = getTaintSet(edge.target());
-                    if (!Collections.disjoint(sourceTaintSet, targetTaintSet)) {
+                    IBitSet targetTaintSet = getTaintSet(edge.target());
+                    if (sourceTaintSet.intersects(targetTaintSet)) {
                         edges.add(edge);
                     }
                 }
@@ -203,17 +229,19 @@ class TFGBuilder {
         return edges;
     }
 
-    private Set<Obj> getTaintSet(Node node) {
-        Set<Obj> taintSet = node2TaintSet.get(node);
+    private IBitSet getTaintSet(Node node) {
+        IBitSet taintSet = taintSets.get(node.getIndex());
         if (taintSet == null) {
-            taintSet = getPointsToSet(node)
-                    .stream()
-                    .filter(taintManager::isTaint)
-                    .collect(Sets::newHybridSet, Set::add, Set::addAll);
-            if (taintSet.isEmpty()) {
-                taintSet = Set.of();
+            // the computation is idempotent, thus it does not matter
+            // if multiple threads compute taint set of the same node
+            taintSet = new RegularBitSet();
+            for (Obj obj : getPointsToSet(node)) {
+                Integer index = taintIndexes.get(obj);
+                if (index != null) {
+                    taintSet.set(index);
+                }
             }
-            node2TaintSet.put(node, taintSet);
+            taintSets.set(node.getIndex(), taintSet);
         }
         return taintSet;
     }
@@ -231,30 +259,32 @@ class TFGBuilder {
     }
 
     TaintFlowGraph build() {
-        TaintFlowGraph complete = buildComplete();
         TaintFlowGraph tfg = new TaintFlowGraph(
-                complete.getSourceNode2SourcePoint(),
-                complete.getSinkNode2SinkPoint());
-        Set<Node> nodesReachSink = null;
-        if (onlyReachSink) {
-            nodesReachSink = Sets.newHybridSet();
-            Reachability<Node> reachability = new Reachability<>(complete);
-            for (Node sink : complete.getSinkNodes()) {
-                nodesReachSink.addAll(reachability.nodesCanReach(sink));
+                collectSourceNodes(), collectSinkNode());
+        CompactGraph complete = buildComplete(tfg.getSourceNodes());
+        // compute the nodes that can reach any sink by one backward
+        // traversal from all sink nodes
+        boolean[] reachSink = onlyReachSink
+                ? complete.nodesCanReach(tfg.getSinkNodes()) : null;
+        boolean[] visited = new boolean[complete.size()];
+        int[] workList = new int[complete.size()];
+        int head = 0, tail = 0;
+        for (Node source : tfg.getSourceNodes()) {
+            int id = complete.getId(source);
+            if (!visited[id]) {
+                visited[id] = true;
+                workList[tail++] = id;
             }
         }
-        Set<Node> visitedNodes = Sets.newSet();
-        Deque<Node> workList = new ArrayDeque<>(complete.getSourceNodes());
-        while (!workList.isEmpty()) {
-            Node node = workList.poll();
-            if (visitedNodes.add(node)) {
-                for (FlowEdge edge : complete.getOutEdgesOf(node)) {
-                    Node target = edge.target();
-                    if (!onlyReachSink || nodesReachSink.contains(target)) {
-                        tfg.addEdge(edge);
-                        if (!visitedNodes.contains(target)) {
-                            workList.add(target);
-                        }
+        while (head < tail) {
+            int id = workList[head++];
+            for (int i = complete.outStart(id); i < complete.outEnd(id); ++i) {
+                int target = complete.getTargetId(i);
+                if (!onlyReachSink || reachSink[target]) {
+                    tfg.addEdge(complete.getEdge(i));
+                    if (!visited[target]) {
+                        visited[target] = true;
+                        workList[tail++] = target;
                     }
                 }
             }
@@ -273,4 +303,152 @@ class TFGBuilder {
             return false;
         }
     }
+
+    /**
+     * Compact representation of the complete taint flow graph, which
+     * stores out edges and in edges of the nodes in compressed sparse
+     * row (CSR) format, i.e., the edges of node {@code i} are stored in
+     * range [{@code offsets[i]}, {@code offsets[i + 1]}) of edge arrays.
+     */
+    private static class CompactGraph {
+
+        /**
+         * Map from index of a node in OFG to its id in this graph,
+         * or -1 if the node is not in this graph.
+         */
+        private final int[] ids;
+
+        private final int size;
+
+        private final int[] outOffsets;
+
+        private final FlowEdge[] outEdges;
+
+        private final int[] outTargets;
+
+        private final int[] inOffsets;
+
+        private final int[] inSources;
+
+        private CompactGraph(int[] ids, List<List<FlowEdge>> edgeLists) {
+            this.ids = ids;
+            size = edgeLists.size();
+            outOffsets = new int[size + 1];
+            for (int i = 0; i < size; ++i) {
+                outOffsets[i + 1] = outOffsets[i] + edgeLists.get(i).size();
+            }
+            int nEdges = outOffsets[size];
+            outEdges = new FlowEdge[nEdges];
+            outTargets = new int[nEdges];
+            inOffsets = new int[size + 1];
+            for (int i = 0; i < size; ++i) {
+                int j = outOffsets[i];
+                for (FlowEdge edge : edgeLists.get(i)) {
+                    int target = getId(edge.target());
+                    outEdges[j] = edge;
+                    outTargets[j++] = target;
+                    ++inOffsets[target + 1];
+                }
+            }
+            for (int i = 0; i < size; ++i) {
+                inOffsets[i + 1] += inOffsets[i];
+            }
+            inSources = new int[nEdges];
+            int[] next = Arrays.copyOf(inOffsets, size);
+            for (int i = 0; i < size; ++i) {
+                for (int j = outOffsets[i]; j < outOffsets[i + 1]; ++j) {
+                    inSources[next[outTargets[j]]++] = i;
+                }
+            }
+        }
+
+        private int size() {
+            return size;
+        }
+
+        /**
+         * @return id of given node, or -1 if the node is not in this graph.
+         */
+        private int getId(Node node) {
+            return ids[node.getIndex()];
+        }
+
+        private int outStart(int id) {
+            return outOffsets[id];
+        }
+
+        private int outEnd(int id) {
+            return outOffsets[id + 1];
+        }
+
+        private FlowEdge getEdge(int i) {
+            return outEdges[i];
+        }
+
+        private int getTargetId(int i) {
+            return outTargets[i];
+        }
+
+        /**
+         * @return an array which marks the nodes that can reach
+         * any of given nodes.
+         */
+        private boolean[] nodesCanReach(Collection<Node> nodes) {
+            boolean[] result = new boolean[size];
+            int[] workList = new int[size];
+            int head = 0, tail = 0;
+            for (Node node : nodes) {
+                int id = getId(node);
+                if (id != -1 && !result[id]) {
+                    result[id] = true;
+                    workList[tail++] = id;
+                }
+            }
+            while (head < tail) {
+                int id = workList[head++];
+                for (int i = inOffsets[id]; i < inOffsets[id + 1]; ++i) {
+                    int source = inSources[i];
+                    if (!result[source]) {
+                        result[source] = true;
+                        workList[tail++] = source;
+                    }
+                }
+            }
+            return result;
+        }
+
+        private static class Builder {
+
+            private final int[] ids;
+
+            private final List<List<FlowEdge>> edgeLists = new ArrayList<>();
+
+            private Builder(int nOFGNodes) {
+                ids = new int[nOFGNodes];
+                Arrays.fill(ids, -1);
+            }
+
+            /**
+             * Adds a node to the graph.
+             *
+             * @return {@code true} if the node is newly added.
+             */
+            private boolean addNode(Node node) {
+                if (ids[node.getIndex()] == -1) {
+                    ids[node.getIndex()] = edgeLists.size();
+                    edgeLists.add(List.of());
+                    return true;
+                }
+                return false;
+            }
+
+            private void setOutEdges(Node node, List<FlowEdge> edges) {
+                edgeLists.set(ids[node.getIndex()], edges);
+            }
+
+            private CompactGraph build() {
+                return new CompactGraph(ids, edgeLists);
+            }
+        }
+    }
 }
@@ -22,25 +22,44 @@
 
 package pascal.taie.analysis.pta.plugin.taint;
 
+import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
 import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.Edge;
 import pascal.taie.analysis.pta.core.cs.context.Context;
 import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
 import pascal.taie.analysis.pta.core.cs.element.CSManager;
 import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
 import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.core.solver.PointerFlowEdge;
 import pascal.taie.analysis.pta.core.solver.Solver;
 import pascal.taie.analysis.pta.plugin.CompositePlugin;
+import pascal.taie.analysis.pta.plugin.Plugin;
+import pascal.taie.analysis.pta.plugin.util.InvokeUtils;
 import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
 import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
 import pascal.taie.util.Timer;
+import pascal.taie.util.collection.Sets;
 
 import javax.annotation.Nullable;
 import java.io.File;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 /**
  * Taint Analysis composites plugins {@link SourceHandler}, {@link TransferHandler}
@@ -52,15 +71,15 @@ import java.util.Set;
  * The following diagram illustrates the workflow of the taint analysis:
  * <pre><code class='text'>
  *     ┌───────────────────────────┐   ┌─────────────────────────────┐
- * ┌──►│       initialize()        ├───┤Clean Up                     │
+ * ┌──►│  initialize() / update()  ├───┤Clean Up (only on update)    │
  * │   └─────────────┬─────────────┘   │                             │
- * │      on-the-fly │with PTA         │ 1.Clear composited handlers │
- * │                 ▼                 │ 2.Remove taint objects      │
- * │   ┌───────────────────────────┐   │   from points-to set        │
- * │   │      onPhaseFinish()      │   │ 3.Remove taint transfer     │
- * │Yes│ ┌───────────────────────┐ │   │   edge from pointer flow    │
- * │ ┌─┼─┤In interactive mode and│ │   │   graph                     │
- * └─┼─┼─┤Enter 'r' from console?│ │   │                             │
+ * │      on-the-fly │with PTA         │ 1.Remove taint objects of   │
+ * │                 ▼                 │   changed sources and flows │
+ * │   ┌───────────────────────────┐   │ 2.Remove taint transfer     │
+ * │   │      onPhaseFinish()      │   │   edges of removed transfers│
+ * │Yes│ ┌───────────────────────┐ │   │ 3.Remove filters of removed │
+ * │ ┌─┼─┤Taint config updated by│ │   │   sanitizers                │
+ * └─┼─┼─┤  TaintConfigUpdater?  │ │   │                             │
  *   │ │ └───────────┬───────────┘ │   │Start Up                     │
  *   │ │             │             │   │                             │
  *   │ └─────────────┼─────────────┘   │ 4. Load taint configuration │
@@ -84,50 +103,174 @@ public class TaintAnalysis extends CompositePlugin {
 
     private Solver solver;
 
-    private boolean isInteractive;
+    /**
+     * Updates taint configuration each time pointer analysis reaches
+     * a fixed point, or {@code null} if taint configuration is fixed.
+     */
+    @Nullable
+    private TaintConfigUpdater updater;
+
+    /**
+     * Whether only analyze the methods that are relevant to the sinks.
+     */
+    private boolean isDemandDriven;
 
     /**
      * Indicates whether the taint analysis result has been reported.
      * It is used to ensures that {@link #reportTaintFlows()} executes only once
-     * during a taint analysis.
+     * for each taint configuration.
      */
     private boolean isReported;
 
+    /**
+     * Taint flows reported for current taint configuration.
+     */
+    private Set<TaintFlow> taintFlows;
+
+    /**
+     * Listeners notified of each taint flow as soon as it is detected.
+     */
+    private List<TaintFlowListener> listeners;
+
+    /**
+     * Taint flows that have been notified to {@link #listeners}.
+     */
+    private Set<TaintFlow> notifiedFlows;
+
     private HandlerContext context;
 
+    private SourceHandler sourceHandler;
+
+    private TransferHandler transferHandler;
+
+    private SanitizerHandler sanitizerHandler;
+
+    /**
+     * Monitors the sinks of current taint configuration on the fly,
+     * or {@code null} if there is no {@link #listeners}.
+     */
+    @Nullable
+    private SinkMonitor sinkMonitor;
+
     @Override
     public void setSolver(Solver solver) {
         this.solver = solver;
-        isInteractive = solver.getOptions().getBoolean("taint-interactive-mode");
-        initialize();
-    }
-
-    private void initialize() {
-        // clean composited plugins, taint objects and taint transfer edges
-        isReported = false;
-        clearPlugins();
-        if (context != null) {
-            TaintManager manager = context.manager();
-            solver.getCSManager().pointers().forEach(p -> {
-                PointsToSet pts = p.getPointsToSet();
-                if (pts != null) {
-                    pts.removeIf(csObj -> manager.isTaint(csObj.getObject()));
-                }
-                p.removeEdgesIf(TaintTransferEdge.class::isInstance);
-            });
+        AnalysisOptions options = solver.getOptions();
+        updater = makeUpdater(options);
+        listeners = makeListeners(options);
+        notifiedFlows = Sets.newSet();
+        isDemandDriven = solver.getOptions().getBoolean("taint-demand-driven");
+        if (updater != null && isDemandDriven) {
+            logger.warn("Demand-driven mode is disabled when taint configuration" +
+                    " may be updated, as the relevant methods depend on the sinks");
+            isDemandDriven = false;
         }
-        // load taint configuration and create new handlers
         TaintConfig config = TaintConfig.loadConfig(
                 solver.getOptions().getString("taint-config"),
                 solver.getHierarchy(),
                 solver.getTypeSystem());
-        logger.info(config);
         context = new HandlerContext(solver, new TaintManager(
                 solver.getHeapModel()), config);
-        addPlugin(new SourceHandler(context),
-                new TransferHandler(context),
-                new SanitizerHandler(context));
+        initialize();
+    }
+
+    @Nullable
+    private static TaintConfigUpdater makeUpdater(AnalysisOptions options) {
+        if (options.getBoolean("taint-interactive-mode")) {
+            return new ConsoleUpdater(options.getString("taint-config"));
+        }
+        String updaterClass = options.getString("taint-config-updater");
+        return updaterClass != null
+                ? newInstance(updaterClass, "Taint config updater")
+                : null;
+    }
+
+    private static List<TaintFlowListener> makeListeners(AnalysisOptions options) {
+        List<TaintFlowListener> listeners = new ArrayList<>();
+        // noinspection unchecked
+        for (String listenerClass : (List<String>) options.get("taint-flow-listeners")) {
+            listeners.add(newInstance(listenerClass, "Taint flow listener"));
+        }
+        String output = options.getString("taint-flow-output");
+        if (output != null) {
+            listeners.add(TaintFlowWriter.make(output));
+        }
+        return listeners;
+    }
+
+    /**
+     * Creates an instance of given class via its public non-arg constructor.
+     */
+    private static <T> T newInstance(String className, String description) {
+        try {
+            Class<?> clazz = Class.forName(className);
+            Constructor<?> ctor = clazz.getConstructor();
+            // noinspection unchecked
+            return (T) ctor.newInstance();
+        } catch (ClassNotFoundException e) {
+            throw new ConfigException(
+                    description + " class " + className + " is not found");
+        } catch (IllegalAccessException | NoSuchMethodException e) {
+            throw new AnalysisException("Failed to get constructor of " +
+                    className + ", does the class" +
+                    " provide a public non-arg constructor?");
+        } catch (InvocationTargetException | InstantiationException e) {
+            throw new AnalysisException(
+                    "Failed to create instance for " + className, e);
+        }
+    }
+
+    /**
+     * Creates handlers for current taint configuration, and triggers
+     * the creation of taint objects and taint transfer edges if pointer
+     * analysis has been started.
+     */
+    private void initialize() {
+        isReported = false;
+        logger.info(context.config());
+        sourceHandler = new SourceHandler(context);
+        transferHandler = new TransferHandler(context, transferHandler);
+        sanitizerHandler = new SanitizerHandler(context, sanitizerHandler);
+        sinkMonitor = makeSinkMonitor();
+        resetPlugins();
         // trigger the creation of taint objects
+        replay(this);
+    }
+
+    /**
+     * Re-creates the sink monitor for the sinks of current taint
+     * configuration, and lets it check the sink arguments that are
+     * reachable so far.
+     */
+    private void updateSinks() {
+        sinkMonitor = makeSinkMonitor();
+        resetPlugins();
+        if (sinkMonitor != null) {
+            replay(sinkMonitor);
+        }
+    }
+
+    @Nullable
+    private SinkMonitor makeSinkMonitor() {
+        return listeners.isEmpty() ? null
+                : new SinkMonitor(context, this::notifyTaintFlow);
+    }
+
+    private void resetPlugins() {
+        clearPlugins();
+        addPlugin(sourceHandler, transferHandler, sanitizerHandler);
+        if (sinkMonitor != null) {
+            addPlugin(sinkMonitor);
+        }
+    }
+
+    /**
+     * Feeds the methods, statements, call edges and parameters that
+     * have been processed by pointer analysis to given plugin,
+     * so that it can handle them with current taint configuration.
+     * Does nothing if pointer analysis has not been started.
+     */
+    private void replay(Plugin plugin) {
         CallGraph<CSCallSite, CSMethod> cg = solver.getCallGraph();
         if (cg != null) {
             CSManager csManager = solver.getCSManager();
@@ -138,88 +281,243 @@ public class TaintAnalysis extends CompositePlugin {
                 Context ctxt = csMethod.getContext();
                 IR ir = csMethod.getMethod().getIR();
                 if (handleStmt) {
-                    ir.forEach(stmt -> onNewStmt(stmt, method));
+                    ir.forEach(stmt -> plugin.onNewStmt(stmt, method));
                 }
-                this.onNewCSMethod(csMethod);
-                csMethod.getEdges().forEach(this::onNewCallEdge);
+                plugin.onNewCSMethod(csMethod);
+                csMethod.getEdges().forEach(plugin::onNewCallEdge);
                 ir.getParams().forEach(param -> {
                     CSVar csParam = csManager.getCSVar(ctxt, param);
-                    onNewPointsToSet(csParam, csParam.getPointsToSet());
+                    plugin.onNewPointsToSet(csParam, csParam.getPointsToSet());
                 });
             });
         }
     }
 
-    @Override
-    public void onPhaseFinish() {
-        if (isInteractive) {
-            while (true) {
-                reportTaintFlows();
-                System.out.println("Taint Analysis is in interactive mode,"
-                        + " you can modify the taint configuration and run the analysis again.\n"
-                        + "Enter 'r' to run, 'e' to exit: ");
-                String input = readLineFromConsole();
-                if (input == null) {
-                    break;
-                }
-                input = input.strip();
-                System.out.println("You have entered: '" + input + "'");
-                if ("r".equals(input)) {
-                    initialize();
-                    if (!context.manager().getTaintObjs().isEmpty()) {
+    /**
+     * Reloads taint configuration from given path, and incrementally
+     * updates taint analysis with the difference from current configuration.
+     *
+     * @see #update(TaintConfigDiff)
+     */
+    public void reload(String configPath) {
+        TaintConfig config = TaintConfig.loadConfig(
+                configPath, solver.getHierarchy(), solver.getTypeSystem());
+        update(TaintConfigDiff.of(context.config(), config));
+    }
+
+    /**
+     * Incrementally updates taint analysis with given difference of taint
+     * configuration, without restarting pointer analysis.
+     * <p>
+     * The taint objects whose flows may be affected by the removed entries
+     * (i.e., the taint objects generated by removed sources, or flowing
+     * through removed taint transfers or changed sanitizers) are removed
+     * from all points-to sets, and the removed taint transfer edges are
+     * removed from pointer flow graph. Then the handlers are re-created
+     * with the updated configuration, which (re)generates taint objects
+     * and taint transfer edges, so that pointer analysis only needs to
+     * propagate the new and the removed taint objects.
+     * <p>
+     * <strong>Note:</strong> This method should only be called in
+     * {@link TaintConfigUpdater#update(TaintAnalysis, Set)}, i.e.,
+     * when pointer analysis reaches a fixed point.
+     * </p>
+     */
+    public void update(TaintConfigDiff diff) {
+        if (diff.isEmpty()) {
+            logger.info("Taint configuration is not changed");
+            return;
+        }
+        logger.info("Updating taint analysis with {}", diff);
+        isReported = false;
+        if (diff.isSinkOnly()) {
+            // taint objects are not affected, thus we only need to
+            // monitor and collect taint flows with the updated sinks
+            context = new HandlerContext(solver, context.manager(),
+                    diff.applyTo(context.config()));
+            logger.info(context.config());
+            updateSinks();
+            return;
+        }
+        removeTaints(diff);
+        context = new HandlerContext(solver, context.manager(),
+                diff.applyTo(context.config()));
+        initialize();
+    }
+
+    /**
+     * Removes the taint objects and taint transfer edges that may be
+     * affected by the removed (and added) entries in given difference.
+     */
+    private void removeTaints(TaintConfigDiff diff) {
+        TaintManager manager = context.manager();
+        CSManager csManager = solver.getCSManager();
+        if (diff.isCallSiteModeChanged()) {
+            // call-site mode affects how all entries are matched,
+            // thus we simply remove all taint objects and edges
+            removeTaintsIf(manager::isTaint);
+            csManager.pointers().forEach(p ->
+                    p.removeEdgesIf(TaintTransferEdge.class::isInstance));
+            sanitizerHandler.removeSanitizers(diff.removed().paramSanitizers());
+            return;
+        }
+        // collect the source points whose taint objects may flow differently
+        Set<SourcePoint> affected = Sets.newSet();
+        Set<TaintTransfer> removedTransfers = Sets.newSet(diff.removed().transfers());
+        // taint objects reaching the parameters of added sanitizers
+        sanitizerHandler.getSanitizedVars(diff.added().paramSanitizers())
+                .forEach(csVar -> addSourcePoints(csVar, affected));
+        // taint objects flowing through removed transfers, and the ones
+        // blocked by removed sanitizers
+        Set<CSVar> unsanitized = sanitizerHandler.getSanitizedVars(
+                diff.removed().paramSanitizers());
+        if (!removedTransfers.isEmpty() || !unsanitized.isEmpty()) {
+            Predicate<PointerFlowEdge> isRemoved = edge ->
+                    edge instanceof TaintTransferEdge transferEdge
+                            && removedTransfers.contains(transferEdge.getTransfer());
+            csManager.pointers().forEach(p -> {
+                for (PointerFlowEdge edge : p.getOutEdges()) {
+                    if (isRemoved.test(edge)
+                            || unsanitized.contains(edge.target())) {
+                        addSourcePoints(p, affected);
                         break;
                     }
-                } else if ("e".equals(input)) {
-                    isInteractive = false;
-                    break;
                 }
+                if (!removedTransfers.isEmpty()) {
+                    p.removeEdgesIf(isRemoved);
+                }
+            });
+            // receiver objects are passed to this variables without PFG
+            // edges, thus we check the base variables at the call sites
+            Set<JMethod> baseSanitized = diff.removed().paramSanitizers()
+                    .stream()
+                    .filter(s -> s.index() == InvokeUtils.BASE)
+                    .map(ParamSanitizer::method)
+                    .collect(Collectors.toSet());
+            CallGraph<CSCallSite, CSMethod> cg = solver.getCallGraph();
+            cg.reachableMethods()
+                    .filter(csMethod -> baseSanitized.contains(csMethod.getMethod()))
+                    .flatMap(cg::edgesInTo)
+                    .map(Edge::getCallSite)
+                    .forEach(csCallSite -> {
+                        Var base = InvokeUtils.getVar(
+                                csCallSite.getCallSite(), InvokeUtils.BASE);
+                        addSourcePoints(csManager.getCSVar(
+                                csCallSite.getContext(), base), affected);
+                    });
+        }
+        sanitizerHandler.removeSanitizers(diff.removed().paramSanitizers());
+        Set<Source> removedSources = Sets.newSet(diff.removed().sources());
+        if (!removedSources.isEmpty() || !affected.isEmpty()) {
+            removeTaintsIf(obj -> {
+                if (!manager.isTaint(obj)) {
+                    return false;
+                }
+                SourcePoint sourcePoint = manager.getSourcePoint(obj);
+                return affected.contains(sourcePoint)
+                        || removedSources.contains(sourcePoint.source());
+            });
+        }
+    }
+
+    private void addSourcePoints(Pointer pointer, Set<SourcePoint> sourcePoints) {
+        TaintManager manager = context.manager();
+        pointer.objects()
+                .map(CSObj::getObject)
+                .filter(manager::isTaint)
+                .map(manager::getSourcePoint)
+                .forEach(sourcePoints::add);
+    }
+
+    /**
+     * Removes the taint objects that satisfy given predicate
+     * from all points-to sets.
+     */
+    private void removeTaintsIf(Predicate<Obj> predicate) {
+        solver.getCSManager().pointers().forEach(p -> {
+            PointsToSet pts = p.getPointsToSet();
+            if (pts != null) {
+                pts.removeIf(csObj -> predicate.test(csObj.getObject()));
             }
+        });
+        context.manager().removeTaintObjsIf(predicate);
+    }
+
+    @Override
+    public void onStart() {
+        super.onStart();
+        if (isDemandDriven) {
+            ignoreIrrelevantMethods();
         }
     }
 
     /**
-     * A utility method for reading one line from the console using {@code System.in}.
-     * This method does not use buffering to ensure it does not read more than necessary.
-     * <br>
-     *
-     * @return one line line read from the console,
-     * or {@code null} if no line is available
+     * Lets the solver ignore the methods that are irrelevant to the sinks,
+     * so that pointer analysis only computes the points-to information
+     * that may be used to detect taint flows. The slice starts from the
+     * entry methods added by the plugins that start before this plugin,
+     * thus {@link pascal.taie.analysis.pta.PointerAnalysis} adds this plugin
+     * after the other plugins except the result processor.
      */
-    @Nullable
-    private static String readLineFromConsole() {
-        StringBuilder sb = new StringBuilder();
-        try {
-            int c;
-            while ((c = System.in.read()) != -1) {
-                if (c == '\r' || c == '\n') {
-                    return sb.toString();
-                }
-                sb.append((char) c);
+    private void ignoreIrrelevantMethods() {
+        Set<JMethod> irrelevant = Timer.runAndCount(() -> {
+            List<JMethod> entries = solver.getCallGraph()
+                    .entryMethods()
+                    .map(CSMethod::getMethod)
+                    .toList();
+            return new DemandSlicer(context.config(), solver.getHierarchy(), entries)
+                    .getIrrelevantMethods();
+        }, "DemandSlicer", Level.INFO);
+        irrelevant.forEach(solver::addIgnoredMethod);
+        logger.info("Demand-driven mode: ignore {} methods irrelevant to sinks",
+                irrelevant.size());
+    }
+
+    @Override
+    public void onPhaseFinish() {
+        while (updater != null) {
+            if (!updater.update(this, reportTaintFlows())) {
+                updater = null;
+            } else if (solver.hasPendingWork()) {
+                // let pointer analysis propagate the taint objects and
+                // transfer edges added by the update, and this method
+                // will be called again after that
+                break;
             }
-        } catch (Exception e) {
-            logger.error("Error reading from console", e);
+            // otherwise, the update does not add any points-to relations
+            // (e.g., it only removes sources or transfers), thus the result
+            // is still at a fixed point and we ask the updater again
         }
-        return sb.isEmpty() ? null : sb.toString();
     }
 
     @Override
     public void onFinish() {
         reportTaintFlows();
+        listeners.forEach(TaintFlowListener::onFinish);
     }
 
-    private void reportTaintFlows() {
+    private void notifyTaintFlow(TaintFlow taintFlow) {
+        if (notifiedFlows.add(taintFlow)) {
+            listeners.forEach(listener -> listener.onNewTaintFlow(taintFlow));
+        }
+    }
+
+    private Set<TaintFlow> reportTaintFlows() {
         if (isReported) {
-            return;
+            return taintFlows;
         }
         isReported = true;
-        Set<TaintFlow> taintFlows = new SinkHandler(context).collectTaintFlows();
+        taintFlows = new SinkHandler(context).collectTaintFlows();
         logger.info("Detected {} taint flow(s):", taintFlows.size());
         taintFlows.forEach(logger::info);
+        // notify the taint flows that are not detected on the fly
+        taintFlows.forEach(this::notifyTaintFlow);
         solver.getResult().storeResult(getClass().getName(), taintFlows);
         TaintManager manager = context.manager();
         Timer.runAndCount(() -> new TFGDumper().dump(
                         new TFGBuilder(solver.getResult(), taintFlows, manager).build(),
                         new File(World.get().getOptions().getOutputDir(), TAINT_FLOW_GRAPH_FILE)),
                 "TFGDumper");
+        return taintFlows;
     }
 }
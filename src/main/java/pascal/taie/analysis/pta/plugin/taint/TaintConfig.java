@@ -188,6 +188,11 @@ record TaintConfig(List<Source> sources,
                 throws IOException {
             ObjectCodec oc = p.getCodec();
             JsonNode node = oc.readTree(p);
+            // match the signatures of all entries in parallel at first,
+            // then the matched results are retrieved from the cache of
+            // matcher when deserializing each entry
+            matcher.getMethods(node.findValuesAsText("method"));
+            matcher.getFields(node.findValuesAsText("field"));
             List<Source> sources = deserializeSources(node.get("sources"));
             List<Sink> sinks = deserializeSinks(node.get("sinks"));
             List<TaintTransfer> transfers = deserializeTransfers(node.get("transfers"));
@@ -0,0 +1,172 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin.taint;
+
+import pascal.taie.World;
+import pascal.taie.util.collection.Lists;
+import pascal.taie.util.collection.Sets;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Represents the difference between two taint configurations, i.e.,
+ * the sources, sinks, taint transfers and sanitizers that are added to
+ * and removed from the old configuration.
+ * The difference is used to incrementally update taint analysis
+ * without restarting pointer analysis.
+ *
+ * @see TaintAnalysis#update(TaintConfigDiff)
+ */
+public final class TaintConfigDiff {
+
+    /**
+     * The entries added to the old configuration. Its call-site mode
+     * is the one of the new configuration.
+     */
+    private final TaintConfig added;
+
+    /**
+     * The entries removed from the old configuration. Its call-site mode
+     * is the one of the old configuration.
+     */
+    private final TaintConfig removed;
+
+    private TaintConfigDiff(TaintConfig added, TaintConfig removed) {
+        this.added = added;
+        this.removed = removed;
+    }
+
+    /**
+     * Loads the taint configurations from given paths and computes
+     * their difference.
+     *
+     * @param oldConfigPath path to the old taint configuration
+     * @param newConfigPath path to the new taint configuration
+     * @return the difference from the old configuration to the new one.
+     */
+    public static TaintConfigDiff of(String oldConfigPath, String newConfigPath) {
+        World world = World.get();
+        return of(TaintConfig.loadConfig(oldConfigPath,
+                        world.getClassHierarchy(), world.getTypeSystem()),
+                TaintConfig.loadConfig(newConfigPath,
+                        world.getClassHierarchy(), world.getTypeSystem()));
+    }
+
+    static TaintConfigDiff of(TaintConfig oldConfig, TaintConfig newConfig) {
+        TaintConfig added = new TaintConfig(
+                minus(newConfig.sources(), oldConfig.sources()),
+                minus(newConfig.sinks(), oldConfig.sinks()),
+                minus(newConfig.transfers(), oldConfig.transfers()),
+                minus(newConfig.paramSanitizers(), oldConfig.paramSanitizers()),
+                newConfig.callSiteMode());
+        TaintConfig removed = new TaintConfig(
+                minus(oldConfig.sources(), newConfig.sources()),
+                minus(oldConfig.sinks(), newConfig.sinks()),
+                minus(oldConfig.transfers(), newConfig.transfers()),
+                minus(oldConfig.paramSanitizers(), newConfig.paramSanitizers()),
+                oldConfig.callSiteMode());
+        return new TaintConfigDiff(added, removed);
+    }
+
+    /**
+     * @return elements of {@code list} that are not in {@code other}.
+     */
+    private static <T> List<T> minus(List<T> list, List<T> other) {
+        Set<T> otherSet = Sets.newSet(other);
+        return Lists.filter(list, e -> !otherSet.contains(e));
+    }
+
+    TaintConfig added() {
+        return added;
+    }
+
+    TaintConfig removed() {
+        return removed;
+    }
+
+    /**
+     * @return {@code true} if call-site mode is switched on or off.
+     */
+    boolean isCallSiteModeChanged() {
+        return added.callSiteMode() != removed.callSiteMode();
+    }
+
+    /**
+     * @return {@code true} if only sinks are changed, which does not
+     * affect taint objects and their propagation.
+     */
+    boolean isSinkOnly() {
+        return added.sources().isEmpty() && removed.sources().isEmpty()
+                && added.transfers().isEmpty() && removed.transfers().isEmpty()
+                && added.paramSanitizers().isEmpty()
+                && removed.paramSanitizers().isEmpty()
+                && !isCallSiteModeChanged();
+    }
+
+    /**
+     * Applies this difference to given configuration.
+     *
+     * @return the updated configuration.
+     */
+    TaintConfig applyTo(TaintConfig config) {
+        return new TaintConfig(
+                Lists.concatDistinct(
+                        minus(config.sources(), removed.sources()),
+                        added.sources()),
+                Lists.concatDistinct(
+                        minus(config.sinks(), removed.sinks()),
+                        added.sinks()),
+                Lists.concatDistinct(
+                        minus(config.transfers(), removed.transfers()),
+                        added.transfers()),
+                Lists.concatDistinct(
+                        minus(config.paramSanitizers(), removed.paramSanitizers()),
+                        added.paramSanitizers()),
+                added.callSiteMode());
+    }
+
+    /**
+     * @return {@code true} if the two configurations are the same.
+     */
+    public boolean isEmpty() {
+        return isEmpty(added) && isEmpty(removed) && !isCallSiteModeChanged();
+    }
+
+    private static boolean isEmpty(TaintConfig config) {
+        return config.sources().isEmpty()
+                && config.sinks().isEmpty()
+                && config.transfers().isEmpty()
+                && config.paramSanitizers().isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TaintConfigDiff{sources: +%d/-%d, sinks: +%d/-%d," +
+                        " transfers: +%d/-%d, sanitizers: +%d/-%d}",
+                added.sources().size(), removed.sources().size(),
+                added.sinks().size(), removed.sinks().size(),
+                added.transfers().size(), removed.transfers().size(),
+                added.paramSanitizers().size(), removed.paramSanitizers().size());
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin.taint;
+
+import java.util.Set;
+
+/**
+ * Updates taint configuration of {@link TaintAnalysis} each time pointer
+ * analysis reaches a fixed point, so that taint analysis can be run
+ * with different taint configurations without restarting pointer analysis.
+ * <p>
+ * The implementation is specified by option {@code taint-config-updater},
+ * and must provide a public non-arg constructor.
+ */
+public interface TaintConfigUpdater {
+
+    /**
+     * Invoked each time taint analysis finishes with current taint
+     * configuration. The implementation may update taint configuration via
+     * {@link TaintAnalysis#update(TaintConfigDiff)} or
+     * {@link TaintAnalysis#reload(String)}.
+     *
+     * @param taintAnalysis the taint analysis to update
+     * @param taintFlows    the taint flows detected with current configuration
+     * @return {@code true} if taint analysis should go on with updated
+     * configuration, or {@code false} to finish taint analysis.
+     */
+    boolean update(TaintAnalysis taintAnalysis, Set<TaintFlow> taintFlows);
+}
@@ -0,0 +1,48 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin.taint;
+
+/**
+ * Listener of the taint flows detected by {@link TaintAnalysis}.
+ * <p>
+ * The listeners are specified by option {@code taint-flow-listeners},
+ * and must provide a public non-arg constructor. When any listener is
+ * given, taint analysis monitors the sink arguments on the fly, so that
+ * the listeners are notified of each taint flow as soon as it is detected,
+ * instead of after pointer analysis finishes.
+ */
+public interface TaintFlowListener {
+
+    /**
+     * Invoked when a new taint flow is detected. Each taint flow is
+     * notified at most once during the analysis.
+     */
+    void onNewTaintFlow(TaintFlow taintFlow);
+
+    /**
+     * Invoked when taint analysis finishes, i.e., all detected taint
+     * flows have been notified.
+     */
+    default void onFinish() {
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin.taint;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.config.ConfigException;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes taint flows to a file as soon as they are detected. The format
+ * is decided by the file extension: JSON Lines ({@code .jsonl}), where each
+ * line is a taint flow, or SARIF ({@code .sarif}), where each taint flow
+ * is a result.
+ */
+abstract class TaintFlowWriter implements TaintFlowListener {
+
+    private static final Logger logger = LogManager.getLogger(TaintFlowWriter.class);
+
+    protected final ObjectMapper mapper = new ObjectMapper();
+
+    protected final File file;
+
+    protected final JsonGenerator generator;
+
+    private TaintFlowWriter(File file) {
+        this.file = file;
+        try {
+            OutputStream out = new FileOutputStream(file);
+            generator = mapper.createGenerator(out, JsonEncoding.UTF8);
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to open output file " + file, e);
+        }
+        logger.info("Writing taint flows to {}", file.getAbsolutePath());
+    }
+
+    /**
+     * Creates a writer for given output file.
+     */
+    static TaintFlowWriter make(String path) {
+        File file = new File(path);
+        if (path.endsWith(".jsonl")) {
+            return new JsonLinesWriter(file);
+        } else if (path.endsWith(".sarif")) {
+            return new SarifWriter(file);
+        } else {
+            throw new ConfigException("Unsupported format of taint flow output "
+                    + path + ", expected *.jsonl or *.sarif");
+        }
+    }
+
+    @Override
+    public void onNewTaintFlow(TaintFlow taintFlow) {
+        try {
+            write(taintFlow);
+            generator.flush();
+        } catch (IOException e) {
+            logger.error("Failed to write taint flow to {}", file, e);
+        }
+    }
+
+    protected abstract void write(TaintFlow taintFlow) throws IOException;
+
+    @Override
+    public void onFinish() {
+        try {
+            finish();
+            generator.close();
+        } catch (IOException e) {
+            logger.error("Failed to close output file {}", file, e);
+        }
+    }
+
+    protected void finish() throws IOException {
+    }
+
+    /**
+     * @return the line number of given source point,
+     * or -1 if the source point is not a statement.
+     */
+    protected static int getLineNumber(SourcePoint sourcePoint) {
+        if (sourcePoint instanceof CallSourcePoint csp) {
+            return csp.sourceCall().getLineNumber();
+        } else if (sourcePoint instanceof FieldSourcePoint fsp) {
+            return fsp.loadField().getLineNumber();
+        } else {
+            return -1;
+        }
+    }
+
+    /**
+     * Writes each taint flow as a JSON object in one line.
+     */
+    private static class JsonLinesWriter extends TaintFlowWriter {
+
+        private JsonLinesWriter(File file) {
+            super(file);
+            // values are separated by line breaks written after them
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        protected void write(TaintFlow taintFlow) throws IOException {
+            SourcePoint sourcePoint = taintFlow.sourcePoint();
+            SinkPoint sinkPoint = taintFlow.sinkPoint();
+            Map<String, Object> flow = new LinkedHashMap<>();
+            flow.put("source", toMap(sourcePoint.toString(),
+                    sourcePoint.getContainer(), getLineNumber(sourcePoint)));
+            flow.put("sink", toMap(sinkPoint.toString(),
+                    sinkPoint.sinkCall().getContainer(),
+                    sinkPoint.sinkCall().getLineNumber()));
+            generator.writeObject(flow);
+            generator.writeRaw('\n');
+        }
+
+        private static Map<String, Object> toMap(
+                String point, JMethod method, int lineNumber) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("point", point);
+            map.put("method", method.getSignature());
+            map.put("line", lineNumber);
+            return map;
+        }
+    }
+
+    /**
+     * Writes taint flows as results of a SARIF log, where the location
+     * of each result is the sink, and the related location is the source.
+     */
+    private static class SarifWriter extends TaintFlowWriter {
+
+        private static final String RULE_ID = "taint-flow";
+
+        private SarifWriter(File file) {
+            super(file);
+            try {
+                generator.writeStartObject();
+                generator.writeStringField("$schema",
+                        "https://json.schemastore.org/sarif-2.1.0.json");
+                generator.writeStringField("version", "2.1.0");
+                generator.writeArrayFieldStart("runs");
+                generator.writeStartObject();
+                Map<String, Object> driver = new LinkedHashMap<>();
+                driver.put("name", "Tai-e");
+                driver.put("informationUri", "https://github.com/pascal-lab/Tai-e");
+                driver.put("rules", List.of(Map.of(
+                        "id", RULE_ID,
+                        "shortDescription", Map.of(
+                                "text", "Taint flow from source to sink"))));
+                generator.writeObjectField("tool", Map.of("driver", driver));
+                generator.writeArrayFieldStart("results");
+                generator.flush();
+            } catch (IOException e) {
+                throw new AnalysisException("Failed to write " + file, e);
+            }
+        }
+
+        @Override
+        protected void write(TaintFlow taintFlow) throws IOException {
+            SourcePoint sourcePoint = taintFlow.sourcePoint();
+            SinkPoint sinkPoint = taintFlow.sinkPoint();
+            Map<String, Object> source = toLocation(sourcePoint.getContainer(),
+                    getLineNumber(sourcePoint));
+            source.put("id", 0);
+            source.put("message", Map.of("text", "source: " + sourcePoint));
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("ruleId", RULE_ID);
+            result.put("level", "warning");
+            result.put("message", Map.of("text", taintFlow.toString()));
+            result.put("locations", List.of(toLocation(
+                    sinkPoint.sinkCall().getContainer(),
+                    sinkPoint.sinkCall().getLineNumber())));
+            result.put("relatedLocations", List.of(source));
+            generator.writeObject(result);
+        }
+
+        private static Map<String, Object> toLocation(JMethod method, int lineNumber) {
+            Map<String, Object> physicalLocation = new LinkedHashMap<>();
+            physicalLocation.put("artifactLocation",
+                    Map.of("uri", getSourceFile(method)));
+            if (lineNumber > 0) {
+                physicalLocation.put("region", Map.of("startLine", lineNumber));
+            }
+            Map<String, Object> location = new LinkedHashMap<>();
+            location.put("physicalLocation", physicalLocation);
+            location.put("logicalLocations", List.of(Map.of(
+                    "fullyQualifiedName", method.getSignature(),
+                    "kind", "function")));
+            return location;
+        }
+
+        /**
+         * @return the relative path of the source file that (likely)
+         * declares given method, which is inferred from the class name.
+         */
+        private static String getSourceFile(JMethod method) {
+            String className = method.getDeclaringClass().getName();
+            int index = className.indexOf('$');
+            if (index != -1) { // inner class
+                className = className.substring(0, index);
+            }
+            return className.replace('.', '/') + ".java";
+        }
+
+        @Override
+        protected void finish() throws IOException {
+            generator.writeEndArray(); // results
+            generator.writeEndObject(); // run
+            generator.writeEndArray(); // runs
+            generator.writeEndObject();
+        }
+    }
+}
@@ -51,6 +51,7 @@ import pascal.taie.util.AnalysisException;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.MultiMap;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -105,9 +106,19 @@ class TransferHandler extends OnFlyHandler {
      */
     private int counter = 0;
 
-    TransferHandler(HandlerContext context) {
+    /**
+     * @param previous the handler for previous taint configuration,
+     *                 or {@code null} if there is no previous configuration.
+     *                 The statements generated for back propagation are
+     *                 inherited from it, as they have been added to the solver.
+     */
+    TransferHandler(HandlerContext context, @Nullable TransferHandler previous) {
         super(context);
         emptyContext = solver.getContextSelector().getEmptyContext();
+        if (previous != null) {
+            backPropStmts.putAll(previous.backPropStmts);
+            counter = previous.counter;
+        }
         context.config().transfers()
                 .forEach(t -> this.transfers.put(t.method(), t));
     }
@@ -0,0 +1,498 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.pts;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.Maps;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Experimental points-to set represented by a reduced ordered binary
+ * decision diagram (BDD) over the bits of object indexes.
+ * <p>
+ * All sets made by the same factory share the nodes in a {@link Manager},
+ * so that sets with equal contents are represented by the same node,
+ * and common sub-structures of different sets are stored only once.
+ * As BDDs are immutable, {@link #copy()} takes constant time, and set
+ * operations are memoized by the manager.
+ * <p>
+ * The manager never reclaims its nodes, thus this representation
+ * is intended for experiments on analyses of moderate scale.
+ */
+class BDDPointsToSet implements PointsToSet {
+
+    private final Manager manager;
+
+    /**
+     * Root node of the BDD of this set.
+     */
+    private int root;
+
+    /**
+     * Cached size of this set; -1 if the size is unknown.
+     */
+    private int size;
+
+    BDDPointsToSet(Manager manager) {
+        this(manager, Manager.FALSE);
+    }
+
+    private BDDPointsToSet(Manager manager, int root) {
+        this.manager = manager;
+        setRoot(root);
+    }
+
+    private void setRoot(int root) {
+        this.root = root;
+        this.size = root == Manager.FALSE ? 0 : -1;
+    }
+
+    @Override
+    public boolean addObject(CSObj obj) {
+        int index = manager.indexer.getIndex(obj);
+        if (manager.contains(root, index)) {
+            return false;
+        }
+        setRoot(manager.or(root, manager.singleton(index)));
+        return true;
+    }
+
+    @Override
+    public boolean addAll(PointsToSet pts) {
+        if (pts instanceof BDDPointsToSet other) {
+            int newRoot = manager.or(root, other.root);
+            if (newRoot == root) {
+                return false;
+            }
+            setRoot(newRoot);
+            return true;
+        } else {
+            boolean changed = false;
+            for (CSObj o : pts) {
+                changed |= addObject(o);
+            }
+            return changed;
+        }
+    }
+
+    @Override
+    public PointsToSet addAllDiff(PointsToSet pts) {
+        if (pts instanceof BDDPointsToSet other) {
+            int diff = manager.diff(other.root, root);
+            if (diff != Manager.FALSE) {
+                setRoot(manager.or(root, diff));
+            }
+            return new BDDPointsToSet(manager, diff);
+        } else {
+            PointsToSet diff = new BDDPointsToSet(manager);
+            for (CSObj o : pts) {
+                if (addObject(o)) {
+                    diff.addObject(o);
+                }
+            }
+            return diff;
+        }
+    }
+
+    @Override
+    public void removeIf(Predicate<CSObj> filter) {
+        int removed = Manager.FALSE;
+        for (int index : manager.toArray(root)) {
+            if (filter.test(manager.indexer.getObject(index))) {
+                removed = manager.or(removed, manager.singleton(index));
+            }
+        }
+        if (removed != Manager.FALSE) {
+            setRoot(manager.diff(root, removed));
+        }
+    }
+
+    @Override
+    public boolean contains(CSObj obj) {
+        return manager.contains(root, manager.indexer.getIndex(obj));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return root == Manager.FALSE;
+    }
+
+    @Override
+    public int size() {
+        if (size < 0) {
+            size = manager.count(root);
+        }
+        return size;
+    }
+
+    @Override
+    public Set<CSObj> getObjects() {
+        return Collections.unmodifiableSet(new ObjectsView());
+    }
+
+    @Override
+    public Stream<CSObj> objects() {
+        return new ObjectsView().stream();
+    }
+
+    @Override
+    public PointsToSet copy() {
+        return new BDDPointsToSet(manager, root);
+    }
+
+    @Override
+    public String toString() {
+        return new ObjectsView().toString();
+    }
+
+    /**
+     * Set view of the objects in this points-to set.
+     */
+    private class ObjectsView extends AbstractSet<CSObj> {
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof CSObj obj && BDDPointsToSet.this.contains(obj);
+        }
+
+        @Override
+        public Iterator<CSObj> iterator() {
+            int[] indexes = manager.toArray(root);
+            return new Iterator<>() {
+
+                private int next = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return next < indexes.length;
+                }
+
+                @Override
+                public CSObj next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return manager.indexer.getObject(indexes[next++]);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return BDDPointsToSet.this.size();
+        }
+    }
+
+    /**
+     * Manages the nodes of the BDDs of points-to sets. Variable {@code i}
+     * (i.e., level {@code i}) of the BDDs represents the {@code i}-th
+     * highest bit of object indexes.
+     * <p>
+     * The nodes are hash-consed in a unique table, so that each set has
+     * a canonical representation, and the results of binary operations
+     * are memoized in a (lossy) operation cache. All operations are
+     * synchronized as the sets may be updated by parallel propagation.
+     */
+    static class Manager {
+
+        /**
+         * Number of variables, i.e., the number of bits of
+         * (non-negative) object indexes.
+         */
+        private static final int VARS = Integer.SIZE - 1;
+
+        static final int FALSE = 0;
+
+        static final int TRUE = 1;
+
+        private static final int OP_OR = 1;
+
+        private static final int OP_DIFF = 2;
+
+        private static final int CACHE_SIZE = 1 << 16;
+
+        private final Indexer<CSObj> indexer;
+
+        // fields of nodes
+        private int[] levels = new int[1024];
+
+        private int[] lows = new int[1024];
+
+        private int[] highs = new int[1024];
+
+        private int nodeCount;
+
+        /**
+         * Unique table of non-terminal nodes (open addressing),
+         * 0 represents empty slots.
+         */
+        private int[] table = new int[1024];
+
+        // operation cache
+        private final int[] cacheOps = new int[CACHE_SIZE];
+
+        private final int[] cacheLeft = new int[CACHE_SIZE];
+
+        private final int[] cacheRight = new int[CACHE_SIZE];
+
+        private final int[] cacheResults = new int[CACHE_SIZE];
+
+        Manager(Indexer<CSObj> indexer) {
+            this.indexer = indexer;
+            // terminal nodes are below all variables
+            levels[FALSE] = levels[TRUE] = VARS;
+            nodeCount = 2;
+        }
+
+        /**
+         * @return the BDD that represents {@code {index}}.
+         */
+        synchronized int singleton(int index) {
+            int node = TRUE;
+            for (int level = VARS - 1; level >= 0; --level) {
+                node = bit(index, level) ?
+                        mk(level, FALSE, node) : mk(level, node, FALSE);
+            }
+            return node;
+        }
+
+        synchronized boolean contains(int node, int index) {
+            while (node > TRUE) {
+                node = bit(index, levels[node]) ? highs[node] : lows[node];
+            }
+            return node == TRUE;
+        }
+
+        /**
+         * @return the BDD that represents the union of two sets.
+         */
+        synchronized int or(int a, int b) {
+            return or0(a, b);
+        }
+
+        /**
+         * @return the BDD that represents {@code a \ b}.
+         */
+        synchronized int diff(int a, int b) {
+            return diff0(a, b);
+        }
+
+        /**
+         * @return the number of indexes in the set.
+         */
+        synchronized int count(int node) {
+            long count = count0(node, Maps.newMap()) << levels[node];
+            return (int) count;
+        }
+
+        /**
+         * @return the indexes in the set, in ascending order.
+         */
+        synchronized int[] toArray(int node) {
+            int[] indexes = new int[count(node)];
+            collect(node, 0, 0, indexes, 0);
+            return indexes;
+        }
+
+        private static boolean bit(int index, int level) {
+            return ((index >>> (VARS - 1 - level)) & 1) != 0;
+        }
+
+        private int or0(int a, int b) {
+            if (a == b || b == FALSE) {
+                return a;
+            }
+            if (a == FALSE) {
+                return b;
+            }
+            if (a == TRUE || b == TRUE) {
+                return TRUE;
+            }
+            if (a > b) { // union is commutative
+                int t = a;
+                a = b;
+                b = t;
+            }
+            int slot = cacheSlot(OP_OR, a, b);
+            if (cacheOps[slot] == OP_OR
+                    && cacheLeft[slot] == a && cacheRight[slot] == b) {
+                return cacheResults[slot];
+            }
+            int level = Math.min(levels[a], levels[b]);
+            int low = or0(low(a, level), low(b, level));
+            int high = or0(high(a, level), high(b, level));
+            int result = mk(level, low, high);
+            putCache(slot, OP_OR, a, b, result);
+            return result;
+        }
+
+        private int diff0(int a, int b) {
+            if (a == FALSE || a == b || b == TRUE) {
+                return FALSE;
+            }
+            if (b == FALSE) {
+                return a;
+            }
+            int slot = cacheSlot(OP_DIFF, a, b);
+            if (cacheOps[slot] == OP_DIFF
+                    && cacheLeft[slot] == a && cacheRight[slot] == b) {
+                return cacheResults[slot];
+            }
+            int level = Math.min(levels[a], levels[b]);
+            int low = diff0(low(a, level), low(b, level));
+            int high = diff0(high(a, level), high(b, level));
+            int result = mk(level, low, high);
+            putCache(slot, OP_DIFF, a, b, result);
+            return result;
+        }
+
+        /**
+         * @return the low cofactor of the node w.r.t. the given level.
+         */
+        private int low(int node, int level) {
+            return levels[node] == level ? lows[node] : node;
+        }
+
+        /**
+         * @return the high cofactor of the node w.r.t. the given level.
+         */
+        private int high(int node, int level) {
+            return levels[node] == level ? highs[node] : node;
+        }
+
+        /**
+         * @return the number of satisfying assignments of the variables
+         * at and below the level of the node.
+         */
+        private long count0(int node, Map<Integer, Long> memo) {
+            if (node == FALSE) {
+                return 0;
+            }
+            if (node == TRUE) {
+                return 1;
+            }
+            Long cached = memo.get(node);
+            if (cached != null) {
+                return cached;
+            }
+            int level = levels[node];
+            int low = lows[node], high = highs[node];
+            long count = (count0(low, memo) << (levels[low] - level - 1))
+                    + (count0(high, memo) << (levels[high] - level - 1));
+            memo.put(node, count);
+            return count;
+        }
+
+        /**
+         * Collects the indexes represented by the node to given array.
+         *
+         * @return the next position in the array.
+         */
+        private int collect(int node, int level, int prefix, int[] indexes, int pos) {
+            if (node == FALSE) {
+                return pos;
+            }
+            if (level == VARS) {
+                indexes[pos] = prefix;
+                return pos + 1;
+            }
+            pos = collect(low(node, level), level + 1, prefix << 1, indexes, pos);
+            return collect(high(node, level), level + 1, (prefix << 1) | 1, indexes, pos);
+        }
+
+        /**
+         * @return the unique node of given level and children.
+         */
+        private int mk(int level, int low, int high) {
+            if (low == high) {
+                return low;
+            }
+            int mask = table.length - 1;
+            int slot = hash(level, low, high) & mask;
+            int node;
+            while ((node = table[slot]) != 0) {
+                if (levels[node] == level
+                        && lows[node] == low && highs[node] == high) {
+                    return node;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (nodeCount == levels.length) {
+                int newLength = levels.length << 1;
+                levels = Arrays.copyOf(levels, newLength);
+                lows = Arrays.copyOf(lows, newLength);
+                highs = Arrays.copyOf(highs, newLength);
+            }
+            node = nodeCount++;
+            levels[node] = level;
+            lows[node] = low;
+            highs[node] = high;
+            table[slot] = node;
+            if (nodeCount * 2 > table.length) {
+                rehash();
+            }
+            return node;
+        }
+
+        private void rehash() {
+            int[] newTable = new int[table.length << 1];
+            int mask = newTable.length - 1;
+            for (int node = TRUE + 1; node < nodeCount; ++node) {
+                int slot = hash(levels[node], lows[node], highs[node]) & mask;
+                while (newTable[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                newTable[slot] = node;
+            }
+            table = newTable;
+        }
+
+        private static int hash(int level, int low, int high) {
+            int h = level;
+            h = 31 * h + low;
+            h = 31 * h + high;
+            return h ^ (h >>> 16);
+        }
+
+        private static int cacheSlot(int op, int a, int b) {
+            return hash(op, a, b) & (CACHE_SIZE - 1);
+        }
+
+        private void putCache(int slot, int op, int a, int b, int result) {
+            cacheOps[slot] = op;
+            cacheLeft[slot] = a;
+            cacheRight[slot] = b;
+            cacheResults[slot] = result;
+        }
+    }
+}
@@ -23,6 +23,9 @@
 package pascal.taie.analysis.pta.pts;
 
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.util.collection.GenericBitSet;
+import pascal.taie.util.collection.HybridBitSet;
+import pascal.taie.util.collection.IBitSet;
 import pascal.taie.util.collection.SetEx;
 
 import java.util.Collections;
@@ -64,6 +67,17 @@ abstract class DelegatePointsToSet implements PointsToSet {
         set.removeIf(filter);
     }
 
+    @Override
+    public boolean retainAll(IBitSet indexes) {
+        if (set instanceof HybridBitSet<CSObj> hybridSet) {
+            return hybridSet.retainAllIndexes(indexes);
+        } else if (set instanceof GenericBitSet<CSObj> bitSet) {
+            return bitSet.retainAllIndexes(indexes);
+        } else {
+            return PointsToSet.super.retainAll(indexes);
+        }
+    }
+
     @Override
     public boolean contains(CSObj obj) {
         return set.contains(obj);
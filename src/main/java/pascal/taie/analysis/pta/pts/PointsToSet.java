@@ -24,6 +24,7 @@ package pascal.taie.analysis.pta.pts;
 
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
 import pascal.taie.util.Copyable;
+import pascal.taie.util.collection.IBitSet;
 
 import java.util.Iterator;
 import java.util.Set;
@@ -58,6 +59,15 @@ public interface PointsToSet extends Iterable<CSObj>, Copyable<PointsToSet> {
      */
     PointsToSet addAllDiff(PointsToSet pts);
 
+    /**
+     * Hints that this set is unlikely to change for a while, e.g., at
+     * the end of a phase of pointer analysis, so that the representations
+     * which share storage among sets could merge this set with the equal
+     * ones. This method is not thread-safe, and by default does nothing.
+     */
+    default void compact() {
+    }
+
     /**
      * Removes objects from this set if they satisfy the filter.
      * <p>
@@ -68,6 +78,22 @@ public interface PointsToSet extends Iterable<CSObj>, Copyable<PointsToSet> {
      */
     void removeIf(Predicate<CSObj> filter);
 
+    /**
+     * Retains only the objects whose indexes are set in given bit set,
+     * where the indexes of objects are given by {@link CSObj#getIndex()}
+     * (which are also the indexes given by the object indexer of
+     * {@link pascal.taie.analysis.pta.core.cs.element.CSManager}).
+     * The bit-set-based representations do this by bit-wise AND.
+     *
+     * @return true if this points-to set changed as a result of the call,
+     * otherwise false.
+     */
+    default boolean retainAll(IBitSet indexes) {
+        int size = size();
+        removeIf(o -> !indexes.get(o.getIndex()));
+        return size() != size;
+    }
+
     /**
      * @return true if this set contains given object, otherwise false.
      */
@@ -23,6 +23,7 @@
 package pascal.taie.analysis.pta.pts;
 
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.config.ConfigException;
 import pascal.taie.util.Indexer;
 
 import java.util.function.Supplier;
@@ -34,8 +35,56 @@ public class PointsToSetFactory {
 
     private final Supplier<PointsToSet> factory;
 
+    /**
+     * Whether the sets made by this factory can be made and modified
+     * by multiple threads, as long as each set is modified by one thread.
+     */
+    private final boolean isThreadSafe;
+
     public PointsToSetFactory(Indexer<CSObj> objIndexer) {
-        factory = () -> new HybridBitPointsToSet(objIndexer, true);
+        this(objIndexer, "hybrid");
+    }
+
+    /**
+     * @param objIndexer     indexer of the objects in points-to sets
+     * @param representation representation of points-to sets, which can be:
+     *                       <ul>
+     *                           <li>"hybrid": each set owns a hybrid bit set</li>
+     *                           <li>"shared": sets with equal contents share
+     *                           hash-consed bit vectors</li>
+     *                           <li>"roaring": each set owns a compressed
+     *                           roaring-style bitmap</li>
+     *                           <li>"bdd" (experimental): sets are binary
+     *                           decision diagrams with shared nodes</li>
+     *                       </ul>
+     */
+    public PointsToSetFactory(Indexer<CSObj> objIndexer, String representation) {
+        factory = switch (representation) {
+            case "hybrid" -> () -> new HybridBitPointsToSet(objIndexer, true);
+            case "shared" -> {
+                SharedBitPointsToSet.Pool pool = new SharedBitPointsToSet.Pool(objIndexer);
+                yield () -> new SharedBitPointsToSet(pool);
+            }
+            case "roaring" -> () -> new RoaringPointsToSet(objIndexer);
+            case "bdd" -> {
+                BDDPointsToSet.Manager manager = new BDDPointsToSet.Manager(objIndexer);
+                yield () -> new BDDPointsToSet(manager);
+            }
+            default -> throw new ConfigException(
+                    "Unknown points-to set representation: " + representation);
+        };
+        // BDDs of all sets share the node table of one manager
+        isThreadSafe = !representation.equals("bdd");
+    }
+
+    /**
+     * @return {@code true} if different points-to sets made by this factory
+     * can be made and modified by multiple threads concurrently.
+     * The shared bit vectors are immutable and interned by a synchronized
+     * pool, while BDDs share a node table that is not thread-safe.
+     */
+    public boolean isThreadSafe() {
+        return isThreadSafe;
     }
 
     public PointsToSet make() {
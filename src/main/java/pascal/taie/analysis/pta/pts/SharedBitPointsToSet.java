@@ -0,0 +1,297 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.pts;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.IBitSet;
+import pascal.taie.util.collection.IndexerBitSet;
+import pascal.taie.util.collection.SparseBitSet;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Points-to set whose bit vectors are shared among the sets with
+ * equal contents.
+ * <p>
+ * A bit vector becomes immutable once it is shared, which happens when
+ * this set is copied by {@link #copy()}, or when an empty set takes
+ * the vector of this set in {@link #addAll(PointsToSet)} or
+ * {@link #addAllDiff(PointsToSet)}. Updates on a shared bit vector are
+ * copy-on-write, while a private vector is updated in place.
+ * <p>
+ * A private vector is hash-consed in the {@link Pool} when it becomes
+ * shared, e.g., when the difference set of a propagation is copied to
+ * the work list or taken by empty sets of the successors, so that the
+ * sets with equal contents that are built separately share the same
+ * vector during solving. Each vector is hashed at most once before it
+ * is updated again, and the remaining private vectors are hash-consed
+ * by {@link #compact()} at the end of each phase of pointer analysis.
+ */
+class SharedBitPointsToSet implements PointsToSet {
+
+    private final Pool pool;
+
+    private IBitSet bits;
+
+    /**
+     * Whether {@link #bits} is private to this set, i.e.,
+     * it is neither shared with other sets nor interned in {@link #pool}.
+     */
+    private boolean isPrivate;
+
+    SharedBitPointsToSet(Pool pool) {
+        this(pool, new SparseBitSet(), true);
+    }
+
+    private SharedBitPointsToSet(Pool pool, IBitSet bits, boolean isPrivate) {
+        this.pool = pool;
+        this.bits = bits;
+        this.isPrivate = isPrivate;
+    }
+
+    @Override
+    public boolean addObject(CSObj obj) {
+        int index = pool.indexer.getIndex(obj);
+        if (bits.get(index)) {
+            return false;
+        }
+        makePrivate();
+        return bits.set(index);
+    }
+
+    @Override
+    public boolean addAll(PointsToSet pts) {
+        if (pts instanceof SharedBitPointsToSet other) {
+            if (bits == other.bits || bits.contains(other.bits)) {
+                return false;
+            }
+            if (bits.isEmpty()) {
+                bits = other.share();
+                isPrivate = false;
+                return true;
+            }
+            makePrivate();
+            return bits.or(other.bits);
+        } else {
+            boolean changed = false;
+            for (CSObj o : pts) {
+                changed |= addObject(o);
+            }
+            return changed;
+        }
+    }
+
+    @Override
+    public PointsToSet addAllDiff(PointsToSet pts) {
+        if (pts instanceof SharedBitPointsToSet other) {
+            if (bits == other.bits || bits.contains(other.bits)) {
+                return new SharedBitPointsToSet(pool);
+            }
+            if (bits.isEmpty()) {
+                // share the bit vector of other set
+                bits = other.share();
+                isPrivate = false;
+                return new SharedBitPointsToSet(pool, bits, false);
+            }
+            makePrivate();
+            return new SharedBitPointsToSet(pool, bits.orDiff(other.bits), true);
+        } else {
+            PointsToSet diff = new SharedBitPointsToSet(pool);
+            for (CSObj o : pts) {
+                if (addObject(o)) {
+                    diff.addObject(o);
+                }
+            }
+            return diff;
+        }
+    }
+
+    @Override
+    public void removeIf(Predicate<CSObj> filter) {
+        makePrivate();
+        getObjects0().removeIf(filter);
+    }
+
+    @Override
+    public boolean retainAll(IBitSet indexes) {
+        if (bits.getClass() != indexes.getClass()) {
+            return PointsToSet.super.retainAll(indexes);
+        }
+        if (indexes.contains(bits)) {
+            return false;
+        }
+        makePrivate();
+        return bits.and(indexes);
+    }
+
+    @Override
+    public boolean contains(CSObj obj) {
+        return bits.get(pool.indexer.getIndex(obj));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return bits.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return bits.cardinality();
+    }
+
+    @Override
+    public Set<CSObj> getObjects() {
+        return Collections.unmodifiableSet(getObjects0());
+    }
+
+    @Override
+    public Stream<CSObj> objects() {
+        return getObjects0().stream();
+    }
+
+    @Override
+    public PointsToSet copy() {
+        return new SharedBitPointsToSet(pool, share(), false);
+    }
+
+    @Override
+    public void compact() {
+        intern();
+    }
+
+    @Override
+    public String toString() {
+        return getObjects0().toString();
+    }
+
+    /**
+     * @return a set view of current bit vector.
+     */
+    private Set<CSObj> getObjects0() {
+        return new BitsView(pool.indexer, bits);
+    }
+
+    /**
+     * Ensures that {@link #bits} is private to this set before modification.
+     */
+    private void makePrivate() {
+        if (!isPrivate) {
+            bits = bits.copy();
+            isPrivate = true;
+        }
+    }
+
+    /**
+     * Marks {@link #bits} as shared, so that it is no longer
+     * updated in place.
+     *
+     * @return the shared bit vector.
+     */
+    private IBitSet share() {
+        intern();
+        return bits;
+    }
+
+    /**
+     * Replaces private {@link #bits} by the canonical vector in {@link #pool}.
+     */
+    private void intern() {
+        if (isPrivate) {
+            if (!bits.isEmpty()) {
+                bits = pool.intern(bits);
+            }
+            isPrivate = false;
+        }
+    }
+
+    /**
+     * Set view of a bit vector.
+     */
+    private static class BitsView extends IndexerBitSet<CSObj> {
+
+        private BitsView(Indexer<CSObj> indexer, IBitSet bits) {
+            super(indexer, false);
+            this.bitSet = bits;
+        }
+    }
+
+    /**
+     * Hash-consing table of the interned bit vectors. The vectors are
+     * weakly referenced, so that they can be garbage-collected when
+     * no points-to sets use them. The table is striped by the hash codes
+     * of the vectors, so that the vectors shared by different solver
+     * threads in parallel propagation rarely contend for the same lock.
+     */
+    static class Pool {
+
+        /**
+         * Number of stripes, which must be a power of two.
+         */
+        private static final int STRIPES = 64;
+
+        private final Indexer<CSObj> indexer;
+
+        private final Stripe[] stripes;
+
+        Pool(Indexer<CSObj> indexer) {
+            this.indexer = indexer;
+            this.stripes = new Stripe[STRIPES];
+            for (int i = 0; i < STRIPES; ++i) {
+                stripes[i] = new Stripe();
+            }
+        }
+
+        /**
+         * @return the canonical bit vector that equals to given vector.
+         */
+        IBitSet intern(IBitSet bits) {
+            int hash = bits.hashCode();
+            Stripe stripe = stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+            synchronized (stripe) {
+                WeakReference<IBitSet> ref = stripe.vectors.get(bits);
+                IBitSet canonical = ref != null ? ref.get() : null;
+                if (canonical == null) {
+                    stripe.vectors.put(bits, new WeakReference<>(bits));
+                    canonical = bits;
+                }
+                return canonical;
+            }
+        }
+
+        /**
+         * A stripe of the table, which is also the lock of its vectors.
+         */
+        private static class Stripe {
+
+            private final Map<IBitSet, WeakReference<IBitSet>> vectors =
+                    new WeakHashMap<>();
+        }
+    }
+}
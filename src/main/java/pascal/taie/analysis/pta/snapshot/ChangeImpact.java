@@ -0,0 +1,218 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.snapshot;
+
+import pascal.taie.World;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.CastExp;
+import pascal.taie.ir.exp.ClassLiteral;
+import pascal.taie.ir.exp.Exp;
+import pascal.taie.ir.exp.FieldAccess;
+import pascal.taie.ir.exp.InstanceOfExp;
+import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.NewExp;
+import pascal.taie.ir.exp.StringLiteral;
+import pascal.taie.ir.proginfo.ExceptionEntry;
+import pascal.taie.ir.proginfo.FieldRef;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.StringReps;
+import pascal.taie.language.type.ArrayType;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Checks whether the changes of application classes may affect the
+ * results in a pointer analysis snapshot, which decides whether the
+ * snapshot is invalidated. The results are considered unaffected if no
+ * file other than class files has changed, and no changed class
+ * <ul>
+ *     <li>declares any reachable method,</li>
+ *     <li>is (a supertype of) the type of any object,</li>
+ *     <li>is referred by the IR of any reachable method, including the
+ *     declared types of the fields and the signatures of the methods
+ *     referred by the IR, or</li>
+ *     <li>is named by a string constant in any reachable method, which
+ *     may be resolved as a reflection target,</li>
+ * </ul>
+ * as then the changed classes are neither executed nor dispatched to,
+ * and the reachable part of the program is the same as before.
+ */
+class ChangeImpact {
+
+    private final ClassHierarchy hierarchy = World.get().getClassHierarchy();
+
+    private final Set<String> changedClasses;
+
+    private final List<String> reasons = new ArrayList<>();
+
+    private ChangeImpact(Set<String> changedClasses) {
+        this.changedClasses = changedClasses;
+    }
+
+    /**
+     * @return the reasons why {@code changes} may affect {@code result},
+     * or an empty list if {@code changes} do not affect {@code result}.
+     */
+    static List<String> check(SnapshotResult result, ClassChanges changes) {
+        ChangeImpact impact = new ChangeImpact(changes.all());
+        impact.checkResources();
+        impact.checkReachableMethods(result);
+        impact.checkObjectTypes(result);
+        return impact.reasons;
+    }
+
+    /**
+     * Changed files other than class files (e.g., source files) may define
+     * any classes, so their impacts are unknown.
+     */
+    private void checkResources() {
+        changedClasses.stream()
+                .filter(key -> key.startsWith(ClassChanges.RESOURCE_PREFIX))
+                .forEach(key -> reasons.add("file " + key.substring(
+                        ClassChanges.RESOURCE_PREFIX.length())
+                        + " has changed and its impact is unknown"));
+    }
+
+    private void checkReachableMethods(SnapshotResult result) {
+        result.getReachableMethodSignatures().forEach(sig -> {
+            String className = StringReps.getClassNameOf(sig);
+            if (changedClasses.contains(className)) {
+                reasons.add("reachable method " + sig
+                        + " is declared in changed class " + className);
+                return;
+            }
+            JMethod method = hierarchy.getMethod(sig);
+            if (method != null && !method.isAbstract() && !method.isNative()) {
+                checkReferences(method);
+            }
+        });
+    }
+
+    private void checkReferences(JMethod method) {
+        IR ir = method.getIR();
+        Consumer<Type> checker = type -> {
+            String className = getClassName(type);
+            if (className != null && changedClasses.contains(className)) {
+                reasons.add("reachable method " + method
+                        + " refers to changed class " + className);
+            }
+        };
+        for (Stmt stmt : ir) {
+            stmt.getDef().ifPresent(e -> checkReferences(e, checker));
+            stmt.getUses().forEach(e -> {
+                checkReferences(e, checker);
+                if (e instanceof StringLiteral literal &&
+                        changedClasses.contains(literal.getString())) {
+                    reasons.add("reachable method " + method
+                            + " may reflectively refer to changed class "
+                            + literal.getString());
+                }
+            });
+        }
+        for (ExceptionEntry entry : ir.getExceptionEntries()) {
+            checker.accept(entry.catchType());
+        }
+    }
+
+    private static void checkReferences(Exp exp, Consumer<Type> checker) {
+        if (exp instanceof InvokeExp invokeExp) {
+            MethodRef methodRef = invokeExp.getMethodRef();
+            checker.accept(methodRef.getDeclaringClass().getType());
+            checker.accept(methodRef.getReturnType());
+            methodRef.getParameterTypes().forEach(checker);
+        } else if (exp instanceof FieldAccess access) {
+            FieldRef fieldRef = access.getFieldRef();
+            checker.accept(fieldRef.getDeclaringClass().getType());
+            checker.accept(fieldRef.getType());
+        } else if (exp instanceof NewExp newExp) {
+            checker.accept(newExp.getType());
+        } else if (exp instanceof CastExp castExp) {
+            checker.accept(castExp.getCastType());
+        } else if (exp instanceof InstanceOfExp instanceOfExp) {
+            checker.accept(instanceOfExp.getCheckedType());
+        } else if (exp instanceof ClassLiteral classLiteral) {
+            checker.accept(classLiteral.getTypeValue());
+        }
+    }
+
+    private void checkObjectTypes(SnapshotResult result) {
+        result.getObjectTypeNames().forEach(typeName -> {
+            String className = StringReps.getBaseTypeNameOf(typeName);
+            JClass jclass = hierarchy.getClass(className);
+            if (changedClasses.contains(className)) {
+                reasons.add("objects of type " + typeName
+                        + " are of changed class " + className);
+            } else if (jclass != null) {
+                getSupertypes(jclass)
+                        .stream()
+                        .map(JClass::getName)
+                        .filter(changedClasses::contains)
+                        .forEach(name -> reasons.add("objects of type "
+                                + typeName + " inherit from changed class " + name));
+            }
+        });
+    }
+
+    /**
+     * @return all direct and indirect superclasses and interfaces of {@code jclass}.
+     */
+    private static Set<JClass> getSupertypes(JClass jclass) {
+        Set<JClass> supertypes = Sets.newHybridSet();
+        Deque<JClass> workList = new ArrayDeque<>();
+        workList.add(jclass);
+        while (!workList.isEmpty()) {
+            JClass c = workList.poll();
+            if (c.getSuperClass() != null && supertypes.add(c.getSuperClass())) {
+                workList.add(c.getSuperClass());
+            }
+            c.getInterfaces().forEach(i -> {
+                if (supertypes.add(i)) {
+                    workList.add(i);
+                }
+            });
+        }
+        return supertypes;
+    }
+
+    @Nullable
+    private static String getClassName(Type type) {
+        if (type instanceof ArrayType arrayType) {
+            type = arrayType.baseType();
+        }
+        return type instanceof ClassType classType ? classType.getName() : null;
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.snapshot;
+
+import pascal.taie.util.Fingerprint;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * Changes of application classes between two runs, which are detected
+ * by comparing the digests of the contents of class files.
+ * Other files in application class path (e.g., Java source files) are
+ * also compared, and they are keyed by {@link #RESOURCE_PREFIX} followed
+ * by their paths, as the classes in them are unknown.
+ *
+ * @param added    keys of the classes or files that are added
+ * @param removed  keys of the classes or files that are removed
+ * @param modified keys of the classes or files whose contents are modified
+ */
+record ClassChanges(Set<String> added, Set<String> removed,
+                    Set<String> modified) {
+
+    static final String RESOURCE_PREFIX = "resource:";
+
+    private static final String CLASS_SUFFIX = ".class";
+
+    /**
+     * @return the digests of the files in {@code paths}, i.e., directories
+     * and JAR files, keyed by class names for class files, or by
+     * {@link #RESOURCE_PREFIX} and relative paths for other files.
+     */
+    static Map<String, String> digest(List<String> paths) {
+        Map<String, String> digests = Maps.newOrderedMap();
+        if (paths != null) {
+            paths.forEach(path -> digest(Path.of(path), digests));
+        }
+        return digests;
+    }
+
+    private static void digest(Path path, Map<String, String> digests) {
+        try {
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> files = Files.walk(path)) {
+                    for (Path file : files.filter(Files::isRegularFile).toList()) {
+                        String name = path.relativize(file).toString()
+                                .replace(File.separatorChar, '/');
+                        digests.putIfAbsent(toKey(name),
+                                digest(Files.readAllBytes(file)));
+                    }
+                }
+            } else if (path.toString().endsWith(".jar")) {
+                try (JarFile jar = new JarFile(path.toFile())) {
+                    Enumeration<JarEntry> entries = jar.entries();
+                    while (entries.hasMoreElements()) {
+                        JarEntry entry = entries.nextElement();
+                        if (!entry.isDirectory()) {
+                            try (InputStream in = jar.getInputStream(entry)) {
+                                digests.putIfAbsent(toKey(entry.getName()),
+                                        digest(in.readAllBytes()));
+                            }
+                        }
+                    }
+                }
+            } else if (Files.isRegularFile(path)) {
+                digests.putIfAbsent(RESOURCE_PREFIX + path,
+                        digest(Files.readAllBytes(path)));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @param fileName the path of a file, separated by '/'.
+     */
+    private static String toKey(String fileName) {
+        if (fileName.endsWith(CLASS_SUFFIX)) {
+            return fileName.substring(0, fileName.length() - CLASS_SUFFIX.length())
+                    .replace('/', '.');
+        } else {
+            return RESOURCE_PREFIX + fileName;
+        }
+    }
+
+    private static String digest(byte[] content) {
+        return new Fingerprint().add(content).get();
+    }
+
+    /**
+     * @return the changes from the classes of {@code oldDigests}
+     * to the classes of {@code newDigests}.
+     */
+    static ClassChanges diff(Map<String, String> oldDigests,
+                             Map<String, String> newDigests) {
+        Set<String> added = Sets.newOrderedSet();
+        Set<String> removed = Sets.newOrderedSet();
+        Set<String> modified = Sets.newOrderedSet();
+        newDigests.forEach((name, digest) -> {
+            String oldDigest = oldDigests.get(name);
+            if (oldDigest == null) {
+                added.add(name);
+            } else if (!oldDigest.equals(digest)) {
+                modified.add(name);
+            }
+        });
+        oldDigests.keySet().forEach(name -> {
+            if (!newDigests.containsKey(name)) {
+                removed.add(name);
+            }
+        });
+        return new ClassChanges(added, removed, modified);
+    }
+
+    boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && modified.isEmpty();
+    }
+
+    /**
+     * @return keys of all changed classes and files.
+     */
+    Set<String> all() {
+        Set<String> all = Sets.newOrderedSet();
+        all.addAll(added);
+        all.addAll(removed);
+        all.addAll(modified);
+        return all;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d added, %d removed, %d modified",
+                added.size(), removed.size(), modified.size());
+    }
+}
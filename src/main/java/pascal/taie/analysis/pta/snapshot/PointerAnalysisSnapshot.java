@@ -0,0 +1,188 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.snapshot;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.Options;
+import pascal.taie.util.Fingerprint;
+import pascal.taie.util.Timer;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Saves (context-insensitive) pointer analysis results to binary
+ * snapshot files, and loads the results from the snapshots.
+ * <p>
+ * A snapshot stores the variables, objects, fields and methods
+ * as integer-indexed tables, and the points-to relations and
+ * call edges as compressed sparse rows. A loaded snapshot maps
+ * the file into memory and decodes the points-to sets on demand,
+ * so that client analyses can start without re-solving.
+ * <p>
+ * Each snapshot records a fingerprint of the world (library class path,
+ * options and Tai-e version) and the options of pointer analysis, together
+ * with the digest of each application class, and a snapshot is only
+ * loaded when its fingerprint matches the current one. When some
+ * application classes have changed, the validity of the snapshot is
+ * checked: it is invalidated, unless impact-based invalidation is enabled
+ * and the changes cannot affect its results (see {@link ChangeImpact}).
+ * This is only a validity check: the results of an invalidated snapshot
+ * are re-solved from scratch, as the snapshot holds neither the pointer
+ * flow graph nor context-sensitive results, from which the solver could
+ * be re-seeded. Note that loaded results contain no context-sensitive
+ * elements.
+ */
+public final class PointerAnalysisSnapshot {
+
+    private static final Logger logger = LogManager.getLogger(PointerAnalysisSnapshot.class);
+
+    /**
+     * Magic number of snapshot files, i.e., "TAIP".
+     */
+    static final int MAGIC = 0x54414950;
+
+    /**
+     * Version of the snapshot format. It should be increased
+     * whenever the format is changed.
+     */
+    static final int FORMAT_VERSION = 2;
+
+    /**
+     * Maximum number of reported reasons why a snapshot is outdated.
+     */
+    private static final int MAX_REPORTED_REASONS = 10;
+
+    private PointerAnalysisSnapshot() {
+    }
+
+    /**
+     * @return the fingerprint of pointer analysis results computed
+     * on the world of {@code worldOptions} with {@code ptaOptions}.
+     * Application classes are not covered by the fingerprint as they are
+     * compared class by class.
+     */
+    public static String getFingerprint(Options worldOptions,
+                                        AnalysisOptions ptaOptions) {
+        return Fingerprint.ofWorldExceptAppClasses(worldOptions)
+                .add(FORMAT_VERSION)
+                .add(ptaOptions.toString())
+                .get();
+    }
+
+    /**
+     * Saves {@code result} to {@code file} with given fingerprint.
+     */
+    public static void save(PointerAnalysisResult result,
+                            File file, String fingerprint) {
+        logger.info("Saving pointer analysis snapshot to {}", file);
+        Timer.runAndCount(() -> {
+            try {
+                new SnapshotWriter(result).write(file, fingerprint,
+                        ClassChanges.digest(getAppClassPath()));
+            } catch (IOException e) {
+                logger.error("Failed to save pointer analysis snapshot" +
+                        " to {} due to {}", file, e);
+            }
+        }, "Save pointer analysis snapshot");
+    }
+
+    /**
+     * Loads pointer analysis results from {@code file}.
+     *
+     * @param checkImpact whether to reuse the results when some application
+     *                    classes have changed, but the changes do not affect
+     *                    the results.
+     * @return the loaded results, or {@code null} if the file does not exist,
+     * is corrupted, its fingerprint does not match {@code fingerprint}, or
+     * the results are outdated due to changes of application classes.
+     */
+    @Nullable
+    public static PointerAnalysisResult load(File file, String fingerprint,
+                                             boolean checkImpact) {
+        if (!file.exists()) {
+            logger.info("Pointer analysis snapshot not found in {}", file);
+            return null;
+        }
+        logger.info("Loading pointer analysis snapshot from {}", file);
+        return Timer.runAndCount(() -> {
+            try {
+                SnapshotResult result = SnapshotResult.load(file, fingerprint);
+                if (result == null) {
+                    logger.info("Pointer analysis snapshot {} is outdated", file);
+                    return null;
+                }
+                return isValid(result, checkImpact) ? result : null;
+            } catch (IOException | RuntimeException e) {
+                logger.error("Failed to load pointer analysis snapshot" +
+                        " from {} due to {}", file, e);
+                return null;
+            }
+        }, "Load pointer analysis snapshot", Level.INFO);
+    }
+
+    /**
+     * Checks the validity of the snapshot for current application classes.
+     *
+     * @return {@code true} if {@code result} is still valid, otherwise
+     * the results need to be re-solved from scratch.
+     */
+    private static boolean isValid(SnapshotResult result,
+                                   boolean checkImpact) {
+        ClassChanges changes = ClassChanges.diff(
+                result.getClassDigests(), ClassChanges.digest(getAppClassPath()));
+        if (changes.isEmpty()) {
+            return true;
+        }
+        logger.info("Application classes have changed since the snapshot" +
+                " was saved: {}", changes);
+        if (!checkImpact) {
+            logger.info("Pointer analysis snapshot is outdated");
+            return false;
+        }
+        List<String> reasons = ChangeImpact.check(result, changes);
+        if (reasons.isEmpty()) {
+            logger.info("The changes do not affect the results in snapshot," +
+                    " reuse the results");
+            return true;
+        }
+        logger.warn("Pointer analysis snapshot is invalidated and a full" +
+                " re-solve is required for soundness, as {} reason(s) are" +
+                " found, e.g.:", reasons.size());
+        reasons.stream()
+                .limit(MAX_REPORTED_REASONS)
+                .forEach(reason -> logger.warn("  {}", reason));
+        return false;
+    }
+
+    private static List<String> getAppClassPath() {
+        return World.get().getOptions().getAppClassPath();
+    }
+}
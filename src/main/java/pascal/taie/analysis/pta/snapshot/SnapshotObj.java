@@ -0,0 +1,115 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.snapshot;
+
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+
+import javax.annotation.Nullable;
+import java.util.Optional;
+
+/**
+ * Represents the objects restored from snapshots. Each object keeps
+ * the index, type, container and description of its original object.
+ */
+class SnapshotObj extends Obj {
+
+    private final int index;
+
+    private final Type type;
+
+    @Nullable
+    private final JMethod container;
+
+    @Nullable
+    private final Type containerType;
+
+    /**
+     * Index of allocation statement in the IR of {@link #container},
+     * or -1 if the allocation is not a statement.
+     */
+    private final int allocStmt;
+
+    private final String alloc;
+
+    private final String desc;
+
+    private final boolean functional;
+
+    SnapshotObj(int index, Type type, @Nullable JMethod container,
+                @Nullable Type containerType, int allocStmt,
+                String alloc, String desc, boolean functional) {
+        this.index = index;
+        this.type = type;
+        this.container = container;
+        this.containerType = containerType;
+        this.allocStmt = allocStmt;
+        this.alloc = alloc;
+        this.desc = desc;
+        this.functional = functional;
+    }
+
+    @Override
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public boolean isFunctional() {
+        return functional;
+    }
+
+    @Override
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return the allocation statement if the original allocation is
+     * a statement in container method, otherwise the description
+     * of original allocation.
+     */
+    @Override
+    public Object getAllocation() {
+        if (allocStmt != -1 && container != null) {
+            return container.getIR().getStmt(allocStmt);
+        }
+        return alloc;
+    }
+
+    @Override
+    public Optional<JMethod> getContainerMethod() {
+        return Optional.ofNullable(container);
+    }
+
+    @Override
+    public Type getContainerType() {
+        return containerType;
+    }
+
+    @Override
+    public String toString() {
+        return desc;
+    }
+}
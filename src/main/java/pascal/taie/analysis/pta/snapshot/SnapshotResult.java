@@ -0,0 +1,676 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.snapshot;
+
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallKind;
+import pascal.taie.analysis.graph.callgraph.DefaultCallGraph;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.graph.flowgraph.ObjectFlowGraph;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.CSCallGraph;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.cs.selector.ContextSelectorFactory;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.ir.exp.ArrayAccess;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.StaticFieldAccess;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.AbstractResultHolder;
+import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.HybridBitSet;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Pointer analysis results loaded from a snapshot file.
+ * The file is mapped into memory, and the elements and points-to sets
+ * are decoded when they are queried for the first time.
+ * See {@link SnapshotWriter} for the layout of the file.
+ * <p>
+ * Snapshots do not contain context-sensitive elements, thus the APIs
+ * for context-sensitive elements return context-insensitive views of
+ * the results, i.e., the elements with empty contexts, which are built
+ * when any of them is queried for the first time. Snapshots do not
+ * contain pointer flow graph either, thus {@link #getObjectFlowGraph()}
+ * throws {@link UnsupportedOperationException}.
+ */
+class SnapshotResult extends AbstractResultHolder
+        implements PointerAnalysisResult {
+
+    private final ClassHierarchy hierarchy = World.get().getClassHierarchy();
+
+    private final TypeSystem typeSystem = World.get().getTypeSystem();
+
+    private final String[] strings;
+
+    private final IntBuffer methodTable;
+
+    private final IntBuffer fieldTable;
+
+    private final IntBuffer objTable;
+
+    private final PointsToTable varPointsToTable;
+
+    private final PointsToTable sfieldPointsToTable;
+
+    private final PointsToTable ifieldPointsToTable;
+
+    private final PointsToTable arrayPointsToTable;
+
+    private final IntBuffer entryTable;
+
+    private final IntBuffer reachableTable;
+
+    private final IntBuffer edgeTable;
+
+    private final JMethod[] methods;
+
+    private final JField[] fields;
+
+    private final SnapshotObj[] objs;
+
+    /**
+     * Maps method signature to method ID.
+     */
+    private Map<String, Integer> methodIds;
+
+    /**
+     * Maps field signature to field ID.
+     */
+    private Map<String, Integer> fieldIds;
+
+    private final Indexer<Obj> objIndexer = new Indexer<>() {
+        @Override
+        public int getIndex(Obj o) {
+            return o.getIndex();
+        }
+
+        @Override
+        public Obj getObject(int index) {
+            return getObj(index);
+        }
+    };
+
+    private final Map<Var, Set<Obj>> varPointsTo = Maps.newConcurrentMap(4096);
+
+    private CallGraph<Invoke, JMethod> callGraph;
+
+    /**
+     * Context-insensitive view of the results for the APIs of
+     * context-sensitive elements.
+     */
+    private CSView csView;
+
+    /**
+     * Digests of application classes on which the results are computed.
+     */
+    private final Map<String, String> classDigests;
+
+    private SnapshotResult(Reader reader, Map<String, String> classDigests) {
+        this.classDigests = classDigests;
+        strings = new String[reader.readInt()];
+        for (int i = 0; i < strings.length; ++i) {
+            strings[i] = reader.readString();
+        }
+        methodTable = reader.readInts(reader.readInt());
+        fieldTable = reader.readInts(reader.readInt());
+        objTable = reader.readInts(reader.readInt() * 7);
+        varPointsToTable = new PointsToTable(reader, 2);
+        sfieldPointsToTable = new PointsToTable(reader, 1);
+        ifieldPointsToTable = new PointsToTable(reader, 2);
+        arrayPointsToTable = new PointsToTable(reader, 1);
+        entryTable = reader.readInts(reader.readInt());
+        reachableTable = reader.readInts(reader.readInt());
+        edgeTable = reader.readInts(reader.readInt() * 5);
+        methods = new JMethod[methodTable.limit()];
+        fields = new JField[fieldTable.limit()];
+        objs = new SnapshotObj[objTable.limit() / 7];
+    }
+
+    /**
+     * @return the results in {@code file}, or {@code null} if the fingerprint
+     * of the file does not match {@code fingerprint}.
+     */
+    @Nullable
+    static SnapshotResult load(File file, String fingerprint) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(
+                file.toPath(), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        Reader reader = new Reader(buffer);
+        if (reader.readInt() != PointerAnalysisSnapshot.MAGIC) {
+            throw new IOException(file + " is not a pointer analysis snapshot");
+        }
+        if (reader.readInt() != PointerAnalysisSnapshot.FORMAT_VERSION
+                || !reader.readString().equals(fingerprint)) {
+            return null;
+        }
+        int n = reader.readInt();
+        Map<String, String> classDigests = Maps.newOrderedMap();
+        for (int i = 0; i < n; ++i) {
+            classDigests.put(reader.readString(), reader.readString());
+        }
+        return new SnapshotResult(reader, classDigests);
+    }
+
+    Map<String, String> getClassDigests() {
+        return classDigests;
+    }
+
+    @Nullable
+    private JMethod getMethod(int id) {
+        if (methods[id] == null) {
+            methods[id] = hierarchy.getMethod(strings[methodTable.get(id)]);
+        }
+        return methods[id];
+    }
+
+    private int getMethodId(JMethod method) {
+        if (methodIds == null) {
+            methodIds = buildIds(methodTable);
+        }
+        return methodIds.getOrDefault(method.getSignature(), -1);
+    }
+
+    @Nullable
+    private JField getField(int id) {
+        if (fields[id] == null) {
+            fields[id] = hierarchy.getField(strings[fieldTable.get(id)]);
+        }
+        return fields[id];
+    }
+
+    private int getFieldId(JField field) {
+        if (fieldIds == null) {
+            fieldIds = buildIds(fieldTable);
+        }
+        return fieldIds.getOrDefault(field.getSignature(), -1);
+    }
+
+    private Map<String, Integer> buildIds(IntBuffer table) {
+        Map<String, Integer> ids = Maps.newMap(table.limit());
+        for (int i = 0; i < table.limit(); ++i) {
+            ids.put(strings[table.get(i)], i);
+        }
+        return ids;
+    }
+
+    private synchronized SnapshotObj getObj(int id) {
+        if (objs[id] == null) {
+            int i = id * 7;
+            int container = objTable.get(i + 1);
+            int containerType = objTable.get(i + 2);
+            objs[id] = new SnapshotObj(id,
+                    getType(objTable.get(i)),
+                    container != -1 ? getMethod(container) : null,
+                    containerType != -1 ? getType(containerType) : null,
+                    objTable.get(i + 3),
+                    strings[objTable.get(i + 4)],
+                    strings[objTable.get(i + 5)],
+                    objTable.get(i + 6) == 1);
+        }
+        return objs[id];
+    }
+
+    private Type getType(int stringId) {
+        return typeSystem.getType(strings[stringId]);
+    }
+
+    /**
+     * Decodes the points-to set of given row of {@code table}.
+     */
+    private Set<Obj> getPointsToSet(PointsToTable table, int row) {
+        if (row == -1) {
+            return Set.of();
+        }
+        Set<Obj> set = new HybridBitSet<>(objIndexer, true);
+        table.forEachObj(row, id -> set.add(getObj(id)));
+        return Collections.unmodifiableSet(set);
+    }
+
+    /**
+     * @return signatures of the reachable methods in this snapshot,
+     * including the methods that are absent in current world.
+     */
+    Stream<String> getReachableMethodSignatures() {
+        return IntStream.range(0, reachableTable.limit())
+                .mapToObj(i -> strings[methodTable.get(reachableTable.get(i))]);
+    }
+
+    /**
+     * @return names of the types of the objects in this snapshot.
+     */
+    Stream<String> getObjectTypeNames() {
+        return IntStream.range(0, objs.length)
+                .mapToObj(i -> strings[objTable.get(i * 7)])
+                .distinct();
+    }
+
+    @Override
+    public Collection<Var> getVars() {
+        List<Var> vars = new ArrayList<>(varPointsToTable.size());
+        for (int i = 0; i < varPointsToTable.size(); ++i) {
+            JMethod method = getMethod(varPointsToTable.getKey(i, 0));
+            if (method != null) {
+                vars.add(method.getIR().getVar(varPointsToTable.getKey(i, 1)));
+            }
+        }
+        return Collections.unmodifiableList(vars);
+    }
+
+    @Override
+    public Collection<Obj> getObjects() {
+        return IntStream.range(0, objs.length)
+                .mapToObj(this::getObj)
+                .map(o -> (Obj) o)
+                .toList();
+    }
+
+    @Override
+    public Indexer<Obj> getObjectIndexer() {
+        return objIndexer;
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(Var var) {
+        return varPointsTo.computeIfAbsent(var, v -> {
+            int methodId = getMethodId(v.getMethod());
+            return getPointsToSet(varPointsToTable,
+                    varPointsToTable.find(methodId, v.getIndex()));
+        });
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(InstanceFieldAccess access) {
+        JField field = access.getFieldRef().resolveNullable();
+        return field != null ? getPointsToSet(access.getBase(), field) : Set.of();
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(Var base, JField field) {
+        Set<Obj> result = new HybridBitSet<>(objIndexer, true);
+        getPointsToSet(base).forEach(o ->
+                result.addAll(getPointsToSet(o, field)));
+        return Collections.unmodifiableSet(result);
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(Obj base, JField field) {
+        return getPointsToSet(ifieldPointsToTable, ifieldPointsToTable
+                .find(base.getIndex(), getFieldId(field)));
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(StaticFieldAccess access) {
+        JField field = access.getFieldRef().resolveNullable();
+        return field != null ? getPointsToSet(field) : Set.of();
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(JField field) {
+        return getPointsToSet(sfieldPointsToTable,
+                sfieldPointsToTable.find(getFieldId(field)));
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(ArrayAccess access) {
+        return getPointsToSet(access.getBase(), access.getIndex());
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(Var base, Var index) {
+        Set<Obj> result = new HybridBitSet<>(objIndexer, true);
+        getPointsToSet(base).forEach(o ->
+                result.addAll(getPointsToSet(o)));
+        return Collections.unmodifiableSet(result);
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(Obj array) {
+        return getPointsToSet(arrayPointsToTable,
+                arrayPointsToTable.find(array.getIndex()));
+    }
+
+    @Override
+    public boolean mayAlias(Var v1, Var v2) {
+        return !Collections.disjoint(getPointsToSet(v1), getPointsToSet(v2));
+    }
+
+    @Override
+    public boolean mayAlias(InstanceFieldAccess if1, InstanceFieldAccess if2) {
+        return Objects.equals(
+                if1.getFieldRef().resolveNullable(),
+                if2.getFieldRef().resolveNullable())
+                && mayAlias(if1.getBase(), if2.getBase());
+    }
+
+    @Override
+    public boolean mayAlias(ArrayAccess a1, ArrayAccess a2) {
+        return mayAlias(a1.getBase(), a2.getBase());
+    }
+
+    @Override
+    public synchronized CallGraph<Invoke, JMethod> getCallGraph() {
+        if (callGraph == null) {
+            DefaultCallGraph cg = new DefaultCallGraph();
+            for (int i = 0; i < entryTable.limit(); ++i) {
+                JMethod method = getMethod(entryTable.get(i));
+                if (method != null) {
+                    cg.addEntryMethod(method);
+                }
+            }
+            for (int i = 0; i < reachableTable.limit(); ++i) {
+                JMethod method = getMethod(reachableTable.get(i));
+                if (method != null) {
+                    cg.addReachableMethod(method);
+                }
+            }
+            CallKind[] kinds = CallKind.values();
+            for (int i = 0; i < edgeTable.limit(); i += 5) {
+                JMethod caller = getMethod(edgeTable.get(i));
+                JMethod callee = getMethod(edgeTable.get(i + 2));
+                if (caller != null && callee != null) {
+                    Invoke callSite = (Invoke) caller.getIR()
+                            .getStmt(edgeTable.get(i + 1));
+                    int info = edgeTable.get(i + 4);
+                    cg.addEdge(new SnapshotEdge<>(kinds[edgeTable.get(i + 3)],
+                            callSite, callee, info != -1 ? strings[info] : null));
+                }
+            }
+            callGraph = cg;
+        }
+        return callGraph;
+    }
+
+    @Override
+    public Collection<CSVar> getCSVars() {
+        return getCSView().csManager.getCSVars();
+    }
+
+    @Override
+    public Collection<InstanceField> getInstanceFields() {
+        return getCSView().csManager.getInstanceFields();
+    }
+
+    @Override
+    public Collection<ArrayIndex> getArrayIndexes() {
+        return getCSView().csManager.getArrayIndexes();
+    }
+
+    @Override
+    public Collection<StaticField> getStaticFields() {
+        return getCSView().csManager.getStaticFields();
+    }
+
+    @Override
+    public Collection<CSObj> getCSObjects() {
+        return getCSView().csManager.getObjects();
+    }
+
+    @Override
+    public CallGraph<CSCallSite, CSMethod> getCSCallGraph() {
+        return getCSView().csCallGraph;
+    }
+
+    @Override
+    public ObjectFlowGraph getObjectFlowGraph() {
+        throw new UnsupportedOperationException(
+                "Pointer analysis snapshots do not contain pointer flow graph");
+    }
+
+    private synchronized CSView getCSView() {
+        if (csView == null) {
+            csView = new CSView();
+        }
+        return csView;
+    }
+
+    /**
+     * Context-sensitive elements of the results, all of which
+     * have empty contexts.
+     */
+    private class CSView {
+
+        private final CSManager csManager = new MapBasedCSManager();
+
+        private final CSCallGraph csCallGraph = new CSCallGraph(csManager);
+
+        private final Context emptyContext = ContextSelectorFactory
+                .makeCISelector().getEmptyContext();
+
+        private final PointsToSetFactory ptsFactory =
+                new PointsToSetFactory(csManager.getObjectIndexer());
+
+        private CSView() {
+            getObjects().forEach(this::getCSObj);
+            getVars().forEach(var -> csManager.getCSVar(emptyContext, var)
+                    .setPointsToSet(toPointsToSet(getPointsToSet(var))));
+            for (int i = 0; i < sfieldPointsToTable.size(); ++i) {
+                JField field = getField(sfieldPointsToTable.getKey(i, 0));
+                if (field != null) {
+                    csManager.getStaticField(field).setPointsToSet(
+                            toPointsToSet(getPointsToSet(sfieldPointsToTable, i)));
+                }
+            }
+            for (int i = 0; i < ifieldPointsToTable.size(); ++i) {
+                JField field = getField(ifieldPointsToTable.getKey(i, 1));
+                if (field != null) {
+                    CSObj base = getCSObj(getObj(ifieldPointsToTable.getKey(i, 0)));
+                    csManager.getInstanceField(base, field).setPointsToSet(
+                            toPointsToSet(getPointsToSet(ifieldPointsToTable, i)));
+                }
+            }
+            for (int i = 0; i < arrayPointsToTable.size(); ++i) {
+                CSObj array = getCSObj(getObj(arrayPointsToTable.getKey(i, 0)));
+                csManager.getArrayIndex(array).setPointsToSet(
+                        toPointsToSet(getPointsToSet(arrayPointsToTable, i)));
+            }
+            CallGraph<Invoke, JMethod> cg = getCallGraph();
+            cg.entryMethods().forEach(method ->
+                    csCallGraph.addEntryMethod(getCSMethod(method)));
+            cg.reachableMethods().forEach(method ->
+                    csCallGraph.addReachableMethod(getCSMethod(method)));
+            cg.edges().forEach(edge -> csCallGraph.addEdge(new SnapshotEdge<>(
+                    edge.getKind(),
+                    csManager.getCSCallSite(emptyContext, edge.getCallSite()),
+                    getCSMethod(edge.getCallee()),
+                    ((SnapshotEdge<?, ?>) edge).info)));
+        }
+
+        private CSObj getCSObj(Obj obj) {
+            return csManager.getCSObj(emptyContext, obj);
+        }
+
+        private CSMethod getCSMethod(JMethod method) {
+            return csManager.getCSMethod(emptyContext, method);
+        }
+
+        private PointsToSet toPointsToSet(Set<Obj> objs) {
+            PointsToSet pts = ptsFactory.make();
+            objs.forEach(obj -> pts.addObject(getCSObj(obj)));
+            return pts;
+        }
+    }
+
+    /**
+     * Sequentially reads the sections of a snapshot.
+     */
+    private static class Reader {
+
+        private final ByteBuffer buffer;
+
+        private int pos = 0;
+
+        private Reader(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        private int readInt() {
+            int i = buffer.getInt(pos);
+            pos += Integer.BYTES;
+            return i;
+        }
+
+        private String readString() {
+            int length = readInt();
+            byte[] bytes = new byte[length];
+            buffer.get(pos, bytes);
+            pos += length;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * @return a view of next {@code n} ints, without copying them.
+         */
+        private IntBuffer readInts(int n) {
+            IntBuffer ints = buffer.slice(pos, n * Integer.BYTES).asIntBuffer();
+            pos += n * Integer.BYTES;
+            return ints;
+        }
+    }
+
+    /**
+     * Points-to sets of sorted keys, stored as compressed sparse rows.
+     */
+    private static class PointsToTable {
+
+        private final int keyLength;
+
+        private final IntBuffer keys;
+
+        private final IntBuffer offsets;
+
+        private final IntBuffer values;
+
+        private PointsToTable(Reader reader, int keyLength) {
+            this.keyLength = keyLength;
+            int n = reader.readInt();
+            keys = reader.readInts(n * keyLength);
+            offsets = reader.readInts(n + 1);
+            values = reader.readInts(offsets.get(n));
+        }
+
+        private int size() {
+            return offsets.limit() - 1;
+        }
+
+        private int getKey(int row, int i) {
+            return keys.get(row * keyLength + i);
+        }
+
+        /**
+         * @return the row of given key, or -1 if the key is absent.
+         */
+        private int find(int... key) {
+            int low = 0, high = size() - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = compare(mid, key);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+
+        private int compare(int row, int[] key) {
+            for (int i = 0; i < keyLength; ++i) {
+                int c = Integer.compare(getKey(row, i), key[i]);
+                if (c != 0) {
+                    return c;
+                }
+            }
+            return 0;
+        }
+
+        private void forEachObj(int row, IntConsumer action) {
+            for (int i = offsets.get(row); i < offsets.get(row + 1); ++i) {
+                action.accept(values.get(i));
+            }
+        }
+    }
+
+    /**
+     * Call edges restored from snapshots, which keep the information
+     * of original edges.
+     */
+    private static class SnapshotEdge<CallSite, Method>
+            extends Edge<CallSite, Method> {
+
+        @Nullable
+        private final String info;
+
+        private SnapshotEdge(CallKind kind, CallSite callSite,
+                             Method callee, @Nullable String info) {
+            super(kind, callSite, callee);
+            this.info = info;
+        }
+
+        @Override
+        public String getInfo() {
+            return info != null ? info : super.getInfo();
+        }
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.snapshot;
+
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Pair;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes pointer analysis results to a snapshot file.
+ * The layout of the file is (all numbers are big-endian {@code int}s):
+ * <pre>
+ * header:       MAGIC, FORMAT_VERSION, fingerprint,
+ *               n, (application class name, digest) * n
+ * strings:      n, (length, UTF-8 bytes) * n
+ * methods:      n, signature * n
+ * fields:       n, signature * n
+ * objects:      n, (type, container method, container type,
+ *                   allocation statement, allocation, description, functional) * n
+ * variables:    n, (method, index) * n, points-to sets
+ * static fields:   n, field * n, points-to sets
+ * instance fields: n, (base object, field) * n, points-to sets
+ * array indexes:   n, array object * n, points-to sets
+ * call graph:   n, entry method * n, n, reachable method * n,
+ *               n, (caller, call site, callee, kind, info) * n
+ * </pre>
+ * where strings are referred by their indexes in the string table,
+ * absent elements are -1, and the points-to sets of n keys are stored
+ * as compressed sparse rows, i.e., n + 1 offsets followed by the
+ * object indexes. The keys of variables, instance fields and array
+ * indexes are sorted, so that they can be looked up by binary search.
+ */
+class SnapshotWriter {
+
+    private final PointerAnalysisResult result;
+
+    private final Map<String, Integer> stringIds = Maps.newLinkedHashMap();
+
+    private final Map<JMethod, Integer> methodIds = Maps.newLinkedHashMap();
+
+    private final Map<JField, Integer> fieldIds = Maps.newLinkedHashMap();
+
+    private final Map<Obj, Integer> objIds = Maps.newLinkedHashMap();
+
+    SnapshotWriter(PointerAnalysisResult result) {
+        this.result = result;
+    }
+
+    void write(File file, String fingerprint, Map<String, String> classDigests)
+            throws IOException {
+        // collect tables
+        result.getObjects().forEach(o -> objIds.put(o, objIds.size()));
+        List<int[]> objs = new ArrayList<>(objIds.size());
+        objIds.keySet().forEach(o -> objs.add(encodeObj(o)));
+        List<Pair<int[], Set<Obj>>> vars = new ArrayList<>();
+        for (Var var : result.getVars()) {
+            if (isAddressable(var)) {
+                int[] key = {getMethodId(var.getMethod()), var.getIndex()};
+                vars.add(new Pair<>(key, result.getPointsToSet(var)));
+            }
+        }
+        List<Pair<int[], Set<Obj>>> sfields = new ArrayList<>();
+        result.getStaticFields().forEach(f -> {
+            JField field = f.getField();
+            int[] key = {getFieldId(field)};
+            sfields.add(new Pair<>(key, result.getPointsToSet(field)));
+        });
+        List<Pair<int[], Set<Obj>>> ifields = new ArrayList<>();
+        result.getInstanceFields()
+                .stream()
+                .map(f -> new Pair<>(f.getBase().getObject(), f.getField()))
+                .distinct()
+                .forEach(p -> {
+                    int[] key = {objIds.get(p.first()), getFieldId(p.second())};
+                    ifields.add(new Pair<>(key,
+                            result.getPointsToSet(p.first(), p.second())));
+                });
+        List<Pair<int[], Set<Obj>>> arrays = new ArrayList<>();
+        result.getArrayIndexes()
+                .stream()
+                .map(ArrayIndex::getArray)
+                .map(CSObj::getObject)
+                .distinct()
+                .forEach(a -> arrays.add(new Pair<>(
+                        new int[]{objIds.get(a)}, result.getPointsToSet(a))));
+        CallGraph<Invoke, JMethod> callGraph = result.getCallGraph();
+        int[] entries = callGraph.entryMethods()
+                .mapToInt(this::getMethodId).toArray();
+        int[] reachable = callGraph.reachableMethods()
+                .mapToInt(this::getMethodId).toArray();
+        List<int[]> edges = new ArrayList<>();
+        callGraph.edges().forEach(e -> {
+            Invoke callSite = e.getCallSite();
+            if (isAddressable(callSite)) {
+                edges.add(encodeEdge(e));
+            }
+        });
+        // write tables
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(PointerAnalysisSnapshot.MAGIC);
+            out.writeInt(PointerAnalysisSnapshot.FORMAT_VERSION);
+            writeString(out, fingerprint);
+            out.writeInt(classDigests.size());
+            for (var entry : classDigests.entrySet()) {
+                writeString(out, entry.getKey());
+                writeString(out, entry.getValue());
+            }
+            out.writeInt(stringIds.size());
+            for (String s : stringIds.keySet()) {
+                writeString(out, s);
+            }
+            out.writeInt(methodIds.size());
+            for (JMethod m : methodIds.keySet()) {
+                out.writeInt(getStringId(m.getSignature()));
+            }
+            out.writeInt(fieldIds.size());
+            for (JField f : fieldIds.keySet()) {
+                out.writeInt(getStringId(f.getSignature()));
+            }
+            out.writeInt(objs.size());
+            for (int[] obj : objs) {
+                writeInts(out, obj);
+            }
+            writePointsTo(out, vars);
+            writePointsTo(out, sfields);
+            writePointsTo(out, ifields);
+            writePointsTo(out, arrays);
+            out.writeInt(entries.length);
+            writeInts(out, entries);
+            out.writeInt(reachable.length);
+            writeInts(out, reachable);
+            out.writeInt(edges.size());
+            for (int[] edge : edges) {
+                writeInts(out, edge);
+            }
+        }
+    }
+
+    /**
+     * Writes sorted keys, followed by the points-to sets of the keys.
+     */
+    private void writePointsTo(DataOutputStream out,
+                               List<Pair<int[], Set<Obj>>> pointsTo)
+            throws IOException {
+        Comparator<int[]> cmp = (k1, k2) -> {
+            for (int i = 0; i < k1.length; ++i) {
+                int c = Integer.compare(k1[i], k2[i]);
+                if (c != 0) {
+                    return c;
+                }
+            }
+            return 0;
+        };
+        pointsTo.sort((p1, p2) -> cmp.compare(p1.first(), p2.first()));
+        out.writeInt(pointsTo.size());
+        for (Pair<int[], Set<Obj>> p : pointsTo) {
+            writeInts(out, p.first());
+        }
+        int offset = 0;
+        out.writeInt(offset);
+        for (Pair<int[], Set<Obj>> p : pointsTo) {
+            offset += p.second().size();
+            out.writeInt(offset);
+        }
+        for (Pair<int[], Set<Obj>> p : pointsTo) {
+            for (Obj obj : p.second()) {
+                out.writeInt(objIds.get(obj));
+            }
+        }
+    }
+
+    private int[] encodeObj(Obj obj) {
+        JMethod container = obj.getContainerMethod().orElse(null);
+        Object alloc = obj.getAllocation();
+        int allocStmt = -1;
+        if (container != null && alloc instanceof Stmt stmt
+                && isAddressable(container, stmt)) {
+            allocStmt = stmt.getIndex();
+        }
+        return new int[]{
+                getStringId(obj.getType().getName()),
+                container != null ? getMethodId(container) : -1,
+                obj.getContainerType() != null ?
+                        getStringId(obj.getContainerType().getName()) : -1,
+                allocStmt,
+                getStringId(String.valueOf(alloc)),
+                getStringId(obj.toString()),
+                obj.isFunctional() ? 1 : 0,
+        };
+    }
+
+    private int[] encodeEdge(Edge<Invoke, JMethod> edge) {
+        Invoke callSite = edge.getCallSite();
+        String info = edge.getInfo();
+        return new int[]{
+                getMethodId(callSite.getContainer()),
+                callSite.getIndex(),
+                getMethodId(edge.getCallee()),
+                edge.getKind().ordinal(),
+                info != null ? getStringId(info) : -1,
+        };
+    }
+
+    /**
+     * @return {@code true} if {@code var} can be found by its index
+     * in the IR of its method, so that it can be restored from snapshot.
+     */
+    private static boolean isAddressable(Var var) {
+        IR ir = var.getMethod().getIR();
+        int i = var.getIndex();
+        return 0 <= i && i < ir.getVars().size() && ir.getVar(i) == var;
+    }
+
+    private static boolean isAddressable(Invoke callSite) {
+        return isAddressable(callSite.getContainer(), callSite);
+    }
+
+    private static boolean isAddressable(JMethod method, Stmt stmt) {
+        IR ir = method.getIR();
+        int i = stmt.getIndex();
+        return 0 <= i && i < ir.getStmts().size() && ir.getStmt(i) == stmt;
+    }
+
+    private int getStringId(String s) {
+        return stringIds.computeIfAbsent(s, __ -> stringIds.size());
+    }
+
+    private int getMethodId(JMethod method) {
+        return methodIds.computeIfAbsent(method, __ -> methodIds.size());
+    }
+
+    private int getFieldId(JField field) {
+        return fieldIds.computeIfAbsent(field, __ -> fieldIds.size());
+    }
+
+    private static void writeString(DataOutputStream out, String s)
+            throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeInts(DataOutputStream out, int[] ints)
+            throws IOException {
+        for (int i : ints) {
+            out.writeInt(i);
+        }
+    }
+}
@@ -211,6 +211,17 @@ public class Options implements Serializable {
         return preBuildIR;
     }
 
+    @JsonProperty
+    @Option(names = "--pre-build-dispatch",
+            description = "Build dispatch tables for all classes before" +
+                    " starting any analysis (default: ${DEFAULT-VALUE})",
+            defaultValue = "false")
+    private boolean preBuildDispatch;
+
+    public boolean isPreBuildDispatch() {
+        return preBuildDispatch;
+    }
+
     @JsonProperty
     @Option(names = {"-wc", "--world-cache-mode"},
             description = "Enable world cache mode to save build time"
@@ -509,6 +520,7 @@ public class Options implements Serializable {
                 ", worldBuilderClass=" + worldBuilderClass +
                 ", outputDir='" + outputDir + '\'' +
                 ", preBuildIR=" + preBuildIR +
+                ", preBuildDispatch=" + preBuildDispatch +
                 ", worldCacheMode=" + worldCacheMode +
                 ", scope=" + scope +
                 ", nativeModel=" + nativeModel +
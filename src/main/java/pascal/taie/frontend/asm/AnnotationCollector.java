@@ -0,0 +1,160 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.asm;
+
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.Opcodes;
+import pascal.taie.language.annotation.Annotation;
+import pascal.taie.language.annotation.AnnotationElement;
+import pascal.taie.language.annotation.ArrayElement;
+import pascal.taie.language.annotation.BooleanElement;
+import pascal.taie.language.annotation.ClassElement;
+import pascal.taie.language.annotation.DoubleElement;
+import pascal.taie.language.annotation.Element;
+import pascal.taie.language.annotation.EnumElement;
+import pascal.taie.language.annotation.FloatElement;
+import pascal.taie.language.annotation.IntElement;
+import pascal.taie.language.annotation.LongElement;
+import pascal.taie.language.annotation.StringElement;
+import pascal.taie.language.classes.StringReps;
+import pascal.taie.util.collection.Maps;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Collects an annotation (or an array of annotation element values)
+ * visited by ASM and converts it to Tai-e representation.
+ */
+class AnnotationCollector extends AnnotationVisitor {
+
+    /**
+     * Non-null if this collector collects an annotation.
+     */
+    private final String annotationType;
+
+    /**
+     * Non-null if this collector collects an annotation.
+     */
+    private final Map<String, Element> elements;
+
+    /**
+     * Non-null if this collector collects an array element.
+     */
+    private final List<Element> arrayElements;
+
+    private final Consumer<Object> consumer;
+
+    private AnnotationCollector(String annotationType, boolean isArray,
+                                Consumer<Object> consumer) {
+        super(Opcodes.ASM9);
+        this.annotationType = annotationType;
+        this.elements = isArray ? null : Maps.newHybridMap();
+        this.arrayElements = isArray ? new ArrayList<>() : null;
+        this.consumer = consumer;
+    }
+
+    /**
+     * @param desc     descriptor of the annotation type
+     * @param consumer receives the converted annotation when
+     *                 the visit finishes
+     */
+    static AnnotationCollector of(String desc, Consumer<Annotation> consumer) {
+        return new AnnotationCollector(StringReps.toTaieTypeDesc(desc), false,
+                a -> consumer.accept((Annotation) a));
+    }
+
+    @Override
+    public void visit(String name, Object value) {
+        add(name, convertValue(value));
+    }
+
+    @Override
+    public void visitEnum(String name, String desc, String value) {
+        add(name, new EnumElement(StringReps.toTaieTypeDesc(desc), value));
+    }
+
+    @Override
+    public AnnotationVisitor visitAnnotation(String name, String desc) {
+        return new AnnotationCollector(StringReps.toTaieTypeDesc(desc), false,
+                a -> add(name, new AnnotationElement((Annotation) a)));
+    }
+
+    @Override
+    public AnnotationVisitor visitArray(String name) {
+        return new AnnotationCollector(null, true,
+                a -> add(name, (Element) a));
+    }
+
+    @Override
+    public void visitEnd() {
+        consumer.accept(arrayElements != null ?
+                new ArrayElement(arrayElements) :
+                new Annotation(annotationType, elements));
+    }
+
+    private void add(String name, Element element) {
+        if (arrayElements != null) {
+            arrayElements.add(element);
+        } else {
+            elements.put(name, element);
+        }
+    }
+
+    private static Element convertValue(Object value) {
+        if (value instanceof Integer i) {
+            return new IntElement(i);
+        } else if (value instanceof Byte b) {
+            return new IntElement(b);
+        } else if (value instanceof Short s) {
+            return new IntElement(s);
+        } else if (value instanceof Character c) {
+            return new IntElement(c);
+        } else if (value instanceof Boolean b) {
+            return new BooleanElement(b);
+        } else if (value instanceof Long l) {
+            return new LongElement(l);
+        } else if (value instanceof Float f) {
+            return new FloatElement(f);
+        } else if (value instanceof Double d) {
+            return new DoubleElement(d);
+        } else if (value instanceof String s) {
+            return new StringElement(s);
+        } else if (value instanceof org.objectweb.asm.Type t) {
+            return new ClassElement(StringReps.toTaieTypeDesc(t.getDescriptor()));
+        } else if (value != null && value.getClass().isArray()) {
+            // ASM visits arrays of primitive values as a whole
+            int length = Array.getLength(value);
+            List<Element> elems = new ArrayList<>(length);
+            for (int i = 0; i < length; ++i) {
+                elems.add(convertValue(Array.get(value, i)));
+            }
+            return new ArrayElement(elems);
+        }
+        throw new AsmFrontendException(
+                "Unable to handle annotation element: " + value);
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.asm;
+
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import pascal.taie.language.annotation.Annotation;
+import pascal.taie.language.annotation.AnnotationHolder;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JClassBuilder;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Modifier;
+import pascal.taie.language.generics.ClassGSignature;
+import pascal.taie.language.generics.GSignatures;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Lists;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import static pascal.taie.language.classes.ClassNames.OBJECT;
+
+/**
+ * Builds {@link JClass} from a class file. Only the class-level information,
+ * fields and method signatures are read here; method bodies are converted
+ * to IR on demand by {@link IRBuilder}.
+ */
+class AsmClassBuilder extends ClassVisitor implements JClassBuilder {
+
+    private final Converter converter;
+
+    private final AsmClassLoader loader;
+
+    private final String className;
+
+    /**
+     * Content of the class file, or {@code null} if this builder
+     * builds a phantom class.
+     */
+    @Nullable
+    private final ClassPath.ClassFile classFile;
+
+    private JClass jclass;
+
+    private int access;
+
+    private String superName;
+
+    private String[] interfaces = new String[0];
+
+    private String outerName;
+
+    private String signature;
+
+    private final List<Annotation> annotations = new ArrayList<>();
+
+    private final List<FieldInfo> fields = new ArrayList<>();
+
+    private final List<MethodInfo> methods = new ArrayList<>();
+
+    AsmClassBuilder(Converter converter, AsmClassLoader loader,
+                    String className, @Nullable ClassPath.ClassFile classFile) {
+        super(Opcodes.ASM9);
+        this.converter = converter;
+        this.loader = loader;
+        this.className = className;
+        this.classFile = classFile;
+    }
+
+    @Override
+    public void build(JClass jclass) {
+        this.jclass = jclass;
+        if (classFile != null) {
+            new ClassReader(classFile.bytes()).accept(this,
+                    ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
+        } else {
+            access = Opcodes.ACC_PUBLIC;
+            superName = "java/lang/Object";
+        }
+        jclass.build(this);
+    }
+
+    // ---------- visiting class file ----------
+
+    @Override
+    public void visit(int version, int access, String name, String signature,
+                      String superName, String[] interfaces) {
+        // ACC_SUPER is irrelevant to Tai-e
+        this.access = access & ~Opcodes.ACC_SUPER;
+        this.superName = superName;
+        this.signature = signature;
+        if (interfaces != null) {
+            this.interfaces = interfaces;
+        }
+    }
+
+    @Override
+    public void visitOuterClass(String owner, String name, String descriptor) {
+        if (outerName == null) {
+            outerName = owner;
+        }
+    }
+
+    @Override
+    public void visitInnerClass(String name, String outerName,
+                                String innerName, int access) {
+        if (outerName != null && name.replace('/', '.').equals(className)) {
+            this.outerName = outerName;
+        }
+    }
+
+    @Override
+    public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+        return AnnotationCollector.of(descriptor, annotations::add);
+    }
+
+    @Override
+    public FieldVisitor visitField(int access, String name, String descriptor,
+                                   String signature, Object value) {
+        FieldInfo field = new FieldInfo(access, name, descriptor, signature,
+                new ArrayList<>());
+        fields.add(field);
+        return new FieldVisitor(Opcodes.ASM9) {
+            @Override
+            public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+                return AnnotationCollector.of(desc, field.annotations::add);
+            }
+        };
+    }
+
+    @Override
+    public MethodVisitor visitMethod(int access, String name, String descriptor,
+                                     String signature, String[] exceptions) {
+        int paramCount = org.objectweb.asm.Type.getArgumentTypes(descriptor).length;
+        MethodInfo method = new MethodInfo(access, name, descriptor, signature,
+                exceptions == null ? List.of() : Arrays.asList(exceptions),
+                new ArrayList<>(), new ArrayList<>(), new ArrayList<>(paramCount));
+        methods.add(method);
+        return new MethodVisitor(Opcodes.ASM9) {
+            @Override
+            public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+                return AnnotationCollector.of(desc, method.annotations::add);
+            }
+
+            @Override
+            public AnnotationVisitor visitParameterAnnotation(
+                    int parameter, String desc, boolean visible) {
+                if (parameter >= paramCount) {
+                    return null;
+                }
+                if (method.paramAnnotations.isEmpty()) {
+                    for (int i = 0; i < paramCount; ++i) {
+                        method.paramAnnotations.add(new ArrayList<>());
+                    }
+                }
+                return AnnotationCollector.of(desc,
+                        method.paramAnnotations.get(parameter)::add);
+            }
+
+            @Override
+            public void visitParameter(String name, int access) {
+                method.paramNames.add(name);
+            }
+        };
+    }
+
+    private record FieldInfo(int access, String name, String descriptor,
+                             String signature, List<Annotation> annotations) {
+    }
+
+    private record MethodInfo(int access, String name, String descriptor,
+                              String signature, List<String> exceptions,
+                              List<Annotation> annotations,
+                              List<List<Annotation>> paramAnnotations,
+                              List<String> paramNames) {
+    }
+
+    // ---------- building JClass ----------
+
+    @Override
+    public Set<Modifier> getModifiers() {
+        return Modifiers.convertClass(access);
+    }
+
+    @Override
+    public String getSimpleName() {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+
+    @Override
+    public ClassType getClassType() {
+        return converter.getTypeSystem().getClassType(loader, className);
+    }
+
+    @Override
+    public JClass getSuperClass() {
+        if (className.equals(OBJECT) || superName == null) {
+            return null;
+        } else {
+            return loader.loadClass(superName.replace('/', '.'));
+        }
+    }
+
+    @Override
+    public Collection<JClass> getInterfaces() {
+        return Arrays.stream(interfaces)
+                .map(i -> loader.loadClass(i.replace('/', '.')))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    public JClass getOuterClass() {
+        return outerName != null ?
+                loader.loadClass(outerName.replace('/', '.')) :
+                null;
+    }
+
+    @Override
+    public Collection<JField> getDeclaredFields() {
+        return Lists.map(fields, f -> new JField(jclass, f.name(),
+                Modifiers.convertField(f.access()),
+                converter.convertType(f.descriptor()),
+                f.signature() == null ? null : GSignatures.toTypeSig(f.signature()),
+                AnnotationHolder.make(f.annotations())));
+    }
+
+    @Override
+    public Collection<JMethod> getDeclaredMethods() {
+        return Lists.map(methods, m -> {
+            List<Type> paramTypes = converter.convertParamTypes(m.descriptor());
+            List<ClassType> exceptions = Lists.map(m.exceptions(),
+                    e -> (ClassType) converter.convertInternalName(e));
+            List<AnnotationHolder> paramAnnotations = m.paramAnnotations().isEmpty() ?
+                    null : Lists.map(m.paramAnnotations(), AnnotationHolder::make);
+            // parameter names are available only when the class is
+            // compiled with MethodParameters attribute (javac -parameters)
+            List<String> paramNames = m.paramNames().size() == paramTypes.size()
+                    && !m.paramNames().contains(null) ? m.paramNames() : null;
+            return new JMethod(jclass, m.name(),
+                    Modifiers.convertMethod(m.access()),
+                    paramTypes, converter.convertReturnType(m.descriptor()),
+                    exceptions,
+                    m.signature() == null ? null : GSignatures.toMethodSig(m.signature()),
+                    AnnotationHolder.make(m.annotations()),
+                    paramAnnotations,
+                    paramNames,
+                    classFile == null ? null : new AsmMethodSource(
+                            classFile.bytes(), m.name(), m.descriptor()));
+        });
+    }
+
+    @Override
+    public AnnotationHolder getAnnotationHolder() {
+        return annotations.isEmpty() ?
+                AnnotationHolder.emptyHolder() :
+                AnnotationHolder.make(annotations);
+    }
+
+    @Override
+    public boolean isApplication() {
+        // exclude jdk classes from application classes, as Soot frontend does
+        return classFile != null && classFile.isApplication()
+                && !className.startsWith("jdk.")
+                && !className.startsWith("apple.laf.");
+    }
+
+    @Override
+    public boolean isPhantom() {
+        return classFile == null;
+    }
+
+    @Nullable
+    @Override
+    public ClassGSignature getGSignature() {
+        return signature == null ? null :
+                GSignatures.toClassSig(Modifier.hasInterface(getModifiers()),
+                        signature);
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.asm;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.objectweb.asm.ClassReader;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JClassLoader;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Loads classes from class files on demand.
+ */
+class AsmClassLoader implements JClassLoader {
+
+    private static final Logger logger = LogManager.getLogger(AsmClassLoader.class);
+
+    private final transient ClassPath classPath;
+
+    private final ClassHierarchy hierarchy;
+
+    private final boolean allowPhantom;
+
+    private transient Converter converter;
+
+    private final Map<String, JClass> classes = Maps.newMap(1024);
+
+    /**
+     * Names of the classes that have been looked up but are absent.
+     */
+    private final transient Set<String> missingClasses = Sets.newSet();
+
+    /**
+     * Class files of the loaded classes.
+     */
+    private final transient Map<String, ClassPath.ClassFile> classFiles = Maps.newMap(1024);
+
+    AsmClassLoader(ClassPath classPath, ClassHierarchy hierarchy,
+                   boolean allowPhantom) {
+        this.classPath = classPath;
+        this.hierarchy = hierarchy;
+        this.allowPhantom = allowPhantom;
+    }
+
+    @Override
+    public synchronized JClass loadClass(String name) {
+        JClass jclass = classes.get(name);
+        if (jclass == null && classPath != null && !missingClasses.contains(name)) {
+            ClassPath.ClassFile classFile = classPath.find(name);
+            if (classFile != null || allowPhantom) {
+                jclass = new JClass(this, name,
+                        classFile == null ? null : classFile.moduleName());
+                // New class must be put into classes map at first,
+                // as build(jclass) may also trigger the loading of
+                // the new created class. Not putting the class into classes
+                // may cause infinite recursion.
+                classes.put(name, jclass);
+                if (classFile != null) {
+                    classFiles.put(name, classFile);
+                }
+                new AsmClassBuilder(converter, this, name, classFile).build(jclass);
+                hierarchy.addClass(jclass);
+            } else {
+                missingClasses.add(name);
+            }
+        }
+        return jclass;
+    }
+
+    /**
+     * Loads the given classes and all classes transitively referenced
+     * by them, i.e., the classes in the constant pools of the loaded
+     * class files. This mirrors the classes that Soot brings into its
+     * {@code Scene} in whole-program mode, so that analyses which traverse
+     * the class hierarchy (e.g., CHA) see all relevant subclasses.
+     * Method bodies are still converted lazily.
+     */
+    synchronized void loadReferencedClasses(Collection<String> classNames) {
+        Set<String> visited = Sets.newSet(classNames);
+        Deque<String> workList = new ArrayDeque<>(visited);
+        while (!workList.isEmpty()) {
+            String name = workList.poll();
+            JClass jclass = loadClass(name);
+            if (jclass == null) {
+                logger.warn("Class {} is not found", name);
+                continue;
+            }
+            ClassPath.ClassFile classFile = classFiles.get(name);
+            if (classFile == null) { // phantom class
+                continue;
+            }
+            ClassReader reader = new ClassReader(classFile.bytes());
+            char[] buffer = new char[reader.getMaxStringLength()];
+            for (int i = 1; i < reader.getItemCount(); ++i) {
+                int offset = reader.getItem(i);
+                // offset is 0 for the unused entry after long/double constants
+                if (offset > 0 && reader.readByte(offset - 1) == CONSTANT_CLASS) {
+                    String ref = toClassName(reader.readUTF8(offset, buffer));
+                    if (ref != null && visited.add(ref)) {
+                        workList.add(ref);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Tag of CONSTANT_Class_info in constant pool.
+     */
+    private static final int CONSTANT_CLASS = 7;
+
+    /**
+     * Converts an internal name in CONSTANT_Class_info to class name.
+     *
+     * @return the class name, or {@code null} if the internal name
+     * represents an array of primitive type.
+     */
+    private static String toClassName(String internalName) {
+        if (internalName.charAt(0) == '[') {
+            int i = internalName.lastIndexOf('[') + 1;
+            return internalName.charAt(i) == 'L' ?
+                    internalName.substring(i + 1, internalName.length() - 1)
+                            .replace('/', '.') :
+                    null;
+        }
+        return internalName.replace('/', '.');
+    }
+
+    @Override
+    public synchronized Collection<JClass> getLoadedClasses() {
+        return classes.values();
+    }
+
+    void setConverter(Converter converter) {
+        this.converter = converter;
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.asm;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.AbstractWorldBuilder;
+import pascal.taie.World;
+import pascal.taie.analysis.pta.PointerAnalysis;
+import pascal.taie.analysis.pta.plugin.reflection.LogItem;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.Options;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.ClassHierarchyImpl;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.StringReps;
+import pascal.taie.language.classes.Subsignature;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.language.type.TypeSystemImpl;
+import pascal.taie.util.Timer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * World builder that reads class files directly by ASM, without Soot.
+ * <p>
+ * Compared to {@link pascal.taie.frontend.soot.SootWorldBuilder}, this
+ * builder does not hold an in-memory model of the whole program besides
+ * Tai-e's own {@link JClass}es: classes are parsed from class files on
+ * demand, and the bytecode of each method is converted to Tai-e IR
+ * only when the IR is requested (or in parallel, if IR is pre-built).
+ * <p>
+ * This builder can be selected by option
+ * {@code --world-builder pascal.taie.frontend.asm.AsmWorldBuilder}.
+ * It only supports class files as input.
+ */
+public class AsmWorldBuilder extends AbstractWorldBuilder {
+
+    private static final Logger logger = LogManager.getLogger(AsmWorldBuilder.class);
+
+    /**
+     * Path to the file which specifies the basic classes that should be
+     * loaded in advance.
+     */
+    private static final String BASIC_CLASSES = "basic-classes.yml";
+
+    private static final Subsignature MAIN = Subsignature.get(
+            "void main(java.lang.String[])");
+
+    @Override
+    public void build(Options options, List<AnalysisConfig> analyses) {
+        World.reset();
+        World world = new World();
+        World.set(world);
+
+        // options will be used during World building, thus it should be
+        // set at first.
+        world.setOptions(options);
+        // initialize class hierarchy
+        ClassHierarchy hierarchy = new ClassHierarchyImpl();
+        AsmClassLoader loader = new AsmClassLoader(
+                buildClassPath(options), hierarchy, options.isAllowPhantom());
+        hierarchy.setDefaultClassLoader(loader);
+        hierarchy.setBootstrapClassLoader(loader);
+        world.setClassHierarchy(hierarchy);
+        // initialize type manager
+        TypeSystem typeSystem = new TypeSystemImpl(hierarchy);
+        world.setTypeSystem(typeSystem);
+        // initialize converter
+        Converter converter = new Converter(loader, typeSystem);
+        loader.setConverter(converter);
+        // build classes in hierarchy
+        Timer timer = new Timer("Load classes");
+        timer.start();
+        List<String> rootClasses = new ArrayList<>(getInputClasses(options));
+        String mainClass = options.getMainClass();
+        if (mainClass != null) {
+            rootClasses.add(mainClass);
+        }
+        rootClasses.addAll(getBasicClasses());
+        rootClasses.addAll(getReflectionLogClasses(analyses));
+        loader.loadReferencedClasses(rootClasses);
+        timer.stop();
+        logger.info(timer);
+        // set main method
+        if (mainClass != null) {
+            JMethod mainMethod = getMainMethod(hierarchy.getClass(mainClass));
+            if (mainMethod != null) {
+                world.setMainMethod(mainMethod);
+            } else {
+                logger.warn("Warning: main class '{}'" +
+                        " does not have main(String[]) method!", mainClass);
+            }
+        } else {
+            logger.warn("Warning: main class was not given!");
+        }
+        // set implicit entries
+        world.setImplicitEntries(implicitEntries.stream()
+                .map(hierarchy::getJREMethod)
+                // some implicit entries may not exist in certain JDK version,
+                // thus we filter out null
+                .filter(Objects::nonNull)
+                .toList());
+        // initialize IR builder
+        world.setNativeModel(getNativeModel(typeSystem, hierarchy, options));
+        IRBuilder irBuilder = new IRBuilder(converter);
+        world.setIRBuilder(irBuilder);
+        if (options.isPreBuildIR()) {
+            irBuilder.buildAll(hierarchy);
+        }
+        if (options.isPreBuildDispatch()) {
+            hierarchy.buildDispatchTables();
+        }
+    }
+
+    /**
+     * Builds the class path to look up class files. As the Soot frontend
+     * does, the Java library is placed before the application classes:
+     * when option {@code prepend-JVM} is set, it is the run-time image
+     * of the running JVM; otherwise, it is the JRE jars from {@link #JREs}.
+     */
+    private static ClassPath buildClassPath(Options options) {
+        ClassPath classPath = new ClassPath();
+        if (options.isPrependJVM()) {
+            classPath.addJrt();
+        } else {
+            String jrePath = String.format("%s/jre1.%d", JREs, options.getJavaVersion());
+            for (String path : getClassPath(options)
+                    .split(File.pathSeparator)) {
+                if (path.startsWith(jrePath)) {
+                    classPath.addPath(path, false);
+                }
+            }
+        }
+        options.getAppClassPath().forEach(path -> classPath.addPath(path, true));
+        options.getClassPath().forEach(path -> classPath.addPath(path, true));
+        return classPath;
+    }
+
+    /**
+     * Reads basic classes specified by file {@link #BASIC_CLASSES}.
+     */
+    private static List<String> getBasicClasses() {
+        ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
+        JavaType type = mapper.getTypeFactory()
+                .constructCollectionType(List.class, String.class);
+        try {
+            InputStream content = AsmWorldBuilder.class
+                    .getClassLoader()
+                    .getResourceAsStream(BASIC_CLASSES);
+            return mapper.readValue(content, type);
+        } catch (IOException e) {
+            throw new AsmFrontendException("Failed to read basic classes", e);
+        }
+    }
+
+    /**
+     * @return the classes in the reflection log (if given), which may be
+     * absent from the constant pools of the other classes.
+     */
+    private static List<String> getReflectionLogClasses(List<AnalysisConfig> analyses) {
+        List<String> classes = new ArrayList<>();
+        analyses.forEach(config -> {
+            if (config.getId().equals(PointerAnalysis.ID)) {
+                String path = config.getOptions().getString("reflection-log");
+                if (path != null) {
+                    LogItem.load(path).forEach(item -> {
+                        // add target class
+                        String target = item.target;
+                        String targetClass;
+                        if (target.startsWith("<")) {
+                            targetClass = StringReps.getClassNameOf(target);
+                        } else {
+                            targetClass = target;
+                        }
+                        if (StringReps.isArrayType(targetClass)) {
+                            targetClass = StringReps.getBaseTypeNameOf(target);
+                        }
+                        classes.add(targetClass);
+                    });
+                }
+            }
+        });
+        return classes;
+    }
+
+    private static JMethod getMainMethod(JClass mainClass) {
+        if (mainClass == null) {
+            return null;
+        }
+        JMethod method = mainClass.getDeclaredMethod(MAIN);
+        return method != null && method.isStatic() ? method : null;
+    }
+}
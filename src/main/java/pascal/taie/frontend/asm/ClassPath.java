@@ -0,0 +1,170 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.asm;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Locates and reads class files from directories, jar files and
+ * the run-time image ({@code jrt:/}) of the running JVM.
+ */
+class ClassPath {
+
+    private static final Logger logger = LogManager.getLogger(ClassPath.class);
+
+    /**
+     * Content of a class file, together with the information about
+     * where the class file is found.
+     *
+     * @param bytes         bytes of the class file
+     * @param moduleName    name of the module containing the class,
+     *                      or {@code null} if the class is not in a module
+     * @param isApplication whether the class comes from application class path
+     */
+    record ClassFile(byte[] bytes, @Nullable String moduleName,
+                     boolean isApplication) {
+    }
+
+    private interface Entry {
+
+        @Nullable
+        ClassFile find(String name) throws IOException;
+    }
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * Adds all paths in {@code classPath} (separated by
+     * {@link File#pathSeparator}) to this class path.
+     */
+    void addPaths(String classPath, boolean isApplication) {
+        for (String path : classPath.split(File.pathSeparator)) {
+            if (!path.isBlank()) {
+                addPath(path, isApplication);
+            }
+        }
+    }
+
+    void addPath(String path, boolean isApplication) {
+        File file = new File(path);
+        if (file.isDirectory()) {
+            entries.add(name -> {
+                Path classFile = file.toPath().resolve(toFileName(name));
+                return Files.isRegularFile(classFile) ?
+                        new ClassFile(Files.readAllBytes(classFile),
+                                null, isApplication) :
+                        null;
+            });
+        } else if (file.isFile() && (path.endsWith(".jar") || path.endsWith(".zip"))) {
+            try {
+                ZipFile zip = new ZipFile(file);
+                entries.add(name -> {
+                    ZipEntry entry = zip.getEntry(toFileName(name));
+                    if (entry == null) {
+                        return null;
+                    }
+                    try (InputStream in = zip.getInputStream(entry)) {
+                        return new ClassFile(in.readAllBytes(), null, isApplication);
+                    }
+                });
+            } catch (IOException e) {
+                logger.warn("Failed to open {}: {}", path, e);
+            }
+        } else {
+            logger.warn("Ignore invalid class path: {}", path);
+        }
+    }
+
+    /**
+     * Adds the run-time image of the running JVM to this class path.
+     */
+    void addJrt() {
+        FileSystem jrt = FileSystems.getFileSystem(URI.create("jrt:/"));
+        // package name -> modules that contain the package
+        Map<String, List<String>> pkgModules = Maps.newConcurrentMap();
+        entries.add(name -> {
+            int i = name.lastIndexOf('.');
+            String pkg = i == -1 ? "" : name.substring(0, i);
+            List<String> modules = pkgModules.computeIfAbsent(pkg, p -> {
+                Path pkgDir = jrt.getPath("/packages", p);
+                if (!Files.isDirectory(pkgDir)) {
+                    return List.of();
+                }
+                try (Stream<Path> paths = Files.list(pkgDir)) {
+                    return paths.map(m -> m.getFileName().toString()).toList();
+                } catch (IOException e) {
+                    return List.of();
+                }
+            });
+            for (String module : modules) {
+                Path classFile = jrt.getPath("/modules", module, toFileName(name));
+                if (Files.isRegularFile(classFile)) {
+                    return new ClassFile(Files.readAllBytes(classFile),
+                            module, false);
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * @return the content of the class file for the given class name,
+     * or {@code null} if the class file is absent in this class path.
+     */
+    @Nullable
+    ClassFile find(String className) {
+        for (Entry entry : entries) {
+            try {
+                ClassFile classFile = entry.find(className);
+                if (classFile != null) {
+                    return classFile;
+                }
+            } catch (IOException e) {
+                logger.warn("Failed to read class file of {}: {}", className, e);
+            }
+        }
+        return null;
+    }
+
+    private static String toFileName(String className) {
+        return className.replace('.', '/') + ".class";
+    }
+}
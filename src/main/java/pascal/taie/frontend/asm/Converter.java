@@ -0,0 +1,226 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.asm;
+
+import org.objectweb.asm.ConstantDynamic;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Opcodes;
+import pascal.taie.ir.exp.ClassLiteral;
+import pascal.taie.ir.exp.DoubleLiteral;
+import pascal.taie.ir.exp.FloatLiteral;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Literal;
+import pascal.taie.ir.exp.LongLiteral;
+import pascal.taie.ir.exp.MethodHandle;
+import pascal.taie.ir.exp.MethodType;
+import pascal.taie.ir.exp.StringLiteral;
+import pascal.taie.ir.proginfo.FieldRef;
+import pascal.taie.ir.proginfo.MemberRef;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JClassLoader;
+import pascal.taie.language.type.ArrayType;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.ReferenceType;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.collection.Lists;
+import pascal.taie.util.collection.Maps;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static pascal.taie.language.classes.ClassNames.OBJECT;
+import static pascal.taie.language.type.BooleanType.BOOLEAN;
+import static pascal.taie.language.type.ByteType.BYTE;
+import static pascal.taie.language.type.CharType.CHAR;
+import static pascal.taie.language.type.DoubleType.DOUBLE;
+import static pascal.taie.language.type.FloatType.FLOAT;
+import static pascal.taie.language.type.IntType.INT;
+import static pascal.taie.language.type.LongType.LONG;
+import static pascal.taie.language.type.ShortType.SHORT;
+import static pascal.taie.language.type.VoidType.VOID;
+
+/**
+ * Converts types, member references and constants in class files
+ * to the corresponding Tai-e representations.
+ */
+class Converter {
+
+    private final JClassLoader loader;
+
+    private final TypeSystem typeSystem;
+
+    /**
+     * Cache of converted types, keyed by type descriptors.
+     */
+    private final Map<String, Type> typeMap = Maps.newConcurrentMap(4096);
+
+    Converter(JClassLoader loader, TypeSystem typeSystem) {
+        this.loader = loader;
+        this.typeSystem = typeSystem;
+    }
+
+    TypeSystem getTypeSystem() {
+        return typeSystem;
+    }
+
+    /**
+     * Converts a type descriptor, e.g., {@code [Ljava/lang/String;},
+     * to Tai-e type.
+     */
+    Type convertType(String desc) {
+        Type type = typeMap.get(desc);
+        if (type == null) {
+            type = convertType(org.objectweb.asm.Type.getType(desc));
+            typeMap.put(desc, type);
+        }
+        return type;
+    }
+
+    Type convertType(org.objectweb.asm.Type type) {
+        return switch (type.getSort()) {
+            case org.objectweb.asm.Type.VOID -> VOID;
+            case org.objectweb.asm.Type.BOOLEAN -> BOOLEAN;
+            case org.objectweb.asm.Type.CHAR -> CHAR;
+            case org.objectweb.asm.Type.BYTE -> BYTE;
+            case org.objectweb.asm.Type.SHORT -> SHORT;
+            case org.objectweb.asm.Type.INT -> INT;
+            case org.objectweb.asm.Type.FLOAT -> FLOAT;
+            case org.objectweb.asm.Type.LONG -> LONG;
+            case org.objectweb.asm.Type.DOUBLE -> DOUBLE;
+            case org.objectweb.asm.Type.ARRAY -> typeSystem.getArrayType(
+                    convertType(type.getElementType()), type.getDimensions());
+            case org.objectweb.asm.Type.OBJECT -> typeSystem.getClassType(
+                    loader, type.getClassName());
+            default -> throw new AsmFrontendException(
+                    "Cannot convert type: " + type);
+        };
+    }
+
+    /**
+     * Converts an internal name, e.g., {@code java/lang/String}
+     * or {@code [I}, to Tai-e type.
+     */
+    ReferenceType convertInternalName(String internalName) {
+        return internalName.charAt(0) == '[' ?
+                (ReferenceType) convertType(internalName) :
+                (ReferenceType) convertType('L' + internalName + ';');
+    }
+
+    /**
+     * @return the array type whose element type is {@code elementType}.
+     */
+    ArrayType getArrayTypeOf(Type elementType) {
+        return elementType instanceof ArrayType arrayType ?
+                typeSystem.getArrayType(arrayType.baseType(),
+                        arrayType.dimensions() + 1) :
+                typeSystem.getArrayType(elementType, 1);
+    }
+
+    List<Type> convertParamTypes(String methodDesc) {
+        return Lists.map(
+                Arrays.asList(org.objectweb.asm.Type.getArgumentTypes(methodDesc)),
+                this::convertType);
+    }
+
+    Type convertReturnType(String methodDesc) {
+        return convertType(org.objectweb.asm.Type.getReturnType(methodDesc));
+    }
+
+    JClass convertClass(String internalName) {
+        // methods of arrays (e.g., clone()) are declared in java.lang.Object
+        String className = internalName.charAt(0) == '[' ?
+                OBJECT : internalName.replace('/', '.');
+        JClass jclass = loader.loadClass(className);
+        if (jclass == null) {
+            throw new AsmFrontendException("Cannot find class " + className);
+        }
+        return jclass;
+    }
+
+    FieldRef convertFieldRef(String owner, String name, String desc,
+                             boolean isStatic) {
+        return FieldRef.get(convertClass(owner), name, convertType(desc), isStatic);
+    }
+
+    MethodRef convertMethodRef(String owner, String name, String desc,
+                               boolean isStatic) {
+        return MethodRef.get(convertClass(owner), name,
+                convertParamTypes(desc), convertReturnType(desc), isStatic);
+    }
+
+    MethodType convertMethodType(String desc) {
+        return MethodType.get(convertParamTypes(desc), convertReturnType(desc));
+    }
+
+    /**
+     * Converts constants loaded by {@code ldc} instructions and
+     * bootstrap method arguments to {@link Literal}.
+     */
+    Literal convertConstant(Object value) {
+        if (value instanceof Integer i) {
+            return IntLiteral.get(i);
+        } else if (value instanceof Long l) {
+            return LongLiteral.get(l);
+        } else if (value instanceof Float f) {
+            return FloatLiteral.get(f);
+        } else if (value instanceof Double d) {
+            return DoubleLiteral.get(d);
+        } else if (value instanceof String s) {
+            return StringLiteral.get(s);
+        } else if (value instanceof org.objectweb.asm.Type t) {
+            return t.getSort() == org.objectweb.asm.Type.METHOD ?
+                    convertMethodType(t.getDescriptor()) :
+                    ClassLiteral.get(convertType(t));
+        } else if (value instanceof Handle h) {
+            return convertHandle(h);
+        } else if (value instanceof ConstantDynamic) {
+            throw new AsmFrontendException(
+                    "Dynamically-computed constant is not supported: " + value);
+        }
+        throw new AsmFrontendException("Cannot convert constant: " + value);
+    }
+
+    MethodHandle convertHandle(Handle handle) {
+        int tag = handle.getTag();
+        MethodHandle.Kind kind = MethodHandle.Kind.get(tag);
+        MemberRef memberRef = switch (tag) {
+            case Opcodes.H_GETFIELD, Opcodes.H_PUTFIELD ->
+                    convertFieldRef(handle.getOwner(), handle.getName(),
+                            handle.getDesc(), false);
+            case Opcodes.H_GETSTATIC, Opcodes.H_PUTSTATIC ->
+                    convertFieldRef(handle.getOwner(), handle.getName(),
+                            handle.getDesc(), true);
+            default -> convertMethodRef(handle.getOwner(), handle.getName(),
+                    handle.getDesc(), tag == Opcodes.H_INVOKESTATIC);
+        };
+        return MethodHandle.get(kind, memberRef);
+    }
+
+    MethodRef convertBootstrapMethodRef(Handle handle) {
+        return convertMethodRef(handle.getOwner(), handle.getName(),
+                handle.getDesc(), handle.getTag() == Opcodes.H_INVOKESTATIC);
+    }
+}
@@ -0,0 +1,2044 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.asm;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ArrayAccess;
+import pascal.taie.ir.exp.ArrayLengthExp;
+import pascal.taie.ir.exp.BinaryExp;
+import pascal.taie.ir.exp.BitwiseExp;
+import pascal.taie.ir.exp.CastExp;
+import pascal.taie.ir.exp.ClassLiteral;
+import pascal.taie.ir.exp.ComparisonExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.DoubleLiteral;
+import pascal.taie.ir.exp.FloatLiteral;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.InstanceOfExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.InvokeDynamic;
+import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.InvokeInterface;
+import pascal.taie.ir.exp.InvokeSpecial;
+import pascal.taie.ir.exp.InvokeStatic;
+import pascal.taie.ir.exp.InvokeVirtual;
+import pascal.taie.ir.exp.Literal;
+import pascal.taie.ir.exp.LongLiteral;
+import pascal.taie.ir.exp.NegExp;
+import pascal.taie.ir.exp.NewArray;
+import pascal.taie.ir.exp.NewInstance;
+import pascal.taie.ir.exp.NewMultiArray;
+import pascal.taie.ir.exp.NullLiteral;
+import pascal.taie.ir.exp.ShiftExp;
+import pascal.taie.ir.exp.StaticFieldAccess;
+import pascal.taie.ir.exp.StringLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.proginfo.ExceptionEntry;
+import pascal.taie.ir.proginfo.FieldRef;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.Catch;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.InstanceOf;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.LookupSwitch;
+import pascal.taie.ir.stmt.Monitor;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Nop;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.ir.stmt.SwitchStmt;
+import pascal.taie.ir.stmt.TableSwitch;
+import pascal.taie.ir.stmt.Throw;
+import pascal.taie.ir.stmt.Unary;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ArrayType;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.NullType;
+import pascal.taie.language.type.PrimitiveType;
+import pascal.taie.language.type.ReferenceType;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.collection.Lists;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static pascal.taie.language.type.BooleanType.BOOLEAN;
+import static pascal.taie.language.type.ByteType.BYTE;
+import static pascal.taie.language.type.CharType.CHAR;
+import static pascal.taie.language.type.DoubleType.DOUBLE;
+import static pascal.taie.language.type.FloatType.FLOAT;
+import static pascal.taie.language.type.IntType.INT;
+import static pascal.taie.language.type.LongType.LONG;
+import static pascal.taie.language.type.ShortType.SHORT;
+import static pascal.taie.language.type.VoidType.VOID;
+
+/**
+ * Converts the bytecode of a method to Tai-e IR.
+ * <p>
+ * The conversion works in four phases:
+ * <ol>
+ *     <li>Records the instructions of the method and splits them into
+ *     basic blocks.</li>
+ *     <li>Splits the values of local variable slots into variables
+ *     (see below).</li>
+ *     <li>Simulates the operand stack of each reachable block, replacing
+ *     stack slots by variables. Values stay on the (simulated) stack
+ *     until they are consumed, so that most stack temporaries are folded
+ *     into the statements that use them, e.g., the result of an invocation
+ *     that is immediately stored to a local variable is directly assigned
+ *     to that variable. At the end of each block, the values that remain
+ *     on the stack are copied to the variables that represent the entry
+ *     stack of its successors.</li>
+ *     <li>Infers the types of the variables and emits the statements.</li>
+ * </ol>
+ * The values of each local variable slot are split into webs, i.e.,
+ * the definitions that reach common uses, for each computational kind
+ * (int, long, float, double and reference), and each web is mapped to
+ * a variable. Thus, the unrelated variables that share a slot (e.g.,
+ * the ones declared in disjoint scopes) are not merged. When local
+ * variable table is present, the webs of each variable in the table
+ * are merged, so that the variables are the same as the ones declared
+ * in source code (as in the IR built from source code).
+ */
+class MethodIRBuilder extends MethodVisitor {
+
+    private static final String THIS = "%this";
+
+    private static final String PARAM = "%param";
+
+    private static final String STACK = "$stack";
+
+    private static final String STRING_CONSTANT = "%stringconst";
+
+    private static final String CLASS_CONSTANT = "%classconst";
+
+    private static final String NULL_CONSTANT = "%nullconst";
+
+    /**
+     * Maximum rounds of type inference. The inference converges quickly
+     * in practice; the bound only guards against pathological code.
+     */
+    private static final int MAX_INFERENCE_ROUNDS = 16;
+
+    /**
+     * Condition operators in the order of {@code IFEQ}, ..., {@code IFLE}.
+     */
+    private static final ConditionExp.Op[] CONDITION_OPS = {
+            ConditionExp.Op.EQ, ConditionExp.Op.NE, ConditionExp.Op.LT,
+            ConditionExp.Op.GE, ConditionExp.Op.GT, ConditionExp.Op.LE,
+    };
+
+    /**
+     * Bitwise operators in the order of {@code IAND}, {@code IOR}
+     * and {@code IXOR}.
+     */
+    private static final BitwiseExp.Op[] BITWISE_OPS = {
+            BitwiseExp.Op.AND, BitwiseExp.Op.OR, BitwiseExp.Op.XOR,
+    };
+
+    private final JMethod method;
+
+    private final Converter converter;
+
+    private final TypeSystem typeSystem;
+
+    MethodIRBuilder(JMethod method, Converter converter) {
+        super(Opcodes.ASM9);
+        this.method = method;
+        this.converter = converter;
+        this.typeSystem = converter.getTypeSystem();
+    }
+
+    IR build() {
+        AsmMethodSource source = (AsmMethodSource) method.getMethodSource();
+        new ClassReader(source.classBytes()).accept(new ClassVisitor(Opcodes.ASM9) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor,
+                                             String signature, String[] exceptions) {
+                return name.equals(source.name()) &&
+                        descriptor.equals(source.descriptor()) ?
+                        MethodIRBuilder.this : null;
+            }
+        }, ClassReader.SKIP_FRAMES);
+        buildBlocks();
+        splitLocals();
+        initLocals();
+        simulate();
+        inferTypes();
+        return emit();
+    }
+
+    // ---------- Phase 1: recording instructions ----------
+
+    /**
+     * Instructions of the method. Labels are recorded as instructions
+     * (which do not produce any statements), so that each label has
+     * its own position.
+     */
+    private final List<Insn> insns = new ArrayList<>();
+
+    private final Map<Label, Integer> labelPositions = Maps.newHybridMap();
+
+    private final Map<Label, Integer> lineNumbers = Maps.newHybridMap();
+
+    private final List<TryCatch> tryCatches = new ArrayList<>();
+
+    private final List<LocalVarInfo> localVarInfos = new ArrayList<>();
+
+    private sealed interface Insn {
+    }
+
+    private record LabelInsn(Label label) implements Insn {
+    }
+
+    private record SimpleInsn(int opcode) implements Insn {
+    }
+
+    private record IntInsn(int opcode, int operand) implements Insn {
+    }
+
+    private record VarInsn(int opcode, int slot) implements Insn {
+    }
+
+    private record TypeInsn(int opcode, String type) implements Insn {
+    }
+
+    private record FieldInsn(int opcode, String owner, String name,
+                             String desc) implements Insn {
+    }
+
+    private record MethodInsn(int opcode, String owner, String name,
+                              String desc) implements Insn {
+    }
+
+    private record InvokeDynamicInsn(String name, String desc,
+                                     Handle bsm, Object[] bsmArgs) implements Insn {
+    }
+
+    private record JumpInsn(int opcode, Label target) implements Insn {
+    }
+
+    private record LdcInsn(Object value) implements Insn {
+    }
+
+    private record IincInsn(int slot, int increment) implements Insn {
+    }
+
+    private record TableSwitchInsn(int min, int max, Label dflt,
+                                   Label[] labels) implements Insn {
+    }
+
+    private record LookupSwitchInsn(Label dflt, int[] keys,
+                                    Label[] labels) implements Insn {
+    }
+
+    private record MultiANewArrayInsn(String desc, int dims) implements Insn {
+    }
+
+    private record TryCatch(Label start, Label end, Label handler,
+                            @Nullable String type) {
+    }
+
+    private record LocalVarInfo(String name, String desc,
+                                Label start, Label end, int slot) {
+    }
+
+    @Override
+    public void visitLabel(Label label) {
+        labelPositions.put(label, insns.size());
+        insns.add(new LabelInsn(label));
+    }
+
+    @Override
+    public void visitLineNumber(int line, Label start) {
+        lineNumbers.put(start, line);
+    }
+
+    @Override
+    public void visitTryCatchBlock(Label start, Label end, Label handler, String type) {
+        tryCatches.add(new TryCatch(start, end, handler, type));
+    }
+
+    @Override
+    public void visitLocalVariable(String name, String descriptor, String signature,
+                                   Label start, Label end, int index) {
+        localVarInfos.add(new LocalVarInfo(name, descriptor, start, end, index));
+    }
+
+    @Override
+    public void visitInsn(int opcode) {
+        insns.add(new SimpleInsn(opcode));
+    }
+
+    @Override
+    public void visitIntInsn(int opcode, int operand) {
+        insns.add(new IntInsn(opcode, operand));
+    }
+
+    @Override
+    public void visitVarInsn(int opcode, int varIndex) {
+        insns.add(new VarInsn(opcode, varIndex));
+    }
+
+    @Override
+    public void visitTypeInsn(int opcode, String type) {
+        insns.add(new TypeInsn(opcode, type));
+    }
+
+    @Override
+    public void visitFieldInsn(int opcode, String owner, String name, String descriptor) {
+        insns.add(new FieldInsn(opcode, owner, name, descriptor));
+    }
+
+    @Override
+    public void visitMethodInsn(int opcode, String owner, String name,
+                                String descriptor, boolean isInterface) {
+        insns.add(new MethodInsn(opcode, owner, name, descriptor));
+    }
+
+    @Override
+    public void visitInvokeDynamicInsn(String name, String descriptor,
+                                       Handle bootstrapMethodHandle,
+                                       Object... bootstrapMethodArguments) {
+        insns.add(new InvokeDynamicInsn(name, descriptor,
+                bootstrapMethodHandle, bootstrapMethodArguments));
+    }
+
+    @Override
+    public void visitJumpInsn(int opcode, Label label) {
+        insns.add(new JumpInsn(opcode, label));
+    }
+
+    @Override
+    public void visitLdcInsn(Object value) {
+        insns.add(new LdcInsn(value));
+    }
+
+    @Override
+    public void visitIincInsn(int varIndex, int increment) {
+        insns.add(new IincInsn(varIndex, increment));
+    }
+
+    @Override
+    public void visitTableSwitchInsn(int min, int max, Label dflt, Label... labels) {
+        insns.add(new TableSwitchInsn(min, max, dflt, labels));
+    }
+
+    @Override
+    public void visitLookupSwitchInsn(Label dflt, int[] keys, Label[] labels) {
+        insns.add(new LookupSwitchInsn(dflt, keys, labels));
+    }
+
+    @Override
+    public void visitMultiANewArrayInsn(String descriptor, int numDimensions) {
+        insns.add(new MultiANewArrayInsn(descriptor, numDimensions));
+    }
+
+    // ---------- Phase 1: building basic blocks ----------
+
+    private static final class Block {
+
+        /**
+         * Position of the first instruction (inclusive).
+         */
+        private final int start;
+
+        /**
+         * Position of the last instruction (exclusive).
+         */
+        private int end;
+
+        /**
+         * Variables that hold the stack values at the entry of this block,
+         * or {@code null} if this block has not been reached.
+         */
+        private List<Local> entryStack;
+
+        /**
+         * Non-null if this block is an exception handler.
+         */
+        private Local catchLocal;
+
+        private final List<Block> successors = new ArrayList<>(2);
+
+        private final List<Op> ops = new ArrayList<>();
+
+        private Block(int start) {
+            this.start = start;
+        }
+    }
+
+    /**
+     * Deferred emission of statements. The statements are created after
+     * the types of all variables have been inferred.
+     */
+    private record Op(int pos, Runnable emitter) {
+    }
+
+    /**
+     * Map from positions to the blocks that start at the positions.
+     */
+    private Block[] blockAt;
+
+    private final List<Block> blocks = new ArrayList<>();
+
+    private void buildBlocks() {
+        int n = insns.size();
+        boolean[] isLeader = new boolean[n + 1];
+        isLeader[0] = true;
+        for (int i = 0; i < n; ++i) {
+            Insn insn = insns.get(i);
+            if (insn instanceof JumpInsn jump) {
+                if (jump.opcode() == Opcodes.JSR) {
+                    throw new AsmFrontendException("JSR/RET is not supported");
+                }
+                isLeader[positionOf(jump.target())] = true;
+                isLeader[i + 1] = true;
+            } else if (insn instanceof TableSwitchInsn s) {
+                isLeader[positionOf(s.dflt())] = true;
+                Arrays.stream(s.labels()).forEach(l -> isLeader[positionOf(l)] = true);
+                isLeader[i + 1] = true;
+            } else if (insn instanceof LookupSwitchInsn s) {
+                isLeader[positionOf(s.dflt())] = true;
+                Arrays.stream(s.labels()).forEach(l -> isLeader[positionOf(l)] = true);
+                isLeader[i + 1] = true;
+            } else if (insn instanceof SimpleInsn s && isExit(s.opcode())) {
+                isLeader[i + 1] = true;
+            } else if (insn instanceof VarInsn v && v.opcode() == Opcodes.RET) {
+                throw new AsmFrontendException("JSR/RET is not supported");
+            }
+        }
+        for (TryCatch tc : tryCatches) {
+            isLeader[positionOf(tc.start())] = true;
+            isLeader[positionOf(tc.end())] = true;
+            isLeader[positionOf(tc.handler())] = true;
+        }
+        blockAt = new Block[n + 1];
+        Block current = null;
+        for (int i = 0; i < n; ++i) {
+            if (isLeader[i]) {
+                if (current != null) {
+                    current.end = i;
+                }
+                current = new Block(i);
+                blockAt[i] = current;
+                blocks.add(current);
+            }
+        }
+        if (current != null) {
+            current.end = n;
+        }
+        for (Block b : blocks) {
+            // jumps, switches and exits always end blocks
+            Insn last = insns.get(b.end - 1);
+            boolean fallsThrough = true;
+            if (last instanceof JumpInsn jump) {
+                b.successors.add(blockAt[positionOf(jump.target())]);
+                fallsThrough = jump.opcode() != Opcodes.GOTO;
+            } else if (last instanceof TableSwitchInsn s) {
+                b.successors.add(blockAt[positionOf(s.dflt())]);
+                Arrays.stream(s.labels()).forEach(l -> b.successors.add(blockAt[positionOf(l)]));
+                fallsThrough = false;
+            } else if (last instanceof LookupSwitchInsn s) {
+                b.successors.add(blockAt[positionOf(s.dflt())]);
+                Arrays.stream(s.labels()).forEach(l -> b.successors.add(blockAt[positionOf(l)]));
+                fallsThrough = false;
+            } else if (last instanceof SimpleInsn s && isExit(s.opcode())) {
+                fallsThrough = false;
+            }
+            if (fallsThrough && b.end < n) {
+                b.successors.add(blockAt[b.end]);
+            }
+        }
+    }
+
+    private int positionOf(Label label) {
+        return labelPositions.get(label);
+    }
+
+    private static boolean isExit(int opcode) {
+        return (Opcodes.IRETURN <= opcode && opcode <= Opcodes.RETURN)
+                || opcode == Opcodes.ATHROW;
+    }
+
+    // ---------- Phase 2: variables ----------
+
+    /**
+     * Computational kinds of values on the operand stack
+     * and in local variable slots.
+     */
+    private enum Kind {
+        INT, LONG, FLOAT, DOUBLE, REF;
+
+        private boolean isWide() {
+            return this == LONG || this == DOUBLE;
+        }
+    }
+
+    /**
+     * Placeholder of a variable, which is turned into {@link Var}
+     * after type inference.
+     */
+    private static final class Local {
+
+        private final Kind kind;
+
+        /**
+         * Local variable slot, or -1 if this is not a local variable.
+         */
+        private final int slot;
+
+        /**
+         * Whether this local represents a stack value at block entry.
+         */
+        private final boolean isEntry;
+
+        private String name;
+
+        /**
+         * Non-null if this local holds a constant. Such local is not
+         * converted to a variable by itself; each use of it is converted
+         * to a constant variable.
+         */
+        private Literal literal;
+
+        /**
+         * If this is a temporary which is directly assigned to another
+         * local, then this field holds that local.
+         */
+        private Local alias;
+
+        /**
+         * Type of this local if it is known, e.g., for parameters.
+         */
+        private Type fixedType;
+
+        /**
+         * Sources of the type of this local, each of which is
+         * a {@link Type}, a {@link Local} or an {@link ElementOf}.
+         */
+        private final List<Object> typeSources = new ArrayList<>(2);
+
+        private Type type;
+
+        private Var var;
+
+        /**
+         * Sequence number of the instruction that defines this temporary.
+         */
+        private int defSeq;
+
+        /**
+         * Sequence number of the last instruction that reads or writes
+         * this local.
+         */
+        private int lastAccess = -1;
+
+        /**
+         * Number of the uses of this value.
+         */
+        private int uses;
+
+        private boolean usedAsOperand;
+
+        private boolean isInvokeResult;
+
+        /**
+         * Whether the result of the invocation which defines this
+         * temporary is never used.
+         */
+        private boolean isDropped;
+
+        private Local(Kind kind, int slot, boolean isEntry) {
+            this.kind = kind;
+            this.slot = slot;
+            this.isEntry = isEntry;
+        }
+
+        private boolean isTemp() {
+            return slot < 0 && !isEntry && literal == null;
+        }
+    }
+
+    /**
+     * Type source that represents the element type of an array.
+     */
+    private record ElementOf(Local array) {
+    }
+
+    private final List<Local> locals = new ArrayList<>();
+
+    /**
+     * Variables that hold entry stack values, keyed by depth and kind.
+     */
+    private final Map<Integer, Local> entryLocals = Maps.newHybridMap();
+
+    private Local thisLocal;
+
+    private final List<Local> paramLocals = new ArrayList<>();
+
+    private Local newLocal(Kind kind, int slot, boolean isEntry) {
+        Local local = new Local(kind, slot, isEntry);
+        locals.add(local);
+        return local;
+    }
+
+    private Local getEntryLocal(int depth, Kind kind) {
+        return entryLocals.computeIfAbsent(depth * Kind.values().length + kind.ordinal(),
+                __ -> newLocal(kind, -1, true));
+    }
+
+    private void initLocals() {
+        int slot = 0;
+        if (!method.isStatic()) {
+            thisLocal = getParamLocal(slot++, Kind.REF);
+            thisLocal.name = THIS;
+            thisLocal.fixedType = method.getDeclaringClass().getType();
+        }
+        for (int i = 0; i < method.getParamCount(); ++i) {
+            Type paramType = method.getParamType(i);
+            Local param = getParamLocal(slot, kindOf(paramType));
+            param.fixedType = paramType;
+            param.name = method.getParamName(i);
+            paramLocals.add(param);
+            slot += param.kind.isWide() ? 2 : 1;
+        }
+        // use names and types in local variable table (if present)
+        localVarInfoMap.forEach((local, infos) -> {
+            if (local.name == null) {
+                local.name = infos.get(0).name();
+            }
+            if (local.fixedType == null && infos.stream()
+                    .map(LocalVarInfo::desc).distinct().count() == 1) {
+                // the local only holds the variable(s) of the same type
+                local.fixedType = converter.convertType(infos.get(0).desc());
+            }
+        });
+        for (int i = 0; i < paramLocals.size(); ++i) {
+            Local param = paramLocals.get(i);
+            if (param.name == null) {
+                param.name = PARAM + i;
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if the local variable slot accessed at
+     * {@code pos} is in the scope [{@code start}, {@code end}) of a local
+     * variable. The scope of a variable starts after the instruction
+     * that stores its initial value, thus a store that is only followed
+     * by labels until {@code start} is also in the scope, and so are
+     * the definitions at method entry (-1) for a scope that starts there.
+     */
+    private boolean isInScope(int pos, int start, int end) {
+        if (start <= pos) {
+            return pos < end;
+        }
+        for (int i = pos + 1; i < start; ++i) {
+            if (!(insns.get(i) instanceof LabelInsn)) {
+                return false;
+            }
+        }
+        return start < end;
+    }
+
+    /**
+     * @return the first position that may be in the scope starting
+     * at {@code start}, i.e., the instruction before the labels at
+     * {@code start}.
+     */
+    private int scopeStart(int start) {
+        int pos = start;
+        while (pos > 0 && insns.get(pos - 1) instanceof LabelInsn) {
+            --pos;
+        }
+        return Math.max(pos - 1, 0);
+    }
+
+    private static Kind kindOf(Type type) {
+        if (type instanceof PrimitiveType) {
+            if (type == LONG) {
+                return Kind.LONG;
+            } else if (type == FLOAT) {
+                return Kind.FLOAT;
+            } else if (type == DOUBLE) {
+                return Kind.DOUBLE;
+            } else {
+                return Kind.INT;
+            }
+        }
+        return Kind.REF;
+    }
+
+    private static Type defaultTypeOf(Kind kind) {
+        return switch (kind) {
+            case INT -> INT;
+            case LONG -> LONG;
+            case FLOAT -> FLOAT;
+            case DOUBLE -> DOUBLE;
+            case REF -> null;
+        };
+    }
+
+    // ---------- Phase 2: splitting local variables ----------
+
+    /**
+     * Definition of a local variable slot, at position {@code pos},
+     * or at method entry (-1) for this variable and parameters.
+     */
+    private record Def(int key, int pos) {
+    }
+
+    private final List<Def> defs = new ArrayList<>();
+
+    /**
+     * Map from position to the local that is loaded, stored or
+     * incremented by the instruction at the position.
+     */
+    private Local[] slotLocalAt;
+
+    /**
+     * Locals that hold this variable and parameters, keyed by slot and kind.
+     */
+    private final Map<Integer, Local> paramLocalMap = Maps.newHybridMap();
+
+    /**
+     * Map from local to the entries of local variable table that cover it.
+     */
+    private final Map<Local, List<LocalVarInfo>> localVarInfoMap =
+            Maps.newLinkedHashMap();
+
+    private static int keyOf(int slot, Kind kind) {
+        return slot * Kind.values().length + kind.ordinal();
+    }
+
+    /**
+     * @return key of the local variable slot accessed by {@code insn},
+     * or -1 if {@code insn} does not access local variables.
+     */
+    private static int slotKeyOf(Insn insn) {
+        if (insn instanceof VarInsn v) {
+            int opcode = v.opcode();
+            if (Opcodes.ILOAD <= opcode && opcode <= Opcodes.ALOAD) {
+                return keyOf(v.slot(), Kind.values()[opcode - Opcodes.ILOAD]);
+            } else if (Opcodes.ISTORE <= opcode && opcode <= Opcodes.ASTORE) {
+                return keyOf(v.slot(), Kind.values()[opcode - Opcodes.ISTORE]);
+            }
+        } else if (insn instanceof IincInsn i) {
+            return keyOf(i.slot(), Kind.INT);
+        }
+        return -1;
+    }
+
+    private static boolean isStore(Insn insn) {
+        return insn instanceof VarInsn v && Opcodes.ISTORE <= v.opcode()
+                && v.opcode() <= Opcodes.ASTORE;
+    }
+
+    /**
+     * Splits the values of local variable slots into webs, and creates
+     * a local for each web. A web consists of the definitions that reach
+     * common uses, which are computed by reaching definition analysis on
+     * basic blocks. The definitions in a block protected by an exception
+     * handler are regarded as reaching the handler, as well as the ones
+     * that reach the block.
+     */
+    private void splitLocals() {
+        int n = insns.size();
+        // collect definitions
+        int[] defAt = new int[n];
+        Arrays.fill(defAt, -1);
+        BitSet entryDefs = new BitSet();
+        int slot = 0;
+        if (!method.isStatic()) {
+            entryDefs.set(addDef(keyOf(slot++, Kind.REF), -1));
+        }
+        for (Type paramType : method.getParamTypes()) {
+            Kind kind = kindOf(paramType);
+            entryDefs.set(addDef(keyOf(slot, kind), -1));
+            slot += kind.isWide() ? 2 : 1;
+        }
+        for (int pos = 0; pos < n; ++pos) {
+            Insn insn = insns.get(pos);
+            if (isStore(insn) || insn instanceof IincInsn) {
+                defAt[pos] = addDef(slotKeyOf(insn), pos);
+            }
+        }
+        Map<Integer, BitSet> keyDefs = Maps.newHybridMap();
+        for (int d = 0; d < defs.size(); ++d) {
+            keyDefs.computeIfAbsent(defs.get(d).key(), __ -> new BitSet()).set(d);
+        }
+        // compute the definitions that reach the entry of each block
+        Map<Block, List<Block>> handlers = Maps.newHybridMap();
+        for (TryCatch tc : tryCatches) {
+            int start = positionOf(tc.start());
+            int end = positionOf(tc.end());
+            Block handler = blockAt[positionOf(tc.handler())];
+            for (Block b : blocks) {
+                if (start <= b.start && b.start < end) {
+                    handlers.computeIfAbsent(b, __ -> new ArrayList<>()).add(handler);
+                }
+            }
+        }
+        Map<Block, BitSet> in = Maps.newHybridMap();
+        Block entry = blockAt[0];
+        in.put(entry, (BitSet) entryDefs.clone());
+        Deque<Block> workList = new ArrayDeque<>();
+        workList.add(entry);
+        while (!workList.isEmpty()) {
+            Block b = workList.poll();
+            BitSet out = (BitSet) in.get(b).clone();
+            BitSet blockDefs = new BitSet();
+            for (int pos = b.start; pos < b.end; ++pos) {
+                int d = defAt[pos];
+                if (d != -1) {
+                    out.andNot(keyDefs.get(defs.get(d).key()));
+                    out.set(d);
+                    blockDefs.set(d);
+                }
+            }
+            for (Block succ : b.successors) {
+                propagate(succ, out, in, workList);
+            }
+            List<Block> bHandlers = handlers.get(b);
+            if (bHandlers != null) {
+                blockDefs.or(in.get(b));
+                for (Block handler : bHandlers) {
+                    propagate(handler, blockDefs, in, workList);
+                }
+            }
+        }
+        // merge the definitions that reach the same uses
+        int[] parent = new int[defs.size()];
+        Arrays.setAll(parent, i -> i);
+        int[] useAt = new int[n];
+        Arrays.fill(useAt, -1);
+        in.forEach((b, bIn) -> {
+            BitSet reaching = (BitSet) bIn.clone();
+            for (int pos = b.start; pos < b.end; ++pos) {
+                Insn insn = insns.get(pos);
+                int key = slotKeyOf(insn);
+                if (key == -1) {
+                    continue;
+                }
+                BitSet keyDefsOfKey = keyDefs.get(key);
+                if (!isStore(insn) && keyDefsOfKey != null) {
+                    // loads and increments use the reaching definitions
+                    int first = -1;
+                    for (int d = reaching.nextSetBit(0); d >= 0;
+                         d = reaching.nextSetBit(d + 1)) {
+                        if (keyDefsOfKey.get(d)) {
+                            if (first == -1) {
+                                first = d;
+                            } else {
+                                union(parent, first, d);
+                            }
+                        }
+                    }
+                    useAt[pos] = first;
+                }
+                int d = defAt[pos];
+                if (d != -1) {
+                    if (useAt[pos] != -1) { // increment
+                        union(parent, useAt[pos], d);
+                    }
+                    reaching.andNot(keyDefsOfKey);
+                    reaching.set(d);
+                }
+            }
+        });
+        // merge the webs of each variable in local variable table (if
+        // present), so that the variables declared in source code are
+        // kept, while the ones that reuse the same slot are separated
+        int[] infoDefs = new int[localVarInfos.size()];
+        for (int i = 0; i < localVarInfos.size(); ++i) {
+            LocalVarInfo info = localVarInfos.get(i);
+            int key = keyOf(info.slot(), kindOf(converter.convertType(info.desc())));
+            int start = positionOf(info.start());
+            int end = positionOf(info.end());
+            int first = -1;
+            if (isInScope(-1, start, end)) {
+                // this variable or parameter, which is defined at entry
+                for (int d = entryDefs.nextSetBit(0); d >= 0;
+                     d = entryDefs.nextSetBit(d + 1)) {
+                    if (defs.get(d).key() == key) {
+                        first = d;
+                    }
+                }
+            }
+            for (int pos = scopeStart(start); pos < end; ++pos) {
+                int d = defAt[pos] != -1 ? defAt[pos] : useAt[pos];
+                if (d != -1 && defs.get(d).key() == key
+                        && isInScope(pos, start, end)) {
+                    if (first == -1) {
+                        first = d;
+                    } else {
+                        union(parent, first, d);
+                    }
+                }
+            }
+            infoDefs[i] = first;
+        }
+        // create a local for each web
+        Local[] webLocals = new Local[defs.size()];
+        slotLocalAt = new Local[n];
+        for (int pos = 0; pos < n; ++pos) {
+            Insn insn = insns.get(pos);
+            int key = slotKeyOf(insn);
+            if (key != -1) {
+                int d = defAt[pos] != -1 ? defAt[pos] : useAt[pos];
+                slotLocalAt[pos] = d != -1 ? getWebLocal(webLocals, parent, d)
+                        // use without reaching definitions, e.g., in dead code
+                        : newLocal(Kind.values()[key % Kind.values().length],
+                        key / Kind.values().length, false);
+            }
+        }
+        for (int d = entryDefs.nextSetBit(0); d >= 0; d = entryDefs.nextSetBit(d + 1)) {
+            paramLocalMap.put(defs.get(d).key(), getWebLocal(webLocals, parent, d));
+        }
+        for (int i = 0; i < infoDefs.length; ++i) {
+            if (infoDefs[i] != -1) {
+                localVarInfoMap.computeIfAbsent(
+                        getWebLocal(webLocals, parent, infoDefs[i]),
+                        __ -> new ArrayList<>()).add(localVarInfos.get(i));
+            }
+        }
+    }
+
+    private int addDef(int key, int pos) {
+        defs.add(new Def(key, pos));
+        return defs.size() - 1;
+    }
+
+    private static void propagate(Block succ, BitSet defs,
+                                  Map<Block, BitSet> in, Deque<Block> workList) {
+        BitSet succIn = in.get(succ);
+        if (succIn == null) {
+            in.put(succ, (BitSet) defs.clone());
+            workList.add(succ);
+        } else {
+            int size = succIn.cardinality();
+            succIn.or(defs);
+            if (succIn.cardinality() != size) {
+                workList.add(succ);
+            }
+        }
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private static void union(int[] parent, int i, int j) {
+        parent[find(parent, i)] = find(parent, j);
+    }
+
+    private Local getWebLocal(Local[] webLocals, int[] parent, int d) {
+        int root = find(parent, d);
+        if (webLocals[root] == null) {
+            int key = defs.get(root).key();
+            webLocals[root] = newLocal(Kind.values()[key % Kind.values().length],
+                    key / Kind.values().length, false);
+        }
+        return webLocals[root];
+    }
+
+    private Local getParamLocal(int slot, Kind kind) {
+        return paramLocalMap.get(keyOf(slot, kind));
+    }
+
+    // ---------- Phase 3: simulating operand stack ----------
+
+    /**
+     * Sequence number of the instruction being simulated.
+     */
+    private int seq;
+
+    /**
+     * Position of the instruction being simulated.
+     */
+    private int pos;
+
+    private Block block;
+
+    private List<Local> stack;
+
+    /**
+     * Terminator (jump or switch) of current block. It is added after
+     * the values remaining on the stack are copied for successors.
+     */
+    private Runnable terminator;
+
+    private void simulate() {
+        Deque<Block> workList = new ArrayDeque<>();
+        Block entry = blockAt[0];
+        entry.entryStack = List.of();
+        workList.add(entry);
+        // all exception handlers are regarded as reachable
+        Map<Block, List<TryCatch>> handlers = Maps.newLinkedHashMap();
+        tryCatches.forEach(tc -> handlers.computeIfAbsent(
+                blockAt[positionOf(tc.handler())], __ -> new ArrayList<>()).add(tc));
+        handlers.forEach((handler, tcs) -> {
+            if (handler.entryStack == null) {
+                Local catchLocal = newLocal(Kind.REF, -1, false);
+                tcs.forEach(tc -> catchLocal.typeSources.add(getCatchType(tc)));
+                handler.catchLocal = catchLocal;
+                handler.entryStack = List.of(catchLocal);
+                workList.add(handler);
+            }
+        });
+        Set<Block> visited = Sets.newSet();
+        while (!workList.isEmpty()) {
+            Block b = workList.poll();
+            if (visited.add(b)) {
+                simulate(b, workList);
+            }
+        }
+    }
+
+    private ClassType getCatchType(TryCatch tc) {
+        return (ClassType) converter.convertInternalName(
+                tc.type() != null ? tc.type() : "java/lang/Throwable");
+    }
+
+    private void simulate(Block b, Deque<Block> workList) {
+        block = b;
+        stack = new ArrayList<>(b.entryStack);
+        terminator = null;
+        pos = b.start;
+        ++seq;
+        if (b.catchLocal != null) {
+            Local catchLocal = b.catchLocal;
+            catchLocal.defSeq = seq;
+            addOp(() -> addStmt(new Catch(var(catchLocal))));
+        }
+        for (pos = b.start; pos < b.end; ++pos) {
+            ++seq;
+            Insn insn = insns.get(pos);
+            if (insn instanceof JumpInsn jump) {
+                simulateJump(jump);
+            } else if (insn instanceof TableSwitchInsn s) {
+                simulateTableSwitch(s);
+            } else if (insn instanceof LookupSwitchInsn s) {
+                simulateLookupSwitch(s);
+            } else {
+                simulateInsn(insn);
+            }
+        }
+        pos = b.end - 1;
+        // copy the values remaining on the stack to successors
+        List<Local> target = null;
+        for (Block succ : b.successors) {
+            if (succ.entryStack == null) {
+                succ.entryStack = getEntryStack();
+            }
+            if (target == null) {
+                target = succ.entryStack;
+            } else if (!stack.isEmpty() && target != succ.entryStack
+                    && !target.equals(succ.entryStack)) {
+                throw new AsmFrontendException("Inconsistent stack at " + pos);
+            }
+            workList.add(succ);
+        }
+        if (target != null && !stack.isEmpty()) {
+            if (target.size() != stack.size()) {
+                throw new AsmFrontendException("Inconsistent stack height at " + pos);
+            }
+            copyStack(target);
+        }
+        if (terminator != null) {
+            addOp(terminator);
+        }
+    }
+
+    private List<Local> getEntryStack() {
+        List<Local> entryStack = new ArrayList<>(stack.size());
+        for (int i = 0; i < stack.size(); ++i) {
+            entryStack.add(getEntryLocal(i, stack.get(i).kind));
+        }
+        return entryStack;
+    }
+
+    private record Move(Local target, Local source) {
+    }
+
+    /**
+     * Copies values on current stack to the entry variables of successors.
+     * The copies are performed as a parallel assignment.
+     */
+    private void copyStack(List<Local> target) {
+        List<Move> moves = new ArrayList<>();
+        for (int i = 0; i < stack.size(); ++i) {
+            Local value = stack.get(i);
+            Local t = target.get(i);
+            if (value == t) {
+                continue;
+            }
+            t.typeSources.add(value.literal != null ? value.literal.getType() : value);
+            if (value.isTemp() && value.alias == null && value.uses == 0
+                    && Collections.frequency(stack, value) == 1
+                    && !stack.contains(t) && t.lastAccess <= value.defSeq) {
+                // the temporary can be directly assigned to the target
+                value.alias = t;
+            } else {
+                moves.add(new Move(t, value));
+            }
+            ++value.uses;
+        }
+        while (!moves.isEmpty()) {
+            boolean progress = false;
+            for (int i = 0; i < moves.size(); ++i) {
+                Move move = moves.get(i);
+                if (moves.stream().noneMatch(m -> m.source() == move.target())) {
+                    addMove(move.target(), move.source());
+                    moves.remove(i--);
+                    progress = true;
+                }
+            }
+            if (!progress) {
+                // break the cycle by a temporary
+                Local source = moves.get(0).source();
+                Local temp = newTemp(source.kind, source);
+                addMove(temp, source);
+                moves.replaceAll(m -> m.source() == source ?
+                        new Move(m.target(), temp) : m);
+            }
+        }
+    }
+
+    private void addMove(Local target, Local source) {
+        if (source.literal != null) {
+            Literal literal = source.literal;
+            addOp(() -> addStmt(new AssignLiteral(var(target), literal)));
+        } else {
+            addOp(() -> addStmt(new Copy(var(target), var(source))));
+        }
+    }
+
+    private void addOp(Runnable emitter) {
+        block.ops.add(new Op(pos, emitter));
+    }
+
+    private void push(Local value) {
+        stack.add(value);
+    }
+
+    /**
+     * Pops a value without using it.
+     */
+    private Local popValue() {
+        if (stack.isEmpty()) {
+            throw new AsmFrontendException("Stack underflow at " + pos);
+        }
+        Local value = stack.remove(stack.size() - 1);
+        if (!value.isTemp()) {
+            value.lastAccess = seq;
+        }
+        return value;
+    }
+
+    /**
+     * Pops a value which is used as an operand.
+     */
+    private Local pop() {
+        Local value = popValue();
+        ++value.uses;
+        if (value.literal != null) {
+            value.usedAsOperand = true;
+        }
+        return value;
+    }
+
+    private Local peek() {
+        return stack.get(stack.size() - 1);
+    }
+
+    private Local newTemp(Kind kind, @Nullable Object typeSource) {
+        Local temp = newLocal(kind, -1, false);
+        temp.defSeq = seq;
+        if (typeSource != null) {
+            temp.typeSources.add(typeSource);
+        }
+        return temp;
+    }
+
+    private Local pushTemp(Kind kind, @Nullable Object typeSource) {
+        Local temp = newTemp(kind, typeSource);
+        push(temp);
+        return temp;
+    }
+
+    private void pushConstant(Literal literal) {
+        push(newConstant(literal));
+    }
+
+    private Local newConstant(Literal literal) {
+        Local constant = newLocal(kindOf(literal.getType()), -1, false);
+        constant.literal = literal;
+        // the constant variable is assigned only if the constant
+        // is used as an operand
+        addOp(() -> {
+            if (constant.usedAsOperand && !(literal instanceof NullLiteral)) {
+                addStmt(new AssignLiteral(var(constant), literal));
+            }
+        });
+        return constant;
+    }
+
+    /**
+     * @return a constant that is used as an operand.
+     */
+    private Local newOperandConstant(Literal literal) {
+        Local constant = newConstant(literal);
+        constant.usedAsOperand = true;
+        return constant;
+    }
+
+    /**
+     * Before {@code local} is modified, copies its value to a temporary
+     * for the stack entries that refer to it.
+     */
+    private void materialize(Local local) {
+        if (stack.contains(local)) {
+            Local temp = newTemp(local.kind, local);
+            addOp(() -> addStmt(new Copy(var(temp), var(local))));
+            local.lastAccess = seq;
+            stack.replaceAll(v -> v == local ? temp : v);
+        }
+    }
+
+    private void store(Local local) {
+        Local value = popValue();
+        materialize(local);
+        if (value.literal != null) {
+            local.typeSources.add(value.literal.getType());
+            Literal literal = value.literal;
+            addOp(() -> addStmt(new AssignLiteral(var(local), literal)));
+        } else {
+            local.typeSources.add(value);
+            if (value.isTemp() && value.alias == null && value.uses == 0
+                    && !stack.contains(value) && local.lastAccess <= value.defSeq) {
+                // the temporary can be directly assigned to the local,
+                // as the local is not accessed since the temporary is defined
+                value.alias = local;
+            } else {
+                addOp(() -> addStmt(new Copy(var(local), var(value))));
+            }
+            ++value.uses;
+        }
+        local.lastAccess = seq;
+    }
+
+    private void discard(Local value) {
+        if (value.isInvokeResult && value.uses == 0 && !stack.contains(value)) {
+            value.isDropped = true;
+        }
+    }
+
+    private void simulateInsn(Insn insn) {
+        if (insn instanceof LabelInsn) {
+            return;
+        }
+        if (insn instanceof SimpleInsn s) {
+            simulateSimpleInsn(s.opcode());
+        } else if (insn instanceof IntInsn i) {
+            switch (i.opcode()) {
+                case Opcodes.BIPUSH, Opcodes.SIPUSH -> pushConstant(IntLiteral.get(i.operand()));
+                case Opcodes.NEWARRAY -> {
+                    Local length = pop();
+                    ArrayType type = converter.getArrayTypeOf(
+                            getPrimitiveArrayElementType(i.operand()));
+                    buildNewArray(type, length);
+                }
+                default -> throw unknownInsn(insn);
+            }
+        } else if (insn instanceof VarInsn v) {
+            int opcode = v.opcode();
+            if (Opcodes.ILOAD <= opcode && opcode <= Opcodes.ALOAD) {
+                push(slotLocalAt[pos]);
+            } else if (Opcodes.ISTORE <= opcode && opcode <= Opcodes.ASTORE) {
+                store(slotLocalAt[pos]);
+            } else {
+                throw unknownInsn(insn);
+            }
+        } else if (insn instanceof IincInsn i) {
+            Local local = slotLocalAt[pos];
+            materialize(local);
+            Local c = newOperandConstant(IntLiteral.get(i.increment()));
+            addOp(() -> addStmt(new Binary(var(local),
+                    new ArithmeticExp(ArithmeticExp.Op.ADD, var(local), var(c)))));
+            local.typeSources.add(INT);
+            local.lastAccess = seq;
+        } else if (insn instanceof LdcInsn ldc) {
+            pushConstant(converter.convertConstant(ldc.value()));
+        } else if (insn instanceof TypeInsn t) {
+            simulateTypeInsn(t);
+        } else if (insn instanceof FieldInsn f) {
+            simulateFieldInsn(f);
+        } else if (insn instanceof MethodInsn m) {
+            simulateMethodInsn(m);
+        } else if (insn instanceof InvokeDynamicInsn indy) {
+            simulateInvokeDynamic(indy);
+        } else if (insn instanceof MultiANewArrayInsn m) {
+            List<Local> lengths = popArgs(m.dims());
+            ArrayType type = (ArrayType) converter.convertType(m.desc());
+            Local result = pushTemp(Kind.REF, type);
+            addOp(() -> addStmt(new New(method, var(result),
+                    new NewMultiArray(type, Lists.map(lengths, this::var)))));
+        } else {
+            throw unknownInsn(insn);
+        }
+    }
+
+    private static Type getPrimitiveArrayElementType(int operand) {
+        return switch (operand) {
+            case Opcodes.T_BOOLEAN -> BOOLEAN;
+            case Opcodes.T_CHAR -> CHAR;
+            case Opcodes.T_FLOAT -> FLOAT;
+            case Opcodes.T_DOUBLE -> DOUBLE;
+            case Opcodes.T_BYTE -> BYTE;
+            case Opcodes.T_SHORT -> SHORT;
+            case Opcodes.T_INT -> INT;
+            case Opcodes.T_LONG -> LONG;
+            default -> throw new AsmFrontendException(
+                    "Unknown primitive array type: " + operand);
+        };
+    }
+
+    private static AsmFrontendException unknownInsn(Insn insn) {
+        return new AsmFrontendException("Cannot handle instruction: " + insn);
+    }
+
+    private void simulateSimpleInsn(int opcode) {
+        switch (opcode) {
+            case Opcodes.NOP -> {
+            }
+            case Opcodes.ACONST_NULL -> pushConstant(NullLiteral.get());
+            case Opcodes.ICONST_M1, Opcodes.ICONST_0, Opcodes.ICONST_1,
+                    Opcodes.ICONST_2, Opcodes.ICONST_3, Opcodes.ICONST_4,
+                    Opcodes.ICONST_5 ->
+                    pushConstant(IntLiteral.get(opcode - Opcodes.ICONST_0));
+            case Opcodes.LCONST_0, Opcodes.LCONST_1 ->
+                    pushConstant(LongLiteral.get(opcode - Opcodes.LCONST_0));
+            case Opcodes.FCONST_0, Opcodes.FCONST_1, Opcodes.FCONST_2 ->
+                    pushConstant(FloatLiteral.get(opcode - Opcodes.FCONST_0));
+            case Opcodes.DCONST_0, Opcodes.DCONST_1 ->
+                    pushConstant(DoubleLiteral.get(opcode - Opcodes.DCONST_0));
+            case Opcodes.IALOAD, Opcodes.LALOAD, Opcodes.FALOAD, Opcodes.DALOAD,
+                    Opcodes.AALOAD, Opcodes.BALOAD, Opcodes.CALOAD, Opcodes.SALOAD -> {
+                Local index = pop();
+                Local array = pop();
+                ArrayType arrayType = getArrayTypeOf(opcode - Opcodes.IALOAD);
+                Type elemType = arrayType.elementType();
+                Local result = pushTemp(kindOf(elemType),
+                        opcode == Opcodes.AALOAD ? new ElementOf(array) : elemType);
+                addOp(() -> addStmt(new LoadArray(var(result), new ArrayAccess(
+                        getArrayBase(array, arrayType), var(index)))));
+            }
+            case Opcodes.IASTORE, Opcodes.LASTORE, Opcodes.FASTORE, Opcodes.DASTORE,
+                    Opcodes.AASTORE, Opcodes.BASTORE, Opcodes.CASTORE, Opcodes.SASTORE -> {
+                Local value = pop();
+                Local index = pop();
+                Local array = pop();
+                ArrayType arrayType = getArrayTypeOf(opcode - Opcodes.IASTORE);
+                addOp(() -> addStmt(new StoreArray(new ArrayAccess(
+                        getArrayBase(array, arrayType), var(index)), var(value))));
+            }
+            case Opcodes.POP -> discard(popValue());
+            case Opcodes.POP2 -> {
+                Local v1 = popValue();
+                discard(v1);
+                if (!v1.kind.isWide()) {
+                    discard(popValue());
+                }
+            }
+            case Opcodes.DUP -> push(peek());
+            case Opcodes.DUP_X1 -> {
+                Local v1 = popValue();
+                Local v2 = popValue();
+                pushAll(v1, v2, v1);
+            }
+            case Opcodes.DUP_X2 -> {
+                Local v1 = popValue();
+                Local v2 = popValue();
+                if (v2.kind.isWide()) {
+                    pushAll(v1, v2, v1);
+                } else {
+                    Local v3 = popValue();
+                    pushAll(v1, v3, v2, v1);
+                }
+            }
+            case Opcodes.DUP2 -> {
+                Local v1 = peek();
+                if (v1.kind.isWide()) {
+                    push(v1);
+                } else {
+                    Local v2 = stack.get(stack.size() - 2);
+                    pushAll(v2, v1);
+                }
+            }
+            case Opcodes.DUP2_X1 -> {
+                Local v1 = popValue();
+                Local v2 = popValue();
+                if (v1.kind.isWide()) {
+                    pushAll(v1, v2, v1);
+                } else {
+                    Local v3 = popValue();
+                    pushAll(v2, v1, v3, v2, v1);
+                }
+            }
+            case Opcodes.DUP2_X2 -> {
+                Local v1 = popValue();
+                Local v2 = popValue();
+                if (v1.kind.isWide()) {
+                    if (v2.kind.isWide()) {
+                        pushAll(v1, v2, v1);
+                    } else {
+                        Local v3 = popValue();
+                        pushAll(v1, v3, v2, v1);
+                    }
+                } else {
+                    Local v3 = popValue();
+                    if (v3.kind.isWide()) {
+                        pushAll(v2, v1, v3, v2, v1);
+                    } else {
+                        Local v4 = popValue();
+                        pushAll(v2, v1, v4, v3, v2, v1);
+                    }
+                }
+            }
+            case Opcodes.SWAP -> {
+                Local v1 = popValue();
+                Local v2 = popValue();
+                pushAll(v1, v2);
+            }
+            case Opcodes.IADD, Opcodes.LADD, Opcodes.FADD, Opcodes.DADD,
+                    Opcodes.ISUB, Opcodes.LSUB, Opcodes.FSUB, Opcodes.DSUB,
+                    Opcodes.IMUL, Opcodes.LMUL, Opcodes.FMUL, Opcodes.DMUL,
+                    Opcodes.IDIV, Opcodes.LDIV, Opcodes.FDIV, Opcodes.DDIV,
+                    Opcodes.IREM, Opcodes.LREM, Opcodes.FREM, Opcodes.DREM -> {
+                ArithmeticExp.Op op = ArithmeticExp.Op.values()[(opcode - Opcodes.IADD) / 4];
+                buildBinary(Kind.values()[(opcode - Opcodes.IADD) % 4],
+                        (v1, v2) -> new ArithmeticExp(op, v1, v2));
+            }
+            case Opcodes.INEG, Opcodes.LNEG, Opcodes.FNEG, Opcodes.DNEG -> {
+                Local value = pop();
+                Local result = pushTemp(value.kind, value.kind == Kind.INT ?
+                        INT : defaultTypeOf(value.kind));
+                addOp(() -> addStmt(new Unary(var(result), new NegExp(var(value)))));
+            }
+            case Opcodes.ISHL, Opcodes.LSHL, Opcodes.ISHR, Opcodes.LSHR,
+                    Opcodes.IUSHR, Opcodes.LUSHR -> {
+                ShiftExp.Op op = ShiftExp.Op.values()[(opcode - Opcodes.ISHL) / 2];
+                buildBinary((opcode - Opcodes.ISHL) % 2 == 0 ? Kind.INT : Kind.LONG,
+                        (v1, v2) -> new ShiftExp(op, v1, v2));
+            }
+            case Opcodes.IAND, Opcodes.LAND, Opcodes.IOR, Opcodes.LOR,
+                    Opcodes.IXOR, Opcodes.LXOR -> {
+                BitwiseExp.Op op = BITWISE_OPS[(opcode - Opcodes.IAND) / 2];
+                buildBinary((opcode - Opcodes.IAND) % 2 == 0 ? Kind.INT : Kind.LONG,
+                        (v1, v2) -> new BitwiseExp(op, v1, v2));
+            }
+            case Opcodes.I2L, Opcodes.F2L, Opcodes.D2L -> buildPrimitiveCast(LONG);
+            case Opcodes.I2F, Opcodes.L2F, Opcodes.D2F -> buildPrimitiveCast(FLOAT);
+            case Opcodes.I2D, Opcodes.L2D, Opcodes.F2D -> buildPrimitiveCast(DOUBLE);
+            case Opcodes.L2I, Opcodes.F2I, Opcodes.D2I -> buildPrimitiveCast(INT);
+            case Opcodes.I2B -> buildPrimitiveCast(BYTE);
+            case Opcodes.I2C -> buildPrimitiveCast(CHAR);
+            case Opcodes.I2S -> buildPrimitiveCast(SHORT);
+            case Opcodes.LCMP -> buildBinary(Kind.INT,
+                    (v1, v2) -> new ComparisonExp(ComparisonExp.Op.CMP, v1, v2));
+            case Opcodes.FCMPL, Opcodes.DCMPL -> buildBinary(Kind.INT,
+                    (v1, v2) -> new ComparisonExp(ComparisonExp.Op.CMPL, v1, v2));
+            case Opcodes.FCMPG, Opcodes.DCMPG -> buildBinary(Kind.INT,
+                    (v1, v2) -> new ComparisonExp(ComparisonExp.Op.CMPG, v1, v2));
+            case Opcodes.IRETURN, Opcodes.LRETURN, Opcodes.FRETURN,
+                    Opcodes.DRETURN, Opcodes.ARETURN -> {
+                Local value = pop();
+                addOp(() -> {
+                    Var returnVar = var(value);
+                    returnVars.add(returnVar);
+                    addStmt(new Return(returnVar));
+                });
+            }
+            case Opcodes.RETURN -> addOp(() -> addStmt(new Return()));
+            case Opcodes.ARRAYLENGTH -> {
+                Local array = pop();
+                Local result = pushTemp(Kind.INT, INT);
+                ArrayType arrayType = getArrayTypeOf(Opcodes.AALOAD - Opcodes.IALOAD);
+                addOp(() -> addStmt(new Unary(var(result),
+                        new ArrayLengthExp(getArrayBase(array, arrayType)))));
+            }
+            case Opcodes.ATHROW -> {
+                Local exception = pop();
+                addOp(() -> addStmt(new Throw(var(exception))));
+            }
+            case Opcodes.MONITORENTER, Opcodes.MONITOREXIT -> {
+                Local object = pop();
+                Monitor.Op op = opcode == Opcodes.MONITORENTER ?
+                        Monitor.Op.ENTER : Monitor.Op.EXIT;
+                addOp(() -> addStmt(new Monitor(op, var(object))));
+            }
+            default -> throw new AsmFrontendException(
+                    "Cannot handle instruction: " + opcode);
+        }
+    }
+
+    private void pushAll(Local... values) {
+        Collections.addAll(stack, values);
+    }
+
+    /**
+     * @param index index of array load/store instruction relative to
+     *              {@code IALOAD}/{@code IASTORE}
+     * @return the array type expected by the instruction.
+     */
+    private ArrayType getArrayTypeOf(int index) {
+        Type elemType = switch (index) {
+            case 0 -> INT;
+            case 1 -> LONG;
+            case 2 -> FLOAT;
+            case 3 -> DOUBLE;
+            case 4 -> typeSystem.getClassType(ClassNames.OBJECT);
+            case 5 -> BYTE;
+            case 6 -> CHAR;
+            default -> SHORT;
+        };
+        return converter.getArrayTypeOf(elemType);
+    }
+
+    private interface BinaryExpBuilder {
+        BinaryExp build(Var v1, Var v2);
+    }
+
+    private void buildBinary(Kind resultKind, BinaryExpBuilder builder) {
+        Local v2 = pop();
+        Local v1 = pop();
+        Local result = pushTemp(resultKind, defaultTypeOf(resultKind));
+        addOp(() -> addStmt(new Binary(var(result), builder.build(var(v1), var(v2)))));
+    }
+
+    private void buildPrimitiveCast(PrimitiveType type) {
+        Local value = pop();
+        Local result = pushTemp(kindOf(type), type);
+        addOp(() -> addStmt(new Cast(var(result), new CastExp(var(value), type))));
+    }
+
+    private void buildNewArray(ArrayType type, Local length) {
+        Local result = pushTemp(Kind.REF, type);
+        addOp(() -> addStmt(new New(method, var(result),
+                new NewArray(type, var(length)))));
+    }
+
+    private void simulateTypeInsn(TypeInsn insn) {
+        ReferenceType type = converter.convertInternalName(insn.type());
+        switch (insn.opcode()) {
+            case Opcodes.NEW -> {
+                Local result = pushTemp(Kind.REF, type);
+                addOp(() -> addStmt(new New(method, var(result),
+                        new NewInstance((ClassType) type))));
+            }
+            case Opcodes.ANEWARRAY -> buildNewArray(
+                    converter.getArrayTypeOf(type), pop());
+            case Opcodes.CHECKCAST -> {
+                Local value = pop();
+                Local result = pushTemp(Kind.REF, type);
+                addOp(() -> addStmt(new Cast(var(result),
+                        new CastExp(var(value), type))));
+            }
+            case Opcodes.INSTANCEOF -> {
+                Local value = pop();
+                Local result = pushTemp(Kind.INT, BOOLEAN);
+                addOp(() -> addStmt(new InstanceOf(var(result),
+                        new InstanceOfExp(var(value), type))));
+            }
+            default -> throw unknownInsn(insn);
+        }
+    }
+
+    private void simulateFieldInsn(FieldInsn insn) {
+        boolean isStatic = insn.opcode() == Opcodes.GETSTATIC
+                || insn.opcode() == Opcodes.PUTSTATIC;
+        FieldRef fieldRef = converter.convertFieldRef(
+                insn.owner(), insn.name(), insn.desc(), isStatic);
+        Type fieldType = fieldRef.getType();
+        switch (insn.opcode()) {
+            case Opcodes.GETSTATIC -> {
+                Local result = pushTemp(kindOf(fieldType), fieldType);
+                addOp(() -> addStmt(new LoadField(var(result),
+                        new StaticFieldAccess(fieldRef))));
+            }
+            case Opcodes.PUTSTATIC -> {
+                Local value = pop();
+                addOp(() -> addStmt(new StoreField(
+                        new StaticFieldAccess(fieldRef), var(value))));
+            }
+            case Opcodes.GETFIELD -> {
+                Local base = pop();
+                Local result = pushTemp(kindOf(fieldType), fieldType);
+                addOp(() -> addStmt(new LoadField(var(result),
+                        new InstanceFieldAccess(fieldRef, var(base)))));
+            }
+            case Opcodes.PUTFIELD -> {
+                Local value = pop();
+                Local base = pop();
+                addOp(() -> addStmt(new StoreField(
+                        new InstanceFieldAccess(fieldRef, var(base)), var(value))));
+            }
+            default -> throw unknownInsn(insn);
+        }
+    }
+
+    /**
+     * Pops {@code n} values used as arguments.
+     *
+     * @return the values in the order they were pushed.
+     */
+    private List<Local> popArgs(int n) {
+        Local[] args = new Local[n];
+        for (int i = n - 1; i >= 0; --i) {
+            args[i] = pop();
+        }
+        return Arrays.asList(args);
+    }
+
+    private void simulateMethodInsn(MethodInsn insn) {
+        int opcode = insn.opcode();
+        boolean isStatic = opcode == Opcodes.INVOKESTATIC;
+        MethodRef methodRef = converter.convertMethodRef(
+                insn.owner(), insn.name(), insn.desc(), isStatic);
+        List<Local> args = popArgs(methodRef.getParameterTypes().size());
+        Local base = isStatic ? null : pop();
+        Local result = pushInvokeResult(methodRef.getReturnType());
+        addOp(() -> {
+            List<Var> argVars = Lists.map(args, this::var);
+            InvokeExp invokeExp = switch (opcode) {
+                case Opcodes.INVOKEVIRTUAL -> new InvokeVirtual(methodRef, var(base), argVars);
+                case Opcodes.INVOKEINTERFACE -> new InvokeInterface(methodRef, var(base), argVars);
+                case Opcodes.INVOKESPECIAL -> new InvokeSpecial(methodRef, var(base), argVars);
+                default -> new InvokeStatic(methodRef, argVars);
+            };
+            addStmt(new Invoke(method, invokeExp, getResultVar(result)));
+        });
+    }
+
+    private void simulateInvokeDynamic(InvokeDynamicInsn insn) {
+        MethodRef bootstrapMethodRef = converter.convertBootstrapMethodRef(insn.bsm());
+        List<Literal> bootstrapArgs = Lists.map(Arrays.asList(insn.bsmArgs()),
+                converter::convertConstant);
+        pascal.taie.ir.exp.MethodType methodType = converter.convertMethodType(insn.desc());
+        List<Local> args = popArgs(methodType.getParamTypes().size());
+        Local result = pushInvokeResult(methodType.getReturnType());
+        addOp(() -> addStmt(new Invoke(method,
+                new InvokeDynamic(bootstrapMethodRef, insn.name(), methodType,
+                        bootstrapArgs, Lists.map(args, this::var)),
+                getResultVar(result))));
+    }
+
+    @Nullable
+    private Local pushInvokeResult(Type returnType) {
+        if (returnType == VOID) {
+            return null;
+        }
+        Local result = pushTemp(kindOf(returnType), returnType);
+        result.isInvokeResult = true;
+        return result;
+    }
+
+    @Nullable
+    private Var getResultVar(@Nullable Local result) {
+        return result == null || result.isDropped ? null : var(result);
+    }
+
+    private void simulateJump(JumpInsn insn) {
+        int opcode = insn.opcode();
+        int target = positionOf(insn.target());
+        if (opcode == Opcodes.GOTO) {
+            terminator = () -> addJump(new Goto(), target);
+            return;
+        }
+        ConditionExp.Op op;
+        Local v1, v2;
+        if (Opcodes.IFEQ <= opcode && opcode <= Opcodes.IFLE) {
+            op = CONDITION_OPS[opcode - Opcodes.IFEQ];
+            v1 = pop();
+            v2 = newOperandConstant(IntLiteral.get(0));
+        } else if (Opcodes.IF_ICMPEQ <= opcode && opcode <= Opcodes.IF_ICMPLE) {
+            op = CONDITION_OPS[opcode - Opcodes.IF_ICMPEQ];
+            v2 = pop();
+            v1 = pop();
+        } else if (opcode == Opcodes.IF_ACMPEQ || opcode == Opcodes.IF_ACMPNE) {
+            op = opcode == Opcodes.IF_ACMPEQ ? ConditionExp.Op.EQ : ConditionExp.Op.NE;
+            v2 = pop();
+            v1 = pop();
+        } else if (opcode == Opcodes.IFNULL || opcode == Opcodes.IFNONNULL) {
+            op = opcode == Opcodes.IFNULL ? ConditionExp.Op.EQ : ConditionExp.Op.NE;
+            v1 = pop();
+            v2 = newOperandConstant(NullLiteral.get());
+        } else {
+            throw unknownInsn(insn);
+        }
+        terminator = () -> addJump(
+                new If(new ConditionExp(op, var(v1), var(v2))), target);
+    }
+
+    private void simulateTableSwitch(TableSwitchInsn insn) {
+        Local key = pop();
+        terminator = () -> addJump(
+                new TableSwitch(var(key), insn.min(), insn.max()),
+                positionOf(insn.dflt()), positionsOf(insn.labels()));
+    }
+
+    private void simulateLookupSwitch(LookupSwitchInsn insn) {
+        Local key = pop();
+        List<Integer> caseValues = Arrays.stream(insn.keys()).boxed().toList();
+        terminator = () -> addJump(new LookupSwitch(var(key), caseValues),
+                positionOf(insn.dflt()), positionsOf(insn.labels()));
+    }
+
+    private int[] positionsOf(Label[] labels) {
+        return Arrays.stream(labels).mapToInt(this::positionOf).toArray();
+    }
+
+    // ---------- Phase 4: type inference ----------
+
+    private void inferTypes() {
+        boolean changed = true;
+        for (int round = 0; changed && round < MAX_INFERENCE_ROUNDS; ++round) {
+            changed = false;
+            for (Local local : locals) {
+                if (local.fixedType != null || local.literal != null) {
+                    continue;
+                }
+                Type type = null;
+                for (Object source : local.typeSources) {
+                    type = join(type, evaluate(source), local.kind);
+                }
+                if (!Objects.equals(type, local.type)) {
+                    local.type = type;
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    @Nullable
+    private static Type evaluate(Object source) {
+        if (source instanceof Type type) {
+            return type;
+        } else if (source instanceof Local local) {
+            return local.literal != null ? local.literal.getType() :
+                    local.fixedType != null ? local.fixedType : local.type;
+        } else {
+            Type arrayType = evaluate(((ElementOf) source).array());
+            return arrayType instanceof ArrayType t ? t.elementType() : null;
+        }
+    }
+
+    @Nullable
+    private Type join(@Nullable Type t1, @Nullable Type t2, Kind kind) {
+        if (t1 == null) {
+            return t2;
+        } else if (t2 == null || t1.equals(t2)) {
+            return t1;
+        } else if (kind != Kind.REF) {
+            return defaultTypeOf(kind);
+        } else if (t1 instanceof NullType) {
+            return t2;
+        } else if (t2 instanceof NullType) {
+            return t1;
+        } else {
+            return joinReferenceTypes(t1, t2);
+        }
+    }
+
+    /**
+     * @return the least common supertype of {@code t1} and {@code t2},
+     * if it is a class or an array type; otherwise, {@code java.lang.Object}.
+     */
+    private Type joinReferenceTypes(Type t1, Type t2) {
+        if (isSubtype(t1, t2)) {
+            return t1;
+        } else if (isSubtype(t2, t1)) {
+            return t2;
+        } else if (t1 instanceof ArrayType a1 && t2 instanceof ArrayType a2
+                && a1.elementType() instanceof ReferenceType e1
+                && a2.elementType() instanceof ReferenceType e2) {
+            return converter.getArrayTypeOf(joinReferenceTypes(e1, e2));
+        } else if (t1 instanceof ClassType c1 && c1.getJClass() != null) {
+            for (JClass c = c1.getJClass().getSuperClass();
+                 c != null; c = c.getSuperClass()) {
+                if (isSubtype(c.getType(), t2)) {
+                    return c.getType();
+                }
+            }
+        }
+        return typeSystem.getClassType(ClassNames.OBJECT);
+    }
+
+    private boolean isSubtype(Type supertype, Type subtype) {
+        if (hasMissingClass(supertype) || hasMissingClass(subtype)) {
+            return supertype.equals(subtype);
+        }
+        return typeSystem.isSubtype(supertype, subtype);
+    }
+
+    private static boolean hasMissingClass(Type type) {
+        if (type instanceof ArrayType arrayType) {
+            type = arrayType.baseType();
+        }
+        return type instanceof ClassType classType && classType.getJClass() == null;
+    }
+
+    // ---------- Phase 4: emitting statements ----------
+
+    private final List<Var> vars = new ArrayList<>();
+
+    private final Set<String> varNames = Sets.newHybridSet();
+
+    private final Map<Literal, Var> constantVars = Maps.newHybridMap();
+
+    private Set<Var> returnVars;
+
+    private final List<Stmt> stmts = new ArrayList<>();
+
+    /**
+     * Jumps and their target positions, which are resolved after
+     * all statements are emitted.
+     */
+    private final List<Jump> jumps = new ArrayList<>();
+
+    private record Jump(Stmt stmt, int target, int[] targets) {
+    }
+
+    private int[] lineNumberAt;
+
+    /**
+     * Position of the op being emitted.
+     */
+    private int emitPos;
+
+    private int tempConstCounter = 0;
+
+    private int stackVarCounter = 0;
+
+    private IR emit() {
+        returnVars = method.getReturnType() == VOID ?
+                Set.of() : Sets.newLinkedSet();
+        Var thisVar = thisLocal == null ? null : var(thisLocal);
+        List<Var> params = Lists.map(paramLocals, this::var);
+        computeLineNumbers();
+        int n = insns.size();
+        int[] stmtIndexAt = new int[n + 1];
+        Arrays.fill(stmtIndexAt, -1);
+        for (Block b : blocks) {
+            if (b.entryStack == null) { // unreachable block
+                continue;
+            }
+            for (Op op : b.ops) {
+                emitPos = op.pos();
+                int index = stmts.size();
+                op.emitter().run();
+                if (stmts.size() > index && stmtIndexAt[op.pos()] == -1) {
+                    stmtIndexAt[op.pos()] = index;
+                }
+            }
+        }
+        // positions without statements are mapped to the next statement
+        stmtIndexAt[n] = stmts.size();
+        for (int i = n - 1; i >= 0; --i) {
+            if (stmtIndexAt[i] == -1) {
+                stmtIndexAt[i] = stmtIndexAt[i + 1];
+            }
+        }
+        List<ExceptionEntry> exceptionEntries = buildExceptionEntries(stmtIndexAt);
+        for (Jump jump : jumps) {
+            Stmt target = stmts.get(stmtIndexAt[jump.target()]);
+            if (jump.stmt() instanceof Goto gotoStmt) {
+                gotoStmt.setTarget(target);
+            } else if (jump.stmt() instanceof If ifStmt) {
+                ifStmt.setTarget(target);
+            } else {
+                SwitchStmt switchStmt = (SwitchStmt) jump.stmt();
+                switchStmt.setDefaultTarget(target);
+                switchStmt.setTargets(Arrays.stream(jump.targets())
+                        .mapToObj(p -> stmts.get(stmtIndexAt[p]))
+                        .toList());
+            }
+        }
+        return new DefaultIR(method, thisVar, params, returnVars,
+                vars, stmts, exceptionEntries);
+    }
+
+    private void computeLineNumbers() {
+        lineNumberAt = new int[insns.size()];
+        int line = -1;
+        for (int i = 0; i < insns.size(); ++i) {
+            if (insns.get(i) instanceof LabelInsn l) {
+                line = lineNumbers.getOrDefault(l.label(), line);
+            }
+            lineNumberAt[i] = line;
+        }
+    }
+
+    private List<ExceptionEntry> buildExceptionEntries(int[] stmtIndexAt) {
+        if (tryCatches.isEmpty()) {
+            return List.of();
+        }
+        List<ExceptionEntry> entries = new ArrayList<>(tryCatches.size());
+        for (TryCatch tc : tryCatches) {
+            int start = stmtIndexAt[positionOf(tc.start())];
+            int end = stmtIndexAt[positionOf(tc.end())];
+            if (start >= end) { // empty range
+                continue;
+            }
+            if (end == stmts.size()) {
+                // the try-block ends at the end of the method,
+                // thus we add a Nop as the (exclusive) end
+                emitPos = insns.size() - 1;
+                addStmt(new Nop());
+            }
+            Stmt handler = stmts.get(stmtIndexAt[positionOf(tc.handler())]);
+            if (handler instanceof Catch catchStmt) {
+                entries.add(new ExceptionEntry(stmts.get(start), stmts.get(end),
+                        catchStmt, getCatchType(tc)));
+            }
+        }
+        return entries;
+    }
+
+    private void addStmt(Stmt stmt) {
+        stmt.setLineNumber(lineNumberAt[emitPos]);
+        stmt.setIndex(stmts.size());
+        stmts.add(stmt);
+    }
+
+    private void addJump(Stmt stmt, int target, int... targets) {
+        addStmt(stmt);
+        jumps.add(new Jump(stmt, target, targets));
+    }
+
+    /**
+     * @return a variable whose type is an array type, for accessing
+     * the array held by {@code array}. If the type of the variable of
+     * {@code array} is not an array type (e.g., the inferred type is
+     * {@code java.lang.Object}), a cast is added.
+     */
+    private Var getArrayBase(Local array, ArrayType expectedType) {
+        Var base = var(array);
+        if (base.getType() instanceof ArrayType) {
+            return base;
+        }
+        Var cast = newVar(STACK + stackVarCounter++, expectedType, null);
+        addStmt(new Cast(cast, new CastExp(base, expectedType)));
+        return cast;
+    }
+
+    private Var var(Local local) {
+        while (local.alias != null) {
+            local = local.alias;
+        }
+        if (local.literal != null) {
+            return getConstantVar(local.literal);
+        }
+        if (local.var == null) {
+            Type type = local.fixedType != null ? local.fixedType : local.type;
+            if (type == null || type instanceof NullType) {
+                type = local.kind == Kind.REF ?
+                        typeSystem.getClassType(ClassNames.OBJECT) :
+                        defaultTypeOf(local.kind);
+            }
+            String name = local.slot >= 0 ?
+                    Objects.requireNonNullElse(local.name, "l" + local.slot) :
+                    STACK + stackVarCounter++;
+            local.var = newVar(name, type, null);
+        }
+        return local.var;
+    }
+
+    /**
+     * @return the variable that holds the given constant.
+     */
+    private Var getConstantVar(Literal literal) {
+        return constantVars.computeIfAbsent(literal, l -> {
+            String name;
+            if (l instanceof StringLiteral) {
+                name = STRING_CONSTANT + tempConstCounter++;
+            } else if (l instanceof ClassLiteral) {
+                name = CLASS_CONSTANT + tempConstCounter++;
+            } else if (l instanceof NullLiteral) {
+                name = NULL_CONSTANT;
+            } else {
+                name = "%" + l.getType().getName() + "const" + tempConstCounter++;
+            }
+            return newVar(name, l.getType(), l);
+        });
+    }
+
+    private Var newVar(String name, Type type, @Nullable Literal literal) {
+        // ensure unique variable names, as a slot may hold
+        // variables of different kinds
+        String uniqueName = name;
+        for (int i = 1; !varNames.add(uniqueName); ++i) {
+            uniqueName = name + "#" + i;
+        }
+        Var var = new Var(method, uniqueName, type, vars.size(), literal);
+        vars.add(var);
+        return var;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.asm;
+
+import pascal.taie.language.classes.Modifier;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.objectweb.asm.Opcodes.ACC_ABSTRACT;
+import static org.objectweb.asm.Opcodes.ACC_ANNOTATION;
+import static org.objectweb.asm.Opcodes.ACC_BRIDGE;
+import static org.objectweb.asm.Opcodes.ACC_ENUM;
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_INTERFACE;
+import static org.objectweb.asm.Opcodes.ACC_NATIVE;
+import static org.objectweb.asm.Opcodes.ACC_PRIVATE;
+import static org.objectweb.asm.Opcodes.ACC_PROTECTED;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_STATIC;
+import static org.objectweb.asm.Opcodes.ACC_STRICT;
+import static org.objectweb.asm.Opcodes.ACC_SYNCHRONIZED;
+import static org.objectweb.asm.Opcodes.ACC_SYNTHETIC;
+import static org.objectweb.asm.Opcodes.ACC_TRANSIENT;
+import static org.objectweb.asm.Opcodes.ACC_VARARGS;
+import static org.objectweb.asm.Opcodes.ACC_VOLATILE;
+import static pascal.taie.util.collection.Maps.newConcurrentMap;
+
+/**
+ * Converts access flags in class files to {@link Modifier}s.
+ * Some access flags share the same bit (e.g., {@code ACC_VOLATILE} and
+ * {@code ACC_BRIDGE}), thus the conversion depends on whether the flags
+ * belong to a class, a field or a method.
+ */
+class Modifiers {
+
+    private static final ConcurrentMap<Integer, Set<Modifier>> classModMap
+            = newConcurrentMap();
+
+    private static final ConcurrentMap<Integer, Set<Modifier>> fieldModMap
+            = newConcurrentMap();
+
+    private static final ConcurrentMap<Integer, Set<Modifier>> methodModMap
+            = newConcurrentMap();
+
+    private Modifiers() {
+    }
+
+    static Set<Modifier> convertClass(int access) {
+        return classModMap.computeIfAbsent(access, a -> {
+            Set<Modifier> result = convertCommon(a);
+            add(result, a, ACC_INTERFACE, Modifier.INTERFACE);
+            add(result, a, ACC_ABSTRACT, Modifier.ABSTRACT);
+            add(result, a, ACC_ANNOTATION, Modifier.ANNOTATION);
+            add(result, a, ACC_ENUM, Modifier.ENUM);
+            return Collections.unmodifiableSet(result);
+        });
+    }
+
+    static Set<Modifier> convertField(int access) {
+        return fieldModMap.computeIfAbsent(access, a -> {
+            Set<Modifier> result = convertCommon(a);
+            add(result, a, ACC_VOLATILE, Modifier.VOLATILE);
+            add(result, a, ACC_TRANSIENT, Modifier.TRANSIENT);
+            add(result, a, ACC_ENUM, Modifier.ENUM);
+            return Collections.unmodifiableSet(result);
+        });
+    }
+
+    static Set<Modifier> convertMethod(int access) {
+        return methodModMap.computeIfAbsent(access, a -> {
+            Set<Modifier> result = convertCommon(a);
+            add(result, a, ACC_SYNCHRONIZED, Modifier.SYNCHRONIZED);
+            add(result, a, ACC_BRIDGE, Modifier.BRIDGE);
+            add(result, a, ACC_VARARGS, Modifier.VARARGS);
+            add(result, a, ACC_NATIVE, Modifier.NATIVE);
+            add(result, a, ACC_ABSTRACT, Modifier.ABSTRACT);
+            add(result, a, ACC_STRICT, Modifier.STRICTFP);
+            return Collections.unmodifiableSet(result);
+        });
+    }
+
+    private static Set<Modifier> convertCommon(int access) {
+        Set<Modifier> result = EnumSet.noneOf(Modifier.class);
+        add(result, access, ACC_PUBLIC, Modifier.PUBLIC);
+        add(result, access, ACC_PRIVATE, Modifier.PRIVATE);
+        add(result, access, ACC_PROTECTED, Modifier.PROTECTED);
+        add(result, access, ACC_STATIC, Modifier.STATIC);
+        add(result, access, ACC_FINAL, Modifier.FINAL);
+        add(result, access, ACC_SYNTHETIC, Modifier.SYNTHETIC);
+        return result;
+    }
+
+    private static void add(Set<Modifier> result, int access,
+                            int flag, Modifier modifier) {
+        if ((access & flag) != 0) {
+            result.add(modifier);
+        }
+    }
+}
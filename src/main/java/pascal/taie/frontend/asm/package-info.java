@@ -21,6 +21,8 @@
  */
 
 /**
- * TODO: We'll add another frontend implemented based on ASM
+ * Frontend that builds Tai-e's program representation directly from
+ * class files by ASM, without Soot.
+ * See {@link pascal.taie.frontend.asm.AsmWorldBuilder}.
  */
 package pascal.taie.frontend.asm;
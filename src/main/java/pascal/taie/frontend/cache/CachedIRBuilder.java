@@ -29,6 +29,7 @@ import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
 
+import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -37,11 +38,23 @@ import java.util.stream.Collectors;
  * The {@link pascal.taie.ir.IRBuilder} is for keeping the {@link IR}s of all methods to
  * prevent cyclic references with too long a path which may make
  * the serialization fail or {@link java.lang.StackOverflowError}.
+ * <p>
+ * When the world is loaded from a world cache, this builder decodes
+ * the IR of each method from its record in the cache on demand, i.e.,
+ * when {@link JMethod#getIR()} is called for the first time, so that
+ * the IRs of the methods that are never used are not loaded.
  */
 public class CachedIRBuilder implements IRBuilder {
 
     private final Map<String, IR> methodSig2IR;
 
+    /**
+     * IR records of world cache, or {@code null} if the IRs
+     * are held by {@link #methodSig2IR}.
+     */
+    @Nullable
+    private final transient WorldCache.IRRecords records;
+
     public CachedIRBuilder(IRBuilder irBuilder, ClassHierarchy hierarchy) {
         irBuilder.buildAll(hierarchy);
         methodSig2IR = hierarchy.allClasses()
@@ -49,6 +62,12 @@ public class CachedIRBuilder implements IRBuilder {
                 .flatMap(Collection::stream)
                 .filter(m -> !m.isAbstract() || m.isNative())
                 .collect(Collectors.toMap(JMethod::getSignature, JMethod::getIR));
+        records = null;
+    }
+
+    CachedIRBuilder(WorldCache.IRRecords records) {
+        this.methodSig2IR = Map.of();
+        this.records = records;
     }
 
     /**
@@ -57,11 +76,17 @@ public class CachedIRBuilder implements IRBuilder {
      */
     @Override
     public IR buildIR(JMethod method) {
+        if (records != null) {
+            return records.decode(method);
+        }
         return methodSig2IR.remove(method.getSignature());
     }
 
     @Override
     public void buildAll(ClassHierarchy hierarchy) {
+        if (records != null) {
+            records.decodeAll();
+        }
         hierarchy.allClasses()
                 .map(JClass::getDeclaredMethods)
                 .flatMap(Collection::stream)
@@ -30,14 +30,7 @@ import pascal.taie.config.AnalysisConfig;
 import pascal.taie.config.Options;
 import pascal.taie.util.Timer;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -64,15 +57,17 @@ public class CachedWorldBuilder implements WorldBuilder {
                     + " but world cache mode option is not enabled");
             System.exit(-1);
         }
-        File worldCacheFile = getWorldCacheFile(options);
-        if (loadCache(options, worldCacheFile)) {
+        String fingerprint = WorldCache.getFingerprint(options);
+        File worldCacheFile = getWorldCacheFile(fingerprint);
+        if (loadCache(options, worldCacheFile, fingerprint)) {
             return;
         }
         runWorldBuilder(options, analyses);
-        saveCache(worldCacheFile);
+        saveCache(worldCacheFile, fingerprint);
     }
 
-    private boolean loadCache(Options options, File worldCacheFile) {
+    private boolean loadCache(Options options, File worldCacheFile,
+                              String fingerprint) {
         if (!worldCacheFile.exists()) {
             logger.info("World cache not found in {}", worldCacheFile);
             return false;
@@ -80,25 +75,21 @@ public class CachedWorldBuilder implements WorldBuilder {
         logger.info("Loading the world cache from {}", worldCacheFile);
         Timer timer = new Timer("Load the world cache");
         timer.start();
-        ObjectInputStream ois = null;
         try {
-            ois = new ObjectInputStream(
-                    new BufferedInputStream(new FileInputStream(worldCacheFile)));
-            World world = (World) ois.readObject();
-            World.set(world);
-            world.setOptions(options);
-            return true;
+            if (WorldCache.load(worldCacheFile, fingerprint)) {
+                World.get().setOptions(options);
+                if (options.isPreBuildDispatch()) {
+                    // dispatch tables are not cached
+                    World.get().getClassHierarchy().buildDispatchTables();
+                }
+                return true;
+            }
+            logger.info("World cache {} is outdated", worldCacheFile);
         } catch (Exception e) {
             logger.error("Failed to load world cache from {} due to {}",
                     worldCacheFile, e);
+            World.reset();
         } finally {
-            if (ois != null) {
-                try {
-                    ois.close();
-                } catch (Exception e) {
-                    logger.error("Failed to close input stream", e);
-                }
-            }
             timer.stop();
             logger.info(timer);
         }
@@ -114,62 +105,36 @@ public class CachedWorldBuilder implements WorldBuilder {
         logger.info(timer);
     }
 
-    private void saveCache(File worldCacheFile) {
+    private void saveCache(File worldCacheFile, String fingerprint) {
         logger.info("Saving the world cache to {}", worldCacheFile);
         Timer timer = new Timer("Save the world cache");
         timer.start();
-        ObjectOutputStream oos = null;
         try {
-            oos = new ObjectOutputStream(
-                    new BufferedOutputStream(new FileOutputStream(worldCacheFile)));
-            oos.writeObject(World.get());
-            oos.close();
+            WorldCache.save(World.get(), worldCacheFile, fingerprint);
         } catch (Exception e) {
-            logger.error("Failed to save world cache from {} due to {}",
+            logger.error("Failed to save world cache to {} due to {}",
                     worldCacheFile, e);
+            worldCacheFile.delete();
         } finally {
-            if (oos != null) {
-                try {
-                    oos.close();
-                } catch (Exception e) {
-                    logger.error("Failed to close output stream", e);
-                }
-            }
             timer.stop();
             logger.info(timer);
         }
     }
 
     public static File getWorldCacheFile(Options options) {
+        return getWorldCacheFile(WorldCache.getFingerprint(options));
+    }
+
+    /**
+     * The cache file is named after the fingerprint of the world, and
+     * the full fingerprint is also checked when loading the cache.
+     */
+    private static File getWorldCacheFile(String fingerprint) {
         File cacheDir = new File(CACHE_DIR);
         if (!cacheDir.exists()) {
             cacheDir.mkdirs();
         }
-        return new File(cacheDir,
-                "world-cache-" + getWorldCacheHash(options) + ".bin").getAbsoluteFile();
-    }
-
-    private static int getWorldCacheHash(Options options) {
-        int result = options.getMainClass() != null
-                ? options.getMainClass().hashCode() : 0;
-        result = 31 * result + (options.getInputClasses() != null
-                ? options.getInputClasses().hashCode() : 0);
-        result = 31 * result + options.getJavaVersion();
-        result = 31 * result + (options.isPrependJVM() ? 1 : 0);
-        result = 31 * result + (options.isAllowPhantom() ? 1 : 0);
-        result = 31 * result + (options.getWorldBuilderClass() != null
-                ? options.getWorldBuilderClass().getName().hashCode() : 0);
-        // add the timestamp to the cache key calculation
-        List<String> paths = new ArrayList<>();
-        paths.addAll(options.getClassPath());
-        paths.addAll(options.getAppClassPath());
-        for (String path : paths) {
-            File file = new File(path);
-            if (file.exists()) {
-                result = 31 * result + (int) file.lastModified();
-            }
-        }
-        result = Math.abs(result);
-        return result;
+        return new File(cacheDir, "world-cache-"
+                + fingerprint.substring(0, 16) + ".bin").getAbsoluteFile();
     }
 }
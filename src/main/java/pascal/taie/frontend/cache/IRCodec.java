@@ -0,0 +1,823 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.frontend.cache;
+
+import pascal.taie.World;
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ArrayAccess;
+import pascal.taie.ir.exp.ArrayLengthExp;
+import pascal.taie.ir.exp.BinaryExp;
+import pascal.taie.ir.exp.BitwiseExp;
+import pascal.taie.ir.exp.CastExp;
+import pascal.taie.ir.exp.ClassLiteral;
+import pascal.taie.ir.exp.ComparisonExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.DoubleLiteral;
+import pascal.taie.ir.exp.FieldAccess;
+import pascal.taie.ir.exp.FloatLiteral;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.InstanceOfExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.InvokeDynamic;
+import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.InvokeInstanceExp;
+import pascal.taie.ir.exp.InvokeInterface;
+import pascal.taie.ir.exp.InvokeSpecial;
+import pascal.taie.ir.exp.InvokeStatic;
+import pascal.taie.ir.exp.InvokeVirtual;
+import pascal.taie.ir.exp.Literal;
+import pascal.taie.ir.exp.LongLiteral;
+import pascal.taie.ir.exp.MethodHandle;
+import pascal.taie.ir.exp.MethodType;
+import pascal.taie.ir.exp.NegExp;
+import pascal.taie.ir.exp.NewArray;
+import pascal.taie.ir.exp.NewExp;
+import pascal.taie.ir.exp.NewInstance;
+import pascal.taie.ir.exp.NewMultiArray;
+import pascal.taie.ir.exp.NullLiteral;
+import pascal.taie.ir.exp.ShiftExp;
+import pascal.taie.ir.exp.StaticFieldAccess;
+import pascal.taie.ir.exp.StringLiteral;
+import pascal.taie.ir.exp.UnaryExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.proginfo.ExceptionEntry;
+import pascal.taie.ir.proginfo.FieldRef;
+import pascal.taie.ir.proginfo.MemberRef;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.Catch;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.InstanceOf;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.LookupSwitch;
+import pascal.taie.ir.stmt.Monitor;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Nop;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.ir.stmt.SwitchStmt;
+import pascal.taie.ir.stmt.TableSwitch;
+import pascal.taie.ir.stmt.Throw;
+import pascal.taie.ir.stmt.Unary;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ArrayType;
+import pascal.taie.language.type.BottomType;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.NullType;
+import pascal.taie.language.type.ReferenceType;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.language.type.VoidType;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Encodes and decodes the IR of a method as a record of world cache.
+ * A record consists of:
+ * <pre>
+ * types:   t, type name * t
+ * vars:    v, (name, type, has-const, [const value]) * v
+ * this:    var or -1
+ * params:  p, var * p
+ * returns: r, var * r
+ * stmts:   s, (line number, kind, operands) * s
+ * entries: e, (start, end, handler, catch type) * e
+ * </pre>
+ * In a record, types are referred by their indexes in the type table
+ * of the record, variables and statements by their indexes in the IR,
+ * and method and field references by their indexes in the reference
+ * table of the cache file. The targets of jump statements are set after
+ * all statements of the record are decoded, as they may refer to the
+ * statements that appear later.
+ * <p>
+ * The encoding only supports the IR built by the frontends, i.e.,
+ * the variables and statements belong to the method of the IR,
+ * and encoding other IR fails with {@link IOException}.
+ */
+final class IRCodec {
+
+    // statement kinds
+    private static final byte NEW = 0;
+    private static final byte ASSIGN_LITERAL = 1;
+    private static final byte COPY = 2;
+    private static final byte LOAD_ARRAY = 3;
+    private static final byte STORE_ARRAY = 4;
+    private static final byte LOAD_FIELD = 5;
+    private static final byte STORE_FIELD = 6;
+    private static final byte BINARY = 7;
+    private static final byte UNARY = 8;
+    private static final byte INSTANCE_OF = 9;
+    private static final byte CAST = 10;
+    private static final byte GOTO = 11;
+    private static final byte IF = 12;
+    private static final byte TABLE_SWITCH = 13;
+    private static final byte LOOKUP_SWITCH = 14;
+    private static final byte INVOKE = 15;
+    private static final byte RETURN = 16;
+    private static final byte THROW = 17;
+    private static final byte CATCH = 18;
+    private static final byte MONITOR = 19;
+    private static final byte NOP = 20;
+
+    // expression kinds, which are written when a statement
+    // (or literal) allows more than one kind of expressions
+    private static final byte NEW_INSTANCE = 0;
+    private static final byte NEW_ARRAY = 1;
+    private static final byte NEW_MULTI_ARRAY = 2;
+
+    private static final byte ARITHMETIC = 0;
+    private static final byte BITWISE = 1;
+    private static final byte COMPARISON = 2;
+    private static final byte SHIFT = 3;
+
+    private static final byte NEG = 0;
+    private static final byte ARRAY_LENGTH = 1;
+
+    private static final byte INVOKE_VIRTUAL = 0;
+    private static final byte INVOKE_INTERFACE = 1;
+    private static final byte INVOKE_SPECIAL = 2;
+    private static final byte INVOKE_STATIC = 3;
+    private static final byte INVOKE_DYNAMIC = 4;
+
+    private static final byte INT_LITERAL = 0;
+    private static final byte LONG_LITERAL = 1;
+    private static final byte FLOAT_LITERAL = 2;
+    private static final byte DOUBLE_LITERAL = 3;
+    private static final byte STRING_LITERAL = 4;
+    private static final byte CLASS_LITERAL = 5;
+    private static final byte NULL_LITERAL = 6;
+    private static final byte METHOD_HANDLE = 7;
+    private static final byte METHOD_TYPE = 8;
+
+    /**
+     * Index of absent variables, e.g., {@code this} of static methods.
+     */
+    private static final int NO_VAR = -1;
+
+    private IRCodec() {
+    }
+
+    /**
+     * Writes {@code ir} to {@code out} as a record.
+     */
+    static void encode(IR ir, WorldCache.RefTableBuilder refTable,
+                       DataOutputStream out) throws IOException {
+        // the body is encoded first to collect the types in the record
+        Encoder encoder = new Encoder(ir, refTable);
+        encoder.encode();
+        out.writeInt(encoder.types.size());
+        for (Type type : encoder.types.keySet()) {
+            out.writeUTF(type.getName());
+        }
+        encoder.body.writeTo(out);
+    }
+
+    /**
+     * Reads the IR of {@code method} from {@code in}.
+     */
+    static IR decode(JMethod method, WorldCache.RefTable refTable,
+                     DataInputStream in) throws IOException {
+        return new Decoder(method, refTable, in).decode();
+    }
+
+    private static class Encoder {
+
+        private final IR ir;
+
+        private final WorldCache.RefTableBuilder refTable;
+
+        /**
+         * Types in the record and their indexes.
+         */
+        private final Map<Type, Integer> types = Maps.newLinkedHashMap();
+
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        private final DataOutputStream out = new DataOutputStream(body);
+
+        private Encoder(IR ir, WorldCache.RefTableBuilder refTable) {
+            this.ir = ir;
+            this.refTable = refTable;
+        }
+
+        private void encode() throws IOException {
+            out.writeInt(ir.getVars().size());
+            for (int i = 0; i < ir.getVars().size(); ++i) {
+                Var var = ir.getVar(i);
+                if (var.getIndex() != i || var.getMethod() != ir.getMethod()) {
+                    throw new IOException("Unsupported variable " + var
+                            + " in " + ir.getMethod());
+                }
+                out.writeUTF(var.getName());
+                writeType(var.getType());
+                out.writeBoolean(var.isConst());
+                if (var.isConst()) {
+                    writeLiteral(var.getConstValue());
+                }
+            }
+            writeNullableVar(ir.getThis());
+            writeVars(ir.getParams());
+            writeVars(ir.getReturnVars());
+            out.writeInt(ir.getStmts().size());
+            for (int i = 0; i < ir.getStmts().size(); ++i) {
+                Stmt stmt = ir.getStmt(i);
+                if (stmt.getIndex() != i) {
+                    throw new IOException("Unsupported statement " + stmt
+                            + " in " + ir.getMethod());
+                }
+                out.writeInt(stmt.getLineNumber());
+                writeStmt(stmt);
+            }
+            out.writeInt(ir.getExceptionEntries().size());
+            for (ExceptionEntry entry : ir.getExceptionEntries()) {
+                writeStmtIndex(entry.start());
+                writeStmtIndex(entry.end());
+                writeStmtIndex(entry.handler());
+                writeType(entry.catchType());
+            }
+        }
+
+        private void writeStmt(Stmt stmt) throws IOException {
+            if (stmt instanceof New s) {
+                checkContainer(s, s.getContainer());
+                out.writeByte(NEW);
+                writeVar(s.getLValue());
+                NewExp exp = s.getRValue();
+                if (exp instanceof NewInstance e) {
+                    out.writeByte(NEW_INSTANCE);
+                    writeType(e.getType());
+                } else if (exp instanceof NewArray e) {
+                    out.writeByte(NEW_ARRAY);
+                    writeType(e.getType());
+                    writeVar(e.getLength());
+                } else {
+                    NewMultiArray e = (NewMultiArray) exp;
+                    out.writeByte(NEW_MULTI_ARRAY);
+                    writeType(e.getType());
+                    writeVars(e.getLengths());
+                }
+            } else if (stmt instanceof AssignLiteral s) {
+                out.writeByte(ASSIGN_LITERAL);
+                writeVar(s.getLValue());
+                writeLiteral(s.getRValue());
+            } else if (stmt instanceof Copy s) {
+                out.writeByte(COPY);
+                writeVar(s.getLValue());
+                writeVar(s.getRValue());
+            } else if (stmt instanceof LoadArray s) {
+                out.writeByte(LOAD_ARRAY);
+                writeVar(s.getLValue());
+                writeArrayAccess(s.getArrayAccess());
+            } else if (stmt instanceof StoreArray s) {
+                out.writeByte(STORE_ARRAY);
+                writeArrayAccess(s.getArrayAccess());
+                writeVar(s.getRValue());
+            } else if (stmt instanceof LoadField s) {
+                out.writeByte(LOAD_FIELD);
+                writeVar(s.getLValue());
+                writeFieldAccess(s.getFieldAccess());
+            } else if (stmt instanceof StoreField s) {
+                out.writeByte(STORE_FIELD);
+                writeFieldAccess(s.getFieldAccess());
+                writeVar(s.getRValue());
+            } else if (stmt instanceof Binary s) {
+                out.writeByte(BINARY);
+                writeVar(s.getLValue());
+                writeBinaryExp(s.getRValue());
+            } else if (stmt instanceof Unary s) {
+                out.writeByte(UNARY);
+                writeVar(s.getLValue());
+                UnaryExp exp = s.getRValue();
+                if (exp instanceof NegExp e) {
+                    out.writeByte(NEG);
+                    writeVar(e.getValue());
+                } else {
+                    out.writeByte(ARRAY_LENGTH);
+                    writeVar(((ArrayLengthExp) exp).getBase());
+                }
+            } else if (stmt instanceof InstanceOf s) {
+                out.writeByte(INSTANCE_OF);
+                writeVar(s.getLValue());
+                writeVar(s.getRValue().getValue());
+                writeType(s.getRValue().getCheckedType());
+            } else if (stmt instanceof Cast s) {
+                out.writeByte(CAST);
+                writeVar(s.getLValue());
+                writeVar(s.getRValue().getValue());
+                writeType(s.getRValue().getCastType());
+            } else if (stmt instanceof Goto s) {
+                out.writeByte(GOTO);
+                writeStmtIndex(s.getTarget());
+            } else if (stmt instanceof If s) {
+                out.writeByte(IF);
+                ConditionExp cond = s.getCondition();
+                out.writeByte(cond.getOperator().ordinal());
+                writeVar(cond.getOperand1());
+                writeVar(cond.getOperand2());
+                writeStmtIndex(s.getTarget());
+            } else if (stmt instanceof TableSwitch s) {
+                out.writeByte(TABLE_SWITCH);
+                writeVar(s.getVar());
+                out.writeInt(s.getLowIndex());
+                out.writeInt(s.getHighIndex());
+                writeSwitchTargets(s);
+            } else if (stmt instanceof LookupSwitch s) {
+                out.writeByte(LOOKUP_SWITCH);
+                writeVar(s.getVar());
+                out.writeInt(s.getCaseValues().size());
+                for (int caseValue : s.getCaseValues()) {
+                    out.writeInt(caseValue);
+                }
+                writeSwitchTargets(s);
+            } else if (stmt instanceof Invoke s) {
+                checkContainer(s, s.getContainer());
+                out.writeByte(INVOKE);
+                writeNullableVar(s.getResult());
+                writeInvokeExp(s.getInvokeExp());
+            } else if (stmt instanceof Return s) {
+                out.writeByte(RETURN);
+                writeNullableVar(s.getValue());
+            } else if (stmt instanceof Throw s) {
+                out.writeByte(THROW);
+                writeVar(s.getExceptionRef());
+            } else if (stmt instanceof Catch s) {
+                out.writeByte(CATCH);
+                writeVar(s.getExceptionRef());
+            } else if (stmt instanceof Monitor s) {
+                out.writeByte(MONITOR);
+                out.writeBoolean(s.isEnter());
+                writeVar(s.getObjectRef());
+            } else if (stmt instanceof Nop) {
+                out.writeByte(NOP);
+            } else {
+                throw new IOException("Unsupported statement " + stmt
+                        + " in " + ir.getMethod());
+            }
+        }
+
+        private void checkContainer(Stmt stmt, JMethod container)
+                throws IOException {
+            if (container != ir.getMethod()) {
+                throw new IOException("Unsupported statement " + stmt
+                        + " of " + container + " in " + ir.getMethod());
+            }
+        }
+
+        private void writeArrayAccess(ArrayAccess access) throws IOException {
+            writeVar(access.getBase());
+            writeVar(access.getIndex());
+        }
+
+        private void writeFieldAccess(FieldAccess access) throws IOException {
+            writeRef(access.getFieldRef());
+            if (access instanceof InstanceFieldAccess e) {
+                out.writeBoolean(true);
+                writeVar(e.getBase());
+            } else {
+                out.writeBoolean(false);
+            }
+        }
+
+        private void writeBinaryExp(BinaryExp exp) throws IOException {
+            if (exp instanceof ArithmeticExp e) {
+                out.writeByte(ARITHMETIC);
+                out.writeByte(e.getOperator().ordinal());
+            } else if (exp instanceof BitwiseExp e) {
+                out.writeByte(BITWISE);
+                out.writeByte(e.getOperator().ordinal());
+            } else if (exp instanceof ComparisonExp e) {
+                out.writeByte(COMPARISON);
+                out.writeByte(e.getOperator().ordinal());
+            } else if (exp instanceof ShiftExp e) {
+                out.writeByte(SHIFT);
+                out.writeByte(e.getOperator().ordinal());
+            } else {
+                throw new IOException("Unsupported expression " + exp
+                        + " in " + ir.getMethod());
+            }
+            writeVar(exp.getOperand1());
+            writeVar(exp.getOperand2());
+        }
+
+        private void writeInvokeExp(InvokeExp exp) throws IOException {
+            if (exp instanceof InvokeDynamic e) {
+                out.writeByte(INVOKE_DYNAMIC);
+                writeRef(e.getBootstrapMethodRef());
+                out.writeUTF(e.getMethodName());
+                writeMethodType(e.getMethodType());
+                out.writeInt(e.getBootstrapArgs().size());
+                for (Literal arg : e.getBootstrapArgs()) {
+                    writeLiteral(arg);
+                }
+            } else {
+                if (exp instanceof InvokeVirtual) {
+                    out.writeByte(INVOKE_VIRTUAL);
+                } else if (exp instanceof InvokeInterface) {
+                    out.writeByte(INVOKE_INTERFACE);
+                } else if (exp instanceof InvokeSpecial) {
+                    out.writeByte(INVOKE_SPECIAL);
+                } else {
+                    out.writeByte(INVOKE_STATIC);
+                }
+                writeRef(exp.getMethodRef());
+                if (exp instanceof InvokeInstanceExp e) {
+                    writeVar(e.getBase());
+                }
+            }
+            writeVars(exp.getArgs());
+        }
+
+        private void writeSwitchTargets(SwitchStmt stmt) throws IOException {
+            for (Stmt target : stmt.getTargets()) {
+                writeStmtIndex(target);
+            }
+            writeStmtIndex(stmt.getDefaultTarget());
+        }
+
+        private void writeLiteral(Literal literal) throws IOException {
+            if (literal instanceof IntLiteral l) {
+                out.writeByte(INT_LITERAL);
+                out.writeInt(l.getValue());
+            } else if (literal instanceof LongLiteral l) {
+                out.writeByte(LONG_LITERAL);
+                out.writeLong(l.getValue());
+            } else if (literal instanceof FloatLiteral l) {
+                out.writeByte(FLOAT_LITERAL);
+                out.writeFloat(l.getValue());
+            } else if (literal instanceof DoubleLiteral l) {
+                out.writeByte(DOUBLE_LITERAL);
+                out.writeDouble(l.getValue());
+            } else if (literal instanceof StringLiteral l) {
+                out.writeByte(STRING_LITERAL);
+                out.writeUTF(l.getString());
+            } else if (literal instanceof ClassLiteral l) {
+                out.writeByte(CLASS_LITERAL);
+                writeType(l.getTypeValue());
+            } else if (literal instanceof NullLiteral) {
+                out.writeByte(NULL_LITERAL);
+            } else if (literal instanceof MethodHandle l) {
+                out.writeByte(METHOD_HANDLE);
+                out.writeByte(l.getKind().ordinal());
+                writeRef(l.isMethodRef() ? l.getMethodRef() : l.getFieldRef());
+            } else if (literal instanceof MethodType l) {
+                out.writeByte(METHOD_TYPE);
+                writeMethodType(l);
+            } else {
+                throw new IOException("Unsupported literal " + literal
+                        + " in " + ir.getMethod());
+            }
+        }
+
+        private void writeMethodType(MethodType methodType) throws IOException {
+            out.writeInt(methodType.getParamTypes().size());
+            for (Type paramType : methodType.getParamTypes()) {
+                writeType(paramType);
+            }
+            writeType(methodType.getReturnType());
+        }
+
+        private void writeType(Type type) throws IOException {
+            Integer index = types.get(type);
+            if (index == null) {
+                index = types.size();
+                types.put(type, index);
+            }
+            out.writeInt(index);
+        }
+
+        private void writeRef(MemberRef ref) throws IOException {
+            out.writeInt(refTable.getIndex(ref));
+        }
+
+        private void writeVar(Var var) throws IOException {
+            out.writeInt(var.getIndex());
+        }
+
+        private void writeNullableVar(Var var) throws IOException {
+            out.writeInt(var != null ? var.getIndex() : NO_VAR);
+        }
+
+        private void writeVars(List<Var> vars) throws IOException {
+            out.writeInt(vars.size());
+            for (Var var : vars) {
+                writeVar(var);
+            }
+        }
+
+        private void writeStmtIndex(Stmt stmt) throws IOException {
+            out.writeInt(stmt.getIndex());
+        }
+    }
+
+    private static class Decoder {
+
+        private final JMethod method;
+
+        private final WorldCache.RefTable refTable;
+
+        private final DataInputStream in;
+
+        private final TypeSystem typeSystem = World.get().getTypeSystem();
+
+        private Type[] types;
+
+        private Var[] vars;
+
+        private Stmt[] stmts;
+
+        /**
+         * Setters of the targets of jump statements,
+         * which run after all statements are decoded.
+         */
+        private final List<Runnable> targetSetters = new ArrayList<>();
+
+        private Decoder(JMethod method, WorldCache.RefTable refTable,
+                        DataInputStream in) {
+            this.method = method;
+            this.refTable = refTable;
+            this.in = in;
+        }
+
+        private IR decode() throws IOException {
+            types = new Type[in.readInt()];
+            for (int i = 0; i < types.length; ++i) {
+                types[i] = resolveType(in.readUTF());
+            }
+            vars = new Var[in.readInt()];
+            for (int i = 0; i < vars.length; ++i) {
+                String name = in.readUTF();
+                Type type = readType();
+                Literal constValue = in.readBoolean() ? readLiteral() : null;
+                vars[i] = new Var(method, name, type, i, constValue);
+            }
+            Var thisVar = readNullableVar();
+            List<Var> params = readVars();
+            Set<Var> returnVars = Sets.newLinkedSet();
+            returnVars.addAll(readVars());
+            stmts = new Stmt[in.readInt()];
+            for (int i = 0; i < stmts.length; ++i) {
+                int lineNumber = in.readInt();
+                Stmt stmt = readStmt();
+                stmt.setLineNumber(lineNumber);
+                stmt.setIndex(i);
+                stmts[i] = stmt;
+            }
+            targetSetters.forEach(Runnable::run);
+            List<ExceptionEntry> entries = new ArrayList<>();
+            int n = in.readInt();
+            for (int i = 0; i < n; ++i) {
+                entries.add(new ExceptionEntry(stmts[in.readInt()],
+                        stmts[in.readInt()], (Catch) stmts[in.readInt()],
+                        (ClassType) readType()));
+            }
+            return new DefaultIR(method, thisVar, params, returnVars,
+                    List.of(vars), List.of(stmts), entries);
+        }
+
+        private Stmt readStmt() throws IOException {
+            byte kind = in.readByte();
+            return switch (kind) {
+                case NEW -> {
+                    Var lvalue = readVar();
+                    NewExp exp = switch (in.readByte()) {
+                        case NEW_INSTANCE -> new NewInstance((ClassType) readType());
+                        case NEW_ARRAY -> new NewArray((ArrayType) readType(), readVar());
+                        case NEW_MULTI_ARRAY -> new NewMultiArray(
+                                (ArrayType) readType(), readVars());
+                        default -> throw new IOException("Invalid new expression");
+                    };
+                    yield new New(method, lvalue, exp);
+                }
+                case ASSIGN_LITERAL -> new AssignLiteral(readVar(), readLiteral());
+                case COPY -> new Copy(readVar(), readVar());
+                case LOAD_ARRAY -> new LoadArray(readVar(),
+                        new ArrayAccess(readVar(), readVar()));
+                case STORE_ARRAY -> new StoreArray(
+                        new ArrayAccess(readVar(), readVar()), readVar());
+                case LOAD_FIELD -> new LoadField(readVar(), readFieldAccess());
+                case STORE_FIELD -> new StoreField(readFieldAccess(), readVar());
+                case BINARY -> new Binary(readVar(), readBinaryExp());
+                case UNARY -> {
+                    Var lvalue = readVar();
+                    UnaryExp exp = switch (in.readByte()) {
+                        case NEG -> new NegExp(readVar());
+                        case ARRAY_LENGTH -> new ArrayLengthExp(readVar());
+                        default -> throw new IOException("Invalid unary expression");
+                    };
+                    yield new Unary(lvalue, exp);
+                }
+                case INSTANCE_OF -> new InstanceOf(readVar(),
+                        new InstanceOfExp(readVar(), (ReferenceType) readType()));
+                case CAST -> new Cast(readVar(), new CastExp(readVar(), readType()));
+                case GOTO -> {
+                    Goto stmt = new Goto();
+                    int target = in.readInt();
+                    targetSetters.add(() -> stmt.setTarget(stmts[target]));
+                    yield stmt;
+                }
+                case IF -> {
+                    ConditionExp.Op op = ConditionExp.Op.values()[in.readByte()];
+                    If stmt = new If(new ConditionExp(op, readVar(), readVar()));
+                    int target = in.readInt();
+                    targetSetters.add(() -> stmt.setTarget(stmts[target]));
+                    yield stmt;
+                }
+                case TABLE_SWITCH -> {
+                    TableSwitch stmt = new TableSwitch(
+                            readVar(), in.readInt(), in.readInt());
+                    readSwitchTargets(stmt,
+                            stmt.getHighIndex() - stmt.getLowIndex() + 1);
+                    yield stmt;
+                }
+                case LOOKUP_SWITCH -> {
+                    Var var = readVar();
+                    List<Integer> caseValues = new ArrayList<>();
+                    int n = in.readInt();
+                    for (int i = 0; i < n; ++i) {
+                        caseValues.add(in.readInt());
+                    }
+                    LookupSwitch stmt = new LookupSwitch(var, caseValues);
+                    readSwitchTargets(stmt, n);
+                    yield stmt;
+                }
+                case INVOKE -> {
+                    Var result = readNullableVar();
+                    yield new Invoke(method, readInvokeExp(), result);
+                }
+                case RETURN -> new Return(readNullableVar());
+                case THROW -> new Throw(readVar());
+                case CATCH -> new Catch(readVar());
+                case MONITOR -> new Monitor(in.readBoolean() ?
+                        Monitor.Op.ENTER : Monitor.Op.EXIT, readVar());
+                case NOP -> new Nop();
+                default -> throw new IOException("Invalid statement kind " + kind);
+            };
+        }
+
+        private FieldAccess readFieldAccess() throws IOException {
+            FieldRef fieldRef = (FieldRef) readRef();
+            return in.readBoolean() ?
+                    new InstanceFieldAccess(fieldRef, readVar()) :
+                    new StaticFieldAccess(fieldRef);
+        }
+
+        private BinaryExp readBinaryExp() throws IOException {
+            byte kind = in.readByte();
+            byte op = in.readByte();
+            return switch (kind) {
+                case ARITHMETIC -> new ArithmeticExp(
+                        ArithmeticExp.Op.values()[op], readVar(), readVar());
+                case BITWISE -> new BitwiseExp(
+                        BitwiseExp.Op.values()[op], readVar(), readVar());
+                case COMPARISON -> new ComparisonExp(
+                        ComparisonExp.Op.values()[op], readVar(), readVar());
+                case SHIFT -> new ShiftExp(
+                        ShiftExp.Op.values()[op], readVar(), readVar());
+                default -> throw new IOException("Invalid binary expression");
+            };
+        }
+
+        private InvokeExp readInvokeExp() throws IOException {
+            byte kind = in.readByte();
+            if (kind == INVOKE_DYNAMIC) {
+                MethodRef bootstrapMethodRef = (MethodRef) readRef();
+                String methodName = in.readUTF();
+                MethodType methodType = readMethodType();
+                List<Literal> bootstrapArgs = new ArrayList<>();
+                int n = in.readInt();
+                for (int i = 0; i < n; ++i) {
+                    bootstrapArgs.add(readLiteral());
+                }
+                return new InvokeDynamic(bootstrapMethodRef, methodName,
+                        methodType, bootstrapArgs, readVars());
+            }
+            MethodRef methodRef = (MethodRef) readRef();
+            return switch (kind) {
+                case INVOKE_VIRTUAL -> new InvokeVirtual(methodRef, readVar(), readVars());
+                case INVOKE_INTERFACE -> new InvokeInterface(methodRef, readVar(), readVars());
+                case INVOKE_SPECIAL -> new InvokeSpecial(methodRef, readVar(), readVars());
+                case INVOKE_STATIC -> new InvokeStatic(methodRef, readVars());
+                default -> throw new IOException("Invalid invoke expression");
+            };
+        }
+
+        private void readSwitchTargets(SwitchStmt stmt, int n) throws IOException {
+            int[] targets = new int[n];
+            for (int i = 0; i < n; ++i) {
+                targets[i] = in.readInt();
+            }
+            int defaultTarget = in.readInt();
+            targetSetters.add(() -> {
+                List<Stmt> targetStmts = new ArrayList<>(n);
+                for (int target : targets) {
+                    targetStmts.add(stmts[target]);
+                }
+                stmt.setTargets(targetStmts);
+                stmt.setDefaultTarget(stmts[defaultTarget]);
+            });
+        }
+
+        private Literal readLiteral() throws IOException {
+            byte kind = in.readByte();
+            return switch (kind) {
+                case INT_LITERAL -> IntLiteral.get(in.readInt());
+                case LONG_LITERAL -> LongLiteral.get(in.readLong());
+                case FLOAT_LITERAL -> FloatLiteral.get(in.readFloat());
+                case DOUBLE_LITERAL -> DoubleLiteral.get(in.readDouble());
+                case STRING_LITERAL -> StringLiteral.get(in.readUTF());
+                case CLASS_LITERAL -> ClassLiteral.get(readType());
+                case NULL_LITERAL -> NullLiteral.get();
+                case METHOD_HANDLE -> MethodHandle.get(
+                        MethodHandle.Kind.values()[in.readByte()], readRef());
+                case METHOD_TYPE -> readMethodType();
+                default -> throw new IOException("Invalid literal kind " + kind);
+            };
+        }
+
+        private MethodType readMethodType() throws IOException {
+            List<Type> paramTypes = new ArrayList<>();
+            int n = in.readInt();
+            for (int i = 0; i < n; ++i) {
+                paramTypes.add(readType());
+            }
+            return MethodType.get(paramTypes, readType());
+        }
+
+        private Type resolveType(String name) {
+            if (name.equals(VoidType.VOID.getName())) {
+                return VoidType.VOID;
+            } else if (name.equals(NullType.NULL.getName())) {
+                return NullType.NULL;
+            } else if (name.equals(BottomType.BOTTOM.getName())) {
+                return BottomType.BOTTOM;
+            } else {
+                return typeSystem.getType(name);
+            }
+        }
+
+        private Type readType() throws IOException {
+            return types[in.readInt()];
+        }
+
+        private MemberRef readRef() throws IOException {
+            return refTable.get(in.readInt());
+        }
+
+        private Var readVar() throws IOException {
+            return vars[in.readInt()];
+        }
+
+        private Var readNullableVar() throws IOException {
+            int i = in.readInt();
+            return i != NO_VAR ? vars[i] : null;
+        }
+
+        private List<Var> readVars() throws IOException {
+            Var[] result = new Var[in.readInt()];
+            for (int i = 0; i < result.length; ++i) {
+                result[i] = readVar();
+            }
+            return List.of(result);
+        }
+    }
+}
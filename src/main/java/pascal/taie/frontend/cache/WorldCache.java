@@ -0,0 +1,535 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.cache;
+
+import pascal.taie.World;
+import pascal.taie.config.Options;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.proginfo.FieldRef;
+import pascal.taie.ir.proginfo.MemberRef;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.language.type.VoidType;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.Fingerprint;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
+
+/**
+ * Reads and writes world cache files. A cache file consists of:
+ * <pre>
+ * header:  MAGIC, FORMAT_VERSION, fingerprint
+ * core:    length, the serialized {@link World} without IR
+ * refs:    m, (method or field reference) * m
+ * index:   n, (method signature, offset, length) * n
+ * records: the encoded IR of each method
+ * </pre>
+ * The IR records, which make up most of a cache file, are written in
+ * an explicit format (see {@link IRCodec}) that refers to types by names
+ * and to method and field references by their indexes in the reference
+ * table, so that each record can be decoded independently of others,
+ * and only when the IR of its method is requested for the first time.
+ * <p>
+ * The core, i.e., the class hierarchy, type system and other parts of
+ * {@link World}, is still written by Java serialization and read eagerly
+ * when loading the cache. It is a densely connected object graph
+ * (e.g., classes refer to their super classes, interfaces and members,
+ * which refer back to their declaring classes), and world building and
+ * most analyses traverse all classes via
+ * {@link ClassHierarchy#allClasses()} right after loading, thus
+ * materializing it per class on demand, or decoding it in parallel,
+ * would hardly reduce the loading time but need a lazy class hierarchy.
+ */
+final class WorldCache {
+
+    /**
+     * Magic number of world cache files, i.e., "TAIW".
+     */
+    private static final int MAGIC = 0x54414957;
+
+    /**
+     * Version of the cache format. It should be increased
+     * whenever the format or the serialized classes are changed.
+     */
+    private static final int FORMAT_VERSION = 4;
+
+    private WorldCache() {
+    }
+
+    /**
+     * @return the fingerprint of the world that is built with {@code options}.
+     */
+    static String getFingerprint(Options options) {
+        return Fingerprint.ofWorld(options)
+                .add(FORMAT_VERSION)
+                .get();
+    }
+
+    static void save(World world, File file, String fingerprint)
+            throws IOException {
+        // serialize core (which also builds all IRs)
+        ByteArrayOutputStream core = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new CoreOutputStream(core)) {
+            oos.writeObject(world);
+        }
+        // serialize IR records in parallel
+        List<JMethod> methods = world.getClassHierarchy()
+                .allClasses()
+                .map(JClass::getDeclaredMethods)
+                .flatMap(Collection::stream)
+                .filter(WorldCache::hasRecord)
+                .toList();
+        RefTableBuilder refTable = new RefTableBuilder();
+        byte[][] records = methods.parallelStream()
+                .map(method -> encodeRecord(method, refTable))
+                .toArray(byte[][]::new);
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(fingerprint);
+            out.writeInt(core.size());
+            core.writeTo(out);
+            refTable.write(out);
+            out.writeInt(methods.size());
+            long offset = 0;
+            for (int i = 0; i < methods.size(); ++i) {
+                out.writeUTF(methods.get(i).getSignature());
+                out.writeLong(offset);
+                out.writeInt(records[i].length);
+                offset += records[i].length;
+            }
+            for (byte[] record : records) {
+                out.write(record);
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if the IR of {@code method} is stored as
+     * a record. IRs of native methods are built by
+     * {@link pascal.taie.ir.proginfo.NativeModel}, so they are not stored.
+     */
+    private static boolean hasRecord(JMethod method) {
+        return !method.isAbstract() && !method.isNative();
+    }
+
+    private static byte[] encodeRecord(JMethod method, RefTableBuilder refTable) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            IRCodec.encode(method.getIR(), refTable, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Loads the world from {@code file} and sets it as current world.
+     * Only the core and the index of IR records are read here.
+     *
+     * @return {@code true} if the world is loaded, or {@code false}
+     * if the fingerprint of the file does not match {@code fingerprint}.
+     */
+    static boolean load(File file, String fingerprint) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a world cache");
+            }
+            if (in.readInt() != FORMAT_VERSION
+                    || !in.readUTF().equals(fingerprint)) {
+                return false;
+            }
+            byte[] core = new byte[in.readInt()];
+            in.readFully(core);
+            RefTable refTable = RefTable.read(in);
+            int n = in.readInt();
+            String[] methodSigs = new String[n];
+            long[] offsets = new long[n];
+            int[] lengths = new int[n];
+            for (int i = 0; i < n; ++i) {
+                methodSigs[i] = in.readUTF();
+                offsets[i] = in.readLong();
+                lengths[i] = in.readInt();
+            }
+            // the records start after header, core and index
+            long base = file.length() - (n == 0 ? 0 :
+                    offsets[n - 1] + lengths[n - 1]);
+            IRRecords records = new IRRecords(
+                    file, base, refTable, methodSigs, offsets, lengths);
+            try (ObjectInputStream ois = new CoreInputStream(
+                    new ByteArrayInputStream(core), records)) {
+                World.set((World) ois.readObject());
+            } catch (ClassNotFoundException e) {
+                records.close();
+                throw new IOException(e);
+            } catch (IOException | RuntimeException e) {
+                records.close();
+                throw e;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * IR records of a cache file. Each record holds the IR of one method
+     * and is decoded when the IR is requested for the first time.
+     * The file is kept open until all records are decoded, or the world
+     * is reset (see {@link World#reset()}).
+     */
+    static class IRRecords implements Closeable {
+
+        /**
+         * IR records that are not closed yet, which are closed
+         * when the world is reset.
+         */
+        private static final Set<IRRecords> openRecords = Sets.newConcurrentSet();
+
+        static {
+            World.registerResetCallback(() -> {
+                openRecords.forEach(IRRecords::close);
+            });
+        }
+
+        private final File file;
+
+        /**
+         * The channel for reading records. It is shared by all threads
+         * as positional reads do not modify the position of the channel.
+         */
+        private final FileChannel channel;
+
+        private final long base;
+
+        private final RefTable refTable;
+
+        private final String[] methodSigs;
+
+        private final Map<String, Integer> methodIndexes;
+
+        private final long[] offsets;
+
+        private final int[] lengths;
+
+        private final AtomicReferenceArray<IR> irs;
+
+        /**
+         * Number of records that are not decoded yet.
+         */
+        private final AtomicInteger remaining;
+
+        private IRRecords(File file, long base, RefTable refTable,
+                          String[] methodSigs, long[] offsets, int[] lengths)
+                throws IOException {
+            this.file = file;
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            this.base = base;
+            this.refTable = refTable;
+            this.methodSigs = methodSigs;
+            this.methodIndexes = Maps.newMap(methodSigs.length);
+            for (int i = 0; i < methodSigs.length; ++i) {
+                methodIndexes.put(methodSigs[i], i);
+            }
+            this.offsets = offsets;
+            this.lengths = lengths;
+            this.irs = new AtomicReferenceArray<>(methodSigs.length);
+            this.remaining = new AtomicInteger(methodSigs.length);
+            if (methodSigs.length == 0) {
+                close();
+            } else {
+                openRecords.add(this);
+            }
+        }
+
+        /**
+         * @return the IR of {@code method}, or {@code null} if the cache
+         * does not contain the IR of {@code method}.
+         */
+        @Nullable
+        IR decode(JMethod method) {
+            Integer i = methodIndexes.get(method.getSignature());
+            return i != null ? decode(i, method) : null;
+        }
+
+        /**
+         * Decodes all IRs in parallel.
+         */
+        void decodeAll() {
+            ClassHierarchy hierarchy = World.get().getClassHierarchy();
+            IntStream.range(0, irs.length())
+                    .parallel()
+                    .filter(i -> irs.get(i) == null)
+                    .forEach(i -> decode(i, hierarchy.getMethod(methodSigs[i])));
+        }
+
+        private IR decode(int i, JMethod method) {
+            IR ir = irs.get(i);
+            if (ir == null) {
+                ir = readRecord(i, method);
+                // concurrent requests for the same IR obtain the same object
+                if (irs.compareAndSet(i, null, ir)) {
+                    if (remaining.decrementAndGet() == 0) {
+                        close();
+                    }
+                } else {
+                    ir = irs.get(i);
+                }
+            }
+            return ir;
+        }
+
+        private IR readRecord(int i, JMethod method) {
+            ByteBuffer buffer = ByteBuffer.allocate(lengths[i]);
+            try {
+                long position = base + offsets[i];
+                while (buffer.hasRemaining()) {
+                    int n = channel.read(buffer, position + buffer.position());
+                    if (n < 0) {
+                        throw new IOException("Unexpected end of " + file);
+                    }
+                }
+                return IRCodec.decode(method, refTable, new DataInputStream(
+                        new ByteArrayInputStream(buffer.array())));
+            } catch (IOException e) {
+                // the channel may be closed after a concurrent request
+                // for the same IR decodes the last record
+                IR ir = irs.get(i);
+                if (ir != null) {
+                    return ir;
+                }
+                throw new AnalysisException(
+                        "Failed to decode IR record from " + file, e);
+            }
+        }
+
+        /**
+         * Closes the cache file. The records that are not decoded yet
+         * cannot be decoded after closing.
+         */
+        @Override
+        public void close() {
+            openRecords.remove(this);
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Placeholder of the IR builder in serialized core.
+     */
+    private enum Placeholder {
+        IR_BUILDER
+    }
+
+    private static class CoreOutputStream extends ObjectOutputStream {
+
+        private CoreOutputStream(OutputStream out) throws IOException {
+            super(out);
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) {
+            // IRs are written as records
+            return obj instanceof CachedIRBuilder ? Placeholder.IR_BUILDER : obj;
+        }
+    }
+
+    private static class CoreInputStream extends ObjectInputStream {
+
+        private final IRRecords records;
+
+        private CoreInputStream(InputStream in, IRRecords records)
+                throws IOException {
+            super(in);
+            this.records = records;
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Object resolveObject(Object obj) {
+            return obj == Placeholder.IR_BUILDER ?
+                    new CachedIRBuilder(records) : obj;
+        }
+    }
+
+    /**
+     * Collects the method and field references in IR records when saving
+     * a cache file. Each distinct reference is given an index, and the
+     * records only store the indexes.
+     */
+    static class RefTableBuilder {
+
+        private final Map<MemberRef, Integer> indexes = Maps.newConcurrentMap();
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        int getIndex(MemberRef ref) {
+            return indexes.computeIfAbsent(ref, r -> counter.getAndIncrement());
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            MemberRef[] refs = new MemberRef[indexes.size()];
+            indexes.forEach((ref, i) -> refs[i] = ref);
+            out.writeInt(refs.length);
+            for (MemberRef ref : refs) {
+                out.writeUTF(ref.getDeclaringClass().getName());
+                out.writeUTF(ref.getName());
+                out.writeBoolean(ref.isStatic());
+                if (ref instanceof MethodRef methodRef) {
+                    out.writeByte(METHOD_REF);
+                    out.writeUTF(methodRef.getReturnType().getName());
+                    List<Type> paramTypes = methodRef.getParameterTypes();
+                    out.writeShort(paramTypes.size());
+                    for (Type paramType : paramTypes) {
+                        out.writeUTF(paramType.getName());
+                    }
+                } else {
+                    out.writeByte(FIELD_REF);
+                    out.writeUTF(((FieldRef) ref).getType().getName());
+                }
+            }
+        }
+    }
+
+    private static final byte METHOD_REF = 0;
+
+    private static final byte FIELD_REF = 1;
+
+    /**
+     * The method and field references read from a cache file. Each
+     * reference is resolved when it is first referred by a decoded record,
+     * via {@link MethodRef#get} or {@link FieldRef#get}, thus all records
+     * share the same reference objects, which are also the ones obtained
+     * by other code in the loaded world.
+     */
+    static class RefTable {
+
+        /**
+         * Descriptor of a method or field reference. For method references,
+         * {@code type} is the return type, and for field references,
+         * it is the field type and {@code paramTypes} is {@code null}.
+         */
+        private record Descriptor(String declaringClass, String name,
+                                  boolean isStatic, String type,
+                                  @Nullable String[] paramTypes) {
+        }
+
+        private final Descriptor[] descriptors;
+
+        private final AtomicReferenceArray<MemberRef> refs;
+
+        private RefTable(Descriptor[] descriptors) {
+            this.descriptors = descriptors;
+            this.refs = new AtomicReferenceArray<>(descriptors.length);
+        }
+
+        private static RefTable read(DataInputStream in) throws IOException {
+            Descriptor[] descriptors = new Descriptor[in.readInt()];
+            for (int i = 0; i < descriptors.length; ++i) {
+                String declaringClass = in.readUTF();
+                String name = in.readUTF();
+                boolean isStatic = in.readBoolean();
+                boolean isMethod = in.readByte() == METHOD_REF;
+                String type = in.readUTF();
+                String[] paramTypes = null;
+                if (isMethod) {
+                    paramTypes = new String[in.readShort()];
+                    for (int j = 0; j < paramTypes.length; ++j) {
+                        paramTypes[j] = in.readUTF();
+                    }
+                }
+                descriptors[i] = new Descriptor(
+                        declaringClass, name, isStatic, type, paramTypes);
+            }
+            return new RefTable(descriptors);
+        }
+
+        MemberRef get(int i) throws IOException {
+            MemberRef ref = refs.get(i);
+            if (ref == null) {
+                ref = resolve(descriptors[i]);
+                refs.compareAndSet(i, null, ref);
+            }
+            return ref;
+        }
+
+        private static MemberRef resolve(Descriptor descriptor) throws IOException {
+            ClassHierarchy hierarchy = World.get().getClassHierarchy();
+            TypeSystem typeSystem = World.get().getTypeSystem();
+            JClass declaringClass = hierarchy.getClass(descriptor.declaringClass());
+            if (declaringClass == null) {
+                throw new IOException("Failed to resolve class "
+                        + descriptor.declaringClass());
+            }
+            if (descriptor.paramTypes() == null) {
+                return FieldRef.get(declaringClass, descriptor.name(),
+                        typeSystem.getType(descriptor.type()), descriptor.isStatic());
+            }
+            List<Type> paramTypes = Arrays.stream(descriptor.paramTypes())
+                    .map(typeSystem::getType)
+                    .toList();
+            Type returnType = descriptor.type().equals(VoidType.VOID.getName()) ?
+                    VoidType.VOID : typeSystem.getType(descriptor.type());
+            return MethodRef.get(declaringClass, descriptor.name(),
+                    paramTypes, returnType, descriptor.isStatic());
+        }
+    }
+}
@@ -153,6 +153,16 @@ public interface ClassHierarchy extends Indexer<JClass> {
     @Nullable
     JMethod dispatch(JClass receiverClass, MethodRef methodRef);
 
+    /**
+     * Precomputes the dispatch tables of all classes in this hierarchy,
+     * so that subsequent {@link #dispatch(JClass, MethodRef)} on these
+     * classes can be served by looking up the tables.
+     * <p>
+     * This method is optional, and does nothing by default.
+     */
+    default void buildDispatchTables() {
+    }
+
     /**
      * @return the direct subinterfaces of given interface.
      */
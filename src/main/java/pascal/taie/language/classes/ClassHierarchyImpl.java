@@ -33,15 +33,21 @@ import pascal.taie.language.type.Type;
 import pascal.taie.util.collection.HybridBitSet;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
 import pascal.taie.util.collection.TwoKeyMap;
 
 import javax.annotation.Nullable;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 public class ClassHierarchyImpl implements ClassHierarchy {
@@ -82,9 +88,19 @@ public class ClassHierarchyImpl implements ClassHierarchy {
     private final MultiMap<JClass, JClass> directInnerClasses = Maps.newMultiMap();
 
     /**
-     * Cache results of method dispatch.
+     * Cache results of method dispatch on the classes
+     * that are not covered by {@link #dispatchTables}.
      */
-    private final TwoKeyMap<JClass, Subsignature, JMethod> dispatchTable = Maps.newTwoKeyMap();
+    private final TwoKeyMap<JClass, Subsignature, JMethod> dispatchTable =
+            Maps.newTwoKeyMap(Maps.newConcurrentMap(), Maps::newConcurrentMap);
+
+    /**
+     * Precomputed dispatch tables, {@code null} if they are not built.
+     * The tables are immutable once published, so that they can be
+     * looked up by multiple threads without locking.
+     */
+    @Nullable
+    private transient volatile DispatchTables dispatchTables;
 
     /**
      * Cache results of {@link #getAllSubclassesOf(JClass)}.
@@ -331,6 +347,15 @@ public class ClassHierarchyImpl implements ClassHierarchy {
             return null;
         }
         Subsignature subsignature = methodRef.getSubsignature();
+        DispatchTables tables = dispatchTables;
+        if (tables != null && tables.covers(receiverClass)) {
+            JMethod target = tables.get(receiverClass, subsignature);
+            if (target == null) {
+                logger.debug("Failed to dispatch {} on {}",
+                        subsignature, receiverClass);
+            }
+            return target;
+        }
         JMethod target = dispatchTable.get(receiverClass, subsignature);
         if (target == null) {
             target = lookupMethod(receiverClass, subsignature, false);
@@ -344,6 +369,85 @@ public class ClassHierarchyImpl implements ClassHierarchy {
         return target;
     }
 
+    @Override
+    public void buildDispatchTables() {
+        List<JClass> classes = List.copyOf(this.classes);
+        // give each subsignature a dense ID
+        Map<Subsignature, Integer> subsigIds = Maps.newMap();
+        List<Subsignature> subsigs = new ArrayList<>();
+        for (JClass c : classes) {
+            for (JMethod m : c.getDeclaredMethods()) {
+                subsigIds.computeIfAbsent(m.getSubsignature(), s -> {
+                    subsigs.add(s);
+                    return subsigs.size() - 1;
+                });
+            }
+        }
+        int[][] keys = new int[classes.size()][];
+        JMethod[][] targets = new JMethod[classes.size()][];
+        IntStream.range(0, classes.size()).parallel().forEach(i -> {
+            JClass jclass = classes.get(i);
+            // collect the subsignatures of the methods declared in
+            // the class and its supertypes, as the lookup of any other
+            // subsignatures on the class fails
+            BitSet candidates = new BitSet();
+            Set<JClass> visited = Sets.newHybridSet();
+            Deque<JClass> workList = new ArrayDeque<>();
+            workList.add(jclass);
+            while (!workList.isEmpty()) {
+                JClass c = workList.poll();
+                if (visited.add(c)) {
+                    c.getDeclaredMethods().forEach(m ->
+                            candidates.set(subsigIds.get(m.getSubsignature())));
+                    if (c.getSuperClass() != null) {
+                        workList.add(c.getSuperClass());
+                    }
+                    workList.addAll(c.getInterfaces());
+                }
+            }
+            int[] classKeys = new int[candidates.cardinality()];
+            JMethod[] classTargets = new JMethod[classKeys.length];
+            int size = 0;
+            for (int id = candidates.nextSetBit(0); id >= 0;
+                 id = candidates.nextSetBit(id + 1)) {
+                JMethod target = lookupMethod(jclass, subsigs.get(id), false);
+                if (target != null) {
+                    classKeys[size] = id;
+                    classTargets[size] = target;
+                    ++size;
+                }
+            }
+            keys[jclass.getIndex()] = Arrays.copyOf(classKeys, size);
+            targets[jclass.getIndex()] = Arrays.copyOf(classTargets, size);
+        });
+        dispatchTables = new DispatchTables(subsigIds, keys, targets);
+    }
+
+    /**
+     * Dispatch tables of classes. The table of each class consists of
+     * sorted IDs of subsignatures and the corresponding target methods.
+     */
+    private record DispatchTables(Map<Subsignature, Integer> subsigIds,
+                                  int[][] keys, JMethod[][] targets) {
+
+        /**
+         * @return {@code true} if the tables contain given class.
+         */
+        private boolean covers(JClass jclass) {
+            return jclass.getIndex() < keys.length;
+        }
+
+        @Nullable
+        private JMethod get(JClass jclass, Subsignature subsignature) {
+            Integer id = subsigIds.get(subsignature);
+            if (id == null) {
+                return null;
+            }
+            int i = Arrays.binarySearch(keys[jclass.getIndex()], id);
+            return i >= 0 ? targets[jclass.getIndex()][i] : null;
+        }
+    }
+
     private JMethod lookupMethod(JClass jclass, Subsignature subsignature,
                                  boolean allowAbstract) {
         // JVM Spec. (11 Ed.), 5.4.3.3 Method Resolution
@@ -24,23 +24,49 @@ package pascal.taie.language.classes;
 
 import pascal.taie.language.type.ClassType;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Provides functionality to match signatures by given patterns.
+ * <p>
+ * To avoid iterating the whole class hierarchy for each wildcard pattern,
+ * the matcher builds an index of the classes and class members on its
+ * first use of wildcard patterns, thus the classes added to the hierarchy
+ * after that are invisible to the matcher. The results of matching are
+ * cached, and multiple patterns can be matched in parallel by
+ * {@link #getMethods(Collection)} and {@link #getFields(Collection)}.
  */
 public class SignatureMatcher {
 
     private final ClassHierarchy hierarchy;
 
+    /**
+     * Index of the classes and class members in {@link #hierarchy}.
+     */
+    private volatile Index index;
+
+    /**
+     * Caches results of class patterns, which are frequently shared by
+     * method patterns, field patterns and type patterns.
+     */
+    private final Map<String, Set<JClass>> classResults = Maps.newConcurrentMap();
+
+    private final Map<String, Set<JMethod>> methodResults = Maps.newConcurrentMap();
+
+    private final Map<String, Set<JField>> fieldResults = Maps.newConcurrentMap();
+
     public SignatureMatcher(ClassHierarchy hierarchy) {
         this.hierarchy = hierarchy;
     }
@@ -49,7 +75,13 @@ public class SignatureMatcher {
      * @return the classes that match given pattern.
      */
     public Set<JClass> getClasses(String classPattern) {
-        return getClasses(Pattern.parseClassPattern(classPattern));
+        Set<JClass> result = classResults.get(classPattern);
+        if (result == null) {
+            result = Collections.unmodifiableSet(
+                    getClasses(Pattern.parseClassPattern(classPattern)));
+            classResults.putIfAbsent(classPattern, result);
+        }
+        return result;
     }
 
     private Set<JClass> getClasses(Pattern.ClassPattern classPattern) {
@@ -61,10 +93,11 @@ public class SignatureMatcher {
                 result.add(klass);
             }
         } else {
-            // Iterate the whole class hierarchy to find matched classes.
-            // This operation MAY cause performance issues.
+            // Only check the classes whose names share
+            // the literal prefix or suffix of the pattern.
             Predicate<String> nameMatcher = new NameMatcher(name);
-            hierarchy.allClasses()
+            getIndex().getClasses(name)
+                    .stream()
                     .filter(c -> nameMatcher.test(c.getName()))
                     .forEach(result::add);
         }
@@ -79,7 +112,30 @@ public class SignatureMatcher {
      * @return the methods that match given pattern.
      */
     public Set<JMethod> getMethods(String methodPattern) {
-        Pattern.MethodPattern pattern = Pattern.parseMethodPattern(methodPattern);
+        Set<JMethod> result = methodResults.get(methodPattern);
+        if (result == null) {
+            result = Collections.unmodifiableSet(
+                    getMethods(Pattern.parseMethodPattern(methodPattern)));
+            methodResults.putIfAbsent(methodPattern, result);
+        }
+        return result;
+    }
+
+    /**
+     * Matches given method patterns in parallel.
+     *
+     * @return a map from each pattern to the methods that match it.
+     */
+    public Map<String, Set<JMethod>> getMethods(Collection<String> methodPatterns) {
+        getIndex(); // build index before matching in parallel
+        Map<String, Set<JMethod>> result = Maps.newConcurrentMap(methodPatterns.size());
+        methodPatterns.parallelStream()
+                .distinct()
+                .forEach(pattern -> result.put(pattern, getMethods(pattern)));
+        return result;
+    }
+
+    private Set<JMethod> getMethods(Pattern.MethodPattern pattern) {
         Set<JMethod> result = new LinkedHashSet<>();
         if (pattern.isExactMatch()) {
             JMethod method = hierarchy.getMethod(pattern.toString());
@@ -90,11 +146,20 @@ public class SignatureMatcher {
             Predicate<Type> typeMatcher = new TypeMatcher(pattern.retType());
             Predicate<String> nameMatcher = new NameMatcher(pattern.name());
             Predicate<List<Type>> paramsMatcher = new ParamsMatcher(pattern.params());
-            getClasses(pattern.klass())
-                    .stream()
-                    .map(JClass::getDeclaredMethods)
-                    .flatMap(Collection::stream)
-                    .filter(method -> typeMatcher.test(method.getReturnType())
+            Stream<JMethod> candidates;
+            if (!pattern.name().hasWildcard() && !pattern.klass().isExactMatch()) {
+                // look up the methods by name, and then check their classes
+                Predicate<JClass> classMatcher = getClassMatcher(pattern.klass());
+                candidates = getIndex().getMethods(pattern.name().toString())
+                        .stream()
+                        .filter(method -> classMatcher.test(method.getDeclaringClass()));
+            } else {
+                candidates = getClasses(pattern.klass())
+                        .stream()
+                        .map(JClass::getDeclaredMethods)
+                        .flatMap(Collection::stream);
+            }
+            candidates.filter(method -> typeMatcher.test(method.getReturnType())
                             && nameMatcher.test(method.getName())
                             && paramsMatcher.test(method.getParamTypes()))
                     .forEach(result::add);
@@ -106,7 +171,30 @@ public class SignatureMatcher {
      * @return the fields that match given pattern.
      */
     public Set<JField> getFields(String fieldPattern) {
-        Pattern.FieldPattern pattern = Pattern.parseFieldPattern(fieldPattern);
+        Set<JField> result = fieldResults.get(fieldPattern);
+        if (result == null) {
+            result = Collections.unmodifiableSet(
+                    getFields(Pattern.parseFieldPattern(fieldPattern)));
+            fieldResults.putIfAbsent(fieldPattern, result);
+        }
+        return result;
+    }
+
+    /**
+     * Matches given field patterns in parallel.
+     *
+     * @return a map from each pattern to the fields that match it.
+     */
+    public Map<String, Set<JField>> getFields(Collection<String> fieldPatterns) {
+        getIndex(); // build index before matching in parallel
+        Map<String, Set<JField>> result = Maps.newConcurrentMap(fieldPatterns.size());
+        fieldPatterns.parallelStream()
+                .distinct()
+                .forEach(pattern -> result.put(pattern, getFields(pattern)));
+        return result;
+    }
+
+    private Set<JField> getFields(Pattern.FieldPattern pattern) {
         Set<JField> result = new LinkedHashSet<>();
         if (pattern.isExactMatch()) {
             JField field = hierarchy.getField(pattern.toString());
@@ -116,30 +204,190 @@ public class SignatureMatcher {
         } else {
             Predicate<Type> typeMatcher = new TypeMatcher(pattern.type());
             Predicate<String> nameMatcher = new NameMatcher(pattern.name());
-            getClasses(pattern.klass())
-                    .stream()
-                    .map(JClass::getDeclaredFields)
-                    .flatMap(Collection::stream)
-                    .filter(field -> typeMatcher.test(field.getType())
+            Stream<JField> candidates;
+            if (!pattern.name().hasWildcard() && !pattern.klass().isExactMatch()) {
+                // look up the fields by name, and then check their classes
+                Predicate<JClass> classMatcher = getClassMatcher(pattern.klass());
+                candidates = getIndex().getFields(pattern.name().toString())
+                        .stream()
+                        .filter(field -> classMatcher.test(field.getDeclaringClass()));
+            } else {
+                candidates = getClasses(pattern.klass())
+                        .stream()
+                        .map(JClass::getDeclaredFields)
+                        .flatMap(Collection::stream);
+            }
+            candidates.filter(field -> typeMatcher.test(field.getType())
                             && nameMatcher.test(field.getName()))
                     .forEach(result::add);
         }
         return result;
     }
 
+    /**
+     * @return a predicate that checks if a class matches given pattern.
+     * For pattern that does not include subclasses, it checks the class
+     * names directly without collecting the matched classes.
+     */
+    private Predicate<JClass> getClassMatcher(Pattern.ClassPattern pattern) {
+        if (pattern.includeSubclasses()) {
+            return getClasses(pattern.toString())::contains;
+        } else {
+            NameMatcher nameMatcher = new NameMatcher(pattern.name());
+            return c -> nameMatcher.test(c.getName());
+        }
+    }
+
+    private Index getIndex() {
+        Index result = index;
+        if (result == null) {
+            synchronized (this) {
+                result = index;
+                if (result == null) {
+                    index = result = new Index(hierarchy.allClasses().toList());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Index of classes by their names, and of class members by their names.
+     * <p>
+     * The classes are sorted by their names and their reversed names,
+     * so that the classes whose names start (or end) with given string
+     * are in a contiguous range, which can be found by binary search.
+     * This works like a trie of class names, which is a natural fit for
+     * the patterns in practice, e.g., {@code "java.util.*"} and
+     * {@code "*.HttpServletRequest"}.
+     */
+    private static class Index {
+
+        private static final Comparator<JClass> BY_NAME =
+                Comparator.comparing(JClass::getName);
+
+        private static final Comparator<JClass> BY_REVERSED_NAME =
+                Comparator.comparing(Index::reverse);
+
+        /**
+         * Classes sorted by their names.
+         */
+        private final List<JClass> classes;
+
+        private final String[] names;
+
+        /**
+         * Classes sorted by their reversed names.
+         */
+        private final List<JClass> reversedClasses;
+
+        private final String[] reversedNames;
+
+        private final Map<String, List<JMethod>> methodsByName;
+
+        private final Map<String, List<JField>> fieldsByName;
+
+        private Index(List<JClass> allClasses) {
+            classes = allClasses.stream().sorted(BY_NAME).toList();
+            names = classes.stream()
+                    .map(JClass::getName)
+                    .toArray(String[]::new);
+            reversedClasses = allClasses.stream().sorted(BY_REVERSED_NAME).toList();
+            reversedNames = reversedClasses.stream()
+                    .map(Index::reverse)
+                    .toArray(String[]::new);
+            methodsByName = Maps.newMap();
+            fieldsByName = Maps.newMap();
+            allClasses.forEach(c -> {
+                c.getDeclaredMethods().forEach(m -> methodsByName
+                        .computeIfAbsent(m.getName(), __ -> new ArrayList<>())
+                        .add(m));
+                c.getDeclaredFields().forEach(f -> fieldsByName
+                        .computeIfAbsent(f.getName(), __ -> new ArrayList<>())
+                        .add(f));
+            });
+        }
+
+        /**
+         * @return the classes whose names may match given pattern.
+         */
+        private List<JClass> getClasses(Pattern.NamePattern pattern) {
+            List<Pattern.NameUnit> units = pattern.units();
+            List<JClass> result = classes;
+            if (units.get(0) instanceof Pattern.StringUnit prefix) {
+                result = range(classes, names, prefix.content());
+            }
+            if (units.get(units.size() - 1) instanceof Pattern.StringUnit suffix) {
+                List<JClass> candidates = range(reversedClasses, reversedNames,
+                        reverse(suffix.content()));
+                if (candidates.size() < result.size()) {
+                    result = candidates;
+                }
+            }
+            return result;
+        }
+
+        /**
+         * @return the classes whose keys start with given prefix.
+         */
+        private static List<JClass> range(
+                List<JClass> classes, String[] keys, String prefix) {
+            int from = lowerBound(keys, prefix);
+            int to = lowerBound(keys, prefix + Character.MAX_VALUE);
+            return classes.subList(from, to);
+        }
+
+        /**
+         * @return index of the first key that is not less than given key.
+         */
+        private static int lowerBound(String[] keys, String key) {
+            int low = 0, high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid].compareTo(key) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private static String reverse(JClass jclass) {
+            return reverse(jclass.getName());
+        }
+
+        private static String reverse(String s) {
+            return new StringBuilder(s).reverse().toString();
+        }
+
+        private List<JMethod> getMethods(String name) {
+            return methodsByName.getOrDefault(name, List.of());
+        }
+
+        private List<JField> getFields(String name) {
+            return fieldsByName.getOrDefault(name, List.of());
+        }
+    }
+
     private static class NameMatcher implements Predicate<String> {
 
         private final Predicate<String> matcher;
 
         private NameMatcher(Pattern.NamePattern pattern) {
+            if (!pattern.hasWildcard()) {
+                matcher = pattern.toString()::equals;
+                return;
+            }
             StringBuilder regex = new StringBuilder("^");
             pattern.forEach(unit -> {
                 if (unit.equals(Pattern.NAME_WILDCARD)) {
                     regex.append(".*");
                 } else {
-                    ((Pattern.StringUnit) unit).content()
-                            .chars()
-                            .forEach(c -> regex.append((c != '.') ? (char) c : "\\."));
+                    // quote the content, as names may contain characters
+                    // with special meanings in regex, e.g., '$' and '['
+                    regex.append(java.util.regex.Pattern.quote(
+                            ((Pattern.StringUnit) unit).content()));
                 }
             });
             regex.append('$');
@@ -0,0 +1,164 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util;
+
+import pascal.taie.config.Options;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Computes fingerprints (SHA-256 digests) of the inputs of analyses,
+ * e.g., options and the contents of class path, so that persisted
+ * results can be invalidated when any of the inputs change.
+ */
+public class Fingerprint {
+
+    private final MessageDigest digest;
+
+    public Fingerprint() {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AnalysisException("SHA-256 is not supported", e);
+        }
+    }
+
+    /**
+     * Creates a fingerprint of the world specified by {@code options},
+     * which covers the options for building the world, the contents of
+     * class path, and the version of Tai-e.
+     */
+    public static Fingerprint ofWorld(Options options) {
+        Fingerprint fp = ofWorldExceptAppClasses(options);
+        addPaths(fp, options.getAppClassPath());
+        return fp;
+    }
+
+    /**
+     * Creates a fingerprint of the world specified by {@code options}
+     * like {@link #ofWorld(Options)}, except that the contents of
+     * application class path are not covered.
+     */
+    public static Fingerprint ofWorldExceptAppClasses(Options options) {
+        Fingerprint fp = new Fingerprint()
+                .add(RuntimeInfoLogger.getVersion())
+                .add(RuntimeInfoLogger.getCommit())
+                .add(options.getMainClass())
+                .add(String.valueOf(options.getInputClasses()))
+                .add(options.getJavaVersion())
+                .add(options.isPrependJVM() ? 1 : 0)
+                .add(options.isAllowPhantom() ? 1 : 0)
+                .add(options.getWorldBuilderClass() != null ?
+                        options.getWorldBuilderClass().getName() : null);
+        addPaths(fp, options.getClassPath());
+        fp.add(String.valueOf(options.getAppClassPath()));
+        return fp;
+    }
+
+    private static void addPaths(Fingerprint fp, List<String> paths) {
+        if (paths != null) {
+            paths.forEach(fp::addPath);
+        }
+    }
+
+    public Fingerprint add(String s) {
+        if (s == null) {
+            add(-1);
+        } else {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            add(bytes.length);
+            digest.update(bytes);
+        }
+        return this;
+    }
+
+    public Fingerprint add(int i) {
+        digest.update((byte) (i >>> 24));
+        digest.update((byte) (i >>> 16));
+        digest.update((byte) (i >>> 8));
+        digest.update((byte) i);
+        return this;
+    }
+
+    public Fingerprint add(byte[] bytes) {
+        add(bytes.length);
+        digest.update(bytes);
+        return this;
+    }
+
+    /**
+     * Adds the path and its content. For directories, the relative paths
+     * and contents of all regular files in them are added in order.
+     */
+    public Fingerprint addPath(String path) {
+        add(path);
+        Path p = Path.of(path);
+        if (Files.isRegularFile(p)) {
+            addContent(p);
+        } else if (Files.isDirectory(p)) {
+            try (Stream<Path> files = Files.walk(p)) {
+                files.filter(Files::isRegularFile)
+                        .sorted()
+                        .forEach(file -> {
+                            add(p.relativize(file).toString());
+                            addContent(file);
+                        });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } else {
+            add(-1);
+        }
+        return this;
+    }
+
+    private void addContent(Path file) {
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buffer = new byte[65536];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, n);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return the hexadecimal digest of all added inputs.
+     * This fingerprint should not be used after calling this method.
+     */
+    public String get() {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -84,13 +84,26 @@ public class RuntimeInfoLogger {
      * or fallback methods if the manifest is not available.
      */
     private static void logTaieInfo() {
+        logger.info("Tai-e Version: {}", getVersion());
+        logger.info("Tai-e Commit: {}", getCommit());
+    }
+
+    /**
+     * @return the Tai-e version, or {@code "Unknown"} if it is not available.
+     */
+    public static String getVersion() {
         Manifest manifest = getManifest();
-        String version = manifest != null ? readVersionFromManifest(manifest)
+        return manifest != null ? readVersionFromManifest(manifest)
                 : readVersionFromGradleProperties();
-        logger.info("Tai-e Version: {}", version);
-        String commit = manifest != null ? readCommitFromManifest(manifest)
+    }
+
+    /**
+     * @return the Tai-e commit hash, or {@code "Unknown"} if it is not available.
+     */
+    public static String getCommit() {
+        Manifest manifest = getManifest();
+        return manifest != null ? readCommitFromManifest(manifest)
                 : readCommitFromDotGit();
-        logger.info("Tai-e Commit: {}", commit);
     }
 
     /**
@@ -27,18 +27,28 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 
 public class Timer {
 
     private static final Logger logger = LogManager.getLogger(Timer.class);
 
+    /**
+     * Listeners that are notified of the name and elapsed time
+     * (in milliseconds) of each timer when it stops.
+     */
+    private static final List<BiConsumer<String, Long>> listeners =
+            new CopyOnWriteArrayList<>();
+
     private final String name;
 
     private long elapsedTime = 0;
@@ -62,6 +72,7 @@ public class Timer {
         if (inCounting) {
             elapsedTime += System.currentTimeMillis() - startTime;
             inCounting = false;
+            listeners.forEach(l -> l.accept(name, elapsedTime));
         }
     }
 
@@ -74,6 +85,19 @@ public class Timer {
         inCounting = false;
     }
 
+    /**
+     * Adds a listener which is notified of the name and elapsed time
+     * (in milliseconds) of each timer when it stops, e.g., to collect
+     * the elapsed time of each phase of analysis.
+     */
+    public static void addListener(BiConsumer<String, Long> listener) {
+        listeners.add(listener);
+    }
+
+    public static void removeListener(BiConsumer<String, Long> listener) {
+        listeners.remove(listener);
+    }
+
     @Override
     public String toString() {
         return String.format("[%s] elapsed time: %.2fs",
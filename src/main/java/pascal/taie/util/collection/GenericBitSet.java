@@ -126,6 +126,27 @@ public abstract class GenericBitSet<E> extends AbstractSetEx<E>
         }
     }
 
+    /**
+     * Retains only the elements whose indexes are set in given bit set.
+     * This is a bit-wise AND if the bit sets have the same representation.
+     *
+     * @return {@code true} if this set changed as a result of the call.
+     */
+    public boolean retainAllIndexes(IBitSet indexes) {
+        if (bitSet.getClass() == indexes.getClass()
+                || bitSet instanceof RoaringBitSet) {
+            return bitSet.and(indexes);
+        }
+        boolean changed = false;
+        for (int i = bitSet.nextSetBit(0); i >= 0; i = bitSet.nextSetBit(i + 1)) {
+            if (!indexes.get(i)) {
+                bitSet.clear(i);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
     /**
      * Sets the content of this bit set to the same as given collection.
      */
@@ -108,6 +108,20 @@ public final class HybridBitSet<E> extends AbstractHybridSet<E>
         return super.retainAll(c);
     }
 
+    /**
+     * Retains only the elements whose indexes (given by the indexer of
+     * this set) are set in given bit set. For a large set, this is
+     * a bit-wise AND, see {@link GenericBitSet#retainAllIndexes(IBitSet)}.
+     *
+     * @return {@code true} if this set changed as a result of the call.
+     */
+    public boolean retainAllIndexes(IBitSet indexes) {
+        if (set instanceof GenericBitSet<E> bitSet) {
+            return bitSet.retainAllIndexes(indexes);
+        }
+        return removeIf(e -> !indexes.get(indexer.getIndex(e)));
+    }
+
     @Override
     public HybridBitSet<E> addAllDiff(Collection<? extends E> c) {
         HybridBitSet<E> diff = new HybridBitSet<>(indexer, isSparse);
@@ -0,0 +1,142 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.collection;
+
+import java.util.Arrays;
+
+/**
+ * An open-addressing hash map from pairs of non-negative {@code int}s
+ * to non-negative {@code int}s. Each pair is packed into a {@code long}
+ * key, and the keys and values are stored in primitive arrays, thus
+ * no object is allocated for each entry. Entries cannot be removed.
+ */
+public class IntPairMap {
+
+    /**
+     * The value returned by {@link #get(int, int)} for absent keys.
+     */
+    public static final int ABSENT = -1;
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private long[] keys;
+
+    private int[] values;
+
+    private int size = 0;
+
+    public IntPairMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param initialCapacity the initial number of slots, which is
+     *                        rounded up to a power of two.
+     */
+    public IntPairMap(int initialCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(initialCapacity, 2) - 1) << 1;
+        keys = new long[capacity];
+        values = newValues(capacity);
+    }
+
+    /**
+     * @return the value of pair ({@code key1}, {@code key2}),
+     * or {@link #ABSENT} if the pair is absent.
+     */
+    public int get(int key1, int key2) {
+        long key = pack(key1, key2);
+        int mask = keys.length - 1;
+        for (int i = hash(key) & mask; values[i] != ABSENT; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+        }
+        return ABSENT;
+    }
+
+    /**
+     * Maps pair ({@code key1}, {@code key2}) to {@code value}.
+     *
+     * @return the previous value of the pair, or {@link #ABSENT}
+     * if the pair was absent.
+     */
+    public int put(int key1, int key2, int value) {
+        if (key1 < 0 || key2 < 0 || value < 0) {
+            throw new IllegalArgumentException("Keys and values must be" +
+                    " non-negative, given: (" + key1 + ", " + key2 + ") -> " + value);
+        }
+        long key = pack(key1, key2);
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        for (; values[i] != ABSENT; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                int oldValue = values[i];
+                values[i] = value;
+                return oldValue;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size * 2 > keys.length) {
+            resize();
+        }
+        return ABSENT;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = newValues(oldValues.length * 2);
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; ++j) {
+            if (oldValues[j] != ABSENT) {
+                int i = hash(oldKeys[j]) & mask;
+                while (values[i] != ABSENT) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private static int[] newValues(int capacity) {
+        int[] values = new int[capacity];
+        Arrays.fill(values, ABSENT);
+        return values;
+    }
+
+    private static long pack(int key1, int key2) {
+        return ((long) key1 << 32) | key2;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
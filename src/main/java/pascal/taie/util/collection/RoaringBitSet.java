@@ -0,0 +1,1152 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.collection;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Compressed bit set in the style of Roaring bitmaps. This implementation
+ * partitions the bit indexes into chunks of 2^16 bits by their high 16 bits,
+ * and represents each non-empty chunk by a container which is either
+ * <ul>
+ *     <li>an array container, i.e., a sorted array of the low 16 bits,
+ *     when the chunk contains at most {@link #ARRAY_MAX} bits; or</li>
+ *     <li>a bitmap container, i.e., a plain bit vector of 2^16 bits,
+ *     when the chunk is dense.</li>
+ * </ul>
+ * The bit sets that consist of clustered indexes (e.g., the indexes of
+ * objects that are allocated in the same method) are compact in this
+ * representation, and set operations between two {@link RoaringBitSet}s
+ * are performed container by container.
+ * <p>
+ * For more details, see
+ * <a href="https://arxiv.org/abs/1402.6407">Better bitmap performance
+ * with Roaring bitmaps</a>.
+ */
+public class RoaringBitSet extends AbstractBitSet
+        implements Serializable {
+
+    /**
+     * Number of low bits stored in containers.
+     */
+    private static final int CHUNK_BITS = 16;
+
+    /**
+     * Number of bits in a container.
+     */
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    /**
+     * Number of words in a bitmap container.
+     */
+    private static final int BITMAP_WORDS = CHUNK_SIZE >> ADDRESS_BITS_PER_WORD;
+
+    /**
+     * Maximum number of bits in an array container. A container
+     * with more bits is converted to bitmap container, which
+     * takes the same memory (8KB) as an array container of this size.
+     */
+    private static final int ARRAY_MAX = 4096;
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    /**
+     * High 16 bits of the chunks, in ascending order.
+     */
+    private char[] keys;
+
+    /**
+     * Containers of the chunks, in the same order as {@link #keys}.
+     */
+    private Container[] containers;
+
+    /**
+     * Number of non-empty containers.
+     */
+    private int size;
+
+    public RoaringBitSet() {
+        keys = new char[INITIAL_CAPACITY];
+        containers = new Container[INITIAL_CAPACITY];
+    }
+
+    private RoaringBitSet(char[] keys, Container[] containers, int size) {
+        this.keys = keys;
+        this.containers = containers;
+        this.size = size;
+    }
+
+    private static int high(int bitIndex) {
+        return bitIndex >>> CHUNK_BITS;
+    }
+
+    private static int low(int bitIndex) {
+        return bitIndex & CHUNK_MASK;
+    }
+
+    private static int bitIndex(int high, int low) {
+        return (high << CHUNK_BITS) | low;
+    }
+
+    private static void checkIndex(int bitIndex) {
+        if (bitIndex < 0) {
+            throw new IndexOutOfBoundsException("bitIndex < 0: " + bitIndex);
+        }
+    }
+
+    /**
+     * @return position of the container for given high bits,
+     * or {@code -(insertion point) - 1} if no such container.
+     */
+    private int search(int high) {
+        return Arrays.binarySearch(keys, 0, size, (char) high);
+    }
+
+    private void insert(int pos, int high, Container c) {
+        if (size == keys.length) {
+            int newCapacity = size + (size >> 1) + 1;
+            keys = Arrays.copyOf(keys, newCapacity);
+            containers = Arrays.copyOf(containers, newCapacity);
+        }
+        System.arraycopy(keys, pos, keys, pos + 1, size - pos);
+        System.arraycopy(containers, pos, containers, pos + 1, size - pos);
+        keys[pos] = (char) high;
+        containers[pos] = c;
+        ++size;
+    }
+
+    private void remove(int pos) {
+        System.arraycopy(keys, pos + 1, keys, pos, size - pos - 1);
+        System.arraycopy(containers, pos + 1, containers, pos, size - pos - 1);
+        containers[--size] = null;
+    }
+
+    @Override
+    public boolean set(int bitIndex) {
+        checkIndex(bitIndex);
+        int pos = search(high(bitIndex));
+        if (pos < 0) {
+            ArrayContainer c = new ArrayContainer();
+            c.add(low(bitIndex));
+            insert(-pos - 1, high(bitIndex), c);
+            return true;
+        }
+        Container c = containers[pos];
+        int oldCardinality = c.cardinality();
+        containers[pos] = c = c.add(low(bitIndex));
+        return c.cardinality() != oldCardinality;
+    }
+
+    @Override
+    public boolean clear(int bitIndex) {
+        checkIndex(bitIndex);
+        int pos = search(high(bitIndex));
+        if (pos < 0) {
+            return false;
+        }
+        Container c = containers[pos];
+        int oldCardinality = c.cardinality();
+        containers[pos] = c = c.remove(low(bitIndex));
+        if (c.cardinality() == 0) {
+            remove(pos);
+        }
+        return c.cardinality() != oldCardinality;
+    }
+
+    @Override
+    public boolean get(int bitIndex) {
+        checkIndex(bitIndex);
+        int pos = search(high(bitIndex));
+        return pos >= 0 && containers[pos].contains(low(bitIndex));
+    }
+
+    @Override
+    public void flip(int bitIndex) {
+        if (!clear(bitIndex)) {
+            set(bitIndex);
+        }
+    }
+
+    @Override
+    public int nextSetBit(int fromIndex) {
+        checkIndex(fromIndex);
+        int high = high(fromIndex);
+        int pos = search(high);
+        if (pos >= 0) {
+            int low = containers[pos].nextSetBit(low(fromIndex));
+            if (low >= 0) {
+                return bitIndex(high, low);
+            }
+            ++pos;
+        } else {
+            pos = -pos - 1;
+        }
+        return pos < size ?
+                bitIndex(keys[pos], containers[pos].nextSetBit(0)) : -1;
+    }
+
+    @Override
+    public int nextClearBit(int fromIndex) {
+        checkIndex(fromIndex);
+        int high = high(fromIndex);
+        int pos = search(high);
+        if (pos < 0) {
+            return fromIndex;
+        }
+        int low = containers[pos].nextClearBit(low(fromIndex));
+        while (low == CHUNK_SIZE) {
+            // current chunk is full, check the next one
+            ++high;
+            ++pos;
+            if (pos == size || keys[pos] != high) {
+                return bitIndex(high, 0);
+            }
+            low = containers[pos].nextClearBit(0);
+        }
+        return bitIndex(high, low);
+    }
+
+    @Override
+    public int previousSetBit(int fromIndex) {
+        if (fromIndex < 0) {
+            if (fromIndex == -1) {
+                return -1;
+            }
+            throw new IndexOutOfBoundsException(
+                    "fromIndex < -1: " + fromIndex);
+        }
+        int high = high(fromIndex);
+        int pos = search(high);
+        if (pos >= 0) {
+            int low = containers[pos].previousSetBit(low(fromIndex));
+            if (low >= 0) {
+                return bitIndex(high, low);
+            }
+            --pos;
+        } else {
+            pos = -pos - 2;
+        }
+        return pos >= 0 ?
+                bitIndex(keys[pos], containers[pos].previousSetBit(CHUNK_MASK)) : -1;
+    }
+
+    @Override
+    public int previousClearBit(int fromIndex) {
+        if (fromIndex < 0) {
+            if (fromIndex == -1) {
+                return -1;
+            }
+            throw new IndexOutOfBoundsException(
+                    "fromIndex < -1: " + fromIndex);
+        }
+        int high = high(fromIndex);
+        int pos = search(high);
+        if (pos < 0) {
+            return fromIndex;
+        }
+        int low = containers[pos].previousClearBit(low(fromIndex));
+        while (low < 0) {
+            // current chunk is full, check the previous one
+            --high;
+            --pos;
+            if (high < 0) {
+                return -1;
+            }
+            if (pos < 0 || keys[pos] != high) {
+                return bitIndex(high, CHUNK_MASK);
+            }
+            low = containers[pos].previousClearBit(CHUNK_MASK);
+        }
+        return bitIndex(high, low);
+    }
+
+    @Override
+    public boolean intersects(IBitSet set) {
+        if (set instanceof RoaringBitSet other) {
+            int i = 0, j = 0;
+            while (i < size && j < other.size) {
+                if (keys[i] < other.keys[j]) {
+                    ++i;
+                } else if (keys[i] > other.keys[j]) {
+                    ++j;
+                } else {
+                    if (containers[i].intersects(other.containers[j])) {
+                        return true;
+                    }
+                    ++i;
+                    ++j;
+                }
+            }
+            return false;
+        } else {
+            return super.intersects(set);
+        }
+    }
+
+    @Override
+    public boolean contains(IBitSet set) {
+        if (set instanceof RoaringBitSet other) {
+            if (other.size > size) {
+                return false;
+            }
+            int i = 0;
+            for (int j = 0; j < other.size; ++j) {
+                char key = other.keys[j];
+                while (i < size && keys[i] < key) {
+                    ++i;
+                }
+                if (i == size || keys[i] != key
+                        || !containers[i].containsAll(other.containers[j])) {
+                    return false;
+                }
+                ++i;
+            }
+            return true;
+        } else {
+            return super.contains(set);
+        }
+    }
+
+    @Override
+    public boolean and(IBitSet set) {
+        if (set == this) {
+            return false;
+        }
+        boolean changed = false;
+        if (set instanceof RoaringBitSet other) {
+            int newSize = 0;
+            int j = 0;
+            for (int i = 0; i < size; ++i) {
+                char key = keys[i];
+                while (j < other.size && other.keys[j] < key) {
+                    ++j;
+                }
+                Container c = containers[i];
+                if (j < other.size && other.keys[j] == key) {
+                    int oldCardinality = c.cardinality();
+                    c = c.and(other.containers[j]);
+                    changed |= c.cardinality() != oldCardinality;
+                } else {
+                    c = null;
+                    changed = true;
+                }
+                if (c != null && c.cardinality() > 0) {
+                    keys[newSize] = key;
+                    containers[newSize++] = c;
+                }
+            }
+            Arrays.fill(containers, newSize, size, null);
+            size = newSize;
+        } else {
+            for (int i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1)) {
+                if (!set.get(i)) {
+                    clear(i);
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean andNot(IBitSet set) {
+        if (set == this) {
+            return clearAll();
+        }
+        if (set instanceof RoaringBitSet other) {
+            boolean changed = false;
+            int newSize = 0;
+            int j = 0;
+            for (int i = 0; i < size; ++i) {
+                char key = keys[i];
+                while (j < other.size && other.keys[j] < key) {
+                    ++j;
+                }
+                Container c = containers[i];
+                if (j < other.size && other.keys[j] == key) {
+                    int oldCardinality = c.cardinality();
+                    c = c.andNot(other.containers[j]);
+                    changed |= c.cardinality() != oldCardinality;
+                }
+                if (c.cardinality() > 0) {
+                    keys[newSize] = key;
+                    containers[newSize++] = c;
+                }
+            }
+            Arrays.fill(containers, newSize, size, null);
+            size = newSize;
+            return changed;
+        } else {
+            return super.andNot(set);
+        }
+    }
+
+    @Override
+    public boolean or(IBitSet set) {
+        if (set == this) {
+            return false;
+        }
+        if (set instanceof RoaringBitSet other) {
+            boolean changed = false;
+            int i = 0;
+            for (int j = 0; j < other.size; ++j) {
+                char key = other.keys[j];
+                while (i < size && keys[i] < key) {
+                    ++i;
+                }
+                if (i < size && keys[i] == key) {
+                    Container c = containers[i];
+                    int oldCardinality = c.cardinality();
+                    containers[i] = c = c.or(other.containers[j]);
+                    changed |= c.cardinality() != oldCardinality;
+                } else {
+                    insert(i, key, other.containers[j].copy());
+                    changed = true;
+                }
+                ++i;
+            }
+            return changed;
+        } else {
+            return super.or(set);
+        }
+    }
+
+    @Override
+    public IBitSet orDiff(IBitSet set) {
+        if (set == this) {
+            return new RoaringBitSet();
+        }
+        if (set instanceof RoaringBitSet other) {
+            RoaringBitSet diff = new RoaringBitSet();
+            int i = 0;
+            for (int j = 0; j < other.size; ++j) {
+                char key = other.keys[j];
+                while (i < size && keys[i] < key) {
+                    ++i;
+                }
+                Container oc = other.containers[j];
+                if (i < size && keys[i] == key) {
+                    Container c = containers[i];
+                    if (c.cardinality() == CHUNK_SIZE) {
+                        // full container, nothing to add
+                        ++i;
+                        continue;
+                    }
+                    Container d = oc.copy().andNot(c);
+                    if (d.cardinality() > 0) {
+                        containers[i] = c.or(d);
+                        diff.insert(diff.size, key, d);
+                    }
+                } else {
+                    insert(i, key, oc.copy());
+                    diff.insert(diff.size, key, oc.copy());
+                }
+                ++i;
+            }
+            return diff;
+        } else {
+            return super.orDiff(set);
+        }
+    }
+
+    @Override
+    public boolean xor(IBitSet set) {
+        if (set == this) {
+            return clearAll();
+        }
+        return super.xor(set);
+    }
+
+    @Override
+    public void setTo(IBitSet set) {
+        if (set == this) {
+            return;
+        }
+        if (set instanceof RoaringBitSet other) {
+            keys = Arrays.copyOf(other.keys, Math.max(other.size, INITIAL_CAPACITY));
+            containers = new Container[keys.length];
+            for (int i = 0; i < other.size; ++i) {
+                containers[i] = other.containers[i].copy();
+            }
+            size = other.size;
+        } else {
+            super.setTo(set);
+        }
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(containers, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Clears this set.
+     *
+     * @return {@code true} if this set changed.
+     */
+    private boolean clearAll() {
+        boolean changed = !isEmpty();
+        clear();
+        return changed;
+    }
+
+    @Override
+    public <R> R iterateBits(Action<R> action) {
+        for (int i = 0; i < size; ++i) {
+            if (!containers[i].iterate(keys[i] << CHUNK_BITS, action)) {
+                break;
+            }
+        }
+        return action.getResult();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int length() {
+        if (size == 0) {
+            return 0;
+        }
+        Container last = containers[size - 1];
+        return bitIndex(keys[size - 1], last.previousSetBit(CHUNK_MASK)) + 1;
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.min((long) size << CHUNK_BITS, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int cardinality() {
+        int sum = 0;
+        for (int i = 0; i < size; ++i) {
+            sum += containers[i].cardinality();
+        }
+        return sum;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = 1234;
+        for (int i = 0; i < size; ++i) {
+            h = 31 * h + keys[i];
+            h = 31 * h + containers[i].hashCode();
+        }
+        return h;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof RoaringBitSet other) || size != other.size) {
+            return false;
+        }
+        for (int i = 0; i < size; ++i) {
+            if (keys[i] != other.keys[i]
+                    || !containers[i].equals(other.containers[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public RoaringBitSet copy() {
+        int capacity = Math.max(size, INITIAL_CAPACITY);
+        Container[] copies = new Container[capacity];
+        for (int i = 0; i < size; ++i) {
+            copies[i] = containers[i].copy();
+        }
+        return new RoaringBitSet(Arrays.copyOf(keys, capacity), copies, size);
+    }
+
+    /**
+     * Container of the low 16 bits of a chunk. The update operations
+     * may convert this container to another kind, thus callers must
+     * use the returned container after the update.
+     */
+    private abstract static class Container implements Serializable {
+
+        abstract int cardinality();
+
+        abstract boolean contains(int low);
+
+        abstract Container add(int low);
+
+        abstract Container remove(int low);
+
+        /**
+         * @return the next set bit from {@code low}, or -1 if no such bit.
+         */
+        abstract int nextSetBit(int low);
+
+        /**
+         * @return the next clear bit from {@code low},
+         * or {@link #CHUNK_SIZE} if no such bit.
+         */
+        abstract int nextClearBit(int low);
+
+        /**
+         * @return the previous set bit from {@code low}, or -1 if no such bit.
+         */
+        abstract int previousSetBit(int low);
+
+        /**
+         * @return the previous clear bit from {@code low},
+         * or -1 if no such bit.
+         */
+        abstract int previousClearBit(int low);
+
+        abstract boolean intersects(Container c);
+
+        abstract boolean containsAll(Container c);
+
+        abstract Container and(Container c);
+
+        abstract Container andNot(Container c);
+
+        abstract Container or(Container c);
+
+        /**
+         * Iterates the bits in this container with given offset.
+         *
+         * @return {@code true} if the iteration should keep going.
+         */
+        abstract boolean iterate(int offset, Action<?> action);
+
+        abstract Container copy();
+
+        /**
+         * Checks bits of given container one by one.
+         */
+        boolean containsAll0(Container c) {
+            for (int i = c.nextSetBit(0); i >= 0; i = c.nextSetBit(i + 1)) {
+                if (!contains(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int h = cardinality();
+            for (int i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1)) {
+                h = 31 * h + i;
+            }
+            return h;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Container c
+                    && cardinality() == c.cardinality() && containsAll(c);
+        }
+    }
+
+    /**
+     * Container that stores sorted low 16 bits.
+     */
+    private static class ArrayContainer extends Container {
+
+        private char[] values;
+
+        private int cardinality;
+
+        private ArrayContainer() {
+            this(new char[INITIAL_CAPACITY], 0);
+        }
+
+        private ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        private int search(int low) {
+            return Arrays.binarySearch(values, 0, cardinality, (char) low);
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(int low) {
+            return search(low) >= 0;
+        }
+
+        @Override
+        Container add(int low) {
+            int pos = search(low);
+            if (pos >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_MAX) {
+                return toBitmap().add(low);
+            }
+            pos = -pos - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values,
+                        Math.min(cardinality + (cardinality >> 1) + 1, ARRAY_MAX));
+            }
+            System.arraycopy(values, pos, values, pos + 1, cardinality - pos);
+            values[pos] = (char) low;
+            ++cardinality;
+            return this;
+        }
+
+        @Override
+        Container remove(int low) {
+            int pos = search(low);
+            if (pos >= 0) {
+                System.arraycopy(values, pos + 1, values, pos, cardinality - pos - 1);
+                --cardinality;
+            }
+            return this;
+        }
+
+        @Override
+        int nextSetBit(int low) {
+            if (low >= CHUNK_SIZE) {
+                return -1;
+            }
+            int pos = search(low);
+            if (pos < 0) {
+                pos = -pos - 1;
+            }
+            return pos < cardinality ? values[pos] : -1;
+        }
+
+        @Override
+        int nextClearBit(int low) {
+            int pos = search(low);
+            if (pos < 0) {
+                return low;
+            }
+            // skip the run of consecutive values
+            while (pos < cardinality && values[pos] == low) {
+                ++pos;
+                ++low;
+            }
+            return low;
+        }
+
+        @Override
+        int previousSetBit(int low) {
+            int pos = search(low);
+            if (pos < 0) {
+                pos = -pos - 2;
+            }
+            return pos >= 0 ? values[pos] : -1;
+        }
+
+        @Override
+        int previousClearBit(int low) {
+            int pos = search(low);
+            if (pos < 0) {
+                return low;
+            }
+            // skip the run of consecutive values
+            while (pos >= 0 && values[pos] == low) {
+                --pos;
+                --low;
+            }
+            return low;
+        }
+
+        @Override
+        boolean intersects(Container c) {
+            if (c instanceof ArrayContainer other && other.cardinality < cardinality) {
+                return other.intersects(this);
+            }
+            for (int i = 0; i < cardinality; ++i) {
+                if (c.contains(values[i])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        boolean containsAll(Container c) {
+            if (c.cardinality() > cardinality) {
+                return false;
+            }
+            if (!(c instanceof ArrayContainer other)) {
+                return containsAll0(c);
+            }
+            int i = 0;
+            for (int j = 0; j < other.cardinality; ++j) {
+                char v = other.values[j];
+                while (i < cardinality && values[i] < v) {
+                    ++i;
+                }
+                if (i == cardinality || values[i] != v) {
+                    return false;
+                }
+                ++i;
+            }
+            return true;
+        }
+
+        @Override
+        Container and(Container c) {
+            int newCardinality = 0;
+            for (int i = 0; i < cardinality; ++i) {
+                if (c.contains(values[i])) {
+                    values[newCardinality++] = values[i];
+                }
+            }
+            cardinality = newCardinality;
+            return this;
+        }
+
+        @Override
+        Container andNot(Container c) {
+            int newCardinality = 0;
+            for (int i = 0; i < cardinality; ++i) {
+                if (!c.contains(values[i])) {
+                    values[newCardinality++] = values[i];
+                }
+            }
+            cardinality = newCardinality;
+            return this;
+        }
+
+        @Override
+        Container or(Container c) {
+            if (c instanceof BitmapContainer other) {
+                BitmapContainer result = other.copy();
+                for (int i = 0; i < cardinality; ++i) {
+                    result.add(values[i]);
+                }
+                return result;
+            }
+            ArrayContainer other = (ArrayContainer) c;
+            int maxCardinality = cardinality + other.cardinality;
+            if (maxCardinality > ARRAY_MAX) {
+                return toBitmap().or(other).shrink();
+            }
+            // merge two sorted arrays
+            char[] merged = new char[maxCardinality];
+            int i = 0, j = 0, k = 0;
+            while (i < cardinality && j < other.cardinality) {
+                char v1 = values[i], v2 = other.values[j];
+                if (v1 < v2) {
+                    merged[k++] = v1;
+                    ++i;
+                } else if (v1 > v2) {
+                    merged[k++] = v2;
+                    ++j;
+                } else {
+                    merged[k++] = v1;
+                    ++i;
+                    ++j;
+                }
+            }
+            while (i < cardinality) {
+                merged[k++] = values[i++];
+            }
+            while (j < other.cardinality) {
+                merged[k++] = other.values[j++];
+            }
+            values = merged;
+            cardinality = k;
+            return this;
+        }
+
+        @Override
+        boolean iterate(int offset, Action<?> action) {
+            for (int i = 0; i < cardinality; ++i) {
+                if (!action.accept(offset | values[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        ArrayContainer copy() {
+            return new ArrayContainer(
+                    Arrays.copyOf(values, Math.max(cardinality, 1)), cardinality);
+        }
+
+        private BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < cardinality; ++i) {
+                bitmap.add(values[i]);
+            }
+            return bitmap;
+        }
+    }
+
+    /**
+     * Container that stores the bits in a bit vector.
+     */
+    private static class BitmapContainer extends Container {
+
+        private final long[] words;
+
+        private int cardinality;
+
+        private BitmapContainer() {
+            this(new long[BITMAP_WORDS], 0);
+        }
+
+        private BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(int low) {
+            return (words[wordIndex(low)] & (1L << low)) != 0;
+        }
+
+        @Override
+        BitmapContainer add(int low) {
+            int i = wordIndex(low);
+            long old = words[i];
+            words[i] = old | (1L << low);
+            if (old != words[i]) {
+                ++cardinality;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(int low) {
+            int i = wordIndex(low);
+            long old = words[i];
+            words[i] = old & ~(1L << low);
+            if (old != words[i]) {
+                --cardinality;
+            }
+            return shrink();
+        }
+
+        @Override
+        int nextSetBit(int low) {
+            if (low >= CHUNK_SIZE) {
+                return -1;
+            }
+            int i = wordIndex(low);
+            long word = words[i] & (-1L << low);
+            while (true) {
+                if (word != 0) {
+                    return (i * BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
+                }
+                if (++i == BITMAP_WORDS) {
+                    return -1;
+                }
+                word = words[i];
+            }
+        }
+
+        @Override
+        int nextClearBit(int low) {
+            int i = wordIndex(low);
+            long word = ~words[i] & (-1L << low);
+            while (true) {
+                if (word != 0) {
+                    return (i * BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
+                }
+                if (++i == BITMAP_WORDS) {
+                    return CHUNK_SIZE;
+                }
+                word = ~words[i];
+            }
+        }
+
+        @Override
+        int previousSetBit(int low) {
+            int i = wordIndex(low);
+            long word = words[i] & (-1L >>> -(low + 1));
+            while (true) {
+                if (word != 0) {
+                    return (i + 1) * BITS_PER_WORD - 1 - Long.numberOfLeadingZeros(word);
+                }
+                if (i-- == 0) {
+                    return -1;
+                }
+                word = words[i];
+            }
+        }
+
+        @Override
+        int previousClearBit(int low) {
+            int i = wordIndex(low);
+            long word = ~words[i] & (-1L >>> -(low + 1));
+            while (true) {
+                if (word != 0) {
+                    return (i + 1) * BITS_PER_WORD - 1 - Long.numberOfLeadingZeros(word);
+                }
+                if (i-- == 0) {
+                    return -1;
+                }
+                word = ~words[i];
+            }
+        }
+
+        @Override
+        boolean intersects(Container c) {
+            if (c instanceof BitmapContainer other) {
+                for (int i = 0; i < BITMAP_WORDS; ++i) {
+                    if ((words[i] & other.words[i]) != 0) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            return c.intersects(this);
+        }
+
+        @Override
+        boolean containsAll(Container c) {
+            if (c.cardinality() > cardinality) {
+                return false;
+            }
+            if (c instanceof BitmapContainer other) {
+                for (int i = 0; i < BITMAP_WORDS; ++i) {
+                    if ((other.words[i] & ~words[i]) != 0) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            return containsAll0(c);
+        }
+
+        @Override
+        Container and(Container c) {
+            if (c instanceof BitmapContainer other) {
+                int newCardinality = 0;
+                for (int i = 0; i < BITMAP_WORDS; ++i) {
+                    words[i] &= other.words[i];
+                    newCardinality += Long.bitCount(words[i]);
+                }
+                cardinality = newCardinality;
+                return shrink();
+            }
+            ArrayContainer result = ((ArrayContainer) c).copy();
+            return result.and(this);
+        }
+
+        @Override
+        Container andNot(Container c) {
+            if (c instanceof BitmapContainer other) {
+                int newCardinality = 0;
+                for (int i = 0; i < BITMAP_WORDS; ++i) {
+                    words[i] &= ~other.words[i];
+                    newCardinality += Long.bitCount(words[i]);
+                }
+                cardinality = newCardinality;
+            } else {
+                ArrayContainer other = (ArrayContainer) c;
+                for (int i = 0; i < other.cardinality; ++i) {
+                    int low = other.values[i];
+                    int w = wordIndex(low);
+                    long old = words[w];
+                    words[w] = old & ~(1L << low);
+                    if (old != words[w]) {
+                        --cardinality;
+                    }
+                }
+            }
+            return shrink();
+        }
+
+        @Override
+        BitmapContainer or(Container c) {
+            if (c instanceof BitmapContainer other) {
+                int newCardinality = 0;
+                for (int i = 0; i < BITMAP_WORDS; ++i) {
+                    words[i] |= other.words[i];
+                    newCardinality += Long.bitCount(words[i]);
+                }
+                cardinality = newCardinality;
+            } else {
+                ArrayContainer other = (ArrayContainer) c;
+                for (int i = 0; i < other.cardinality; ++i) {
+                    add(other.values[i]);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        boolean iterate(int offset, Action<?> action) {
+            for (int i = 0; i < BITMAP_WORDS; ++i) {
+                long word = words[i];
+                while (word != 0) {
+                    int low = i * BITS_PER_WORD + Long.numberOfTrailingZeros(word);
+                    if (!action.accept(offset | low)) {
+                        return false;
+                    }
+                    word &= word - 1;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        BitmapContainer copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        /**
+         * Converts this container to array container if it becomes sparse.
+         */
+        private Container shrink() {
+            if (cardinality > ARRAY_MAX) {
+                return this;
+            }
+            char[] values = new char[Math.max(cardinality, 1)];
+            int k = 0;
+            for (int i = 0; i < BITMAP_WORDS; ++i) {
+                long word = words[i];
+                while (word != 0) {
+                    values[k++] = (char) (i * BITS_PER_WORD
+                            + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values, cardinality);
+        }
+    }
+}
@@ -29,6 +29,8 @@ import pascal.taie.analysis.dataflow.DataflowTestSuite;
 import pascal.taie.analysis.deadcode.DeadCodeTestFull;
 import pascal.taie.analysis.defuse.DefUseTest;
 import pascal.taie.analysis.graph.callgraph.cha.CHATestFull;
+import pascal.taie.analysis.graph.callgraph.rta.RTATest;
+import pascal.taie.analysis.graph.callgraph.xta.XTATest;
 import pascal.taie.analysis.pta.PTATestSuite;
 import pascal.taie.analysis.sideeffect.SideEffectTest;
 import pascal.taie.config.OptionsTest;
@@ -59,6 +61,8 @@ import pascal.taie.util.UtilTestSuite;
         DeadCodeTestFull.class,
         DefUseTest.class,
         CHATestFull.class,
+        RTATest.class,
+        XTATest.class,
         PTATestSuite.class,
         SideEffectTest.class,
         // util
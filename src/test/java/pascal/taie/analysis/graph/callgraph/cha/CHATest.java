@@ -28,7 +28,7 @@ import pascal.taie.analysis.Tests;
 
 public class CHATest {
 
-    private static final String CLASS_PATH = "src/test/resources/cha/";
+    static final String CLASS_PATH = "src/test/resources/cha/";
 
     static void test(String mainClass) {
         Tests.testMain(mainClass, CLASS_PATH, "cg", "algorithm:cha");
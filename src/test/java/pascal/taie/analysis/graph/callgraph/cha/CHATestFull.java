@@ -24,6 +24,7 @@ package pascal.taie.analysis.graph.callgraph.cha;
 
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
+import pascal.taie.analysis.Tests;
 
 public class CHATestFull extends CHATest {
 
@@ -41,4 +42,31 @@ public class CHATestFull extends CHATest {
         test(mainClass);
     }
 
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "VirtualCall",
+            "Interface",
+            "Interface2",
+            "Interface3",
+            "AbstractMethod",
+            "MaxPQ",
+    })
+    void testPreBuildDispatch(String mainClass) {
+        Tests.testMain(mainClass, CLASS_PATH, "cg",
+                "algorithm:cha", "--pre-build-dispatch");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "VirtualCall",
+            "Interface",
+            "Interface3",
+            "Recursion2",
+            "MaxPQ",
+            "LongCallChain",
+    })
+    void testThreads(String mainClass) {
+        Tests.testMain(mainClass, CLASS_PATH, "cg", "algorithm:cha;threads:4");
+    }
+
 }
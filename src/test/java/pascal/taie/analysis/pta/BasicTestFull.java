@@ -54,4 +54,100 @@ public class BasicTestFull extends BasicTest {
         Tests.testPTA(DIR, mainClass, opts);
     }
 
+    /**
+     * Tests for merging pointers in cycles of copy edges,
+     * which should not change the analysis results.
+     */
+    @ParameterizedTest
+    @MultiStringsSource({"Cycle", "merge-pfg-cycles:true"})
+    @MultiStringsSource({"Recursion", "merge-pfg-cycles:true"})
+    @MultiStringsSource({"ComplexAssign", "merge-pfg-cycles:true"})
+    @MultiStringsSource({"LinkedQueue", "merge-pfg-cycles:true"})
+    @MultiStringsSource({"RedBlackBST", "merge-pfg-cycles:true"})
+    void testMergePFGCycles(String mainClass, String... opts) {
+        Tests.testPTA(DIR, mainClass, opts);
+    }
+
+    /**
+     * Tests for propagating points-to sets with multiple threads,
+     * which should not change the analysis results.
+     */
+    @ParameterizedTest
+    @MultiStringsSource({"LinkedQueue", "solver-threads:4"})
+    @MultiStringsSource({"RedBlackBST", "solver-threads:4"})
+    @MultiStringsSource({"RedBlackBST", "solver-threads:4", "merge-pfg-cycles:true"})
+    @MultiStringsSource({"Array", "solver-threads:4"})
+    @MultiStringsSource({"LinkedQueue", "solver-threads:4", "pts-representation:shared"})
+    void testSolverThreads(String mainClass, String... opts) {
+        Tests.testPTA(DIR, mainClass, opts);
+    }
+
+    /**
+     * Tests for work list policies,
+     * which should not change the analysis results.
+     */
+    @ParameterizedTest
+    @MultiStringsSource({"RedBlackBST", "worklist-policy:topo"})
+    @MultiStringsSource({"RedBlackBST", "worklist-policy:lrf"})
+    @MultiStringsSource({"RedBlackBST", "worklist-policy:deep"})
+    @MultiStringsSource({"Cycle", "worklist-policy:topo", "merge-pfg-cycles:true"})
+    void testWorkListPolicy(String mainClass, String... opts) {
+        Tests.testPTA(DIR, mainClass, opts);
+    }
+
+    /**
+     * Tests for representations of points-to sets,
+     * which should not change the analysis results.
+     */
+    @ParameterizedTest
+    @MultiStringsSource({"RedBlackBST", "pts-representation:shared"})
+    @MultiStringsSource({"Array", "pts-representation:shared"})
+    @MultiStringsSource({"Cast", "pts-representation:shared"})
+    @MultiStringsSource({"Cycle", "pts-representation:shared", "merge-pfg-cycles:true"})
+    @MultiStringsSource({"RedBlackBST", "pts-representation:roaring"})
+    @MultiStringsSource({"Array", "pts-representation:roaring"})
+    @MultiStringsSource({"RedBlackBST", "pts-representation:bdd"})
+    @MultiStringsSource({"Cast", "pts-representation:bdd"})
+    void testPointsToSetRepresentation(String mainClass, String... opts) {
+        Tests.testPTA(DIR, mainClass, opts);
+    }
+
+    /**
+     * Tests for managers of context-sensitive elements,
+     * which should not change the analysis results.
+     */
+    @ParameterizedTest
+    @MultiStringsSource({"StaticField", "cs-manager:array"})
+    @MultiStringsSource({"LinkedQueue", "cs-manager:array"})
+    @MultiStringsSource({"RedBlackBST", "cs-manager:array", "merge-pfg-cycles:true"})
+    @MultiStringsSource({"Array", "cs-manager:array"})
+    void testCSManager(String mainClass, String... opts) {
+        Tests.testPTA(DIR, mainClass, opts);
+    }
+
+    /**
+     * Tests for batched processing of calls,
+     * which should not change the analysis results.
+     */
+    @ParameterizedTest
+    @MultiStringsSource({"Dispatch", "batch-calls:true"})
+    @MultiStringsSource({"RedBlackBST", "batch-calls:true"})
+    @MultiStringsSource({"Dispatch2", "batch-calls:true"})
+    void testBatchCalls(String mainClass, String... opts) {
+        Tests.testPTA(DIR, mainClass, opts);
+    }
+
+    /**
+     * Tests for orders of the indexes of objects,
+     * which should not change the analysis results.
+     */
+    @ParameterizedTest
+    @MultiStringsSource({"RedBlackBST", "obj-index-order:type"})
+    @MultiStringsSource({"Array", "obj-index-order:method"})
+    @MultiStringsSource({"LinkedQueue", "obj-index-order:type", "cs-manager:array"})
+    @MultiStringsSource({"Cast", "obj-index-order:method", "cs-manager:array"})
+    void testObjIndexOrder(String mainClass, String... opts) {
+        Tests.testPTA(DIR, mainClass, opts);
+    }
+
 }
@@ -0,0 +1,143 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.language.classes.JMethod;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Performance measurement of analyzing a benchmark with certain settings.
+ *
+ * @param benchmark        ID of the benchmark
+ * @param cs               context sensitivity of pointer analysis
+ * @param advanced         advanced pointer analysis
+ * @param phaseTimes       wall time (in milliseconds) of each phase, keyed by
+ *                         the names of the {@link pascal.taie.util.Timer}s
+ * @param gcTime           total time (in milliseconds) of garbage collection
+ * @param peakHeap         sum of the peak usage (in bytes) of heap memory pools
+ * @param peakRss          peak resident set size (in bytes) of the process,
+ *                         or -1 if it is unavailable
+ * @param reachableMethods number of reachable methods
+ * @param callEdges        number of call edges
+ * @param csPointers       number of context-sensitive pointers
+ */
+record BenchmarkMeasurement(String benchmark, String cs, String advanced,
+                            Map<String, Long> phaseTimes,
+                            long gcTime, long peakHeap, long peakRss,
+                            long reachableMethods, long callEdges,
+                            long csPointers) {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT);
+
+    /**
+     * @return the key that identifies the benchmark and settings.
+     */
+    String key() {
+        return benchmark + " (cs: " + cs + ", advanced: " + advanced + ")";
+    }
+
+    /**
+     * Measures the resource usage of current JVM and the results of
+     * pointer analysis in current world.
+     */
+    static BenchmarkMeasurement measure(String benchmark, String cs,
+                                        String advanced,
+                                        Map<String, Long> phaseTimes) {
+        long gcTime = ManagementFactory.getGarbageCollectorMXBeans()
+                .stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+                .filter(t -> t > 0)
+                .sum();
+        long peakHeap = ManagementFactory.getMemoryPoolMXBeans()
+                .stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .map(MemoryPoolMXBean::getPeakUsage)
+                .mapToLong(usage -> usage != null ? usage.getUsed() : 0)
+                .sum();
+        PointerAnalysisResult pta = World.get().getResult(PointerAnalysis.ID);
+        CallGraph<?, JMethod> callGraph = pta.getCallGraph();
+        long csPointers = (long) pta.getCSVars().size()
+                + pta.getStaticFields().size()
+                + pta.getInstanceFields().size()
+                + pta.getArrayIndexes().size();
+        return new BenchmarkMeasurement(benchmark, cs, advanced, phaseTimes,
+                gcTime, peakHeap, getPeakRss(),
+                callGraph.getNumberOfMethods(), callGraph.getNumberOfEdges(),
+                csPointers);
+    }
+
+    /**
+     * @return peak resident set size of current process on Linux, or -1.
+     */
+    private static long getPeakRss() {
+        Path status = Path.of("/proc/self/status");
+        if (Files.isReadable(status)) {
+            try {
+                for (String line : Files.readAllLines(status)) {
+                    // e.g., "VmHWM:    123456 kB"
+                    if (line.startsWith("VmHWM:")) {
+                        String kb = line.substring("VmHWM:".length())
+                                .replace("kB", "").trim();
+                        return Long.parseLong(kb) * 1024;
+                    }
+                }
+            } catch (IOException | NumberFormatException ignored) {
+            }
+        }
+        return -1;
+    }
+
+    static List<BenchmarkMeasurement> read(File file) {
+        try {
+            return MAPPER.readValue(file, new TypeReference<>() {});
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static void write(List<BenchmarkMeasurement> measurements, File file) {
+        try {
+            MAPPER.writeValue(file, measurements);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
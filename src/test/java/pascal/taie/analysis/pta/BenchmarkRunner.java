@@ -23,6 +23,8 @@
 package pascal.taie.analysis.pta;
 
 import pascal.taie.Main;
+import pascal.taie.util.Timer;
+import pascal.taie.util.collection.Maps;
 import picocli.CommandLine;
 
 import java.io.File;
@@ -31,6 +33,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 @CommandLine.Command
@@ -52,9 +55,26 @@ public class BenchmarkRunner {
     @CommandLine.Option(names = "-advanced", defaultValue = "null")
     private String advanced;
 
+    /**
+     * Whether to build IR of all methods before running analyses,
+     * so that the time of building IR is measured separately.
+     */
+    @CommandLine.Option(names = "-pre-build-ir")
+    private boolean preBuildIR;
+
+    /**
+     * If given, the measurements of the runs are written to this file.
+     * As the measurements of memory usage and GC time cover the whole JVM,
+     * each JVM should analyze one benchmark (see {@link BenchmarkSuite}).
+     */
+    @CommandLine.Option(names = "-report")
+    private File report;
+
     @CommandLine.Parameters
     private List<String> benchmarks;
 
+    private final List<BenchmarkMeasurement> measurements = new ArrayList<>();
+
     public static void main(String[] args) {
         BenchmarkRunner runner = CommandLine.populateCommand(new BenchmarkRunner(), args);
         runner.runAll();
@@ -65,11 +85,27 @@ public class BenchmarkRunner {
             throw new IllegalArgumentException("benchmarks are not given");
         }
         benchmarks.forEach(this::run);
+        if (report != null) {
+            BenchmarkMeasurement.write(measurements, report);
+        }
     }
 
     private void run(String benchmark) {
         System.out.println("\nAnalyzing " + benchmark);
-        Main.main(composeArgs(benchmark));
+        // timers may stop on different threads
+        Map<String, Long> phaseTimes = Collections.synchronizedMap(
+                Maps.newLinkedHashMap());
+        BiConsumer<String, Long> listener = phaseTimes::put;
+        Timer.addListener(listener);
+        try {
+            Main.main(composeArgs(benchmark));
+        } finally {
+            Timer.removeListener(listener);
+        }
+        if (report != null) {
+            measurements.add(BenchmarkMeasurement.measure(
+                    benchmark, cs, advanced, phaseTimes));
+        }
     }
 
     private String[] composeArgs(String benchmark) {
@@ -85,6 +121,9 @@ public class BenchmarkRunner {
         if (info.allowPhantom()) {
             args.add("--allow-phantom");
         }
+        if (preBuildIR) {
+            args.add("--pre-build-ir");
+        }
         Map<String, String> ptaArgs = Map.of(
                 "distinguish-string-constants", "null",
                 "merge-string-objects", "false",
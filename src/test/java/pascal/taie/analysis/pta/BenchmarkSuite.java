@@ -0,0 +1,170 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta;
+
+import picocli.CommandLine;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs a matrix of benchmarks x context sensitivities x advanced analyses,
+ * each in a fresh JVM (by {@link BenchmarkRunner}), writes the measurements
+ * to a report, and compares them with a baseline to flag regressions.
+ * <p>
+ * For example, the following command runs two benchmarks with two
+ * context sensitivities, and exits with status 1 if any regression
+ * is found compared to {@code baseline.json}:
+ * <pre>
+ * BenchmarkSuite -b antlr,luindex -cs ci,2-obj -baseline baseline.json
+ * </pre>
+ */
+@CommandLine.Command
+public class BenchmarkSuite {
+
+    @CommandLine.Option(names = "-b", split = ",", required = true)
+    private List<String> benchmarks;
+
+    @CommandLine.Option(names = "-cs", split = ",", defaultValue = "ci")
+    private List<String> css;
+
+    @CommandLine.Option(names = "-advanced", split = ",", defaultValue = "null")
+    private List<String> advanceds;
+
+    @CommandLine.Option(names = "-java", defaultValue = "0")
+    private int jdk;
+
+    /**
+     * Maximum heap size of each JVM.
+     */
+    @CommandLine.Option(names = "-Xmx", defaultValue = "8g")
+    private String maxHeap;
+
+    @CommandLine.Option(names = "-o", defaultValue = "benchmark-report.json")
+    private File report;
+
+    @CommandLine.Option(names = "-baseline")
+    private File baseline;
+
+    /**
+     * Whether to overwrite the baseline with current measurements.
+     */
+    @CommandLine.Option(names = "-update-baseline")
+    private boolean updateBaseline;
+
+    @CommandLine.Option(names = "-time-tolerance", defaultValue = "0.1")
+    private double timeTolerance;
+
+    @CommandLine.Option(names = "-memory-tolerance", defaultValue = "0.1")
+    private double memoryTolerance;
+
+    /**
+     * Phases shorter than this time (in milliseconds) are not compared.
+     */
+    @CommandLine.Option(names = "-min-time", defaultValue = "1000")
+    private long minTime;
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkSuite suite = CommandLine.populateCommand(new BenchmarkSuite(), args);
+        System.exit(suite.run());
+    }
+
+    /**
+     * @return exit status, i.e., 1 if any run fails or any regression
+     * is found, otherwise 0.
+     */
+    private int run() throws IOException, InterruptedException {
+        List<BenchmarkMeasurement> measurements = new ArrayList<>();
+        boolean failed = false;
+        for (String benchmark : benchmarks) {
+            for (String cs : css) {
+                for (String advanced : advanceds) {
+                    BenchmarkMeasurement m = runInFreshJVM(benchmark, cs, advanced);
+                    if (m != null) {
+                        measurements.add(m);
+                    } else {
+                        failed = true;
+                    }
+                }
+            }
+        }
+        BenchmarkMeasurement.write(measurements, report);
+        System.out.println("Benchmark report is written to " + report);
+        if (baseline != null) {
+            if (updateBaseline || !baseline.exists()) {
+                BenchmarkMeasurement.write(measurements, baseline);
+                System.out.println("Baseline is written to " + baseline);
+            } else {
+                List<String> regressions = new RegressionChecker(
+                        timeTolerance, memoryTolerance, minTime)
+                        .check(BenchmarkMeasurement.read(baseline), measurements);
+                if (regressions.isEmpty()) {
+                    System.out.println("No regression is found compared to " + baseline);
+                } else {
+                    System.out.println(regressions.size()
+                            + " regression(s) are found compared to " + baseline + ":");
+                    regressions.forEach(r -> System.out.println("  " + r));
+                    failed = true;
+                }
+            }
+        }
+        return failed ? 1 : 0;
+    }
+
+    private BenchmarkMeasurement runInFreshJVM(
+            String benchmark, String cs, String advanced)
+            throws IOException, InterruptedException {
+        File runReport = File.createTempFile("benchmark-", ".json");
+        try {
+            List<String> command = List.of(
+                    Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-Xmx" + maxHeap,
+                    "-cp", System.getProperty("java.class.path"),
+                    BenchmarkRunner.class.getName(),
+                    "-cs", cs,
+                    "-advanced", advanced,
+                    "-java", Integer.toString(jdk),
+                    "-pre-build-ir",
+                    "-report", runReport.getPath(),
+                    benchmark);
+            System.out.printf("Running %s (cs: %s, advanced: %s)%n",
+                    benchmark, cs, advanced);
+            int status = new ProcessBuilder(command)
+                    .inheritIO()
+                    .start()
+                    .waitFor();
+            if (status != 0) {
+                System.out.printf("Failed to run %s (exit status: %d)%n",
+                        benchmark, status);
+                return null;
+            }
+            return BenchmarkMeasurement.read(runReport).get(0);
+        } finally {
+            runReport.delete();
+        }
+    }
+}
@@ -50,4 +50,16 @@ public class ContextSensitivityTest {
         Tests.testPTA(DIR, mainClass, opts);
     }
 
+    /**
+     * Tests for the array-based manager of context-sensitive elements,
+     * which should not change the analysis results.
+     */
+    @ParameterizedTest
+    @MultiStringsSource({"TwoCall", "cs:2-call", "cs-manager:array"})
+    @MultiStringsSource({"TwoObject", "cs:2-obj", "cs-manager:array"})
+    @MultiStringsSource({"TwoType", "cs:2-type", "cs-manager:array"})
+    void testCSManager(String mainClass, String... opts) {
+        Tests.testPTA(DIR, mainClass, opts);
+    }
+
 }
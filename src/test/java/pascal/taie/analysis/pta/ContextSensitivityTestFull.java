@@ -47,4 +47,16 @@ public class ContextSensitivityTestFull extends ContextSensitivityTest {
         Tests.testPTA(DIR, mainClass, opts);
     }
 
+    /**
+     * Tests for batched processing of calls, which selects contexts
+     * once for the receiver objects with the same key.
+     */
+    @ParameterizedTest
+    @MultiStringsSource({"LongCallContext", "cs:2-call", "batch-calls:true"})
+    @MultiStringsSource({"LinkedQueue", "cs:2-obj", "batch-calls:true"})
+    @MultiStringsSource({"TypeSens", "cs:2-type", "batch-calls:true"})
+    void testBatchCalls(String mainClass, String... opts) {
+        Tests.testPTA(DIR, mainClass, opts);
+    }
+
 }
@@ -25,17 +25,21 @@ package pascal.taie.analysis.pta;
 import org.junit.platform.suite.api.SelectClasses;
 import org.junit.platform.suite.api.Suite;
 import pascal.taie.analysis.pta.core.cs.context.ContextTest;
+import pascal.taie.analysis.pta.core.solver.ParallelPropagationTest;
+import pascal.taie.analysis.pta.plugin.taint.DemandSlicerTest;
 
 @Suite
 @SelectClasses({
         ContextTest.class,
         BasicTestFull.class,
+        ParallelPropagationTest.class,
         ContextSensitivityTestFull.class,
         ExceptionTest.class,
         LambdaTest.class,
         Java9StringConcatTest.class,
         ReflectionTest.class,
         TaintTest.class,
+        DemandSlicerTest.class,
         WorldCacheTest.class,
 })
 public class PTATestSuite {
@@ -0,0 +1,127 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta;
+
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares benchmark measurements with their baselines, and reports
+ * the regressions, i.e., slowdowns and increases of memory usage beyond
+ * given tolerances, and changes of the sizes of analysis results.
+ */
+class RegressionChecker {
+
+    /**
+     * Relative tolerance of wall time and GC time, e.g., 0.1 means 10%.
+     */
+    private final double timeTolerance;
+
+    /**
+     * Relative tolerance of memory usage.
+     */
+    private final double memoryTolerance;
+
+    /**
+     * Phases that take less time (in milliseconds) than this threshold
+     * in both baseline and current measurements are not compared,
+     * as their timings are dominated by noise.
+     */
+    private final long minTime;
+
+    RegressionChecker(double timeTolerance, double memoryTolerance, long minTime) {
+        this.timeTolerance = timeTolerance;
+        this.memoryTolerance = memoryTolerance;
+        this.minTime = minTime;
+    }
+
+    /**
+     * @return descriptions of the regressions of {@code current}
+     * compared to {@code baseline}.
+     */
+    List<String> check(List<BenchmarkMeasurement> baseline,
+                       List<BenchmarkMeasurement> current) {
+        Map<String, BenchmarkMeasurement> baselineMap = Maps.newMap();
+        baseline.forEach(m -> baselineMap.put(m.key(), m));
+        List<String> regressions = new ArrayList<>();
+        for (BenchmarkMeasurement cur : current) {
+            BenchmarkMeasurement base = baselineMap.get(cur.key());
+            if (base != null) {
+                check(base, cur, regressions);
+            }
+        }
+        return regressions;
+    }
+
+    private void check(BenchmarkMeasurement base, BenchmarkMeasurement cur,
+                       List<String> regressions) {
+        String key = cur.key();
+        cur.phaseTimes().forEach((phase, time) -> {
+            Long baseTime = base.phaseTimes().get(phase);
+            if (baseTime != null && Math.max(baseTime, time) >= minTime) {
+                checkIncrease(key, "time of " + phase, "ms",
+                        baseTime, time, timeTolerance, regressions);
+            }
+        });
+        if (Math.max(base.gcTime(), cur.gcTime()) >= minTime) {
+            checkIncrease(key, "GC time", "ms",
+                    base.gcTime(), cur.gcTime(), timeTolerance, regressions);
+        }
+        checkIncrease(key, "peak heap", "bytes",
+                base.peakHeap(), cur.peakHeap(), memoryTolerance, regressions);
+        if (base.peakRss() >= 0 && cur.peakRss() >= 0) {
+            checkIncrease(key, "peak RSS", "bytes",
+                    base.peakRss(), cur.peakRss(), memoryTolerance, regressions);
+        }
+        checkEqual(key, "#reachable methods",
+                base.reachableMethods(), cur.reachableMethods(), regressions);
+        checkEqual(key, "#call edges",
+                base.callEdges(), cur.callEdges(), regressions);
+        checkEqual(key, "#CS pointers",
+                base.csPointers(), cur.csPointers(), regressions);
+    }
+
+    private static void checkIncrease(
+            String key, String metric, String unit, long base, long cur,
+            double tolerance, List<String> regressions) {
+        if (cur > base * (1 + tolerance)) {
+            regressions.add(String.format(
+                    "%s: %s increases from %d %s to %d %s (%+.1f%%)",
+                    key, metric, base, unit, cur, unit,
+                    base == 0 ? Double.POSITIVE_INFINITY
+                            : (cur - base) * 100.0 / base));
+        }
+    }
+
+    private static void checkEqual(String key, String metric, long base,
+                                   long cur, List<String> regressions) {
+        if (base != cur) {
+            regressions.add(String.format("%s: %s changes from %d to %d",
+                    key, metric, base, cur));
+        }
+    }
+}
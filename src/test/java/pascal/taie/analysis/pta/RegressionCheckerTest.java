@@ -0,0 +1,71 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RegressionCheckerTest {
+
+    private final RegressionChecker checker = new RegressionChecker(0.1, 0.2, 1000);
+
+    private static BenchmarkMeasurement measure(
+            long ptaTime, long peakHeap, long callEdges) {
+        return new BenchmarkMeasurement("bm", "ci", "null",
+                Map.of("pta", ptaTime, "cg", 10L),
+                0, peakHeap, -1, 100, callEdges, 1000);
+    }
+
+    @Test
+    void testNoRegression() {
+        List<String> regressions = checker.check(
+                List.of(measure(10_000, 1_000, 50)),
+                List.of(measure(10_900, 1_150, 50)));
+        assertTrue(regressions.isEmpty());
+    }
+
+    @Test
+    void testRegressions() {
+        List<String> regressions = checker.check(
+                List.of(measure(10_000, 1_000, 50)),
+                List.of(measure(11_100, 1_300, 51)));
+        // pta time, peak heap, and #call edges
+        assertEquals(3, regressions.size());
+    }
+
+    @Test
+    void testShortPhasesAndNewBenchmarks() {
+        BenchmarkMeasurement base = measure(100, 1_000, 50);
+        BenchmarkMeasurement other = new BenchmarkMeasurement("other", "ci", "null",
+                Map.of(), 0, 1_000_000, -1, 0, 0, 0);
+        // pta takes less than 1000ms, and "other" has no baseline
+        assertTrue(checker.check(List.of(base),
+                List.of(measure(500, 1_000, 50), other)).isEmpty());
+    }
+}
@@ -22,18 +22,49 @@
 
 package pascal.taie.analysis.pta;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
+import pascal.taie.World;
 import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.core.solver.EmptyParamProvider;
+import pascal.taie.analysis.pta.core.solver.EntryPoint;
+import pascal.taie.analysis.pta.core.solver.Solver;
+import pascal.taie.analysis.pta.plugin.Plugin;
+import pascal.taie.analysis.pta.plugin.taint.TaintAnalysis;
+import pascal.taie.analysis.pta.plugin.taint.TaintConfigUpdater;
+import pascal.taie.analysis.pta.plugin.taint.TaintFlow;
+import pascal.taie.analysis.pta.plugin.taint.TaintFlowListener;
+import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.MultiStringsSource;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TaintTest {
 
     static final String DIR = "taint";
 
-    static final String TAINT_CONFIG_PREFIX = "taint-config:src/test/resources/pta/taint/";
+    static final String TAINT_CONFIG_DIR = "src/test/resources/pta/taint/";
+
+    static final String TAINT_CONFIG_PREFIX = "taint-config:" + TAINT_CONFIG_DIR;
 
     static final String TAINT_CONFIG = TAINT_CONFIG_PREFIX + "taint-config.yml";
 
@@ -71,6 +102,10 @@ public class TaintTest {
             TAINT_CONFIG_PREFIX + "taint-config-call-site-model.yml"})
     void test(String mainClass, String... opts) {
         testInNonInteractiveMode(mainClass, opts);
+        Set<String> taintFlows = getTaintFlows();
+        testInDemandDrivenMode(mainClass, taintFlows, opts);
+        testInIncrementalMode(mainClass, taintFlows, opts);
+        testInStreamingMode(mainClass, taintFlows, opts);
         testInInteractiveMode(mainClass, opts);
     }
 
@@ -78,6 +113,270 @@ public class TaintTest {
         Tests.testPTA(DIR, mainClass, opts);
     }
 
+    /**
+     * Demand-driven mode ignores the methods irrelevant to the sinks,
+     * so we only check that it detects the same taint flows.
+     */
+    private void testInDemandDrivenMode(String mainClass,
+                                        Set<String> expectedTaintFlows,
+                                        String... opts) {
+        String[] newOpts = new String[opts.length + 1];
+        System.arraycopy(opts, 0, newOpts, 0, opts.length);
+        newOpts[opts.length] = "taint-demand-driven:true";
+        Tests.testPTA(false, DIR, mainClass, newOpts);
+        assertEquals(expectedTaintFlows, getTaintFlows());
+    }
+
+    /**
+     * Starts taint analysis with an empty configuration, and then updates
+     * it to the given configuration, back to the empty one and again to
+     * the given one incrementally via {@link Reloader}, which should
+     * detect the same taint flows as the normal run.
+     */
+    private void testInIncrementalMode(String mainClass,
+                                       Set<String> expectedTaintFlows,
+                                       String... opts) {
+        String configPath = null;
+        String[] newOpts = new String[opts.length + 1];
+        for (int i = 0; i < opts.length; ++i) {
+            if (opts[i].startsWith(TAINT_CONFIG_PREFIX)) {
+                configPath = opts[i].substring("taint-config:".length());
+                newOpts[i] = TAINT_CONFIG_PREFIX + "taint-config-empty.yml";
+            } else {
+                newOpts[i] = opts[i];
+            }
+        }
+        Reloader.reset(configPath, TAINT_CONFIG_DIR + "taint-config-empty.yml", configPath);
+        newOpts[opts.length] = "taint-config-updater:" + Reloader.class.getName();
+        Tests.testPTA(false, DIR, mainClass, newOpts);
+        assertEquals(List.of(Set.of(), expectedTaintFlows, Set.of(), expectedTaintFlows),
+                Reloader.reportedTaintFlows);
+        assertEquals(expectedTaintFlows, getTaintFlows());
+    }
+
+    /**
+     * Switches taint configuration between the full one and the reduced one
+     * (which removes some sources, transfers or sanitizers) incrementally
+     * via {@link Reloader}, and checks that each update detects the same
+     * taint flows as the normal run with the corresponding configuration.
+     */
+    @ParameterizedTest
+    @MultiStringsSource({"SimpleTaint", "taint-config-no-field-source.yml"})
+    @MultiStringsSource({"SimpleTaint", "taint-config-no-sanitizer.yml"})
+    @MultiStringsSource({"StringAppend", "taint-config-no-transfer.yml"})
+    void testIncrementalRemoval(String mainClass, String reducedConfig) {
+        String fullConfigPath = TAINT_CONFIG_DIR + "taint-config.yml";
+        String reducedConfigPath = TAINT_CONFIG_DIR + reducedConfig;
+        Tests.testPTA(false, DIR, mainClass, TAINT_CONFIG);
+        Set<String> fullTaintFlows = getTaintFlows();
+        Tests.testPTA(false, DIR, mainClass, TAINT_CONFIG_PREFIX + reducedConfig);
+        Set<String> reducedTaintFlows = getTaintFlows();
+        assertNotEquals(fullTaintFlows, reducedTaintFlows);
+        // full -> reduced -> full
+        Reloader.reset(reducedConfigPath, fullConfigPath);
+        Tests.testPTA(false, DIR, mainClass, TAINT_CONFIG,
+                "taint-config-updater:" + Reloader.class.getName());
+        assertEquals(List.of(fullTaintFlows, reducedTaintFlows, fullTaintFlows),
+                Reloader.reportedTaintFlows);
+        // reduced -> full -> reduced
+        Reloader.reset(fullConfigPath, reducedConfigPath);
+        Tests.testPTA(false, DIR, mainClass, TAINT_CONFIG_PREFIX + reducedConfig,
+                "taint-config-updater:" + Reloader.class.getName());
+        assertEquals(List.of(reducedTaintFlows, fullTaintFlows, reducedTaintFlows),
+                Reloader.reportedTaintFlows);
+    }
+
+    /**
+     * Adds the sinks to a configuration without sinks incrementally via
+     * {@link Reloader}. The updated sinks should be monitored right after
+     * the update, i.e., the listeners are notified of the taint flows
+     * before pointer analysis reaches the next fixed point.
+     */
+    @Test
+    void testIncrementalSinkUpdate() {
+        Tests.testPTA(false, DIR, "SimpleTaint", TAINT_CONFIG);
+        Set<String> taintFlows = getTaintFlows();
+        assertFalse(taintFlows.isEmpty());
+        Collector.taintFlows.clear();
+        Reloader.reset(TAINT_CONFIG_DIR + "taint-config.yml");
+        Tests.testPTA(false, DIR, "SimpleTaint",
+                TAINT_CONFIG_PREFIX + "taint-config-no-sink.yml",
+                "taint-config-updater:" + Reloader.class.getName(),
+                "taint-flow-listeners:[" + Collector.class.getName() + "]");
+        assertEquals(List.of(Set.of(), taintFlows), Reloader.reportedTaintFlows);
+        assertEquals(List.of(taintFlows), Reloader.notifiedTaintFlows);
+    }
+
+    /**
+     * Taint transfer edges may connect pointers that are merged into
+     * the same representative when merging PFG cycles, and they should
+     * still produce taint objects as in the normal run.
+     */
+    @Test
+    void testTransferInMergedCycle() {
+        String config = TAINT_CONFIG_PREFIX + "taint-config-cycle-transfer.yml";
+        Tests.testPTA(false, DIR, "CycleTransfer", config);
+        Set<String> taintFlows = getTaintFlows();
+        assertFalse(taintFlows.isEmpty());
+        Tests.testPTA(false, DIR, "CycleTransfer", config, "merge-pfg-cycles:true");
+        assertEquals(taintFlows, getTaintFlows());
+    }
+
+    /**
+     * Demand-driven mode should slice the program from the entry methods
+     * added by other plugins, otherwise the methods that are reachable
+     * from both these entries and the main method may be ignored.
+     */
+    @Test
+    void testPluginEntryInDemandDrivenMode() {
+        String plugins = "plugins:[" + EntryAdder.class.getName() + "]";
+        Tests.testPTA(false, DIR, "EntryTaint", TAINT_CONFIG, plugins);
+        Set<String> taintFlows = getTaintFlows();
+        assertFalse(taintFlows.isEmpty());
+        Tests.testPTA(false, DIR, "EntryTaint", TAINT_CONFIG, plugins,
+                "taint-demand-driven:true");
+        assertEquals(taintFlows, getTaintFlows());
+    }
+
+    /**
+     * Adds {@code EntryTaint.entry()} as an entry method.
+     */
+    public static class EntryAdder implements Plugin {
+
+        private Solver solver;
+
+        @Override
+        public void setSolver(Solver solver) {
+            this.solver = solver;
+        }
+
+        @Override
+        public void onStart() {
+            JMethod entry = solver.getHierarchy()
+                    .getClass("EntryTaint")
+                    .getDeclaredMethod("entry");
+            solver.addEntryPoint(new EntryPoint(entry, EmptyParamProvider.get()));
+        }
+    }
+
+    /**
+     * Reloads the given configuration files one by one, and records
+     * the taint flows reported for each configuration.
+     */
+    public static class Reloader implements TaintConfigUpdater {
+
+        private static final Deque<String> configPaths = new ArrayDeque<>();
+
+        private static final List<Set<String>> reportedTaintFlows = new ArrayList<>();
+
+        /**
+         * Taint flows that {@link Collector} has been notified of
+         * right after each reload.
+         */
+        private static final List<Set<String>> notifiedTaintFlows = new ArrayList<>();
+
+        private static void reset(String... paths) {
+            configPaths.clear();
+            configPaths.addAll(List.of(paths));
+            reportedTaintFlows.clear();
+            notifiedTaintFlows.clear();
+        }
+
+        @Override
+        public boolean update(TaintAnalysis taintAnalysis, Set<TaintFlow> taintFlows) {
+            reportedTaintFlows.add(taintFlows.stream()
+                    .map(TaintFlow::toString)
+                    .collect(Collectors.toSet()));
+            if (!configPaths.isEmpty()) {
+                taintAnalysis.reload(configPaths.poll());
+                notifiedTaintFlows.add(Set.copyOf(Collector.taintFlows));
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Streams taint flows to {@link Collector} and a JSON Lines file,
+     * which should receive the same taint flows as the normal run.
+     */
+    private void testInStreamingMode(String mainClass,
+                                     Set<String> expectedTaintFlows,
+                                     String... opts) {
+        Path output;
+        try {
+            output = Files.createTempFile("taint-flows", ".jsonl");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String[] newOpts = new String[opts.length + 2];
+        System.arraycopy(opts, 0, newOpts, 0, opts.length);
+        newOpts[opts.length] = "taint-flow-listeners:[" + Collector.class.getName() + "]";
+        newOpts[opts.length + 1] = "taint-flow-output:" + output;
+        Collector.taintFlows.clear();
+        Tests.testPTA(false, DIR, mainClass, newOpts);
+        assertEquals(expectedTaintFlows, Collector.taintFlows);
+        try {
+            assertEquals(expectedTaintFlows.size(), Files.readAllLines(output).size());
+            Files.delete(output);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes taint flows to a SARIF log, which should be a complete log
+     * with one result for each taint flow of the normal run, located
+     * at the sink and related to the source.
+     */
+    @Test
+    void testSarifOutput() throws IOException {
+        Tests.testPTA(false, DIR, "SimpleTaint", TAINT_CONFIG);
+        Set<String> taintFlows = getTaintFlows();
+        assertFalse(taintFlows.isEmpty());
+        Path output = Files.createTempFile("taint-flows", ".sarif");
+        Tests.testPTA(false, DIR, "SimpleTaint", TAINT_CONFIG,
+                "taint-flow-output:" + output);
+        JsonNode log = new ObjectMapper().readTree(output.toFile());
+        Files.delete(output);
+        assertEquals("2.1.0", log.get("version").asText());
+        assertEquals(1, log.get("runs").size());
+        JsonNode run = log.get("runs").get(0);
+        assertEquals("Tai-e", run.get("tool").get("driver").get("name").asText());
+        JsonNode results = run.get("results");
+        assertEquals(taintFlows.size(), results.size());
+        Set<String> reportedTaintFlows = new HashSet<>();
+        for (JsonNode result : results) {
+            reportedTaintFlows.add(result.get("message").get("text").asText());
+            assertEquals("taint-flow", result.get("ruleId").asText());
+            for (String key : List.of("locations", "relatedLocations")) {
+                JsonNode location = result.get(key).get(0).get("physicalLocation");
+                assertEquals("SimpleTaint.java",
+                        location.get("artifactLocation").get("uri").asText());
+                assertTrue(location.get("region").get("startLine").asInt() > 0);
+            }
+        }
+        assertEquals(taintFlows, reportedTaintFlows);
+    }
+
+    public static class Collector implements TaintFlowListener {
+
+        private static final Set<String> taintFlows = new HashSet<>();
+
+        @Override
+        public void onNewTaintFlow(TaintFlow taintFlow) {
+            taintFlows.add(taintFlow.toString());
+        }
+    }
+
+    private static Set<String> getTaintFlows() {
+        PointerAnalysisResult result = World.get().getResult(PointerAnalysis.ID);
+        Set<TaintFlow> taintFlows = result.getResult(TaintAnalysis.class.getName());
+        return taintFlows.stream()
+                .map(TaintFlow::toString)
+                .collect(Collectors.toSet());
+    }
+
     private void testInInteractiveMode(String mainClass, String... opts) {
         InputStream originalSystemIn = System.in;
         try {
@@ -29,6 +29,7 @@ import pascal.taie.World;
 import pascal.taie.frontend.cache.CachedIRBuilder;
 import pascal.taie.frontend.cache.CachedWorldBuilder;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class WorldCacheTest {
@@ -53,6 +54,8 @@ public class WorldCacheTest {
         World world2 = World.get();
         CachedWorldBuilder.getWorldCacheFile(world2.getOptions()).delete();
         assertTrue(world2.getIRBuilder() instanceof CachedIRBuilder);
+        // IRs are decoded from the cache on demand
+        assertFalse(world2.getMainMethod().getIR().getStmts().isEmpty());
     }
 
 }
@@ -25,6 +25,7 @@ package pascal.taie.analysis.pta.core.cs.context;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 
 public class ContextTest {
 
@@ -45,6 +46,20 @@ public class ContextTest {
         assertEquals(cde.getParent(), cd);
     }
 
+    @Test
+    void testContextIndex() {
+        TrieContext.Factory<String> factory = new TrieContext.Factory<>();
+        assertEquals(0, factory.getEmptyContext().getIndex());
+        TrieContext ab = factory.make("A", "B");
+        TrieContext b = factory.make("B");
+        assertEquals(4, factory.getContextCount());
+        assertEquals(ab, factory.make("A", "B"));
+        assertNotEquals(ab.getIndex(), b.getIndex());
+        assertEquals(b, factory.makeLastK(ab, 1));
+        assertEquals(b, factory.makeLastK(ab, 1));
+        assertEquals(4, factory.getContextCount());
+    }
+
     private static void testContext(ContextFactory<String> factory) {
         Context a = factory.make("A");
         Context empty1 = factory.getEmptyContext();
@@ -0,0 +1,96 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.core.solver;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.plugin.Plugin;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.util.MultiStringsSource;
+import pascal.taie.util.collection.Sets;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for adding filters to the pointers that have been merged with
+ * other pointers in cycles of copy edges. Such pointers are split from
+ * the cycles, and the results should be the same as the expected ones.
+ */
+public class MergedPointerFilterTest {
+
+    @ParameterizedTest
+    @MultiStringsSource({"RedBlackBST"})
+    @MultiStringsSource({"RedBlackBST", "solver-threads:4", "parallel-threshold:2"})
+    void test(String mainClass, String... opts) {
+        FilterAdder.splitCount = 0;
+        String[] args = new String[opts.length + 2];
+        System.arraycopy(opts, 0, args, 0, opts.length);
+        args[opts.length] = "merge-pfg-cycles:true";
+        args[opts.length + 1] = "plugins:[" + FilterAdder.class.getName() + "]";
+        Tests.testPTA("basic", mainClass, args);
+        assertTrue(FilterAdder.splitCount > 0);
+    }
+
+    /**
+     * Adds a filter that accepts all objects to each variable which
+     * shares its points-to set with another variable, i.e., which has been
+     * merged with other pointers, when its points-to set changes.
+     */
+    public static class FilterAdder implements Plugin {
+
+        private static int splitCount;
+
+        private Solver solver;
+
+        /**
+         * Maps each points-to set to the first variable that is
+         * found to point to it.
+         */
+        private final Map<PointsToSet, CSVar> owners = new IdentityHashMap<>();
+
+        private final Set<CSVar> filtered = Sets.newSet();
+
+        @Override
+        public void setSolver(Solver solver) {
+            this.solver = solver;
+        }
+
+        @Override
+        public void onNewPointsToSet(CSVar csVar, PointsToSet pts) {
+            PointsToSet set = csVar.getPointsToSet();
+            CSVar owner = owners.putIfAbsent(set, csVar);
+            if (owner != null && owner != csVar && filtered.add(csVar)) {
+                solver.addPointerFilter(csVar, o -> true);
+                assertNotSame(set, csVar.getPointsToSet());
+                ++splitCount;
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.PointerAnalysis;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.plugin.taint.TaintAnalysis;
+import pascal.taie.analysis.pta.plugin.taint.TaintFlow;
+import pascal.taie.util.MultiStringsSource;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for propagating points-to sets with multiple threads. The test
+ * programs are too small to reach the default threshold of parallel
+ * propagation, thus the threshold is lowered so that the work list entries
+ * are propagated in parallel whenever possible, and the results should be
+ * the same as the ones of sequential propagation.
+ */
+public class ParallelPropagationTest {
+
+    private static final String TAINT_CONFIG_PREFIX =
+            "taint-config:src/test/resources/pta/taint/";
+
+    @ParameterizedTest
+    @MultiStringsSource({"LinkedQueue"})
+    @MultiStringsSource({"RedBlackBST"})
+    @MultiStringsSource({"Array"})
+    @MultiStringsSource({"InstanceField"})
+    @MultiStringsSource({"Cycle", "merge-pfg-cycles:true"})
+    @MultiStringsSource({"Recursion", "merge-pfg-cycles:true"})
+    @MultiStringsSource({"Array", "cs-manager:array"})
+    @MultiStringsSource({"InstanceField", "pts-representation:shared"})
+    @MultiStringsSource({"InstanceField", "pts-representation:roaring"})
+    // BDDs are not thread-safe, thus they are propagated with one thread
+    @MultiStringsSource({"LinkedQueue", "pts-representation:bdd"})
+    void testBasic(String mainClass, String... opts) {
+        // compare with the expected results of sequential propagation
+        Tests.testPTA("basic", mainClass, appendParallelOptions(opts));
+    }
+
+    /**
+     * Taint analysis adds transfer edges whose transfers are not
+     * thread-safe, and they are applied on the solver thread.
+     */
+    @ParameterizedTest
+    @MultiStringsSource({"SimpleTaint", TAINT_CONFIG_PREFIX + "taint-config.yml"})
+    @MultiStringsSource({"StringAppend", TAINT_CONFIG_PREFIX + "taint-config.yml"})
+    @MultiStringsSource({"CycleTransfer", "merge-pfg-cycles:true",
+            TAINT_CONFIG_PREFIX + "taint-config-cycle-transfer.yml"})
+    void testTaint(String mainClass, String... opts) {
+        Tests.testPTA(false, "taint", mainClass, opts);
+        Set<String> taintFlows = getTaintFlows();
+        Tests.testPTA(false, "taint", mainClass, appendParallelOptions(opts));
+        assertEquals(taintFlows, getTaintFlows());
+    }
+
+    private static String[] appendParallelOptions(String[] opts) {
+        String[] newOpts = Arrays.copyOf(opts, opts.length + 2);
+        newOpts[opts.length] = "solver-threads:4";
+        newOpts[opts.length + 1] = "parallel-threshold:2";
+        return newOpts;
+    }
+
+    private static Set<String> getTaintFlows() {
+        PointerAnalysisResult result = World.get().getResult(PointerAnalysis.ID);
+        Set<TaintFlow> taintFlows = result.getResult(TaintAnalysis.class.getName());
+        return taintFlows.stream()
+                .map(TaintFlow::toString)
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin.taint;
+
+import org.junit.jupiter.api.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class DemandSlicerTest {
+
+    private static final String DIR = "src/test/resources/pta/taint";
+
+    /**
+     * The run() methods of the threads are invoked by pointer analysis
+     * via Thread.start(), and the methods that pass taint objects from
+     * them to sinks should be relevant, even if they are also called
+     * elsewhere with untainted values.
+     */
+    @Test
+    void testThreadRun() {
+        Main.buildWorld("-pp", "-cp", DIR, "-m", "ThreadTaint");
+        World world = World.get();
+        TaintConfig config = TaintConfig.loadConfig(DIR + "/taint-config.yml",
+                world.getClassHierarchy(), world.getTypeSystem());
+        Set<JMethod> irrelevant = new DemandSlicer(config,
+                world.getClassHierarchy(), List.of(world.getMainMethod()))
+                .getIrrelevantMethods();
+        JClass main = world.getMainMethod().getDeclaringClass();
+        assertFalse(irrelevant.contains(main.getDeclaredMethod("id1")));
+        assertFalse(irrelevant.contains(main.getDeclaredMethod("id2")));
+    }
+}
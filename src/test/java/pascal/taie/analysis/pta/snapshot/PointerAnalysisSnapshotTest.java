@@ -0,0 +1,134 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.snapshot;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.pta.PointerAnalysis;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.plugin.taint.TaintAnalysis;
+import pascal.taie.analysis.pta.plugin.taint.TaintFlow;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PointerAnalysisSnapshotTest {
+
+    @Test
+    void testSaveAndLoad(@TempDir Path dir) throws Exception {
+        File file = dir.resolve("pta.bin").toFile();
+        String[] args = {"-pp",
+                "-cp", "src/test/resources/pta/contextsensitivity",
+                "-m", "LinkedQueue",
+                "-a", "pta=cs:2-obj;snapshot:" + file};
+        // the first run solves and saves the results
+        Main.main(args);
+        PointerAnalysisResult solved = World.get().getResult(PointerAnalysis.ID);
+        assertFalse(solved instanceof SnapshotResult);
+        assertTrue(file.exists());
+        Map<String, String> expected = toStrings(solved);
+        int expectedEdges = (int) solved.getCallGraph().edges().count();
+        // the second run loads the results
+        Main.main(args);
+        PointerAnalysisResult loaded = World.get().getResult(PointerAnalysis.ID);
+        assertTrue(loaded instanceof SnapshotResult);
+        assertEquals(expected, toStrings(loaded));
+        assertEquals(expectedEdges, loaded.getCallGraph().edges().count());
+        // context-sensitive APIs return context-insensitive views
+        assertTrue(loaded.getCSVars().stream()
+                .allMatch(v -> v.getContext().getLength() == 0));
+        assertEquals(expectedEdges, loaded.getCSCallGraph().edges().count());
+        // snapshots of other inputs are not loaded
+        assertNull(SnapshotResult.load(file, "mismatched fingerprint"));
+    }
+
+    @Test
+    void testSnapshotWithTaintAnalysis(@TempDir Path dir) {
+        File file = dir.resolve("pta.bin").toFile();
+        String[] args = {"-pp",
+                "-cp", "src/test/resources/pta/taint",
+                "-m", "SimpleTaint",
+                "-a", "pta=snapshot:" + file + ";taint-config:"
+                + "src/test/resources/pta/taint/taint-config.yml"};
+        // run twice, and taint analysis should be executed in both runs
+        for (int i = 0; i < 2; ++i) {
+            Main.main(args);
+            PointerAnalysisResult result = World.get().getResult(PointerAnalysis.ID);
+            assertFalse(result instanceof SnapshotResult);
+            Set<TaintFlow> taintFlows = result.getResult(TaintAnalysis.class.getName());
+            assertFalse(taintFlows.isEmpty());
+        }
+        // snapshot is not used when taint analysis is enabled
+        assertFalse(file.exists());
+    }
+
+    @Test
+    void testClassChanges(@TempDir Path dir) throws Exception {
+        Files.createDirectories(dir.resolve("p"));
+        Files.write(dir.resolve("p/A.class"), new byte[]{1});
+        Files.write(dir.resolve("p/B.class"), new byte[]{2});
+        Files.write(dir.resolve("C.java"), new byte[]{3});
+        List<String> paths = List.of(dir.toString());
+        Map<String, String> oldDigests = ClassChanges.digest(paths);
+        assertEquals(Set.of("p.A", "p.B", ClassChanges.RESOURCE_PREFIX + "C.java"),
+                oldDigests.keySet());
+        assertTrue(ClassChanges.diff(oldDigests, ClassChanges.digest(paths)).isEmpty());
+        Files.write(dir.resolve("p/A.class"), new byte[]{4});
+        Files.delete(dir.resolve("p/B.class"));
+        Files.write(dir.resolve("p/D.class"), new byte[]{5});
+        ClassChanges changes = ClassChanges.diff(oldDigests, ClassChanges.digest(paths));
+        assertEquals(Set.of("p.D"), changes.added());
+        assertEquals(Set.of("p.B"), changes.removed());
+        assertEquals(Set.of("p.A"), changes.modified());
+    }
+
+    private static Map<String, String> toStrings(PointerAnalysisResult result) {
+        Map<String, String> pointsTo = new TreeMap<>();
+        // only compare the variables in IR, as the ones created
+        // by plugins are not stored in snapshots
+        result.getVars()
+                .stream()
+                .filter(v -> v.getMethod().getIR().getVars().contains(v))
+                .forEach(v -> pointsTo.put(
+                        v.getMethod() + "/" + v.getName(),
+                        result.getPointsToSet(v)
+                                .stream()
+                                .map(Object::toString)
+                                .sorted()
+                                .toList()
+                                .toString()));
+        return pointsTo;
+    }
+}
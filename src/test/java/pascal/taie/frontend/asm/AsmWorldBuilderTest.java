@@ -0,0 +1,330 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.asm;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
+import pascal.taie.analysis.pta.PointerAnalysis;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.plugin.assertion.AssertionChecker;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.IRPrinter;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AsmWorldBuilderTest {
+
+    private static final String PTA_DIR = "src/test/resources/pta";
+
+    private static final String CHA_DIR = "src/test/resources/cha";
+
+    private static final String WORLD_DIR = "src/test/resources/world";
+
+    /**
+     * Separator between pointer (or call site) and its points-to set
+     * (or callee) in the results.
+     */
+    private static final String SEP = " -> ";
+
+    private static final String PTA_OPTIONS = "pta=implicit-entries:false;"
+            + "only-app:true;distinguish-string-constants:all;"
+            + "plugins:[" + AssertionChecker.class.getName() + "]";
+
+    @TempDir
+    Path classDir;
+
+    private static void buildWorld(String... inputClasses) {
+        Main.buildWorld("-pp", "-cp", WORLD_DIR,
+                "--world-builder", AsmWorldBuilder.class.getName(),
+                "--input-classes", String.join(",", inputClasses));
+    }
+
+    @Test
+    void testHierarchy() {
+        buildWorld("DefaultMethod");
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        JClass c = hierarchy.getClass("DefaultMethod$C");
+        JClass a = hierarchy.getClass("DefaultMethod$A");
+        JClass ii = hierarchy.getClass("DefaultMethod$II");
+        assertNotNull(c);
+        assertTrue(c.isApplication());
+        assertEquals(hierarchy.getClass("DefaultMethod$B"), c.getSuperClass());
+        assertTrue(hierarchy.isSubclass(a, c));
+        assertTrue(hierarchy.isSubclass(ii, c));
+        assertTrue(ii.isInterface());
+        assertFalse(hierarchy.getJREClass("java.lang.Object").isApplication());
+    }
+
+    @Test
+    void testIR() {
+        buildWorld("DefaultMethod", "android$widget$RemoteViews$BaseReflectionAction");
+        World.get().getClassHierarchy().applicationClasses()
+                .flatMap(c -> c.getDeclaredMethods().stream())
+                .filter(m -> !m.isAbstract())
+                .forEach(m -> {
+                    IR ir = m.getIR();
+                    IRPrinter.print(ir, System.out);
+                    ir.forEach(stmt -> assertEquals(stmt, ir.getStmt(stmt.getIndex())));
+                });
+    }
+
+    @Test
+    void testAnnotation() {
+        buildWorld("Annotated");
+        JClass annotated = World.get().getClassHierarchy().getClass("Annotated");
+        assertTrue(annotated.hasAnnotation("Year"));
+        assertTrue(annotated.hasAnnotation("Author"));
+        JMethod baz = annotated.getDeclaredMethod("baz");
+        assertTrue(baz.hasAnnotation("ClassAnno"));
+        assertTrue(baz.hasAnnotation("Copyright"));
+        assertTrue(annotated.getDeclaredField("o").hasAnnotation("Anno"));
+    }
+
+    /**
+     * Runs pointer analysis (with assertion checking) on the world built
+     * by {@link AsmWorldBuilder}, and compares the results with the
+     * expected results which were produced by the Soot frontend.
+     * Temporary variables are named differently by the two frontends,
+     * thus only the points-to sets of source-level variables and of
+     * all fields and array indexes are compared.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "Array",
+            "Cast",
+            "Cycle",
+            "Dispatch2",
+            "InstanceField",
+            "LinkedQueue",
+            "MergeParam",
+            "RedBlackBST",
+            "StaticCall",
+            "StaticField",
+    })
+    void testPTA(String main) throws IOException {
+        Path basicDir = Path.of(PTA_DIR, "basic");
+        compile(Path.of(PTA_DIR, "PTAAssert.java"), basicDir.resolve(main + ".java"));
+        analyze(main, PTA_OPTIONS);
+        PointerAnalysisResult result = World.get().getResult(PointerAnalysis.ID);
+        Map<String, String> vars = new HashMap<>();
+        Set<String> others = new TreeSet<>();
+        result.getCSVars().forEach(csVar -> vars.put(
+                csVar.getVar().getMethod() + "/" + csVar.getVar().getName(),
+                toString(csVar.objects().map(CSObj::toString))));
+        Stream.<Collection<? extends Pointer>>of(result.getStaticFields(),
+                        result.getInstanceFields(), result.getArrayIndexes())
+                .flatMap(Collection::stream)
+                .forEach(p -> others.add(normalize(p.toString()) + SEP
+                        + toString(p.objects().map(CSObj::toString))));
+        Map<String, String> expectedVars = new HashMap<>();
+        Set<String> expectedOthers = new TreeSet<>();
+        boolean inVars = false;
+        for (String line : Files.readAllLines(
+                basicDir.resolve(main + "-pta-expected.txt"))) {
+            if (line.startsWith("Points-to sets of all ")) {
+                inVars = line.endsWith("variables");
+            } else if (!line.isEmpty()) {
+                int i = line.indexOf(SEP);
+                String pointer = line.substring(0, i);
+                // remove brackets around the points-to set
+                String objects = line.substring(i + SEP.length() + 1, line.length() - 1);
+                String pts = toString(objects.isEmpty() ? Stream.of() :
+                        Stream.of(objects.split(", (?=\\[\\]:)")));
+                if (inVars) {
+                    // remove context of the variable, i.e., "[]:"
+                    String var = pointer.substring(pointer.indexOf(':') + 1);
+                    if (!var.substring(var.lastIndexOf('/')).contains("$")) {
+                        expectedVars.put(var, pts);
+                    }
+                } else {
+                    expectedOthers.add(normalize(pointer) + SEP + pts);
+                }
+            }
+        }
+        // variables may be absent when they are unnamed in Soot (e.g., r3)
+        vars.keySet().retainAll(expectedVars.keySet());
+        expectedVars.keySet().retainAll(vars.keySet());
+        assertFalse(vars.isEmpty());
+        assertEquals(expectedVars, vars);
+        assertEquals(expectedOthers, others);
+    }
+
+    /**
+     * Runs pointer analysis on a program whose variables declared in
+     * disjoint scopes reuse the same local variable slots, and checks
+     * (by the assertions in the program) that the variables are not
+     * merged, with and without local variable table.
+     */
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void testSlotReuse(boolean debug) throws IOException {
+        compile(debug, Path.of(PTA_DIR, "PTAAssert.java"),
+                Path.of(WORLD_DIR, "SlotReuse.java"));
+        analyze("SlotReuse", PTA_OPTIONS);
+    }
+
+    /**
+     * Builds CHA call graph on the world built by {@link AsmWorldBuilder},
+     * and compares the call edges (identified by line numbers of
+     * call sites) and reachable methods with the expected results
+     * which were produced by the Soot frontend.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "StaticCall",
+            "SpecialCall",
+            "VirtualCall",
+            "Interface",
+            "Interface2",
+            "Interface3",
+            "AbstractMethod",
+            "Recursion",
+            "Recursion2",
+            "LongCallChain",
+            "MaxPQ",
+    })
+    void testCHA(String main) throws IOException {
+        compile(Path.of(CHA_DIR, main + ".java"));
+        analyze(main, "cg=algorithm:cha");
+        CallGraph<Invoke, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+        Set<String> result = new TreeSet<>();
+        callGraph.reachableMethods()
+                .filter(JMethod::isApplication)
+                .forEach(m -> result.add(m.toString()));
+        callGraph.edges()
+                .filter(e -> e.getCallSite().getContainer().isApplication())
+                .forEach(e -> result.add(String.format("%s@L%d%s%s",
+                        e.getCallSite().getContainer(),
+                        e.getCallSite().getLineNumber(), SEP, e.getCallee())));
+        Set<String> expected = new TreeSet<>();
+        Pattern methodPattern = Pattern.compile("-+ (<.+>) \\(cg\\) -+");
+        Pattern callSitePattern = Pattern.compile("\\[\\d+@L(-?\\d+)] .*; \\[(.*)]");
+        String method = null;
+        for (String line : Files.readAllLines(
+                Path.of(CHA_DIR, main + "-cg-expected.txt"))) {
+            Matcher matcher = methodPattern.matcher(line);
+            if (matcher.matches()) {
+                method = matcher.group(1);
+                expected.add(method);
+            } else if ((matcher = callSitePattern.matcher(line)).matches()) {
+                for (String callee : matcher.group(2).split(", (?=<)")) {
+                    expected.add(method + "@L" + matcher.group(1) + SEP + callee);
+                }
+            }
+        }
+        assertEquals(expected, result);
+    }
+
+    /**
+     * Compiles the given source files (with debugging information,
+     * so that the names of source-level variables are available)
+     * into {@link #classDir}.
+     */
+    private void compile(Path... sources) {
+        compile(true, sources);
+    }
+
+    /**
+     * Compiles the given source files into {@link #classDir}.
+     *
+     * @param debug whether to generate debugging information.
+     */
+    private void compile(boolean debug, Path... sources) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<String> args = new ArrayList<>(List.of(
+                debug ? "-g" : "-g:none", "-nowarn", "-d", classDir.toString()));
+        Stream.of(sources).map(Path::toString).forEach(args::add);
+        int status = compiler.run(null, null, null, args.toArray(new String[0]));
+        assertEquals(0, status, "Failed to compile " + List.of(sources));
+    }
+
+    /**
+     * Runs the given analyses on the classes in {@link #classDir}.
+     * All compiled classes are given as input classes, so that the
+     * world contains the same classes as the Soot frontend loads
+     * from the source files.
+     */
+    private void analyze(String main, String... analyses) throws IOException {
+        List<String> inputClasses;
+        try (Stream<Path> files = Files.list(classDir)) {
+            inputClasses = files.map(f -> f.getFileName().toString())
+                    .map(f -> f.substring(0, f.length() - ".class".length()))
+                    .toList();
+        }
+        List<String> args = new ArrayList<>();
+        Collections.addAll(args, "-pp", "-cp", classDir.toString(),
+                "--world-builder", AsmWorldBuilder.class.getName(),
+                "-m", main, "--input-classes", String.join(",", inputClasses));
+        for (String analysis : analyses) {
+            Collections.addAll(args, "-a", analysis);
+        }
+        Main.main(args.toArray(new String[0]));
+    }
+
+    /**
+     * Statement indexes differ between the two frontends,
+     * thus only line numbers are kept, e.g., [3@L5] to [L5].
+     */
+    private static String normalize(String s) {
+        return s.replaceAll("\\[\\d+@L", "[L");
+    }
+
+    private static String toString(Stream<String> objects) {
+        return objects.map(AsmWorldBuilderTest::normalize)
+                .sorted()
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+}
@@ -5,6 +5,8 @@ import org.junit.jupiter.api.Test;
 import pascal.taie.Main;
 import pascal.taie.World;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -158,4 +160,28 @@ public class SignatureMatcherTest {
         assertEquals(Set.of(e1_x1_x_x1, e1_x1_x_x),
                 matcher.getFields("<com.example1.X1: * *>"));
     }
+
+    @Test
+    void testMatchInBatch() {
+        List<String> methodPatterns = List.of(
+                "<com.example.X*: void foo(int)>",
+                "<*.Y: void fun(com.example.*)>",
+                "<com.example.XFather^: void foo(java.lang.String)>",
+                "<*: * foo(*{0+})>",
+                "<com.example.X: void foo(int)>");
+        Map<String, Set<JMethod>> methods = matcher.getMethods(methodPatterns);
+        assertEquals(methodPatterns.size(), methods.size());
+        methodPatterns.forEach(pattern ->
+                assertEquals(matcher.getMethods(pattern), methods.get(pattern)));
+        List<String> fieldPatterns = List.of(
+                "<com.example1.*: * x*>",
+                "<*: * yField>",
+                "<*X1: com.example1.X *>");
+        Map<String, Set<JField>> fields = matcher.getFields(fieldPatterns);
+        assertEquals(fieldPatterns.size(), fields.size());
+        fieldPatterns.forEach(pattern ->
+                assertEquals(matcher.getFields(pattern), fields.get(pattern)));
+        JField e1_x1_x_x = hierarchy.getField("<com.example1.X1: com.example1.X xField>");
+        assertEquals(Set.of(e1_x1_x_x), fields.get("<*X1: com.example1.X *>"));
+    }
 }
@@ -33,8 +33,10 @@ import org.junit.platform.suite.api.Suite;
         HybridHashMapTest.class,
         HybridHashSetTest.class,
         IndexMapTest.class,
+        IntPairMapTest.class,
         MultiMapTest.class,
         RegularBitSetTest.class,
+        RoaringBitSetTest.class,
         SetQueueTest.class,
         SparseBitSetTest.class,
         StreamsTest.class,
@@ -25,9 +25,12 @@ package pascal.taie.util.collection;
 import org.junit.jupiter.api.Test;
 import pascal.taie.util.SerializationUtils;
 
+import java.util.List;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class GenericBitSetTest {
 
@@ -76,6 +79,22 @@ public class GenericBitSetTest {
         assertEquals("[1, 333]", CollectionUtils.toString(ss));
     }
 
+    @Test
+    void testRetainAllIndexes() {
+        IBitSet regularMask = IBitSet.of(1, 22, 4446, 5000);
+        IBitSet sparseMask = new SparseBitSet();
+        sparseMask.or(regularMask);
+        // bit-wise AND for the same representation, and bit-by-bit
+        // retaining for different representations
+        for (IBitSet mask : List.of(regularMask, sparseMask)) {
+            StringSet ss = new StringSet();
+            ss.addAll(Set.of("1", "22", "333", "4444", "4446", "4448"));
+            assertTrue(ss.retainAllIndexes(mask));
+            assertEquals("[1, 22, 4446]", CollectionUtils.toString(ss));
+            assertFalse(ss.retainAllIndexes(mask));
+        }
+    }
+
     @Test
     void testSerializable() {
         StringSet ss1 = new StringSet();
@@ -0,0 +1,69 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.collection;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class IntPairMapTest {
+
+    @Test
+    void testPutGet() {
+        IntPairMap m = new IntPairMap();
+        assertEquals(IntPairMap.ABSENT, m.put(1, 2, 3));
+        assertEquals(IntPairMap.ABSENT, m.put(2, 1, 4));
+        assertEquals(3, m.get(1, 2));
+        assertEquals(4, m.get(2, 1));
+        assertEquals(IntPairMap.ABSENT, m.get(1, 1));
+        assertEquals(3, m.put(1, 2, 5));
+        assertEquals(5, m.get(1, 2));
+        assertEquals(2, m.size());
+    }
+
+    @Test
+    void testResize() {
+        IntPairMap m = new IntPairMap(2);
+        for (int i = 0; i < 1000; ++i) {
+            for (int j = 0; j < 100; ++j) {
+                m.put(i, j, i * 100 + j);
+            }
+        }
+        assertEquals(100_000, m.size());
+        for (int i = 0; i < 1000; ++i) {
+            for (int j = 0; j < 100; ++j) {
+                assertEquals(i * 100 + j, m.get(i, j));
+            }
+        }
+        assertEquals(IntPairMap.ABSENT, m.get(1000, 0));
+        assertEquals(IntPairMap.ABSENT, m.get(0, 100));
+    }
+
+    @Test
+    void testNegative() {
+        IntPairMap m = new IntPairMap();
+        assertThrows(IllegalArgumentException.class, () -> m.put(-1, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> m.put(0, 0, -1));
+    }
+}
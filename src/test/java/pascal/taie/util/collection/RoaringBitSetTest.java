@@ -0,0 +1,91 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.collection;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RoaringBitSetTest extends IBitSetTest {
+
+    @Override
+    protected IBitSet of(int... indexes) {
+        IBitSet result = new RoaringBitSet();
+        for (int i : indexes) {
+            result.set(i);
+        }
+        return result;
+    }
+
+    /**
+     * Tests the conversions between array and bitmap containers.
+     */
+    @Test
+    void testDenseChunk() {
+        IBitSet s = of();
+        for (int i = 0; i < 10000; ++i) {
+            assertTrue(s.set(i * 2));
+        }
+        assertEquals(10000, s.cardinality());
+        assertEquals(1, s.nextClearBit(0));
+        assertEquals(19998, s.previousSetBit(65535));
+        IBitSet odd = of();
+        for (int i = 0; i < 10000; ++i) {
+            odd.set(i * 2 + 1);
+        }
+        assertFalse(s.intersects(odd));
+        IBitSet diff = s.orDiff(odd);
+        assertEquals(odd, diff);
+        assertEquals(20000, s.nextClearBit(0));
+        assertTrue(s.contains(odd));
+        assertTrue(s.andNot(odd));
+        for (int i = 0; i < 9000; ++i) {
+            s.clear(i * 2);
+        }
+        assertEquals(1000, s.cardinality());
+        assertEquals(18000, s.nextSetBit(0));
+        IBitSet expected = of();
+        for (int i = 9000; i < 10000; ++i) {
+            expected.set(i * 2);
+        }
+        assertEquals(expected, s);
+        assertEquals(expected.hashCode(), s.hashCode());
+    }
+
+    /**
+     * Tests the operations on bits in different chunks.
+     */
+    @Test
+    void testMultipleChunks() {
+        IBitSet s = of(1, 65536, 65537, 200000);
+        assertEquals(65536, s.nextSetBit(2));
+        assertEquals(65538, s.nextClearBit(65536));
+        assertEquals(1, s.previousSetBit(65535));
+        assertEquals(200001, s.length());
+        IBitSet t = of(65537, 300000);
+        assertTrue(s.and(t));
+        assertEquals(of(65537), s);
+    }
+}
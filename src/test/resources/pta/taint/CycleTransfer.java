@@ -0,0 +1,34 @@
+class CycleTransfer {
+
+    public static void main(String[] args) {
+        Object a = new Object();
+        Object b = a;
+        while (args.length > 0) {
+            // a and b are in a cycle of copy edges, which is merged
+            // when merge-pfg-cycles is enabled, and the taint object
+            // reaches the cycle after merging via the copy chain below
+            a = b;
+            b = wrap(a);
+        }
+        String s1 = SourceSink.source();
+        String s2 = s1;
+        String s3 = s2;
+        String s4 = s3;
+        String s5 = s4;
+        String s6 = s5;
+        String s7 = s6;
+        String s8 = s7;
+        a = s8;
+        sink((Wrapper) b); // taint
+    }
+
+    static Wrapper wrap(Object o) {
+        return new Wrapper();
+    }
+
+    static void sink(Wrapper w) {
+    }
+
+    static class Wrapper {
+    }
+}
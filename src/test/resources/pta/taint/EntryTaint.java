@@ -0,0 +1,16 @@
+class EntryTaint {
+
+    public static void main(String[] args) {
+        id("untainted");
+    }
+
+    // added as an entry method by TaintTest.EntryAdder
+    static void entry() {
+        String s = SourceSink.source();
+        SourceSink.sink(id(s)); // taint
+    }
+
+    static String id(String s) {
+        return s;
+    }
+}
@@ -0,0 +1,46 @@
+class ThreadTaint {
+
+    public static void main(String[] args) {
+        String s = SourceSink.source();
+        new Worker(s).start();
+        new Thread(new Task(s)).start();
+        id1("untainted");
+        id2("untainted");
+    }
+
+    static String id1(String s) {
+        return s;
+    }
+
+    static String id2(String s) {
+        return s;
+    }
+}
+
+class Worker extends Thread {
+
+    private final String data;
+
+    Worker(String data) {
+        this.data = data;
+    }
+
+    @Override
+    public void run() {
+        SourceSink.sink(ThreadTaint.id1(data)); // taint
+    }
+}
+
+class Task implements Runnable {
+
+    private final String data;
+
+    Task(String data) {
+        this.data = data;
+    }
+
+    @Override
+    public void run() {
+        SourceSink.sink(ThreadTaint.id2(data)); // taint
+    }
+}
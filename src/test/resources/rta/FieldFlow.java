@@ -0,0 +1,49 @@
+public class FieldFlow {
+
+    public static void main(String[] args) {
+        Holder h = new Holder();
+        produce(h);
+        consume(h);
+        other();
+    }
+
+    static void produce(Holder h) {
+        B b = new B();
+        A c = new C();
+        h.f = b;
+    }
+
+    static void consume(Holder h) {
+        A a = h.f;
+        a.foo();
+    }
+
+    static void other() {
+        A d = new D();
+        d.foo();
+    }
+}
+
+class Holder {
+    B f;
+}
+
+class A {
+    void foo() {
+    }
+}
+
+class B extends A {
+    void foo() {
+    }
+}
+
+class C extends A {
+    void foo() {
+    }
+}
+
+class D extends A {
+    void foo() {
+    }
+}
@@ -0,0 +1,43 @@
+public class ReturnFlow {
+
+    public static void main(String[] args) {
+        receive();
+        other();
+    }
+
+    static void receive() {
+        A a = make();
+        a.foo();
+    }
+
+    static B make() {
+        A c = new C();
+        B b = new B();
+        return b;
+    }
+
+    static void other() {
+        A d = new D();
+        d.foo();
+    }
+}
+
+class A {
+    void foo() {
+    }
+}
+
+class B extends A {
+    void foo() {
+    }
+}
+
+class C extends A {
+    void foo() {
+    }
+}
+
+class D extends A {
+    void foo() {
+    }
+}
@@ -0,0 +1,24 @@
+class SlotReuse {
+
+    public static void main(String[] args) {
+        {
+            Object a = new SlotReuse();
+            PTAAssert.sizeEquals(1, a);
+        }
+        {
+            Object b = new Object();
+            PTAAssert.sizeEquals(1, b);
+        }
+        for (int i = 0; i < 2; ++i) {
+            Object c = new StringBuilder();
+            PTAAssert.sizeEquals(1, c);
+        }
+        try {
+            Object d = new Object[0];
+            PTAAssert.sizeEquals(1, d);
+        } catch (RuntimeException e) {
+            Object f = new SlotReuse[0];
+            PTAAssert.sizeEquals(1, f);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+public class Instantiated {
+
+    public static void main(String[] args) {
+        A a = new B();
+        a.foo();
+        other();
+    }
+
+    static void other() {
+        A c = new C();
+        c.foo();
+    }
+}
+
+class A {
+    void foo() {
+    }
+}
+
+class B extends A {
+    void foo() {
+    }
+}
+
+class C extends A {
+    void foo() {
+    }
+}
+
+class D extends A {
+    void foo() {
+    }
+}
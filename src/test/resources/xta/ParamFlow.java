@@ -0,0 +1,43 @@
+public class ParamFlow {
+
+    public static void main(String[] args) {
+        pass();
+        other();
+    }
+
+    static void pass() {
+        B b = new B();
+        A c = new C();
+        call(b);
+    }
+
+    static void call(B x) {
+        A a = x;
+        a.foo();
+    }
+
+    static void other() {
+        A d = new D();
+        d.foo();
+    }
+}
+
+class A {
+    void foo() {
+    }
+}
+
+class B extends A {
+    void foo() {
+    }
+}
+
+class C extends A {
+    void foo() {
+    }
+}
+
+class D extends A {
+    void foo() {
+    }
+}